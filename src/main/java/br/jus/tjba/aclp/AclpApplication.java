@@ -2,6 +2,7 @@ package br.jus.tjba.aclp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
@@ -10,6 +11,13 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 public class AclpApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(AclpApplication.class, args);
+        SpringApplication app = new SpringApplication(AclpApplication.class);
+        // Linha do tempo do boot (custo de cada bean), lida pelo StartupTimelineReporter.
+        // Opcional porque o buffer ocupa heap: ligar com ACLP_STARTUP_TIMELINE=true.
+        if (Boolean.parseBoolean(System.getProperty("aclp.startup.timeline",
+                System.getenv().getOrDefault("ACLP_STARTUP_TIMELINE", "false")))) {
+            app.setApplicationStartup(new BufferingApplicationStartup(4096));
+        }
+        app.run(args);
     }
-}
\ No newline at end of file
+}
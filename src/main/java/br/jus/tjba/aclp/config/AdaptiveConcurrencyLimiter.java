@@ -0,0 +1,149 @@
+package br.jus.tjba.aclp.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite de concorrência adaptativo (AIMD — additive increase, multiplicative decrease).
+ *
+ * Cada requisição concluída é uma amostra de latência:
+ *   - latência acima do alvo  → limite *= fatorReducao (recua rápido quando o banco/CPU satura)
+ *   - latência dentro do alvo → limite += 1, mas só se o limite atual estiver sendo usado
+ *     (pelo menos metade ocupada); sem isso o limite cresceria sem carga real.
+ *
+ * Prioridade: classes menos prioritárias só enxergam uma fração do limite, de modo que
+ * sobra folga para escritas autenticadas (registro de comparecimento) mesmo sob pico.
+ *
+ * Sem dependência de Spring para ser testável isoladamente.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Classe de prioridade da requisição. A fração define quanto do limite a classe pode ocupar.
+     */
+    public enum Prioridade {
+        /** Escrita autenticada (POST/PUT/DELETE com token) — usa o limite inteiro. */
+        CRITICA,
+        /** Leitura autenticada. */
+        NORMAL,
+        /** Rotas anônimas/públicas (login, verificação, setup, demo). */
+        BAIXA
+    }
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final long latenciaAlvoNanos;
+    private final double fatorReducao;
+    private final double fracaoNormal;
+    private final double fracaoBaixa;
+
+    private final AtomicInteger emVoo = new AtomicInteger();
+    private final AtomicLong aceitas = new AtomicLong();
+    private final AtomicLong[] rejeitadas = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+    private final AtomicLong amostrasLentas = new AtomicLong();
+
+    private volatile double limite;
+
+    public AdaptiveConcurrencyLimiter(int limiteInicial, int limiteMinimo, int limiteMaximo,
+                                      long latenciaAlvoMs, double fatorReducao,
+                                      double fracaoNormal, double fracaoBaixa) {
+        if (limiteMinimo < 1 || limiteMaximo < limiteMinimo) {
+            throw new IllegalArgumentException("Limites inválidos: min=" + limiteMinimo + ", max=" + limiteMaximo);
+        }
+        if (fatorReducao <= 0 || fatorReducao >= 1) {
+            throw new IllegalArgumentException("Fator de redução deve estar entre 0 e 1: " + fatorReducao);
+        }
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.latenciaAlvoNanos = TimeUnit.MILLISECONDS.toNanos(latenciaAlvoMs);
+        this.fatorReducao = fatorReducao;
+        this.fracaoNormal = fracaoNormal;
+        this.fracaoBaixa = fracaoBaixa;
+        this.limite = Math.max(limiteMinimo, Math.min(limiteMaximo, limiteInicial));
+    }
+
+    /**
+     * Tenta ocupar uma vaga. Retorna false (sem bloquear) quando a classe já atingiu sua fração do limite.
+     * Quem recebe true DEVE chamar {@link #liberar(long, boolean)} ao final.
+     */
+    public boolean tentarAdquirir(Prioridade prioridade) {
+        int teto = tetoPara(prioridade);
+        while (true) {
+            int atual = emVoo.get();
+            if (atual >= teto) {
+                rejeitadas[prioridade.ordinal()].incrementAndGet();
+                return false;
+            }
+            if (emVoo.compareAndSet(atual, atual + 1)) {
+                aceitas.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga e alimenta o algoritmo com a latência observada.
+     *
+     * @param latenciaNanos duração da requisição
+     * @param amostrar      false quando a latência não é representativa (ex.: requisição assíncrona)
+     */
+    public void liberar(long latenciaNanos, boolean amostrar) {
+        int ocupadas = emVoo.getAndDecrement();
+        if (amostrar) registrarAmostra(latenciaNanos, ocupadas);
+    }
+
+    private synchronized void registrarAmostra(long latenciaNanos, int ocupadas) {
+        if (latenciaNanos > latenciaAlvoNanos) {
+            amostrasLentas.incrementAndGet();
+            limite = Math.max(limiteMinimo, limite * fatorReducao);
+        } else if (ocupadas * 2 >= limite) {
+            limite = Math.min(limiteMaximo, limite + 1);
+        }
+    }
+
+    int tetoPara(Prioridade prioridade) {
+        double atual = limite;
+        double fracao = switch (prioridade) {
+            case CRITICA -> 1.0;
+            case NORMAL -> fracaoNormal;
+            case BAIXA -> fracaoBaixa;
+        };
+        // sempre pelo menos 1 vaga, senão uma classe poderia ficar bloqueada para sempre
+        return Math.max(1, (int) Math.floor(atual * fracao));
+    }
+
+    public int getLimiteAtual() {
+        return (int) Math.floor(limite);
+    }
+
+    public Snapshot snapshot() {
+        long criticas = rejeitadas[Prioridade.CRITICA.ordinal()].get();
+        long normais = rejeitadas[Prioridade.NORMAL.ordinal()].get();
+        long baixas = rejeitadas[Prioridade.BAIXA.ordinal()].get();
+        return Snapshot.builder()
+                .limiteAtual(getLimiteAtual()).limiteMinimo(limiteMinimo).limiteMaximo(limiteMaximo)
+                .emVoo(emVoo.get()).aceitas(aceitas.get())
+                .rejeitadasCriticas(criticas).rejeitadasNormais(normais).rejeitadasBaixas(baixas)
+                .totalRejeitadas(criticas + normais + baixas)
+                .amostrasLentas(amostrasLentas.get())
+                .latenciaAlvoMs(TimeUnit.NANOSECONDS.toMillis(latenciaAlvoNanos))
+                .build();
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class Snapshot {
+        private int limiteAtual;
+        private int limiteMinimo;
+        private int limiteMaximo;
+        private int emVoo;
+        private long aceitas;
+        private long rejeitadasCriticas;
+        private long rejeitadasNormais;
+        private long rejeitadasBaixas;
+        private long totalRejeitadas;
+        private long amostrasLentas;
+        private long latenciaAlvoMs;
+    }
+}
@@ -0,0 +1,181 @@
+package br.jus.tjba.aclp.config;
+
+import br.jus.tjba.aclp.exception.PasswordHashingOverloadedException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BCrypt fora das threads de requisição: encode/matches rodam num pool próprio com
+ * poucas threads e fila limitada. Uma rajada de logins ocupa no máximo essas threads
+ * (o resto da CPU continua atendendo a API); com a fila cheia a chamada é recusada na
+ * hora com PasswordHashingOverloadedException, e quem esperou demais desiste.
+ *
+ * O custo (log2 das rodadas) pode ser trocado em execução: vale para os próximos
+ * encode; matches lê o custo do próprio hash, então senhas antigas continuam válidas.
+ *
+ * Sem dependência de Spring para ser testável isoladamente.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    public static final int CUSTO_MINIMO = 4;
+    public static final int CUSTO_MAXIMO = 16;
+
+    private final ThreadPoolExecutor executor;
+    private final long esperaMaximaNanos;
+
+    private volatile BCryptPasswordEncoder bcrypt;
+    private volatile int custo;
+
+    private final AtomicLong hashes = new AtomicLong();
+    private final AtomicLong nanosHash = new AtomicLong();
+    private final AtomicLong nanosEspera = new AtomicLong();
+    private final AtomicLong rejeitadas = new AtomicLong();
+    private final AtomicLong expiradas = new AtomicLong();
+    /** Média móvel (EWMA, peso 0.2) da duração de um hash, em microssegundos. */
+    private volatile double mediaHashMicros;
+
+    public BoundedPasswordEncoder(int threads, int capacidadeFila, long esperaMaximaMs, int custo) {
+        if (threads < 1 || capacidadeFila < 1 || esperaMaximaMs < 1) {
+            throw new IllegalArgumentException("Parâmetros inválidos: threads=" + threads
+                    + ", fila=" + capacidadeFila + ", espera=" + esperaMaximaMs);
+        }
+        AtomicInteger sequencia = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila), r -> {
+            Thread t = new Thread(r, "hash-senha-" + sequencia.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        ajustarCusto(custo);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        BCryptPasswordEncoder atual = bcrypt;
+        return executar(() -> atual.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        BCryptPasswordEncoder atual = bcrypt;
+        return executar(() -> atual.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bcrypt.upgradeEncoding(encodedPassword); // só lê o prefixo do hash
+    }
+
+    private <T> T executar(Callable<T> hash) {
+        long enfileirada = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(() -> {
+                long inicio = System.nanoTime();
+                nanosEspera.addAndGet(inicio - enfileirada);
+                try {
+                    return hash.call();
+                } finally {
+                    registrarDuracao(System.nanoTime() - inicio);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejeitadas.incrementAndGet();
+            throw new PasswordHashingOverloadedException("Servidor sobrecarregado. Tente novamente em instantes.");
+        }
+
+        try {
+            return futuro.get(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            expiradas.incrementAndGet();
+            throw new PasswordHashingOverloadedException("Servidor sobrecarregado. Tente novamente em instantes.");
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingOverloadedException("Verificação de senha interrompida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Falha no hash de senha", e.getCause());
+        }
+    }
+
+    private void registrarDuracao(long nanos) {
+        hashes.incrementAndGet();
+        nanosHash.addAndGet(nanos);
+        double micros = nanos / 1_000.0;
+        double media = mediaHashMicros;
+        mediaHashMicros = media == 0 ? micros : media * 0.8 + micros * 0.2;
+    }
+
+    /** Fila cheia: a próxima chamada seria recusada. */
+    public boolean isSaturado() {
+        return executor.getQueue().remainingCapacity() == 0;
+    }
+
+    public synchronized void ajustarCusto(int novoCusto) {
+        if (novoCusto < CUSTO_MINIMO || novoCusto > CUSTO_MAXIMO) {
+            throw new IllegalArgumentException("Custo do BCrypt deve estar entre " + CUSTO_MINIMO + " e " + CUSTO_MAXIMO);
+        }
+        if (bcrypt != null && novoCusto == custo) return;
+        bcrypt = new BCryptPasswordEncoder(novoCusto);
+        custo = novoCusto;
+        mediaHashMicros = 0; // a média do custo anterior não vale mais
+    }
+
+    public int getCusto() {
+        return custo;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Snapshot snapshot() {
+        long total = hashes.get();
+        return Snapshot.builder()
+                .custo(custo)
+                .threads(executor.getMaximumPoolSize())
+                .emExecucao(executor.getActiveCount())
+                .naFila(executor.getQueue().size())
+                .capacidadeFila(executor.getQueue().size() + executor.getQueue().remainingCapacity())
+                .esperaMaximaMs(TimeUnit.NANOSECONDS.toMillis(esperaMaximaNanos))
+                .hashes(total)
+                .rejeitadas(rejeitadas.get())
+                .expiradas(expiradas.get())
+                .mediaHashMs(Math.round(mediaHashMicros) / 1000.0)
+                .mediaHashTotalMs(total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nanosHash.get() / total))
+                .mediaEsperaMs(total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nanosEspera.get() / total))
+                .build();
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class Snapshot {
+        private int custo;
+        private int threads;
+        private int emExecucao;
+        private int naFila;
+        private int capacidadeFila;
+        private long esperaMaximaMs;
+        private long hashes;
+        private long rejeitadas;
+        private long expiradas;
+        /** Duração recente de um hash no custo atual (média móvel). */
+        private double mediaHashMs;
+        private long mediaHashTotalMs;
+        private long mediaEsperaMs;
+    }
+}
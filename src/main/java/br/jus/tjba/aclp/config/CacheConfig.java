@@ -0,0 +1,44 @@
+package br.jus.tjba.aclp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache dos contadores de dashboard, consultados em polling por toda aba aberta.
+ *
+ * Um cache por domínio para que a invalidação (ContadoresCacheListener) limpe só o que
+ * o evento afeta — nas outras instâncias também, via DadosAlteradosRelay. O interceptor
+ * de cache roda por fora do @Transactional (order menor): acerto no cache não abre
+ * transação nem pega conexão do pool.
+ */
+@Slf4j
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String CONTADORES_PROCESSOS = "contadores-processos";
+    public static final String CONTADORES_STATUS = "contadores-status";
+    public static final String CONTADORES_COMPARECIMENTOS = "contadores-comparecimentos";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${aclp.cache.contadores.ttl-ms:15000}") long ttlMs,
+                                     CacheInvalidationBus cacheInvalidationBus) {
+        log.info("Cache de contadores: TTL {} ms", ttlMs);
+        LongSupplier ttl = () -> cacheInvalidationBus.ttl(ttlMs);
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(List.of(
+                new SingleFlightTtlCache(CONTADORES_PROCESSOS, ttl),
+                new SingleFlightTtlCache(CONTADORES_STATUS, ttl),
+                new SingleFlightTtlCache(CONTADORES_COMPARECIMENTOS, ttl)));
+        return manager;
+    }
+}
@@ -0,0 +1,132 @@
+package br.jus.tjba.aclp.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Barramento de invalidação dos caches locais (memória da JVM) entre instâncias.
+ *
+ * Cada cache se registra por nome com um aplicador; quem grava publica "tipo + ids"
+ * (tipo de entidade ou de alteração, ids vazios = todos daquele tipo) e todo nó aplica,
+ * inclusive o que publicou (remota = false). Tipo TUDO manda descartar tudo: entregue só
+ * neste nó quando ele pode ter perdido mensagens recebidas (invalidarTudoLocal), e aos
+ * outros quando invalidações que ele publicou podem não ter chegado (mensagemTudo).
+ *
+ * Enquanto o transporte não garante entrega (Redis fora), ttl() encurta o TTL dos caches
+ * para ttl-degradado-ms: sem invalidação, a defasagem fica limitada por ele.
+ * Implementações: LoopbackCacheInvalidationBus (uma instância, testes) e
+ * RedisCacheInvalidationBus.
+ */
+@Slf4j
+public abstract class CacheInvalidationBus {
+
+    public static final String TUDO = "*";
+
+    private static final char SEPARADOR = '\t';
+
+    public record Invalidacao(String tipo, List<String> ids, boolean remota) {
+
+        public boolean todos() {
+            return ids.isEmpty();
+        }
+    }
+
+    private final String origem = UUID.randomUUID().toString().substring(0, 8);
+    private final long ttlDegradadoMs;
+    private final Map<String, Consumer<Invalidacao>> caches = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> aplicadasPorCache = new ConcurrentHashMap<>();
+
+    private final LongAdder publicadas = new LongAdder();
+    private final LongAdder recebidas = new LongAdder();
+    private final LongAdder falhasAplicacao = new LongAdder();
+
+    protected CacheInvalidationBus(long ttlDegradadoMs) {
+        this.ttlDegradadoMs = ttlDegradadoMs;
+    }
+
+    public void registrar(String cache, Consumer<Invalidacao> aplicador) {
+        if (caches.putIfAbsent(cache, aplicador) != null) {
+            throw new IllegalStateException("Cache já registrado no barramento de invalidação: " + cache);
+        }
+        aplicadasPorCache.put(cache, new LongAdder());
+        log.debug("Cache '{}' registrado no barramento de invalidação", cache);
+    }
+
+    /** Invalida em todos os nós. Chamar depois do commit: antes, outro nó pode reler o valor antigo. */
+    public void publicar(String tipo, Collection<?> ids) {
+        List<String> texto = ids.stream().map(String::valueOf).toList();
+        entregar(new Invalidacao(tipo, texto, false));
+        publicadas.increment();
+        transmitir(origem + SEPARADOR + tipo + SEPARADOR + String.join(",", texto));
+    }
+
+    public void publicar(String tipo, Object... ids) {
+        publicar(tipo, Arrays.asList(ids));
+    }
+
+    /** Mensagem vinda do transporte; a própria (mesma origem) já foi aplicada em publicar. */
+    protected void receber(String mensagem) {
+        String[] partes = mensagem.split(String.valueOf(SEPARADOR), 3);
+        if (partes.length != 3 || origem.equals(partes[0])) return;
+        recebidas.increment();
+        List<String> ids = partes[2].isEmpty() ? List.of() : List.of(partes[2].split(","));
+        entregar(new Invalidacao(partes[1], ids, true));
+    }
+
+    /** Descarta tudo nos caches deste nó: mensagens podem ter se perdido. */
+    protected void invalidarTudoLocal() {
+        entregar(new Invalidacao(TUDO, List.of(), true));
+    }
+
+    /** Mensagem que faz os outros nós descartarem tudo; os caches deste já estão em dia. */
+    protected String mensagemTudo() {
+        return origem + SEPARADOR + TUDO + SEPARADOR;
+    }
+
+    private void entregar(Invalidacao invalidacao) {
+        caches.forEach((nome, aplicador) -> {
+            try {
+                aplicador.accept(invalidacao);
+                aplicadasPorCache.get(nome).increment();
+            } catch (RuntimeException e) {
+                falhasAplicacao.increment();
+                log.warn("Falha ao invalidar cache '{}' ({} {}): {}", nome, invalidacao.tipo(), invalidacao.ids(), e.getMessage());
+            }
+        });
+    }
+
+    /** Envia aos outros nós; não pode bloquear quem publica nem lançar exceção. */
+    protected abstract void transmitir(String mensagem);
+
+    /** true quando invalidações publicadas chegam aos outros nós. */
+    public abstract boolean isCoerente();
+
+    /** TTL a usar agora para um cache configurado com ttlMs (0 = sem expiração, mantido). */
+    public long ttl(long ttlMs) {
+        if (ttlMs <= 0 || isCoerente()) return ttlMs;
+        return Math.min(ttlMs, ttlDegradadoMs);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("transporte", getClass().getSimpleName());
+        s.put("coerente", isCoerente());
+        s.put("ttlDegradadoMs", ttlDegradadoMs);
+        s.put("publicadas", publicadas.sum());
+        s.put("recebidas", recebidas.sum());
+        s.put("falhasAplicacao", falhasAplicacao.sum());
+        Map<String, Long> porCache = new LinkedHashMap<>();
+        aplicadasPorCache.forEach((nome, n) -> porCache.put(nome, n.sum()));
+        s.put("aplicadasPorCache", porCache);
+        return s;
+    }
+}
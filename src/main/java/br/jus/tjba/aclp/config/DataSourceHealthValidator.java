@@ -4,6 +4,7 @@ import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
@@ -22,10 +23,12 @@ import java.sql.SQLException;
  * request timed out".
  *
  * Ativado apenas em prod/render onde o problema costuma aparecer.
+ * Desligado no perfil cds (treino do AppCDS, sem banco).
  */
 @Slf4j
 @Component
 @Profile({"prod", "render"})
+@ConditionalOnProperty(name = "aclp.startup.validar-banco", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 public class DataSourceHealthValidator {
 
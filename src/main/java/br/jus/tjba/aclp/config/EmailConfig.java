@@ -3,6 +3,7 @@ package br.jus.tjba.aclp.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
@@ -11,8 +12,12 @@ import java.util.Properties;
 /**
  * Configuração manual do JavaMailSender
  * Cria o bean manualmente quando a auto-configuração não funciona
+ *
+ * Lazy: e-mail só é usado em convites/verificação/recuperação de senha,
+ * então não precisa custar tempo no boot.
  */
 @Configuration
+@Lazy
 public class EmailConfig {
 
     @Value("${spring.mail.host:smtp.gmail.com}")
@@ -0,0 +1,47 @@
+package br.jus.tjba.aclp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registra o limitador adaptativo de concorrência à frente de toda a cadeia de filtros.
+ *
+ * Os valores padrão casam com o pool do Hikari: o limite inicial parte do tamanho do pool
+ * e o algoritmo ajusta a partir daí conforme a latência observada.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "aclp.concorrencia.enabled", havingValue = "true", matchIfMissing = true)
+public class LoadSheddingConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+            @Value("${aclp.concorrencia.limite-inicial:20}") int limiteInicial,
+            @Value("${aclp.concorrencia.limite-minimo:4}") int limiteMinimo,
+            @Value("${aclp.concorrencia.limite-maximo:100}") int limiteMaximo,
+            @Value("${aclp.concorrencia.latencia-alvo-ms:2000}") long latenciaAlvoMs,
+            @Value("${aclp.concorrencia.fator-reducao:0.9}") double fatorReducao,
+            @Value("${aclp.concorrencia.fracao-leitura:0.8}") double fracaoLeitura,
+            @Value("${aclp.concorrencia.fracao-publica:0.5}") double fracaoPublica) {
+
+        log.info("Limitador de concorrência: inicial={}, min={}, max={}, latência alvo={}ms",
+                limiteInicial, limiteMinimo, limiteMaximo, latenciaAlvoMs);
+        return new AdaptiveConcurrencyLimiter(limiteInicial, limiteMinimo, limiteMaximo,
+                latenciaAlvoMs, fatorReducao, fracaoLeitura, fracaoPublica);
+    }
+
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(AdaptiveConcurrencyLimiter limiter) {
+        FilterRegistrationBean<LoadSheddingFilter> registration =
+                new FilterRegistrationBean<>(new LoadSheddingFilter(limiter));
+        registration.addUrlPatterns("/*");
+        // antes do CorsFilter e do Spring Security (DEFAULT_FILTER_ORDER = -100)
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
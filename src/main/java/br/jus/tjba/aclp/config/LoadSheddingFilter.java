@@ -0,0 +1,132 @@
+package br.jus.tjba.aclp.config;
+
+import br.jus.tjba.aclp.config.AdaptiveConcurrencyLimiter.Prioridade;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Descarte antecipado de carga (503) quando o limite adaptativo de concorrência é atingido.
+ *
+ * Roda ANTES do Spring Security: rejeitar aqui custa quase nada, enquanto deixar a
+ * requisição seguir significaria validar JWT, buscar usuário e disputar o pool do Hikari
+ * só para estourar timeout depois. Por isso a classificação de prioridade usa apenas a
+ * presença do token (header ou cookie), sem validá-lo — é decisão de fila, não de segurança.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        Prioridade prioridade = classificar(request);
+
+        if (!limiter.tentarAdquirir(prioridade)) {
+            log.warn("Carga descartada ({}): {} {} - limite atual {}",
+                    prioridade, request.getMethod(), request.getRequestURI(), limiter.getLimiteAtual());
+            rejeitar(response);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        boolean amostrar = true;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            // erro de aplicação não é sinal de saturação: não alimenta o algoritmo
+            amostrar = false;
+            throw e;
+        } finally {
+            // requisição assíncrona libera a thread mas não terminou: latência não representa o servidor
+            if (request.isAsyncStarted()) amostrar = false;
+            limiter.liberar(System.nanoTime() - inicio, amostrar);
+        }
+    }
+
+    /**
+     * Health checks, OPTIONS de CORS e conexões de streaming nunca passam pelo limitador:
+     * o Render reinicia o container se o health falhar justamente durante um pico.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return "OPTIONS".equals(request.getMethod()) ||
+                path.startsWith("/actuator/health") ||
+                path.equals("/api/auth/health") ||
+                path.equals("/api/setup/health") ||
+                path.equals("/api/processos/contadores/stream"); // conexão longa: não ocupa vaga do limite
+    }
+
+    Prioridade classificar(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (isRotaPublica(path) || !temCredencial(request)) {
+            return Prioridade.BAIXA;
+        }
+        return isEscrita(request.getMethod()) ? Prioridade.CRITICA : Prioridade.NORMAL;
+    }
+
+    private boolean isEscrita(String method) {
+        return !("GET".equals(method) || "HEAD".equals(method));
+    }
+
+    /**
+     * Mesmas rotas anônimas liberadas no SecurityConfig/JwtAuthenticationFilter.
+     */
+    private boolean isRotaPublica(String path) {
+        return path.equals("/api/auth/login") ||
+                path.equals("/api/auth/refresh") ||
+                path.equals("/api/auth/forgot-password") ||
+                path.equals("/api/auth/reset-password") ||
+                path.equals("/api/auth/check-setup") ||
+                path.equals("/api/auth/validate") ||
+                path.startsWith("/api/usuarios/convites/validar/") ||
+                path.equals("/api/usuarios/convites/ativar") ||
+                path.startsWith("/api/setup/") ||
+                path.startsWith("/api/demo/") ||
+                path.startsWith("/api/verificacao/") ||
+                path.startsWith("/swagger-ui") ||
+                path.startsWith("/v3/api-docs");
+    }
+
+    private boolean temCredencial(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) return true;
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if ("auth-token".equals(cookie.getName())
+                        && cookie.getValue() != null && !cookie.getValue().isBlank()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void rejeitar(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", "1");
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("""
+                {
+                    "success": false,
+                    "message": "Servidor sobrecarregado. Tente novamente em instantes.",
+                    "code": "SERVICE_OVERLOADED"
+                }
+                """);
+    }
+}
@@ -0,0 +1,28 @@
+package br.jus.tjba.aclp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Barramento só em processo, ativado com aclp.redis.enabled=false (Render, uma
+ * instância): publicar aplica nos caches deste nó e não há outros a avisar, então os
+ * caches ficam sempre com o TTL normal. Também é o barramento dos testes.
+ */
+@Component
+@ConditionalOnProperty(name = "aclp.redis.enabled", havingValue = "false", matchIfMissing = false)
+public class LoopbackCacheInvalidationBus extends CacheInvalidationBus {
+
+    public LoopbackCacheInvalidationBus(@Value("${aclp.cache.bus.ttl-degradado-ms:5000}") long ttlDegradadoMs) {
+        super(ttlDegradadoMs);
+    }
+
+    @Override
+    protected void transmitir(String mensagem) {
+    }
+
+    @Override
+    public boolean isCoerente() {
+        return true;
+    }
+}
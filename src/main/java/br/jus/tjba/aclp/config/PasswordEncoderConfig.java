@@ -1,19 +1,34 @@
 package br.jus.tjba.aclp.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Configuração do PasswordEncoder
  * Deve estar disponível em todos os perfis
+ *
+ * BCrypt roda no pool limitado do BoundedPasswordEncoder. Padrão: metade dos núcleos,
+ * para que uma rajada de logins não tome a CPU do resto da API.
  */
 @Configuration
 public class PasswordEncoderConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Value("${aclp.senha.threads:0}")
+    private int threads;
+
+    @Value("${aclp.senha.fila:32}")
+    private int capacidadeFila;
+
+    @Value("${aclp.senha.espera-maxima-ms:5000}")
+    private long esperaMaximaMs;
+
+    @Value("${aclp.senha.custo:10}")
+    private int custo;
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(n, capacidadeFila, esperaMaximaMs, custo);
     }
-}
\ No newline at end of file
+}
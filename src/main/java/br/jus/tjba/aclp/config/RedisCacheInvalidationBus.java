@@ -0,0 +1,209 @@
+package br.jus.tjba.aclp.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Barramento sobre Redis pub/sub, canal aclp:cache:invalidacao.
+ *
+ * Publicação e aplicação das mensagens recebidas saem das threads da aplicação para uma
+ * thread cada, com fila limitada: Redis lento não segura o commit e rajada de mensagens
+ * não cria thread por mensagem. Fila cheia descarta e conta como mensagem perdida.
+ *
+ * verificar() (agendado) liga e religa o ouvinte — o container lança exceção no start
+ * sem Redis, por isso não é bean nem sobe com o contexto. Sem ouvinte ou com falha de
+ * publicação recente o barramento não é coerente e os caches usam o TTL degradado.
+ * isListening() não vê queda curta: o Lettuce reconecta e reassina sozinho, e o que foi
+ * publicado no intervalo não chega. Por isso toda (re)assinatura do canal conta como
+ * possível perda e descarta os caches locais — o filtro da blacklist é reconstruído.
+ *
+ * As perdas têm lados diferentes. Perder mensagens recebidas (fila do aplicador cheia,
+ * ou ouvinte fora no intervalo) deixa desatualizados os caches deste nó: descarta os
+ * locais. Perder publicações (fila do publicador cheia, ou Redis recusando) deixa
+ * desatualizados os dos outros nós — os locais já foram invalidados em publicar —: com o
+ * Redis de volta, publica TUDO para que eles descartem os seus.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "aclp.redis.enabled", havingValue = "true", matchIfMissing = true)
+public class RedisCacheInvalidationBus extends CacheInvalidationBus {
+
+    static final String CANAL = "aclp:cache:invalidacao";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer ouvinte = new RedisMessageListenerContainer();
+    private final ThreadPoolExecutor publicador;
+    private final ThreadPoolExecutor aplicador;
+    private final long verificacaoMs;
+
+    private final AtomicBoolean recebidasPerdidas = new AtomicBoolean();
+    private final AtomicBoolean publicacoesPerdidas = new AtomicBoolean();
+    private final LongAdder descartadasAplicacao = new LongAdder();
+    private final LongAdder descartadasPublicacao = new LongAdder();
+    private final LongAdder descartesTotaisPublicados = new LongAdder();
+    private final LongAdder assinaturas = new LongAdder();
+    private volatile long ultimaFalhaPublicacao;
+    private volatile boolean coerente;
+    private boolean verificado;
+
+    final OuvinteDoCanal canal = new OuvinteDoCanal();
+
+    public RedisCacheInvalidationBus(RedisConnectionFactory connectionFactory,
+                                     RedisTemplate<String, String> redisTemplate,
+                                     @Value("${aclp.cache.bus.ttl-degradado-ms:5000}") long ttlDegradadoMs,
+                                     @Value("${aclp.cache.bus.verificacao-ms:10000}") long verificacaoMs,
+                                     @Value("${aclp.cache.bus.fila:10000}") int fila) {
+        super(ttlDegradadoMs);
+        this.redisTemplate = redisTemplate;
+        this.verificacaoMs = verificacaoMs;
+        this.publicador = executor("cache-bus-publicador", fila, publicacoesPerdidas, descartadasPublicacao);
+        this.aplicador = executor("cache-bus-aplicador", fila, recebidasPerdidas, descartadasAplicacao);
+        ouvinte.setConnectionFactory(connectionFactory);
+        ouvinte.setTaskExecutor(aplicador);
+        ouvinte.setSubscriptionExecutor(new SimpleAsyncTaskExecutor("cache-bus-assinatura-"));
+        ouvinte.addMessageListener(canal, new ChannelTopic(CANAL));
+        ouvinte.afterPropertiesSet();
+    }
+
+    /** Mensagens e (re)assinaturas do canal; roda na thread do cliente Redis, não pode bloquear. */
+    final class OuvinteDoCanal implements MessageListener, SubscriptionListener {
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            receber(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            assinaturas.increment();
+            log.debug("Canal de invalidação (re)assinado: caches locais descartados");
+            // na fila do aplicador, atrás das mensagens já recebidas; fila cheia marca perda
+            aplicador.execute(RedisCacheInvalidationBus.this::invalidarTudoLocal);
+        }
+    }
+
+    private static ThreadPoolExecutor executor(String nome, int fila, AtomicBoolean perdidas, LongAdder descartadas) {
+        ThreadFactory threads = r -> {
+            Thread t = new Thread(r, nome);
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(fila), threads,
+                (r, executor) -> {
+                    descartadas.increment();
+                    perdidas.set(true);
+                });
+    }
+
+    @Override
+    protected void transmitir(String mensagem) {
+        publicador.execute(() -> {
+            try {
+                redisTemplate.convertAndSend(CANAL, mensagem);
+            } catch (RuntimeException e) {
+                ultimaFalhaPublicacao = System.currentTimeMillis();
+                publicacoesPerdidas.set(true);
+                log.debug("Invalidação não publicada no Redis: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public boolean isCoerente() {
+        return coerente;
+    }
+
+    @Scheduled(fixedDelayString = "${aclp.cache.bus.verificacao-ms:10000}", initialDelay = 0)
+    public void verificar() {
+        if (!ouvinte.isListening()) {
+            try {
+                if (ouvinte.isRunning()) ouvinte.stop();
+                ouvinte.start();
+            } catch (RuntimeException e) {
+                log.debug("Ouvinte do barramento de invalidação sem Redis: {}", e.getMessage());
+            }
+        }
+        if (ouvinte.isListening() && publicacoesPerdidas.get()) {
+            publicarDescarteTotal();
+        }
+        boolean agora = ouvinte.isListening()
+                && System.currentTimeMillis() - ultimaFalhaPublicacao > verificacaoMs;
+        boolean perdeu = recebidasPerdidas.getAndSet(false);
+
+        if (!verificado) {
+            // primeira verificação: o que está em cache foi lido agora, nada a descartar
+            verificado = true;
+            coerente = agora;
+            if (!agora) log.warn("Invalidação de caches via Redis indisponível: caches locais com TTL degradado");
+        } else if (agora != coerente) {
+            if (agora) {
+                log.info("Invalidação de caches via Redis ativa");
+            } else {
+                log.warn("Invalidação de caches via Redis indisponível: caches locais com TTL degradado");
+            }
+            coerente = agora;
+            invalidarTudoLocal();
+        } else if (perdeu) {
+            log.warn("Fila do barramento de invalidação cheia: caches locais descartados");
+            invalidarTudoLocal();
+        }
+    }
+
+    /**
+     * Direto, fora da fila do publicador (que pode ser justamente o que encheu): a marca
+     * só sai depois que o Redis aceitou, senão tenta de novo na próxima verificação.
+     */
+    private void publicarDescarteTotal() {
+        publicacoesPerdidas.set(false);
+        try {
+            redisTemplate.convertAndSend(CANAL, mensagemTudo());
+            descartesTotaisPublicados.increment();
+            log.warn("Invalidações deste nó não chegaram aos outros: pedido de descarte total publicado");
+        } catch (RuntimeException e) {
+            publicacoesPerdidas.set(true);
+            ultimaFalhaPublicacao = System.currentTimeMillis();
+            log.debug("Descarte total não publicado no Redis: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> snapshot() {
+        Map<String, Object> s = super.snapshot();
+        s.put("ouvinteConectado", ouvinte.isListening());
+        s.put("descartadasFilaAplicacao", descartadasAplicacao.sum());
+        s.put("descartadasFilaPublicacao", descartadasPublicacao.sum());
+        s.put("descartesTotaisPublicados", descartesTotaisPublicados.sum());
+        s.put("assinaturasDoCanal", assinaturas.sum());
+        s.put("filaPublicacao", publicador.getQueue().size());
+        s.put("filaAplicacao", aplicador.getQueue().size());
+        return s;
+    }
+
+    @PreDestroy
+    public void encerrar() throws Exception {
+        ouvinte.destroy();
+        publicador.shutdown();
+        aplicador.shutdown();
+    }
+}
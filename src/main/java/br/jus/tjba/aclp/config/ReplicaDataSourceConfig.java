@@ -0,0 +1,109 @@
+package br.jus.tjba.aclp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Réplica de leitura: com aclp.datasource.replica.enabled=true, transações readOnly
+ * (listagens, buscas, estatísticas, histórico, exportações) saem do pool do primário e
+ * usam um pool próprio na réplica — ver ReplicaRoutingDataSource.
+ *
+ * O pool do primário continua configurado por spring.datasource.*; o da réplica herda
+ * essa configuração e sobrescreve com aclp.datasource.replica.hikari.*. Desligado, nada
+ * aqui é criado e o DataSource do Spring Boot fica como sempre.
+ *
+ * Com a réplica, o cache L2 só é alimentado por transações de escrita (ReplicaJpaDialect).
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "aclp.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    @FlywayDataSource // migrações sempre no primário
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("aclp.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            HikariDataSource primarioDataSource,
+            @Value("${aclp.datasource.replica.url}") String url,
+            @Value("${aclp.datasource.replica.username:}") String username,
+            @Value("${aclp.datasource.replica.password:}") String password) {
+        HikariDataSource replica = new HikariDataSource();
+        primarioDataSource.copyStateTo(replica);
+        replica.setJdbcUrl(url);
+        if (!username.isBlank()) replica.setUsername(username);
+        if (!password.isBlank()) replica.setPassword(password);
+        replica.setPoolName("ACLP-ReplicaPool");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primarioDataSource,
+            HikariDataSource replicaDataSource,
+            @Value("${aclp.datasource.replica.lag-maximo-ms:5000}") long lagMaximoMs,
+            @Value("${aclp.datasource.replica.lag-validade-ms:30000}") long validadeMedicaoMs,
+            @Value("${aclp.datasource.replica.janela-leitura-propria-ms:10000}") long janelaLeituraPropriaMs) {
+        log.info("Réplica de leitura habilitada: pool {} (máx. {}), lag máximo {} ms",
+                replicaDataSource.getPoolName(), replicaDataSource.getMaximumPoolSize(), lagMaximoMs);
+        return new ReplicaRoutingDataSource(primarioDataSource, replicaDataSource,
+                lagMaximoMs, validadeMedicaoMs, janelaLeituraPropriaMs);
+    }
+
+    /**
+     * O DataSource que JPA e o resto da aplicação recebem. Os padrões de auto-commit e
+     * isolamento vão explícitos para o proxy não abrir conexão no boot só para descobri-los.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource, HikariDataSource primarioDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(replicaRoutingDataSource);
+        proxy.setDefaultAutoCommit(primarioDataSource.isAutoCommit());
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    /**
+     * O mesmo HibernateJpaVendorAdapter que o Spring Boot montaria a partir de
+     * spring.jpa.*, só com o JpaDialect trocado: transações readOnly não populam o cache
+     * L2 com o que leram da réplica — ver ReplicaJpaDialect.
+     */
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties jpaProperties) {
+        ReplicaJpaDialect dialeto = new ReplicaJpaDialect();
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return dialeto;
+            }
+        };
+        adapter.setShowSql(jpaProperties.isShowSql());
+        if (jpaProperties.getDatabase() != null) adapter.setDatabase(jpaProperties.getDatabase());
+        if (jpaProperties.getDatabasePlatform() != null) adapter.setDatabasePlatform(jpaProperties.getDatabasePlatform());
+        adapter.setGenerateDdl(jpaProperties.isGenerateDdl());
+        return adapter;
+    }
+}
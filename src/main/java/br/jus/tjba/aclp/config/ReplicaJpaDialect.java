@@ -0,0 +1,55 @@
+package br.jus.tjba.aclp.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Com a réplica ligada, transação readOnly lê do cache L2 mas não grava nele
+ * (CacheMode.GET). A leitura pode vir da réplica, atrasada em relação ao primário: uma
+ * entidade posta no L2 a partir dela — inclusive depois da invalidação da escrita que a
+ * réplica ainda não recebeu — seria servida a todas as transações, as de escrita também,
+ * até o TTL da região. O L2 passa a ser alimentado só pelas transações de escrita, que
+ * leem do primário.
+ *
+ * O store mode do JPA vai nas propriedades da sessão porque é delas que o find() tira o
+ * modo de cache a cada chamada — setCacheMode sozinho só valeria para as consultas.
+ */
+class ReplicaJpaDialect extends HibernateJpaDialect {
+
+    private record LeituraSemPopular(Object dados, Session session, Object storeModeAnterior) {
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object dados = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly()) return dados;
+        Session session = getSession(entityManager);
+        Object anterior = session.getProperties().get(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE);
+        session.setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        session.setCacheMode(CacheMode.GET);
+        return new LeituraSemPopular(dados, session, anterior);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof LeituraSemPopular leitura) {
+            // EntityManager compartilhado além da transação: devolve o modo anterior
+            if (leitura.session().isOpen()) {
+                leitura.session().setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE,
+                        leitura.storeModeAnterior() != null ? leitura.storeModeAnterior() : CacheStoreMode.USE);
+            }
+            super.cleanupTransaction(leitura.dados());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+}
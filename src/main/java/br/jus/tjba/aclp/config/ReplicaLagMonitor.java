@@ -0,0 +1,54 @@
+package br.jus.tjba.aclp.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Mede o atraso da réplica direto no pool dela. Réplica em dia (LSN recebido = aplicado)
+ * conta como lag 0 mesmo sem transação recente no primário; banco que não está em
+ * recovery (segunda instância independente, em teste local) também dá 0.
+ *
+ * Roda no pool de @Scheduled: se as threads ficarem todas presas em tarefas longas, a
+ * medição envelhece além de lag-validade-ms e as leituras voltam ao primário por segurança.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "aclp.datasource.replica.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private static final String SQL_LAG = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE((EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint, 0) END";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    private volatile boolean disponivel = true;
+
+    @Scheduled(fixedDelayString = "${aclp.datasource.replica.lag-intervalo-ms:5000}", initialDelay = 0)
+    public void medir() {
+        Long lag = null;
+        try (Connection conn = routingDataSource.getReplica().getConnection();
+             Statement st = conn.createStatement()) {
+            st.setQueryTimeout(2);
+            try (ResultSet rs = st.executeQuery(SQL_LAG)) {
+                if (rs.next()) lag = rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            if (disponivel) log.warn("Réplica de leitura indisponível, leituras no primário: {}", e.getMessage());
+        }
+        if (lag != null && !disponivel) log.info("Réplica de leitura voltou: lag {} ms", lag);
+        disponivel = lag != null;
+        routingDataSource.atualizarLag(lag);
+        routingDataSource.limparExpirados();
+    }
+}
@@ -0,0 +1,200 @@
+package br.jus.tjba.aclp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Envia transações readOnly para a réplica e o resto para o primário.
+ *
+ * Fica atrás de um LazyConnectionDataSourceProxy: a conexão física só é pedida no
+ * primeiro comando, quando a transação já marcou readOnly na thread. Sem a transação
+ * (Flyway, boot do Hibernate) a rota é sempre o primário.
+ *
+ * A réplica só é usada enquanto o atraso medido pelo ReplicaLagMonitor está dentro de
+ * lagMaximoMs e a medição é recente; fora disso, todas as leituras vão para o primário.
+ * Leitura das próprias escritas: depois que uma transação de escrita de um usuário
+ * autenticado faz commit, as leituras dele vão para o primário por janelaLeituraPropriaMs.
+ * A marcação é local à instância — com várias réplicas da API atrás de um balanceador
+ * sem afinidade, a janela precisa cobrir o lag máximo, que é o padrão.
+ *
+ * Leituras que alimentam cache compartilhado vão sempre para o primário (lerDoPrimario).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Rota { PRIMARIO, REPLICA }
+
+    /** Marca da thread posta por lerDoPrimario. */
+    private static final ThreadLocal<Boolean> LEITURA_NO_PRIMARIO = new ThreadLocal<>();
+
+    private final HikariDataSource primario;
+    private final HikariDataSource replica;
+    private final long lagMaximoMs;
+    private final long validadeMedicaoMs;
+    private final long janelaLeituraPropriaMs;
+    private final LongSupplier relogio;
+
+    /** Usuário → instante (ms) até o qual as leituras dele vão para o primário. */
+    private final ConcurrentHashMap<String, Long> leituraPropria = new ConcurrentHashMap<>();
+    /** -1 enquanto não há medição válida (réplica inacessível ou ainda não medida). */
+    private volatile long lagMs = -1;
+    private volatile long medidoEm;
+
+    private final LongAdder leiturasReplica = new LongAdder();
+    private final LongAdder leiturasPrimarioPorLag = new LongAdder();
+    private final LongAdder leiturasPrimarioPorEscritaPropria = new LongAdder();
+    private final LongAdder leiturasPrimarioFixadas = new LongAdder();
+    private final LongAdder conexoesLeituraEscrita = new LongAdder();
+
+    public ReplicaRoutingDataSource(HikariDataSource primario, HikariDataSource replica,
+                                    long lagMaximoMs, long validadeMedicaoMs, long janelaLeituraPropriaMs) {
+        this(primario, replica, lagMaximoMs, validadeMedicaoMs, janelaLeituraPropriaMs, System::currentTimeMillis);
+    }
+
+    ReplicaRoutingDataSource(HikariDataSource primario, HikariDataSource replica, long lagMaximoMs,
+                             long validadeMedicaoMs, long janelaLeituraPropriaMs, LongSupplier relogio) {
+        this.primario = primario;
+        this.replica = replica;
+        this.lagMaximoMs = lagMaximoMs;
+        this.validadeMedicaoMs = validadeMedicaoMs;
+        this.janelaLeituraPropriaMs = janelaLeituraPropriaMs;
+        this.relogio = relogio;
+        setTargetDataSources(Map.of(Rota.PRIMARIO, primario, Rota.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean somenteLeitura = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (somenteLeitura && LEITURA_NO_PRIMARIO.get() != null) {
+            leiturasPrimarioFixadas.increment();
+            return Rota.PRIMARIO;
+        }
+        String usuario = usuarioAtual();
+        Rota rota = rotear(somenteLeitura, usuario);
+        if (rota == Rota.PRIMARIO && !somenteLeitura && usuario != null
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registrarEscrita(usuario);
+                }
+            });
+        }
+        return rota;
+    }
+
+    Rota rotear(boolean somenteLeitura, String usuario) {
+        if (!somenteLeitura) {
+            conexoesLeituraEscrita.increment();
+            return Rota.PRIMARIO;
+        }
+        long agora = relogio.getAsLong();
+        if (usuario != null) {
+            Long ate = leituraPropria.get(usuario);
+            if (ate != null && ate > agora) {
+                leiturasPrimarioPorEscritaPropria.increment();
+                return Rota.PRIMARIO;
+            }
+        }
+        if (!replicaEmDia(agora)) {
+            leiturasPrimarioPorLag.increment();
+            return Rota.PRIMARIO;
+        }
+        leiturasReplica.increment();
+        return Rota.REPLICA;
+    }
+
+    /**
+     * Executa a leitura com as transações readOnly no primário, mesmo com a réplica em
+     * dia. Para as cargas de cache compartilhado: lido da réplica atrasada — logo depois
+     * da invalidação de uma escrita que ela ainda não recebeu — o valor de antes ficaria
+     * no cache até o TTL, servido a todos. Vale para a conexão pedida aqui dentro; a
+     * transação que já tinha conexão segue com ela.
+     */
+    public static <T> T lerDoPrimario(Callable<T> leitura) throws Exception {
+        if (LEITURA_NO_PRIMARIO.get() != null) return leitura.call();
+        LEITURA_NO_PRIMARIO.set(Boolean.TRUE);
+        try {
+            return leitura.call();
+        } finally {
+            LEITURA_NO_PRIMARIO.remove();
+        }
+    }
+
+    void registrarEscrita(String usuario) {
+        leituraPropria.put(usuario, relogio.getAsLong() + janelaLeituraPropriaMs);
+    }
+
+    /** Resultado do ReplicaLagMonitor; null = réplica não respondeu. */
+    public void atualizarLag(Long lagMs) {
+        this.lagMs = lagMs != null ? Math.max(0, lagMs) : -1;
+        this.medidoEm = relogio.getAsLong();
+    }
+
+    /** Remove marcações de leitura própria já vencidas. */
+    public void limparExpirados() {
+        long agora = relogio.getAsLong();
+        leituraPropria.values().removeIf(ate -> ate <= agora);
+    }
+
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    private boolean replicaEmDia(long agora) {
+        long lag = lagMs;
+        return lag >= 0 && lag <= lagMaximoMs && agora - medidoEm <= validadeMedicaoMs;
+    }
+
+    private static String usuarioAtual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) return null;
+        return auth.getName();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        long agora = relogio.getAsLong();
+        s.put("replicaEmUso", replicaEmDia(agora));
+        s.put("lagMs", lagMs >= 0 ? lagMs : null);
+        s.put("lagMaximoMs", lagMaximoMs);
+        s.put("medicaoHaMs", medidoEm > 0 ? agora - medidoEm : null);
+        s.put("leiturasReplica", leiturasReplica.sum());
+        s.put("leiturasPrimarioPorLag", leiturasPrimarioPorLag.sum());
+        s.put("leiturasPrimarioPorEscritaPropria", leiturasPrimarioPorEscritaPropria.sum());
+        s.put("leiturasPrimarioFixadas", leiturasPrimarioFixadas.sum());
+        s.put("conexoesLeituraEscrita", conexoesLeituraEscrita.sum());
+        s.put("usuariosLendoDoPrimario", leituraPropria.size());
+        s.put("pools", Map.of("primario", pool(primario), "replica", pool(replica)));
+        return s;
+    }
+
+    private static Map<String, Object> pool(HikariDataSource ds) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        p.put("nome", ds.getPoolName());
+        p.put("maximo", ds.getMaximumPoolSize());
+        HikariPoolMXBean mx = ds.getHikariPoolMXBean();
+        if (mx != null) { // null até a primeira conexão (initialization-fail-timeout=0)
+            p.put("ativas", mx.getActiveConnections());
+            p.put("ociosas", mx.getIdleConnections());
+            p.put("total", mx.getTotalConnections());
+            p.put("aguardando", mx.getThreadsAwaitingConnection());
+        }
+        return p;
+    }
+}
@@ -0,0 +1,76 @@
+package br.jus.tjba.aclp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache de segundo nível do Hibernate para dados de referência lidos a toda requisição:
+ * Usuario (filtro JWT, usuário atual, convites), SetupStatus, Processo por id e as
+ * listas de comarcas/departamentos.
+ *
+ * Cada região tem TTL e limite de entradas próprios (aclp.cache.l2.regioes.<nome>.*),
+ * e o TTL é o teto de desatualização quando a invalidação entre instâncias não chega.
+ * Cada commit que toca entidade em cache publica a invalidação no CacheInvalidationBus
+ * (ver SecondLevelCacheInvalidator).
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "aclp.cache.l2.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    public static final String REGIAO_USUARIO = "usuario";
+    public static final String REGIAO_USUARIO_POR_EMAIL = "usuario-por-email";
+    public static final String REGIAO_REFERENCIA = "referencia";
+    public static final String REGIAO_SETUP = "setup";
+    public static final String REGIAO_PROCESSO = "processo";
+
+    @Bean
+    public TtlRegionFactory ttlRegionFactory(Environment environment, CacheInvalidationBus cacheInvalidationBus) {
+        Map<String, TtlRegionFactory.Regiao> regioes = new HashMap<>();
+        regioes.put(REGIAO_USUARIO, new TtlRegionFactory.Regiao(300_000, 5_000));
+        regioes.put(REGIAO_USUARIO_POR_EMAIL, new TtlRegionFactory.Regiao(300_000, 5_000));
+        regioes.put(REGIAO_REFERENCIA, new TtlRegionFactory.Regiao(600_000, 100));
+        regioes.put(REGIAO_SETUP, new TtlRegionFactory.Regiao(3_600_000, 10));
+        regioes.put(REGIAO_PROCESSO, new TtlRegionFactory.Regiao(120_000, 20_000));
+        Binder.get(environment)
+                .bind("aclp.cache.l2.regioes", Bindable.mapOf(String.class, TtlRegionFactory.Regiao.class))
+                .ifBound(regioes::putAll);
+        TtlRegionFactory.Regiao padrao = Binder.get(environment)
+                .bind("aclp.cache.l2.padrao", TtlRegionFactory.Regiao.class)
+                .orElse(new TtlRegionFactory.Regiao(60_000, 1_000));
+
+        log.info("Cache L2 habilitado: regiões {}, padrão {}", regioes, padrao);
+        return new TtlRegionFactory(regioes, padrao, cacheInvalidationBus::ttl);
+    }
+
+    @Bean
+    public SecondLevelCacheInvalidator secondLevelCacheInvalidator(TtlRegionFactory ttlRegionFactory,
+                                                                   CacheInvalidationBus cacheInvalidationBus) {
+        return new SecondLevelCacheInvalidator(ttlRegionFactory, cacheInvalidationBus);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(TtlRegionFactory ttlRegionFactory,
+                                                                    SecondLevelCacheInvalidator secondLevelCacheInvalidator) {
+        IntegratorProvider integradores = () -> List.of(secondLevelCacheInvalidator);
+        return props -> {
+            props.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            props.put(AvailableSettings.USE_QUERY_CACHE, true);
+            props.put(AvailableSettings.CACHE_REGION_FACTORY, ttlRegionFactory);
+            props.put(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, "ENABLE_SELECTIVE");
+            props.put("hibernate.integrator_provider", integradores);
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package br.jus.tjba.aclp.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Mantém o cache de segundo nível coerente entre instâncias pelo CacheInvalidationBus.
+ *
+ * Depois do commit de insert/update/delete de uma entidade em cache, publica "entidade,
+ * id"; as outras instâncias tiram a entidade da região e marcam as tabelas dela como
+ * alteradas, o que invalida as consultas em cache que as leem. Alterações em massa
+ * (UPDATE/DELETE por query) não passam por aqui — ficam por conta do TTL da região.
+ */
+public class SecondLevelCacheInvalidator implements Integrator,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    static final String CACHE = "hibernate-l2";
+
+    private final TtlRegionFactory regionFactory;
+    private final CacheInvalidationBus bus;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    public SecondLevelCacheInvalidator(TtlRegionFactory regionFactory, CacheInvalidationBus bus) {
+        this.regionFactory = regionFactory;
+        this.bus = bus;
+        bus.registrar(CACHE, this::aplicar);
+    }
+
+    // =====================================================================
+    // Registro no Hibernate
+    // =====================================================================
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.sessionFactory = null;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publicar(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publicar(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publicar(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void publicar(EntityPersister persister, Object id) {
+        if (persister.canWriteToCache()) bus.publicar(persister.getEntityName(), id);
+    }
+
+    // =====================================================================
+    // Invalidações vindas do barramento
+    // =====================================================================
+
+    /** As locais (remota = false) o próprio Hibernate já aplicou no commit. */
+    void aplicar(CacheInvalidationBus.Invalidacao invalidacao) {
+        SessionFactoryImplementor sf = sessionFactory;
+        if (!invalidacao.remota() || sf == null) return;
+        if (CacheInvalidationBus.TUDO.equals(invalidacao.tipo())) {
+            sf.getCache().evictAllRegions();
+            return;
+        }
+
+        EntityPersister persister = sf.getMappingMetamodel().findEntityDescriptor(invalidacao.tipo());
+        if (persister == null || !persister.canWriteToCache()) return; // não é entidade em cache
+
+        if (invalidacao.todos()) {
+            sf.getCache().evictEntityData(persister.getEntityName());
+        } else {
+            for (String id : invalidacao.ids()) {
+                sf.getCache().evictEntityData(persister.getEntityName(),
+                        persister.getIdentifierMapping().getJavaType().fromString(id));
+            }
+        }
+        Serializable[] espacos = persister.getQuerySpaces();
+        regionFactory.invalidarTabelas(Arrays.stream(espacos).map(String::valueOf).toArray(String[]::new));
+    }
+}
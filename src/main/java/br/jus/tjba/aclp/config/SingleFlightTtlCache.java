@@ -0,0 +1,157 @@
+package br.jus.tjba.aclp.config;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache em memória com TTL curto e "single-flight": em @Cacheable(sync = true), várias
+ * requisições que erram a mesma chave ao mesmo tempo esperam uma única execução do
+ * método em vez de cada uma rodar as queries de contagem.
+ *
+ * Uma chave em cálculo fica no mapa como um futuro ainda não concluído; quem chega
+ * depois aguarda esse futuro. clear()/evict() durante o cálculo tiram a entrada do
+ * mapa: quem já esperava recebe o valor, mas ele não fica guardado para os próximos.
+ *
+ * O cálculo lê do primário mesmo com a réplica ligada (ReplicaRoutingDataSource
+ * .lerDoPrimario): a conexão só é escolhida no primeiro comando, já dentro do
+ * @Transactional do método.
+ */
+public class SingleFlightTtlCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final LongSupplier ttlMs;
+    private final LongSupplier relogio;
+    private final ConcurrentHashMap<Object, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder calculos = new LongAdder();
+    private final LongAdder aguardaram = new LongAdder();
+    private final LongAdder invalidacoes = new LongAdder();
+
+    public SingleFlightTtlCache(String name, long ttlMs) {
+        this(name, () -> ttlMs, System::currentTimeMillis);
+    }
+
+    /** ttlMs lido a cada gravação — CacheInvalidationBus::ttl encurta enquanto não há Redis. */
+    public SingleFlightTtlCache(String name, LongSupplier ttlMs) {
+        this(name, ttlMs, System::currentTimeMillis);
+    }
+
+    SingleFlightTtlCache(String name, long ttlMs, LongSupplier relogio) {
+        this(name, () -> ttlMs, relogio);
+    }
+
+    SingleFlightTtlCache(String name, LongSupplier ttlMs, LongSupplier relogio) {
+        super(true);
+        this.name = name;
+        this.ttlMs = ttlMs;
+        this.relogio = relogio;
+    }
+
+    private static final class Entrada {
+        final CompletableFuture<Object> valor;
+        /** Long.MAX_VALUE enquanto o cálculo não termina. */
+        volatile long expiraEm;
+
+        Entrada(CompletableFuture<Object> valor, long expiraEm) {
+            this.valor = valor;
+            this.expiraEm = expiraEm;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return entradas;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Entrada e = entradas.get(key);
+        if (e == null || !e.valor.isDone() || e.valor.isCompletedExceptionally()) return null;
+        if (relogio.getAsLong() >= e.expiraEm) {
+            entradas.remove(key, e);
+            return null;
+        }
+        acertos.increment();
+        return e.valor.join();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        while (true) {
+            Entrada atual = entradas.get(key);
+            if (atual != null && relogio.getAsLong() < atual.expiraEm) {
+                if (atual.valor.isDone()) acertos.increment(); else aguardaram.increment();
+                return (T) fromStoreValue(aguardar(key, valueLoader, atual));
+            }
+
+            Entrada nova = new Entrada(new CompletableFuture<>(), Long.MAX_VALUE);
+            boolean venceu = atual == null
+                    ? entradas.putIfAbsent(key, nova) == null
+                    : entradas.replace(key, atual, nova);
+            if (!venceu) continue; // outra thread começou o cálculo antes: volta e aguarda
+
+            calculos.increment();
+            try {
+                Object valor = toStoreValue(ReplicaRoutingDataSource.lerDoPrimario(valueLoader));
+                nova.expiraEm = relogio.getAsLong() + ttlMs.getAsLong();
+                nova.valor.complete(valor);
+                return (T) fromStoreValue(valor);
+            } catch (Throwable ex) {
+                entradas.remove(key, nova);
+                nova.valor.completeExceptionally(ex);
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+        }
+    }
+
+    private Object aguardar(Object key, Callable<?> valueLoader, Entrada entrada) {
+        try {
+            return entrada.valor.join();
+        } catch (CompletionException ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause() != null ? ex.getCause() : ex);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        entradas.put(key, new Entrada(CompletableFuture.completedFuture(toStoreValue(value)),
+                relogio.getAsLong() + ttlMs.getAsLong()));
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (entradas.remove(key) != null) invalidacoes.increment();
+    }
+
+    @Override
+    public void clear() {
+        entradas.clear();
+        invalidacoes.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ttlMs", ttlMs.getAsLong());
+        m.put("entradas", entradas.size());
+        m.put("acertos", acertos.sum());
+        m.put("calculos", calculos.sum());
+        m.put("aguardaramCalculo", aguardaram.sum());
+        m.put("invalidacoes", invalidacoes.sum());
+        return m;
+    }
+}
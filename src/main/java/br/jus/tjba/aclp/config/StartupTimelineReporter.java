@@ -0,0 +1,118 @@
+package br.jus.tjba.aclp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Relatório de startup: tempo até a aplicação ficar pronta e, quando a linha do tempo
+ * está habilitada (ACLP_STARTUP_TIMELINE=true), os beans que mais custaram no boot.
+ *
+ * O tempo por bean é inclusivo — um bean que injeta o EntityManagerFactory "carrega"
+ * o custo do Hibernate se for o primeiro a pedi-lo. Use junto com o tempo por etapa.
+ */
+@Slf4j
+@Component
+public class StartupTimelineReporter {
+
+    @Value("${aclp.startup.timeline.top:25}")
+    private int top;
+
+    private volatile StartupReport ultimoRelatorio;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void relatar(ApplicationReadyEvent event) {
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        long prontoEmMs = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+        log.info("Aplicação pronta: {} ms de contexto Spring, {} ms desde o início da JVM", prontoEmMs, uptimeMs);
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            ultimoRelatorio = StartupReport.builder()
+                    .jvmUptimeMs(uptimeMs).tempoAteProntoMs(prontoEmMs).timelineHabilitada(false).build();
+            return;
+        }
+
+        // drain: o relatório resumido fica, os milhares de eventos brutos são liberados
+        StartupTimeline timeline = buffering.drainBufferedTimeline();
+        ultimoRelatorio = montarRelatorio(timeline, uptimeMs, prontoEmMs);
+
+        log.info("Beans mais lentos no startup (top {}):", ultimoRelatorio.getBeansMaisLentos().size());
+        for (ItemTimeline item : ultimoRelatorio.getBeansMaisLentos()) {
+            log.info("  {} ms  {}", item.getDuracaoMs(), item.getNome());
+        }
+    }
+
+    private StartupReport montarRelatorio(StartupTimeline timeline, long uptimeMs, long prontoEmMs) {
+        List<ItemTimeline> beans = new ArrayList<>();
+        Map<String, Long> porEtapa = new TreeMap<>();
+
+        for (StartupTimeline.TimelineEvent evento : timeline.getEvents()) {
+            StartupStep passo = evento.getStartupStep();
+            long ms = evento.getDuration() != null ? evento.getDuration().toMillis() : 0;
+            porEtapa.merge(passo.getName(), ms, Long::sum);
+
+            if ("spring.beans.instantiate".equals(passo.getName())) {
+                String beanName = null;
+                for (StartupStep.Tag tag : passo.getTags()) {
+                    if ("beanName".equals(tag.getKey())) beanName = tag.getValue();
+                }
+                if (beanName != null) {
+                    beans.add(ItemTimeline.builder().nome(beanName).duracaoMs(ms).build());
+                }
+            }
+        }
+
+        beans.sort(Comparator.comparingLong(ItemTimeline::getDuracaoMs).reversed());
+
+        Map<String, Long> etapasOrdenadas = new LinkedHashMap<>();
+        porEtapa.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> etapasOrdenadas.put(e.getKey(), e.getValue()));
+
+        return StartupReport.builder()
+                .jvmUptimeMs(uptimeMs)
+                .tempoAteProntoMs(prontoEmMs)
+                .timelineHabilitada(true)
+                .totalBeansInstanciados(beans.size())
+                .beansMaisLentos(beans.subList(0, Math.min(top, beans.size())))
+                .duracaoPorEtapaMs(etapasOrdenadas)
+                .build();
+    }
+
+    public StartupReport getUltimoRelatorio() {
+        return ultimoRelatorio;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class StartupReport {
+        private long jvmUptimeMs;
+        private long tempoAteProntoMs;
+        private boolean timelineHabilitada;
+        private int totalBeansInstanciados;
+        private List<ItemTimeline> beansMaisLentos;
+        private Map<String, Long> duracaoPorEtapaMs;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class ItemTimeline {
+        private String nome;
+        private long duracaoMs;
+    }
+}
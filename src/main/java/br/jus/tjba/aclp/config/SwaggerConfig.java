@@ -10,12 +10,14 @@ import io.swagger.v3.oas.models.servers.Server;
 import io.swagger.v3.oas.models.tags.Tag;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 @Configuration
+@Lazy // só é montado quando /v3/api-docs é acessado (desligado em produção)
 public class SwaggerConfig {
 
     @Bean
@@ -0,0 +1,93 @@
+package br.jus.tjba.aclp.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * RegionFactory do cache de segundo nível do Hibernate sobre TtlStorageAccess, com TTL e
+ * limite de entradas por região (aclp.cache.l2.regioes.*); o TTL encurta enquanto o
+ * CacheInvalidationBus não garante entrega entre instâncias. É um bean do Spring passado
+ * como instância em hibernate.cache.region.factory_class — sem provedor JCache no
+ * classpath — para que o monitoramento e a invalidação entre instâncias o alcancem.
+ */
+public class TtlRegionFactory extends RegionFactoryTemplate {
+
+    public record Regiao(long ttlMs, int maxEntradas) {
+    }
+
+    private final Map<String, Regiao> regioes;
+    private final Regiao padrao;
+    private final LongUnaryOperator ajusteTtl;
+    private final Map<String, TtlStorageAccess> storages = new ConcurrentHashMap<>();
+    private volatile TtlStorageAccess timestamps;
+
+    public TtlRegionFactory(Map<String, Regiao> regioes, Regiao padrao, LongUnaryOperator ajusteTtl) {
+        this.regioes = Map.copyOf(regioes);
+        this.padrao = padrao;
+        this.ajusteTtl = ajusteTtl;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        storages.values().forEach(TtlStorageAccess::release);
+        storages.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                   DomainDataRegionBuildingContext buildingContext) {
+        return criar(regionConfig.getRegionName());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return criar(regionName);
+    }
+
+    /** Timestamps não podem sumir antes dos resultados de consulta que validam: sem TTL nem limite. */
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        TtlStorageAccess storage = new TtlStorageAccess(regionName, 0, Integer.MAX_VALUE, ajusteTtl);
+        storages.put(regionName, storage);
+        timestamps = storage;
+        return storage;
+    }
+
+    private TtlStorageAccess criar(String regionName) {
+        Regiao r = regioes.getOrDefault(regionName, padrao);
+        TtlStorageAccess storage = new TtlStorageAccess(regionName, r.ttlMs(), r.maxEntradas(), ajusteTtl);
+        storages.put(regionName, storage);
+        return storage;
+    }
+
+    /**
+     * Marca as tabelas como alteradas agora: consultas em cache que as leem deixam de valer.
+     * Usado quando a alteração aconteceu em outra instância.
+     */
+    void invalidarTabelas(String[] tabelas) {
+        TtlStorageAccess ts = timestamps;
+        if (ts == null) return;
+        long agora = nextTimestamp();
+        for (String tabela : tabelas) ts.putIntoCache(tabela, agora, null);
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> s = new TreeMap<>();
+        storages.forEach((nome, storage) -> s.put(nome, storage.snapshot()));
+        return s;
+    }
+}
@@ -0,0 +1,142 @@
+package br.jus.tjba.aclp.config;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Armazenamento de uma região do cache de segundo nível: mapa concorrente com TTL por
+ * entrada e limite de entradas.
+ *
+ * Leitura não trava nada (o caminho quente é o filtro JWT lendo o Usuario). Ao passar do
+ * limite, a inserção varre uma vez tirando os vencidos e, se ainda faltar espaço, remove
+ * entradas quaisquer até 90% do limite — custo só no estouro, nunca na leitura.
+ * ttlMs <= 0: sem expiração (região de timestamps, que não pode perder entradas).
+ */
+class TtlStorageAccess implements DomainDataStorageAccess {
+
+    private record Entrada(Object valor, long expiraEm) {
+    }
+
+    private final String regiao;
+    private final long ttlMs;
+    private final int maxEntradas;
+    private final LongUnaryOperator ajusteTtl;
+    private final LongSupplier relogio;
+    private final ConcurrentHashMap<Object, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder insercoes = new LongAdder();
+    private final LongAdder expiradas = new LongAdder();
+    private final LongAdder removidasPorLimite = new LongAdder();
+
+    TtlStorageAccess(String regiao, long ttlMs, int maxEntradas, LongUnaryOperator ajusteTtl) {
+        this(regiao, ttlMs, maxEntradas, ajusteTtl, System::currentTimeMillis);
+    }
+
+    TtlStorageAccess(String regiao, long ttlMs, int maxEntradas, LongSupplier relogio) {
+        this(regiao, ttlMs, maxEntradas, LongUnaryOperator.identity(), relogio);
+    }
+
+    /** ajusteTtl: TTL efetivo no momento da inserção (CacheInvalidationBus::ttl encurta sem Redis). */
+    TtlStorageAccess(String regiao, long ttlMs, int maxEntradas, LongUnaryOperator ajusteTtl, LongSupplier relogio) {
+        this.regiao = regiao;
+        this.ttlMs = ttlMs;
+        this.maxEntradas = Math.max(1, maxEntradas);
+        this.ajusteTtl = ajusteTtl;
+        this.relogio = relogio;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        Entrada e = entradas.get(key);
+        if (e == null) {
+            faltas.increment();
+            return null;
+        }
+        if (e.expiraEm() <= relogio.getAsLong()) {
+            if (entradas.remove(key, e)) expiradas.increment();
+            faltas.increment();
+            return null;
+        }
+        acertos.increment();
+        return e.valor();
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        long ttl = ttlMs > 0 ? ajusteTtl.applyAsLong(ttlMs) : 0;
+        long expiraEm = ttl > 0 ? relogio.getAsLong() + ttl : Long.MAX_VALUE;
+        if (entradas.put(key, new Entrada(value, expiraEm)) == null && entradas.size() > maxEntradas) {
+            abrirEspaco();
+        }
+        insercoes.increment();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        Entrada e = entradas.get(key);
+        return e != null && e.expiraEm() > relogio.getAsLong();
+    }
+
+    @Override
+    public void evictData() {
+        entradas.clear();
+    }
+
+    @Override
+    public void evictData(Object key) {
+        entradas.remove(key);
+    }
+
+    @Override
+    public void release() {
+        entradas.clear();
+    }
+
+    private void abrirEspaco() {
+        long agora = relogio.getAsLong();
+        for (Iterator<Entrada> it = entradas.values().iterator(); it.hasNext(); ) {
+            if (it.next().expiraEm() <= agora) {
+                it.remove();
+                expiradas.increment();
+            }
+        }
+        int alvo = maxEntradas * 9 / 10;
+        Iterator<Object> it = entradas.keySet().iterator();
+        while (entradas.size() > alvo && it.hasNext()) {
+            it.next();
+            it.remove();
+            removidasPorLimite.increment();
+        }
+    }
+
+    String getRegiao() {
+        return regiao;
+    }
+
+    Map<String, Object> snapshot() {
+        long a = acertos.sum();
+        long f = faltas.sum();
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("entradas", entradas.size());
+        s.put("maxEntradas", maxEntradas);
+        s.put("ttlMs", ttlMs > 0 ? ttlMs : null);
+        s.put("ttlEfetivoMs", ttlMs > 0 ? ajusteTtl.applyAsLong(ttlMs) : null);
+        s.put("acertos", a);
+        s.put("faltas", f);
+        s.put("taxaAcerto", a + f > 0 ? (double) a / (a + f) : null);
+        s.put("insercoes", insercoes.sum());
+        s.put("expiradas", expiradas.sum());
+        s.put("removidasPorLimite", removidasPorLimite.sum());
+        return s;
+    }
+}
@@ -0,0 +1,186 @@
+package br.jus.tjba.aclp.config;
+
+import br.jus.tjba.aclp.dto.ApiResponse;
+import br.jus.tjba.aclp.dto.AuthDTO;
+import br.jus.tjba.aclp.dto.ComparecimentoDTO;
+import br.jus.tjba.aclp.dto.ContadoresDashboardDTO;
+import br.jus.tjba.aclp.dto.CustodiadoDTO;
+import br.jus.tjba.aclp.dto.CustodiadoListDTO;
+import br.jus.tjba.aclp.dto.HistoricoComparecimentoResponseDTO;
+import br.jus.tjba.aclp.dto.ProcessoDTO;
+import br.jus.tjba.aclp.dto.ProcessoResponseDTO;
+import br.jus.tjba.aclp.security.JwtTokenProvider;
+import br.jus.tjba.aclp.service.ComparecimentoService;
+import br.jus.tjba.aclp.service.CustodiadoService;
+import br.jus.tjba.aclp.service.ProcessoService;
+import br.jus.tjba.aclp.service.StatusSchedulerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Aquecimento antes de liberar tráfego: executa as leituras mais comuns (listagens,
+ * contadores do dashboard, busca), um ciclo completo de JWT e a criação dos
+ * serializadores Jackson dos DTOs, para que o primeiro usuário após deploy/wake-up
+ * não pague plano de query do Hibernate, JIT frio e introspecção do Jackson.
+ *
+ * Roda síncrono no ApplicationReadyEvent: o Spring Boot só publica o readiness
+ * ACCEPTING_TRAFFIC depois que os listeners desse evento terminam, e o /api/auth/health
+ * responde 503 até lá. O orçamento (aclp.warmup.orcamento-ms) é um teto rígido —
+ * estourou, o passo em andamento é cancelado e a aplicação é liberada mesmo assim.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "aclp.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner {
+
+    private static final List<Class<?>> DTOS_RESPOSTA = List.of(
+            ApiResponse.class, CustodiadoListDTO.class, ProcessoResponseDTO.class,
+            ContadoresDashboardDTO.class, HistoricoComparecimentoResponseDTO.class,
+            ComparecimentoService.EstatisticasGerais.class, ComparecimentoService.ResumoSistema.class,
+            StatusSchedulerService.StatusInfo.class, AuthDTO.LoginResponseDTO.class);
+
+    private static final List<Class<?>> DTOS_REQUISICAO = List.of(
+            CustodiadoDTO.class, ProcessoDTO.class, ComparecimentoDTO.class, AuthDTO.LoginRequestDTO.class);
+
+    private final ProcessoService processoService;
+    private final CustodiadoService custodiadoService;
+    private final ComparecimentoService comparecimentoService;
+    private final StatusSchedulerService statusSchedulerService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    @Value("${aclp.warmup.orcamento-ms:20000}")
+    private long orcamentoMs;
+
+    @Value("${aclp.warmup.rodadas:3}")
+    private int rodadas;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        long inicio = System.nanoTime();
+        long prazo = inicio + TimeUnit.MILLISECONDS.toNanos(orcamentoMs);
+        Map<String, Long> tempos = new LinkedHashMap<>();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "warmup");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            executarPasso("jackson", this::prepararSerializadores, prazo, executor, tempos);
+
+            for (int rodada = 1; rodada <= rodadas; rodada++) {
+                for (Passo passo : passos()) {
+                    if (!executarPasso(passo.nome, passo.acao, prazo, executor, tempos)) {
+                        log.warn("Aquecimento interrompido pelo orçamento de {} ms (rodada {}, passo {})",
+                                orcamentoMs, rodada, passo.nome);
+                        return;
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            log.info("Aquecimento concluído em {} ms: {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), tempos);
+        }
+    }
+
+    private List<Passo> passos() {
+        List<Passo> passos = new ArrayList<>();
+        passos.add(new Passo("listagem-custodiados", () -> serializar(
+                custodiadoService.listarPaginado(0, 20, null, null, null, "nome", "asc").getContent())));
+        passos.add(new Passo("listagem-processos", () -> serializar(
+                processoService.listarComFiltros(null, null, 0, 20).getContent())));
+        passos.add(new Passo("contadores-dashboard", () -> {
+            // sem isto só a primeira rodada chegaria às queries: as demais seriam acerto de cache
+            cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+            serializar(processoService.contadoresParaDashboard());
+            serializar(statusSchedulerService.obterStatusInfo());
+            serializar(comparecimentoService.buscarEstatisticasGerais());
+        }));
+        passos.add(new Passo("busca", () -> {
+            custodiadoService.buscarPorNomeOuProcesso("aquecimento").size();
+            processoService.buscarPorNumeroProcesso("0000000-00.0000.0.00.0000");
+        }));
+        passos.add(new Passo("jwt", this::cicloJwt));
+        return passos;
+    }
+
+    /**
+     * writerFor/readerFor com EAGER_*_FETCH (padrão) já resolvem e guardam em cache
+     * os (de)serializadores raiz de cada tipo.
+     */
+    private void prepararSerializadores() {
+        DTOS_RESPOSTA.forEach(objectMapper::writerFor);
+        DTOS_REQUISICAO.forEach(objectMapper::readerFor);
+    }
+
+    private void cicloJwt() {
+        String token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(
+                "aquecimento@aclp.local", null, List.of(new SimpleGrantedAuthority("ROLE_USUARIO"))));
+        jwtTokenProvider.validateToken(token);
+        jwtTokenProvider.getClaims(token);
+    }
+
+    private void serializar(Object valor) {
+        try {
+            objectMapper.writeValueAsBytes(valor);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return false se o orçamento acabou (não há por que tentar os próximos passos)
+     */
+    private boolean executarPasso(String nome, Runnable acao, long prazo,
+                                  ExecutorService executor, Map<String, Long> tempos) {
+        long restante = prazo - System.nanoTime();
+        if (restante <= 0) return false;
+
+        long inicio = System.nanoTime();
+        Future<?> futuro = executor.submit(acao);
+        try {
+            futuro.get(restante, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            // Aquecimento nunca derruba o boot: base vazia ou dado inesperado só pula o passo
+            log.debug("Passo de aquecimento '{}' falhou: {}", nome, e.getMessage());
+        }
+        tempos.merge(nome, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), Long::sum);
+        return true;
+    }
+
+    @RequiredArgsConstructor
+    private static class Passo {
+        private final String nome;
+        private final Runnable acao;
+    }
+}
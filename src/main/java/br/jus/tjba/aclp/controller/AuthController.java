@@ -1,6 +1,7 @@
 package br.jus.tjba.aclp.controller;
 
 import br.jus.tjba.aclp.dto.AuthDTO.*;
+import br.jus.tjba.aclp.exception.PasswordHashingOverloadedException;
 import br.jus.tjba.aclp.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,6 +15,8 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -37,6 +40,7 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
+    private final ApplicationAvailability applicationAvailability;
 
     public static final String ACCESS_COOKIE = "auth-token";
     public static final String REFRESH_COOKIE = "refresh-token";
@@ -79,7 +83,8 @@ public class AuthController {
             @ApiResponse(responseCode = "200", description = "Login realizado com sucesso"),
             @ApiResponse(responseCode = "401", description = "Credenciais inválidas"),
             @ApiResponse(responseCode = "403", description = "Conta bloqueada ou desativada"),
-            @ApiResponse(responseCode = "429", description = "Muitas tentativas - tente novamente mais tarde")
+            @ApiResponse(responseCode = "429", description = "Muitas tentativas - tente novamente mais tarde"),
+            @ApiResponse(responseCode = "503", description = "Verificação de senha sobrecarregada - tente novamente em instantes")
     })
     public ResponseEntity<?> login(
             @Valid @RequestBody LoginRequestDTO request,
@@ -108,6 +113,9 @@ public class AuthController {
                             authCookie(REFRESH_COOKIE, response.getRefreshToken(), 604800L, "/api/auth").toString())
                     .body(response);
 
+        } catch (PasswordHashingOverloadedException e) {
+            return servicoSobrecarregado(e);
+
         } catch (Exception e) {
             // Mensagem constante: mensagens distintas por causa da falha (usuário inexistente
             // vs senha errada vs conta bloqueada) viram oráculo de enumeração de contas.
@@ -291,6 +299,9 @@ public class AuthController {
                     "message", "Senha alterada com sucesso! Faça login com a nova senha."
             ));
 
+        } catch (PasswordHashingOverloadedException e) {
+            return servicoSobrecarregado(e);
+
         } catch (Exception e) {
             log.error("Erro ao resetar senha: {}", e.getMessage());
 
@@ -345,6 +356,9 @@ public class AuthController {
                     "message", "Senha alterada com sucesso!"
             ));
 
+        } catch (PasswordHashingOverloadedException e) {
+            return servicoSobrecarregado(e);
+
         } catch (Exception e) {
             log.error("Erro ao alterar senha: {}", e.getMessage());
 
@@ -529,12 +543,21 @@ public class AuthController {
 
 
     /**
-     * Health check do módulo de autenticação
+     * Health check do módulo de autenticação.
+     * Responde 503 enquanto a aplicação ainda está aquecendo (readiness REFUSING_TRAFFIC),
+     * para o health check da plataforma não rotear tráfego antes da hora.
      */
     @GetMapping("/health")
     @Operation(summary = "Health check", description = "Verifica se o módulo está funcionando")
     @ApiResponse(responseCode = "200", description = "Módulo funcionando")
     public ResponseEntity<?> healthCheck() {
+        if (applicationAvailability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                    "status", "starting",
+                    "module", "authentication",
+                    "timestamp", System.currentTimeMillis()
+            ));
+        }
         return ResponseEntity.ok(Map.of(
                 "status", "healthy",
                 "module", "authentication",
@@ -578,6 +601,18 @@ public class AuthController {
         throw new IllegalArgumentException("Token não encontrado no header");
     }
 
+    /**
+     * Fila de hash de senha cheia: 503 com Retry-After, distinto de credencial inválida
+     */
+    private ResponseEntity<?> servicoSobrecarregado(PasswordHashingOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "success", false,
+                        "message", e.getMessage()
+                ));
+    }
+
     /**
      * Handler para erros de validação
      */
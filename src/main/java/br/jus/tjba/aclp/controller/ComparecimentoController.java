@@ -1,9 +1,15 @@
 package br.jus.tjba.aclp.controller;
 
+import br.jus.tjba.aclp.dto.CheckinDTO;
 import br.jus.tjba.aclp.dto.ComparecimentoDTO;
 import br.jus.tjba.aclp.dto.HistoricoComparecimentoResponseDTO;
+import br.jus.tjba.aclp.exception.EnderecoSobrepostoException;
+import br.jus.tjba.aclp.exception.JobEmExecucaoException;
+import br.jus.tjba.aclp.model.HistoricoEndereco;
 import br.jus.tjba.aclp.model.enums.TipoValidacao;
+import br.jus.tjba.aclp.service.CheckinService;
 import br.jus.tjba.aclp.service.ComparecimentoService;
+import br.jus.tjba.aclp.service.IndiceCheckin;
 import br.jus.tjba.aclp.service.StatusSchedulerService;
 import br.jus.tjba.aclp.util.ApiResponseUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,12 +18,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -33,6 +43,7 @@ public class ComparecimentoController {
 
     private final ComparecimentoService comparecimentoService;
     private final StatusSchedulerService statusSchedulerService;
+    private final CheckinService checkinService;
 
     @PostMapping("/registrar")
     @Operation(summary = "Registrar comparecimento")
@@ -40,12 +51,47 @@ public class ComparecimentoController {
         try {
             HistoricoComparecimentoResponseDTO historico = comparecimentoService.registrarComparecimento(dto);
             return ApiResponseUtil.created(historico, "Comparecimento registrado com sucesso");
+        } catch (EnderecoSobrepostoException e) {
+            return ApiResponseUtil.error(HttpStatus.CONFLICT, e.getMessage());
         } catch (Exception e) {
+            if (e instanceof DataIntegrityViolationException && violouPeriodoDeEndereco(e)) {
+                // duas mudanças de endereço simultâneas: a exclusion constraint barra a segunda
+                return ApiResponseUtil.error(HttpStatus.CONFLICT, "Endereço do custodiado alterado por outro registro ao mesmo tempo; tente novamente");
+            }
             log.error("Erro ao registrar comparecimento", e);
             return ApiResponseUtil.badRequest("Erro ao registrar comparecimento: " + e.getMessage());
         }
     }
 
+    @GetMapping("/checkin/identificar")
+    @Operation(summary = "Identificar custodiado no balcão",
+            description = "CPF, RG ou número do processo, com ou sem pontuação; consulta o índice em memória")
+    public ResponseEntity<Map<String, Object>> identificarCheckin(@RequestParam String documento) {
+        try {
+            List<IndiceCheckin.Registro> encontrados = checkinService.identificar(documento);
+            return ApiResponseUtil.success(encontrados, encontrados.size() + " custodiado(s) encontrado(s)");
+        } catch (IllegalArgumentException e) {
+            return ApiResponseUtil.badRequest(e.getMessage());
+        }
+    }
+
+    @PostMapping("/checkin")
+    @Operation(summary = "Identificar e registrar comparecimento",
+            description = "201 registrado; 409 com candidatos se o documento for ambíguo (reenviar com processoId); 404 se não encontrado")
+    public ResponseEntity<Map<String, Object>> checkin(@Valid @RequestBody CheckinDTO dto) {
+        try {
+            CheckinService.ResultadoCheckin resultado = checkinService.identificarERegistrar(dto);
+            return switch (resultado.getSituacao()) {
+                case REGISTRADO -> ApiResponseUtil.created(resultado, resultado.getMensagem());
+                case AMBIGUO -> ApiResponseUtil.errorWithData(HttpStatus.CONFLICT, resultado.getMensagem(), resultado);
+                case NAO_ENCONTRADO -> ApiResponseUtil.notFound(resultado.getMensagem());
+            };
+        } catch (Exception e) {
+            log.error("Erro no check-in", e);
+            return ApiResponseUtil.badRequest("Erro ao registrar comparecimento: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/custodiado/{custodiadoId}")
     @Operation(summary = "Buscar histórico de comparecimentos por custodiado")
     public ResponseEntity<Map<String, Object>> buscarHistoricoPorCustodiado(@PathVariable Long custodiadoId) {
@@ -186,7 +232,11 @@ public class ComparecimentoController {
             dados.put("executadoEm", LocalDateTime.now().toString());
             return ApiResponseUtil.success(dados, custodiadosMarcados == 0
                     ? "Nenhum custodiado marcado" : custodiadosMarcados + " marcados");
-        } catch (Exception e) { return ApiResponseUtil.internalServerError("Erro: " + e.getMessage()); }
+        } catch (JobEmExecucaoException e) { return ApiResponseUtil.error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (Exception e) {
+            log.error("Erro na verificação manual de inadimplentes", e);
+            return ApiResponseUtil.internalServerError("Erro: " + e.getMessage());
+        }
     }
 
     @GetMapping("/estatisticas")
@@ -227,4 +277,18 @@ public class ComparecimentoController {
             return ApiResponseUtil.success(comparecimentoService.migrarCadastrosIniciais(validadoPor), "Migração executada");
         } catch (Exception e) { return ApiResponseUtil.badRequest("Erro: " + e.getMessage()); }
     }
+
+    /**
+     * Exclusion constraint dos períodos de endereço: pelo nome quando o Hibernate o extrai,
+     * senão pelo SQLState 23P01 (exclusion_violation) — o extrator do dialeto PostgreSQL não
+     * reconhece esse código, e essa é a única exclusion constraint do esquema.
+     */
+    private static boolean violouPeriodoDeEndereco(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException cve
+                    && HistoricoEndereco.CONSTRAINT_PERIODO.equals(cve.getConstraintName())) return true;
+            if (t instanceof SQLException sql && "23P01".equals(sql.getSQLState())) return true;
+        }
+        return false;
+    }
 }
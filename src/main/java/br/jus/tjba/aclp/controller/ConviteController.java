@@ -2,6 +2,7 @@ package br.jus.tjba.aclp.controller;
 
 import br.jus.tjba.aclp.dto.ApiResponse;
 import br.jus.tjba.aclp.dto.ConviteDTO.*;
+import br.jus.tjba.aclp.exception.PasswordHashingOverloadedException;
 import br.jus.tjba.aclp.service.ConviteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -10,6 +11,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -86,6 +88,10 @@ public class ConviteController {
             log.warn("Erro ao ativar convite: {}", e.getMessage());
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error(e.getMessage()));
+        } catch (PasswordHashingOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Erro inesperado ao ativar convite", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -3,8 +3,10 @@ package br.jus.tjba.aclp.controller;
 import br.jus.tjba.aclp.dto.*;
 import br.jus.tjba.aclp.model.Custodiado;
 import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import br.jus.tjba.aclp.service.CheckinService;
 import br.jus.tjba.aclp.service.CustodiadoService;
 import br.jus.tjba.aclp.service.HistoricoEnderecoService;
+import br.jus.tjba.aclp.service.IndiceCheckin;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -36,6 +38,7 @@ public class CustodiadoController {
 
     private final CustodiadoService custodiadoService;
     private final HistoricoEnderecoService historicoEnderecoService;
+    private final CheckinService checkinService;
 
     @lombok.Data
     @lombok.Builder
@@ -293,6 +296,17 @@ public class CustodiadoController {
         }
     }
 
+    @GetMapping("/autocompletar")
+    @Operation(summary = "Autocompletar custodiado",
+            description = "Prefixo de palavras do nome (sem acento/maiúscula) ou do número do processo, sobre o índice em memória " +
+                    "de custodiados ativos. 'aproximado' tolera um erro de digitação por palavra (dois em palavras longas).")
+    public ResponseEntity<ApiResponse<List<IndiceCheckin.Registro>>> autocompletar(
+            @RequestParam String termo,
+            @RequestParam(defaultValue = "10") int limite,
+            @RequestParam(defaultValue = "false") boolean aproximado) {
+        return ResponseEntity.ok(ApiResponse.success("Sugestões", checkinService.autocompletar(termo, limite, aproximado)));
+    }
+
     @GetMapping("/{publicId}")
     public ResponseEntity<ApiResponse<CustodiadoResponseDTO>> findById(@PathVariable String publicId) {
         try {
@@ -9,6 +9,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,6 +27,7 @@ import java.util.Map;
 @RequestMapping("/api/demo")
 @RequiredArgsConstructor
 @Profile("demo")
+@Lazy
 @PreAuthorize("hasRole('ADMIN')")
 @Tag(name = "Demo", description = "Endpoints de demonstração (desenvolvimento)")
 @Slf4j
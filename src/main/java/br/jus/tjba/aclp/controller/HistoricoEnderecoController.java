@@ -2,7 +2,7 @@ package br.jus.tjba.aclp.controller;
 
 import br.jus.tjba.aclp.dto.ApiResponse;
 import br.jus.tjba.aclp.dto.HistoricoEnderecoDTO;
-import br.jus.tjba.aclp.model.Custodiado;
+import br.jus.tjba.aclp.repository.HistoricoEnderecoRepository.CustodiadoNoLocal;
 import br.jus.tjba.aclp.service.HistoricoEnderecoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,13 +10,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -130,16 +133,21 @@ public class HistoricoEnderecoController {
 
     @GetMapping("/cidade/{cidade}/pessoas")
     @Operation(summary = "Custodiados por cidade",
-            description = "Retorna pessoas que moram ou já moraram em uma cidade específica")
+            description = "Custodiados com endereço ativo na cidade, paginado; incluirHistorico=true traz quem já morou lá; data traz quem morava lá naquela data")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Custodiados retornadas com sucesso")
-    public ResponseEntity<ApiResponse<List<Custodiado>>> buscarCustodiadosPorCidade(
-            @Parameter(description = "Nome da cidade") @PathVariable String cidade) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> buscarCustodiadosPorCidade(
+            @Parameter(description = "Nome da cidade") @PathVariable String cidade,
+            @Parameter(description = "Incluir quem já morou na cidade") @RequestParam(defaultValue = "false") boolean incluirHistorico,
+            @Parameter(description = "Data de referência (opcional)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         log.info("Buscando pessoas por cidade: {}", cidade);
 
         try {
-            List<Custodiado> pessoas = historicoEnderecoService.buscarCustodiadosPorCidade(cidade);
+            Page<CustodiadoNoLocal> pessoas = historicoEnderecoService.buscarCustodiadosPorCidade(cidade, incluirHistorico, data, page, size);
             return ResponseEntity.ok(
-                    ApiResponse.success("Custodiados encontradas na cidade", pessoas)
+                    ApiResponse.success("Custodiados encontradas na cidade", paginado(pessoas))
             );
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(
@@ -150,16 +158,19 @@ public class HistoricoEnderecoController {
 
     @GetMapping("/estado/{estado}/pessoas")
     @Operation(summary = "Custodiados por estado",
-            description = "Retorna pessoas que moram ou já moraram em um estado específico")
+            description = "Custodiados com endereço ativo no estado, paginado; incluirHistorico=true traz quem já morou lá")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Custodiados retornadas com sucesso")
-    public ResponseEntity<ApiResponse<List<Custodiado>>> buscarCustodiadosPorEstado(
-            @Parameter(description = "Sigla do estado (ex: BA, SP)") @PathVariable String estado) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> buscarCustodiadosPorEstado(
+            @Parameter(description = "Sigla do estado (ex: BA, SP)") @PathVariable String estado,
+            @Parameter(description = "Incluir quem já morou no estado") @RequestParam(defaultValue = "false") boolean incluirHistorico,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         log.info("Buscando pessoas por estado: {}", estado);
 
         try {
-            List<Custodiado> pessoas = historicoEnderecoService.buscarCustodiadosPorEstado(estado);
+            Page<CustodiadoNoLocal> pessoas = historicoEnderecoService.buscarCustodiadosPorEstado(estado, incluirHistorico, page, size);
             return ResponseEntity.ok(
-                    ApiResponse.success("Custodiados encontradas no estado", pessoas)
+                    ApiResponse.success("Custodiados encontradas no estado", paginado(pessoas))
             );
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(
@@ -168,6 +179,27 @@ public class HistoricoEnderecoController {
         }
     }
 
+    @GetMapping("/contagem-por-local")
+    @Operation(summary = "Custodiados por estado e cidade",
+            description = "Total de custodiados com endereço ativo por estado e por cidade; estado opcional")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Contagem calculada com sucesso")
+    public ResponseEntity<ApiResponse<List<HistoricoEnderecoService.ContagemEstado>>> contarCustodiadosPorLocal(
+            @Parameter(description = "Sigla do estado (opcional)") @RequestParam(required = false) String estado) {
+        return ResponseEntity.ok(
+                ApiResponse.success("Contagem por local calculada com sucesso", historicoEnderecoService.contarCustodiadosPorLocal(estado))
+        );
+    }
+
+    private static Map<String, Object> paginado(Page<CustodiadoNoLocal> pagina) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("custodiados", pagina.getContent());
+        response.put("paginaAtual", pagina.getNumber());
+        response.put("totalPaginas", pagina.getTotalPages());
+        response.put("totalItens", pagina.getTotalElements());
+        response.put("itensPorPagina", pagina.getSize());
+        return response;
+    }
+
     @GetMapping("/mudancas/periodo")
     @Operation(summary = "Mudanças por período",
             description = "Retorna todas as mudanças de endereço registradas em um período")
@@ -0,0 +1,176 @@
+package br.jus.tjba.aclp.controller;
+
+import br.jus.tjba.aclp.config.AdaptiveConcurrencyLimiter;
+import br.jus.tjba.aclp.config.BoundedPasswordEncoder;
+import br.jus.tjba.aclp.config.CacheInvalidationBus;
+import br.jus.tjba.aclp.config.ReplicaRoutingDataSource;
+import br.jus.tjba.aclp.config.SingleFlightTtlCache;
+import br.jus.tjba.aclp.config.StartupTimelineReporter;
+import br.jus.tjba.aclp.config.TtlRegionFactory;
+import br.jus.tjba.aclp.model.ExecucaoLimpeza;
+import br.jus.tjba.aclp.scheduler.HousekeepingScheduler;
+import br.jus.tjba.aclp.security.BloomTokenBlacklistService;
+import br.jus.tjba.aclp.service.CheckinService;
+import br.jus.tjba.aclp.service.ContadoresAoVivoService;
+import br.jus.tjba.aclp.util.ApiResponseUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Métricas operacionais internas (sem actuator/micrometer no classpath).
+ * Protegido pela regra /api/admin/** do SecurityConfig (somente ADMIN).
+ */
+@RestController
+@RequestMapping("/api/admin/monitoramento")
+@RequiredArgsConstructor
+@Tag(name = "Monitoramento", description = "Métricas operacionais do servidor")
+public class MonitoramentoController {
+
+    private final ObjectProvider<AdaptiveConcurrencyLimiter> concurrencyLimiter;
+    private final StartupTimelineReporter startupTimelineReporter;
+    private final CacheManager cacheManager;
+    private final ContadoresAoVivoService contadoresAoVivoService;
+    private final CheckinService checkinService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final HousekeepingScheduler housekeepingScheduler;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRouting;
+    private final ObjectProvider<TtlRegionFactory> regionFactory;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final BloomTokenBlacklistService tokenBlacklistService;
+
+    @GetMapping("/concorrencia")
+    @Operation(summary = "Limite de concorrência",
+            description = "Limite adaptativo atual, requisições em andamento e contagem de rejeições (503) por prioridade")
+    public ResponseEntity<Map<String, Object>> concorrencia() {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiter.getIfAvailable();
+        if (limiter == null) {
+            return ApiResponseUtil.error(HttpStatus.NOT_FOUND, "Limitador de concorrência desabilitado");
+        }
+        return ApiResponseUtil.success(limiter.snapshot(), "Estado do limitador de concorrência");
+    }
+
+    @GetMapping("/startup")
+    @Operation(summary = "Tempo de startup",
+            description = "Tempo até a aplicação ficar pronta e beans mais lentos (com ACLP_STARTUP_TIMELINE=true)")
+    public ResponseEntity<Map<String, Object>> startup() {
+        StartupTimelineReporter.StartupReport relatorio = startupTimelineReporter.getUltimoRelatorio();
+        if (relatorio == null) {
+            return ApiResponseUtil.error(HttpStatus.SERVICE_UNAVAILABLE, "Aplicação ainda em inicialização");
+        }
+        return ApiResponseUtil.success(relatorio, "Relatório de startup");
+    }
+
+    @GetMapping("/cache")
+    @Operation(summary = "Cache de contadores",
+            description = "Por cache: entradas, acertos, cálculos, requisições que aguardaram um cálculo em andamento e invalidações")
+    public ResponseEntity<Map<String, Object>> cache() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+        for (String nome : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nome);
+            if (cache instanceof SingleFlightTtlCache c) caches.put(nome, c.snapshot());
+        }
+        return ApiResponseUtil.success(caches, "Estado do cache de contadores");
+    }
+
+    @GetMapping("/sse")
+    @Operation(summary = "Conexões SSE", description = "Assinantes dos contadores ao vivo, total e por tópico")
+    public ResponseEntity<Map<String, Object>> sse() {
+        return ApiResponseUtil.success(contadoresAoVivoService.snapshot(), "Conexões de contadores ao vivo");
+    }
+
+    @GetMapping("/checkin")
+    @Operation(summary = "Índice de check-in", description = "Se o índice em memória está carregado e quantos custodiados ativos contém")
+    public ResponseEntity<Map<String, Object>> checkin() {
+        return ApiResponseUtil.success(checkinService.estado(), "Estado do índice de check-in");
+    }
+
+    @GetMapping("/senha")
+    @Operation(summary = "Hash de senha",
+            description = "Custo do BCrypt, duração média de um hash, fila do pool de hash e recusas por sobrecarga")
+    public ResponseEntity<Map<String, Object>> senha() {
+        return ApiResponseUtil.success(passwordEncoder.snapshot(), "Estado do pool de hash de senha");
+    }
+
+    @PutMapping("/senha/custo")
+    @Operation(summary = "Ajustar custo do BCrypt",
+            description = "Vale para as próximas senhas gravadas; hashes existentes continuam válidos. Não persiste entre reinícios (aclp.senha.custo)")
+    public ResponseEntity<Map<String, Object>> ajustarCustoSenha(@RequestParam int custo) {
+        try {
+            passwordEncoder.ajustarCusto(custo);
+        } catch (IllegalArgumentException e) {
+            return ApiResponseUtil.error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ApiResponseUtil.success(passwordEncoder.snapshot(), "Custo do BCrypt ajustado para " + custo);
+    }
+
+    @GetMapping("/limpeza")
+    @Operation(summary = "Execuções de limpeza",
+            description = "Últimas execuções do housekeeping por tarefa: duração, linhas afetadas, lotes e se terminou no prazo")
+    public ResponseEntity<Map<String, Object>> limpeza() {
+        return ApiResponseUtil.success(housekeepingScheduler.ultimasExecucoes(), "Últimas execuções de limpeza");
+    }
+
+    @PostMapping("/limpeza")
+    @Operation(summary = "Executar limpeza", description = "Roda o housekeeping agora, sem esperar o agendamento")
+    public ResponseEntity<Map<String, Object>> executarLimpeza() {
+        List<ExecucaoLimpeza> execucoes = housekeepingScheduler.executar();
+        if (execucoes.isEmpty()) {
+            return ApiResponseUtil.error(HttpStatus.CONFLICT, "Limpeza já em andamento");
+        }
+        return ApiResponseUtil.success(execucoes, "Limpeza executada");
+    }
+
+    @GetMapping("/datasource")
+    @Operation(summary = "Réplica de leitura",
+            description = "Lag medido da réplica, leituras por destino e conexões dos pools do primário e da réplica")
+    public ResponseEntity<Map<String, Object>> datasource() {
+        ReplicaRoutingDataSource routing = replicaRouting.getIfAvailable();
+        if (routing == null) {
+            return ApiResponseUtil.error(HttpStatus.NOT_FOUND, "Réplica de leitura desabilitada");
+        }
+        return ApiResponseUtil.success(routing.snapshot(), "Roteamento entre primário e réplica");
+    }
+
+    @GetMapping("/cache/l2")
+    @Operation(summary = "Cache de segundo nível",
+            description = "Por região do Hibernate: entradas, TTL configurado e efetivo, acertos, faltas, taxa de acerto e remoções")
+    public ResponseEntity<Map<String, Object>> cacheL2() {
+        TtlRegionFactory factory = regionFactory.getIfAvailable();
+        if (factory == null) {
+            return ApiResponseUtil.error(HttpStatus.NOT_FOUND, "Cache de segundo nível desabilitado");
+        }
+        return ApiResponseUtil.success(factory.snapshot(), "Cache de segundo nível");
+    }
+
+    @GetMapping("/cache/invalidacao")
+    @Operation(summary = "Invalidação de caches entre instâncias",
+            description = "Transporte (Redis ou só local), se está coerente, TTL degradado, mensagens publicadas e " +
+                    "recebidas e invalidações aplicadas por cache registrado")
+    public ResponseEntity<Map<String, Object>> cacheInvalidacao() {
+        return ApiResponseUtil.success(cacheInvalidationBus.snapshot(), "Barramento de invalidação de caches");
+    }
+
+    @GetMapping("/token-blacklist")
+    @Operation(summary = "Filtro da blacklist de tokens",
+            description = "Filtro de Bloom na frente da blacklist: memória, hashes, inseridos, taxa de falso positivo " +
+                    "estimada e observada, consultas respondidas sem I/O e idas ao armazenamento")
+    public ResponseEntity<Map<String, Object>> tokenBlacklist() {
+        return ApiResponseUtil.success(tokenBlacklistService.snapshot(), "Filtro da blacklist de tokens");
+    }
+}
@@ -3,21 +3,27 @@ package br.jus.tjba.aclp.controller;
 import br.jus.tjba.aclp.dto.ApiResponse;
 import br.jus.tjba.aclp.dto.BatchProcessoRequest;
 import br.jus.tjba.aclp.dto.ContadoresDashboardDTO;
+import br.jus.tjba.aclp.dto.ContadoresPorLocalDTO;
 import br.jus.tjba.aclp.dto.ProcessoDTO;
 import br.jus.tjba.aclp.dto.ProcessoResumoDTO;
 import br.jus.tjba.aclp.dto.ProcessoResponseDTO;
+import br.jus.tjba.aclp.service.ContadoresAoVivoService;
+import br.jus.tjba.aclp.service.HistoricoStatusService;
 import br.jus.tjba.aclp.service.ProcessoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -31,6 +37,8 @@ import java.util.Map;
 public class ProcessoController {
 
     private final ProcessoService processoService;
+    private final HistoricoStatusService historicoStatusService;
+    private final ContadoresAoVivoService contadoresAoVivoService;
 
     @GetMapping
     public ResponseEntity<ApiResponse<Map<String, Object>>> listar(
@@ -58,11 +66,27 @@ public class ProcessoController {
         }
     }
 
+    @GetMapping("/{id}/historico-status")
+    @Operation(summary = "Histórico de status do processo",
+            description = "Transições de status/situação em ordem, com os dias em que o processo esteve inadimplente")
+    public ResponseEntity<ApiResponse<HistoricoStatusService.LinhaDoTempo>> historicoStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success("Histórico de status", historicoStatusService.linhaDoTempo(id)));
+    }
+
     @GetMapping("/custodiado/{custodiadoId}")
     public ResponseEntity<ApiResponse<List<ProcessoResponseDTO>>> buscarPorCustodiado(@PathVariable Long custodiadoId) {
         return ResponseEntity.ok(ApiResponse.success("Processos do custodiado", processoService.buscarPorCustodiado(custodiadoId)));
     }
 
+    @GetMapping("/custodiado/{custodiadoId}/inadimplencia")
+    @Operation(summary = "Tempo de inadimplência do custodiado",
+            description = "Dias inadimplente por processo e total, calculados pelo histórico de status")
+    public ResponseEntity<ApiResponse<HistoricoStatusService.InadimplenciaCustodiado>> inadimplenciaDoCustodiado(
+            @PathVariable Long custodiadoId) {
+        return ResponseEntity.ok(ApiResponse.success("Inadimplência do custodiado",
+                historicoStatusService.inadimplenciaDoCustodiado(custodiadoId)));
+    }
+
     @GetMapping("/numero/{numero}")
     public ResponseEntity<ApiResponse<ProcessoResponseDTO>> buscarPorNumero(@PathVariable String numero) {
         return processoService.buscarPorNumeroProcesso(numero)
@@ -85,6 +109,22 @@ public class ProcessoController {
         return ResponseEntity.ok(ApiResponse.success("Contadores", processoService.contadoresParaDashboard()));
     }
 
+    @GetMapping("/contadores/por-local")
+    @Operation(summary = "Contadores por comarca e vara",
+            description = "Total geral, por comarca e por vara numa única consulta; 'comarca' restringe a uma comarca")
+    public ResponseEntity<ApiResponse<ContadoresPorLocalDTO>> contadoresPorLocal(
+            @RequestParam(required = false) String comarca) {
+        return ResponseEntity.ok(ApiResponse.success("Contadores por local", processoService.contadoresPorLocal(comarca)));
+    }
+
+    @GetMapping(value = "/contadores/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Contadores ao vivo (SSE)",
+            description = "Evento 'contadores' com o valor atual e a cada alteração (no máximo um por segundo); 'comarca' restringe à comarca")
+    public SseEmitter contadoresAoVivo(@RequestParam(required = false) String comarca, HttpServletResponse response) {
+        response.setHeader("X-Accel-Buffering", "no"); // proxy reverso não deve segurar os eventos
+        return contadoresAoVivoService.assinar(comarca);
+    }
+
     /**
      * CORREÇÃO DE PERFORMANCE: Busca em lote de processos.
      *
@@ -1,5 +1,12 @@
 package br.jus.tjba.aclp.controller;
 
+import br.jus.tjba.aclp.exception.JobEmExecucaoException;
+import br.jus.tjba.aclp.model.JobExecucao;
+import br.jus.tjba.aclp.model.JobShard;
+import br.jus.tjba.aclp.model.enums.StatusExecucaoJob;
+import br.jus.tjba.aclp.service.CoordenacaoJobsService;
+import br.jus.tjba.aclp.service.HistoricoStatusService;
+import br.jus.tjba.aclp.service.ResumoDiarioService;
 import br.jus.tjba.aclp.service.StatusSchedulerService;
 import br.jus.tjba.aclp.util.ApiResponseUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -7,13 +14,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/status")
@@ -23,6 +35,9 @@ import java.util.Map;
 public class StatusController {
 
     private final StatusSchedulerService statusSchedulerService;
+    private final ResumoDiarioService resumoDiarioService;
+    private final HistoricoStatusService historicoStatusService;
+    private final CoordenacaoJobsService coordenacaoJobsService;
 
     @PostMapping("/verificar-inadimplentes")
     @PreAuthorize("hasRole('ADMIN')") // operação em massa: só administrador
@@ -46,6 +61,8 @@ public class StatusController {
 
             return ApiResponseUtil.success(dados, mensagem);
 
+        } catch (JobEmExecucaoException e) {
+            return ApiResponseUtil.error(HttpStatus.CONFLICT, e.getMessage());
         } catch (Exception e) {
             log.error("Erro na verificação manual de inadimplentes", e);
             return ApiResponseUtil.internalServerError("Erro ao verificar inadimplentes: " + e.getMessage());
@@ -55,20 +72,31 @@ public class StatusController {
     @PostMapping("/reprocessar-todos")
     @PreAuthorize("hasRole('ADMIN')") // reescreve status de toda a base: só administrador
     @Operation(summary = "Reprocessar todos os status",
-            description = "Recalcula o status de TODAS as pessoas baseado na data atual")
+            description = "Recalcula o status de TODAS as pessoas baseado na data atual, em faixas de id " +
+                    "processadas por todas as instâncias. Se outras instâncias ainda estiverem com faixas, " +
+                    "a execução volta EM_EXECUCAO — acompanhar por GET /api/status/jobs/{id}/progresso")
     @ApiResponse(responseCode = "200", description = "Reprocessamento executado com sucesso")
+    @ApiResponse(responseCode = "409", description = "Reprocessamento já sendo iniciado em outra instância")
     public ResponseEntity<Map<String, Object>> reprocessarTodos() {
         log.info("Executando reprocessamento completo de status");
 
         try {
-            long inadimplentes = statusSchedulerService.reprocessarTodosStatus();
+            Optional<JobExecucao> execucao = statusSchedulerService.reprocessarTodosStatus();
+            if (execucao.isEmpty()) {
+                return ApiResponseUtil.error(HttpStatus.CONFLICT, "Reprocessamento já em andamento");
+            }
 
             Map<String, Object> dados = new HashMap<>();
-            dados.put("inadimplentesEncontrados", inadimplentes);
+            dados.put("execucaoId", execucao.get().getId());
+            dados.put("status", execucao.get().getStatus());
+            dados.put("faixas", execucao.get().getShards());
+            dados.put("inadimplentesEncontrados", execucao.get().getItens());
             dados.put("executadoEm", LocalDateTime.now().toString());
             dados.put("tipo", "reprocessamento_completo");
 
-            return ApiResponseUtil.success(dados, "Reprocessamento completo executado com sucesso");
+            return ApiResponseUtil.success(dados, execucao.get().getStatus() == StatusExecucaoJob.EM_EXECUCAO
+                    ? "Reprocessamento em andamento em outras instâncias"
+                    : "Reprocessamento completo executado com sucesso");
 
         } catch (Exception e) {
             log.error("Erro no reprocessamento de status", e);
@@ -76,6 +104,70 @@ public class StatusController {
         }
     }
 
+    @GetMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Histórico dos jobs agendados",
+            description = "Últimas execuções dos jobs coordenados entre instâncias, com a instância que executou")
+    public ResponseEntity<Map<String, Object>> historicoJobs(
+            @RequestParam(required = false) String job,
+            @RequestParam(defaultValue = "20") int limite) {
+        return ApiResponseUtil.success(coordenacaoJobsService.ultimasExecucoes(job, limite),
+                "Histórico de jobs");
+    }
+
+    @GetMapping("/jobs/{id}/progresso")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Progresso de uma execução fracionada",
+            description = "Faixas por status, itens já contados e percentual concluído")
+    public ResponseEntity<Map<String, Object>> progressoJob(@PathVariable Long id) {
+        return coordenacaoJobsService.progresso(id)
+                .map(p -> ApiResponseUtil.success(p, String.format("%.1f%% concluído", p.getPercentual())))
+                .orElseGet(() -> ApiResponseUtil.notFound("Execução não encontrada: " + id));
+    }
+
+    @GetMapping("/jobs/{id}/faixas")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Faixas de uma execução fracionada",
+            description = "Faixas de id com status, instância, tentativas e itens de cada uma")
+    public ResponseEntity<Map<String, Object>> faixasJob(@PathVariable Long id) {
+        List<JobShard> faixas = coordenacaoJobsService.faixas(id);
+        if (faixas.isEmpty()) {
+            return ApiResponseUtil.notFound("Execução sem faixas: " + id);
+        }
+        return ApiResponseUtil.success(faixas, faixas.size() + " faixa(s)");
+    }
+
+    @PostMapping("/resumo-diario/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')") // reescreve o agregado do período inteiro: só administrador
+    @Operation(summary = "Reconstruir resumo diário",
+            description = "Recalcula o resumo diário de comparecimentos a partir do histórico no período informado")
+    @ApiResponse(responseCode = "200", description = "Resumo reconstruído")
+    public ResponseEntity<Map<String, Object>> reconstruirResumoDiario(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        LocalDate ate = fim != null ? fim : LocalDate.now();
+        if (inicio.isAfter(ate)) {
+            return ApiResponseUtil.badRequest("Início posterior ao fim");
+        }
+        log.info("Reconstruindo resumo diário de {} a {}", inicio, ate);
+
+        try {
+            int linhas = resumoDiarioService.reconstruir(inicio, ate);
+            resumoDiarioService.atualizarSituacaoDoDia(LocalDate.now());
+
+            Map<String, Object> dados = new HashMap<>();
+            dados.put("inicio", inicio.toString());
+            dados.put("fim", ate.toString());
+            dados.put("linhasGravadas", linhas);
+            dados.put("executadoEm", LocalDateTime.now().toString());
+
+            return ApiResponseUtil.success(dados, "Resumo diário reconstruído");
+        } catch (Exception e) {
+            log.error("Erro ao reconstruir resumo diário", e);
+            return ApiResponseUtil.internalServerError("Erro ao reconstruir resumo diário: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/estatisticas")
     @Operation(summary = "Estatísticas de status das pessoas",
             description = "Retorna informações sobre quantas pessoas estão em conformidade ou inadimplentes")
@@ -90,6 +182,20 @@ public class StatusController {
         }
     }
 
+    @GetMapping("/situacao-em")
+    @Operation(summary = "Situação dos processos numa data",
+            description = "Quantos processos estavam ativos, em conformidade e inadimplentes na data informada, pelo histórico de status")
+    @ApiResponse(responseCode = "200", description = "Situação retornada com sucesso")
+    public ResponseEntity<Map<String, Object>> situacaoEm(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        try {
+            return ApiResponseUtil.success(historicoStatusService.situacaoEm(data), "Situação em " + data);
+        } catch (Exception e) {
+            log.error("Erro ao obter situação em {}", data, e);
+            return ApiResponseUtil.internalServerError("Erro ao obter situação: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/info")
     @Operation(summary = "Informações sobre o sistema de status",
             description = "Retorna informações sobre como funciona a atualização automática")
@@ -98,6 +204,7 @@ public class StatusController {
         Map<String, Object> agendamentos = new HashMap<>();
         agendamentos.put("verificacao_diaria", "01:00 todos os dias");
         agendamentos.put("verificacao_periodica", "A cada 6 horas (00:00, 06:00, 12:00, 18:00)");
+        agendamentos.put("reconstrucao_resumo_diario", "01:30 todos os dias (janela recente)");
 
         Map<String, Object> criterios = new HashMap<>();
         criterios.put("EM_CONFORMIDADE", "próximo_comparecimento >= data_atual");
@@ -107,6 +214,9 @@ public class StatusController {
         endpoints.put("verificar", "POST /api/status/verificar-inadimplentes");
         endpoints.put("reprocessar", "POST /api/status/reprocessar-todos");
         endpoints.put("estatisticas", "GET /api/status/estatisticas");
+        endpoints.put("situacao_em", "GET /api/status/situacao-em?data=AAAA-MM-DD");
+        endpoints.put("reconstruir_resumo", "POST /api/status/resumo-diario/reconstruir?inicio=AAAA-MM-DD");
+        endpoints.put("jobs", "GET /api/status/jobs?job=&limite=20");
 
         Map<String, Object> info = new HashMap<>();
         info.put("descricao", "Sistema de atualização automática de status");
@@ -0,0 +1,54 @@
+package br.jus.tjba.aclp.dto;
+
+import br.jus.tjba.aclp.model.enums.TipoValidacao;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Check-in de balcão: identifica o custodiado pelo documento digitado e registra o
+ * comparecimento na mesma chamada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckinDTO {
+
+    @NotBlank(message = "Documento é obrigatório")
+    @Size(max = 30)
+    @Schema(description = "CPF, RG ou número do processo, com ou sem pontuação", example = "123.456.789-09", required = true)
+    private String documento;
+
+    @Schema(description = "Processo a registrar quando o custodiado tem mais de um ativo", example = "1")
+    private Long processoId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    @Schema(description = "Data do comparecimento (padrão: hoje)", example = "2025-10-27")
+    private LocalDate dataComparecimento;
+
+    @JsonFormat(pattern = "HH:mm:ss")
+    @Schema(description = "Hora do comparecimento (padrão: agora)", example = "14:30:00")
+    private LocalTime horaComparecimento;
+
+    @Builder.Default
+    @Schema(description = "Tipo de validação", example = "presencial", allowableValues = {"presencial", "online"})
+    private TipoValidacao tipoValidacao = TipoValidacao.PRESENCIAL;
+
+    @NotBlank(message = "Validado por é obrigatório")
+    @Size(max = 100)
+    @Schema(description = "Nome do responsável pela validação", example = "Maria Santos - Servidora TJBA", required = true)
+    private String validadoPor;
+
+    @Size(max = 500, message = "Observações deve ter no máximo 500 caracteres")
+    @Schema(description = "Observações sobre o comparecimento")
+    private String observacoes;
+}
@@ -0,0 +1,64 @@
+package br.jus.tjba.aclp.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contadores do dashboard com recorte por comarca e por vara (visão de supervisão).
+ * Os números de cada nível vêm do mesmo GROUPING SETS — total = soma das comarcas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContadoresPorLocalDTO {
+
+    private Contadores total;
+
+    @Builder.Default
+    private List<Comarca> comarcas = new ArrayList<>();
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate dataConsulta;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Contadores {
+        private long ativos;
+        private long emConformidade;
+        private long inadimplentes;
+        private long comparecimentosHoje;
+        private long encerrados;
+        private long suspensos;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Comarca {
+        private String comarca;
+        private Contadores contadores;
+
+        @Builder.Default
+        private List<Vara> varas = new ArrayList<>();
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Vara {
+        private String vara;
+        private Contadores contadores;
+    }
+}
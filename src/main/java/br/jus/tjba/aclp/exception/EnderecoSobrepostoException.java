@@ -0,0 +1,14 @@
+package br.jus.tjba.aclp.exception;
+
+/**
+ * Exceção para mudança de endereço retroativa que cairia sobre períodos já registrados
+ * depois da data informada; vira 409 em vez de reescrever o histórico seguinte
+ */
+public class EnderecoSobrepostoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EnderecoSobrepostoException(String message) {
+        super(message);
+    }
+}
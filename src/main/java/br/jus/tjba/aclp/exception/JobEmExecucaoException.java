@@ -0,0 +1,14 @@
+package br.jus.tjba.aclp.exception;
+
+/**
+ * Exceção para disparo manual de job cujo lease está com outra execução, nesta ou em
+ * outra instância; vira 409 — nada foi feito, o administrador pode tentar de novo
+ */
+public class JobEmExecucaoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public JobEmExecucaoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package br.jus.tjba.aclp.exception;
+
+/**
+ * Exceção para fila de hash de senha cheia ou espera esgotada
+ * Lançada pelo BoundedPasswordEncoder; vira 503 com Retry-After
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package br.jus.tjba.aclp.model;
 
 import br.jus.tjba.aclp.model.enums.StatusConvite;
 import br.jus.tjba.aclp.model.enums.TipoUsuario;
+import br.jus.tjba.aclp.util.Emails;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -150,6 +151,12 @@ public class Convite {
         if (this.usosRealizados == null) {
             this.usosRealizados = 0;
         }
+        this.email = Emails.canonico(this.email);
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.email = Emails.canonico(this.email);
     }
 
     /**
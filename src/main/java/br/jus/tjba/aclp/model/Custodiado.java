@@ -1,6 +1,7 @@
 package br.jus.tjba.aclp.model;
 
 import br.jus.tjba.aclp.model.enums.SituacaoCustodiado;
+import br.jus.tjba.aclp.util.Documentos;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
@@ -16,8 +17,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "custodiados",
         indexes = {
-                @Index(name = "idx_custodiado_cpf", columnList = "cpf"),
-                @Index(name = "idx_custodiado_rg", columnList = "rg"),
+                // cpf_digitos / rg_normalizado: índices únicos parciais (situacao = 'ATIVO') da V7
+                @Index(name = "idx_custodiado_processo_digitos", columnList = "processo_digitos"),
                 @Index(name = "idx_custodiado_situacao", columnList = "situacao"),
                 @Index(name = "idx_custodiado_nome", columnList = "nome"),
                 @Index(name = "idx_custodiado_public_id", columnList = "public_id", unique = true),
@@ -56,6 +57,22 @@ public class Custodiado {
     @Column(name = "rg", length = 20)
     private String rg;
 
+    /** Formas normalizadas (Documentos) mantidas por normalizarDocumentos(); buscas e duplicidade usam estas. */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "cpf_digitos", length = 14)
+    private String cpfDigitos;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "rg_normalizado", length = 20)
+    private String rgNormalizado;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "processo_digitos", length = 25)
+    private String processoDigitos;
+
     /**
      * Contato/Telefone — OPCIONAL.
      * Default "Pendente" quando não informado.
@@ -149,6 +166,7 @@ public class Custodiado {
         if (proximoComparecimento == null && situacao.isAtivo() && periodicidade != null)
             calcularProximoComparecimento();
         atualizarStatusBaseadoEmData(); // nasce coerente com a data (importação de base legada)
+        normalizarDocumentos();
     }
 
     @PreUpdate
@@ -156,6 +174,13 @@ public class Custodiado {
         atualizadoEm = LocalDateTime.now();
         if (contato == null || contato.trim().isEmpty()) contato = "Pendente";
         if (situacao.isArquivado()) proximoComparecimento = null;
+        normalizarDocumentos();
+    }
+
+    public void normalizarDocumentos() {
+        cpfDigitos = Documentos.digitos(cpf);
+        rgNormalizado = Documentos.rg(rg);
+        processoDigitos = Documentos.digitos(processo);
     }
 
     public void setCpf(String cpf) {
@@ -0,0 +1,49 @@
+package br.jus.tjba.aclp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma execução de uma tarefa do HousekeepingScheduler: duração, linhas afetadas, lotes e
+ * se terminou (false = parou no tempo máximo ou em erro; o restante fica para a próxima).
+ */
+@Entity
+@Table(name = "execucoes_limpeza",
+        indexes = {
+                @Index(name = "idx_execucao_limpeza_iniciada", columnList = "iniciada_em")
+        }
+)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class ExecucaoLimpeza {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String tarefa;
+
+    @Column(name = "iniciada_em", nullable = false)
+    private LocalDateTime iniciadaEm;
+
+    @Column(name = "duracao_ms", nullable = false)
+    private long duracaoMs;
+
+    @Column(name = "linhas_afetadas", nullable = false)
+    private long linhasAfetadas;
+
+    @Column(nullable = false)
+    private int lotes;
+
+    @Column(nullable = false)
+    private boolean concluida;
+
+    @Column(length = 500)
+    private String erro;
+}
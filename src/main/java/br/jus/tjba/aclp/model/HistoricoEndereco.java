@@ -19,9 +19,9 @@ import java.util.Objects;
         indexes = {
                 @Index(name = "idx_historico_endereco_custodiado", columnList = "custodiado_id"),
                 @Index(name = "idx_historico_endereco_data_inicio", columnList = "data_inicio"),
-                @Index(name = "idx_historico_endereco_data_fim", columnList = "data_fim"),
                 @Index(name = "idx_historico_endereco_custodiado_periodo", columnList = "custodiado_id, data_inicio, data_fim"),
                 @Index(name = "idx_historico_endereco_ativo", columnList = "custodiado_id, ativo"),
+                // (cidade|estado, ...) WHERE ativo e GiST em periodo: índices parciais/GiST da V8 e V9
                 @Index(name = "idx_historico_endereco_cep", columnList = "cep"),
                 @Index(name = "idx_historico_endereco_cidade", columnList = "cidade"),
                 @Index(name = "idx_historico_endereco_estado", columnList = "estado")
@@ -34,6 +34,13 @@ import java.util.Objects;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class HistoricoEndereco {
 
+    /**
+     * Exclusion constraint da V8: períodos [data_inicio, data_fim) de um custodiado não se
+     * sobrepõem. A coluna gerada periodo (daterange) não é mapeada; só as consultas nativas
+     * do repositório a usam.
+     */
+    public static final String CONSTRAINT_PERIODO = "ex_historico_endereco_periodo";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -79,7 +86,7 @@ public class HistoricoEndereco {
     @Column(name = "estado", nullable = false, length = 2)
     private String estado;
 
-    // Controle temporal
+    // Controle temporal: data_fim exclusiva (dia em que passou a valer o endereço seguinte)
     @NotNull(message = "Data de início é obrigatória")
     @Column(name = "data_inicio", nullable = false)
     private LocalDate dataInicio;
@@ -132,6 +139,7 @@ public class HistoricoEndereco {
             this.ativo = Boolean.TRUE;
         }
         validarEstado();
+        validarPeriodo();
         formatarCep();
     }
 
@@ -139,6 +147,7 @@ public class HistoricoEndereco {
     public void preUpdate() {
         this.atualizadoEm = LocalDateTime.now();
         validarEstado();
+        validarPeriodo();
         formatarCep();
     }
 
@@ -182,6 +191,12 @@ public class HistoricoEndereco {
         }
     }
 
+    private void validarPeriodo() {
+        if (this.dataInicio != null && this.dataFim != null && this.dataFim.isBefore(this.dataInicio)) {
+            throw new IllegalArgumentException("Data de fim do endereço não pode ser anterior à data de início");
+        }
+    }
+
     private void formatarCep() {
         if (this.cep != null) {
             setCep(this.cep);
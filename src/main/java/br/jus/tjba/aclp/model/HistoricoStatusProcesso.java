@@ -0,0 +1,69 @@
+package br.jus.tjba.aclp.model;
+
+import br.jus.tjba.aclp.model.enums.CausaTransicaoStatus;
+import br.jus.tjba.aclp.model.enums.SituacaoProcesso;
+import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Linha do histórico (só inserção) de status de um processo: cada mudança de status ou
+ * de situação processual grava o estado resultante, a data a partir da qual ele vale e a causa.
+ *
+ * O estado de um processo numa data D é a última linha com data_efetiva <= D
+ * (desempate pelo id) — o índice (processo_id, data_efetiva, id) atende essa busca.
+ */
+@Entity
+@Table(name = "historico_status_processos",
+        indexes = {
+                @Index(name = "idx_hist_status_processo_data", columnList = "processo_id, data_efetiva, id"),
+                @Index(name = "idx_hist_status_data",          columnList = "data_efetiva")
+        }
+)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = "processo")
+public class HistoricoStatusProcesso {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "processo_id", nullable = false,
+            foreignKey = @ForeignKey(name = "fk_hist_status_processo"))
+    private Processo processo;
+
+    /** Nulo na primeira linha do processo (cadastro ou carga inicial). */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status_anterior", length = 20)
+    private StatusComparecimento statusAnterior;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status_novo", nullable = false, length = 20)
+    private StatusComparecimento statusNovo;
+
+    /** Situação processual após a transição: só conta como inadimplência enquanto ATIVO. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "situacao_processo", nullable = false, length = 20)
+    private SituacaoProcesso situacaoProcesso;
+
+    @Column(name = "data_efetiva", nullable = false)
+    private LocalDate dataEfetiva;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private CausaTransicaoStatus causa;
+
+    @Column(name = "registrado_em", nullable = false)
+    private LocalDateTime registradoEm;
+
+    public boolean isInadimplenteAtivo() {
+        return situacaoProcesso == SituacaoProcesso.ATIVO && statusNovo == StatusComparecimento.INADIMPLENTE;
+    }
+}
@@ -0,0 +1,55 @@
+package br.jus.tjba.aclp.model;
+
+import br.jus.tjba.aclp.model.enums.StatusExecucaoJob;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma execução de job agendado, na instância que obteve o lease. Em job fracionado,
+ * itens é a soma das faixas e a execução fecha quando a última faixa termina.
+ */
+@Entity
+@Table(name = "job_execucoes",
+        indexes = {
+                @Index(name = "idx_job_execucao_job_iniciada", columnList = "job, iniciada_em")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class JobExecucao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 60)
+    private String job;
+
+    @Column(nullable = false, length = 120)
+    private String instancia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusExecucaoJob status;
+
+    @Column(name = "iniciada_em", nullable = false)
+    private LocalDateTime iniciadaEm;
+
+    @Column(name = "finalizada_em")
+    private LocalDateTime finalizadaEm;
+
+    @Column(nullable = false)
+    private long itens;
+
+    @Column(nullable = false)
+    private int shards;
+
+    @Column(length = 500)
+    private String erro;
+}
@@ -0,0 +1,32 @@
+package br.jus.tjba.aclp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease de um job agendado: a instância "dono" roda o job até expira_em.
+ * Só é gravado pelos upserts nativos de JobLeaseRepository (relógio do banco).
+ */
+@Entity
+@Table(name = "job_leases")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class JobLease {
+
+    @Id
+    @Column(length = 60)
+    private String job;
+
+    @Column(nullable = false, length = 120)
+    private String dono;
+
+    @Column(name = "adquirido_em", nullable = false)
+    private LocalDateTime adquiridoEm;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+}
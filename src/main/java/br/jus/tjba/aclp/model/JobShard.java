@@ -0,0 +1,59 @@
+package br.jus.tjba.aclp.model;
+
+import br.jus.tjba.aclp.model.enums.StatusExecucaoJob;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Faixa de ids [inicio, fim) de uma execução fracionada. Reivindicada por qualquer
+ * instância (JobShardRepository.reivindicar); expira_em é o lease da faixa.
+ */
+@Entity
+@Table(name = "job_shards",
+        indexes = {
+                @Index(name = "idx_job_shard_execucao", columnList = "execucao_id")
+        }
+)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class JobShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "execucao_id", nullable = false)
+    private Long execucaoId;
+
+    @Column(nullable = false, length = 60)
+    private String job;
+
+    @Column(nullable = false)
+    private long inicio;
+
+    @Column(nullable = false)
+    private long fim;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusExecucaoJob status;
+
+    @Column(length = 120)
+    private String instancia;
+
+    @Column(name = "expira_em")
+    private LocalDateTime expiraEm;
+
+    @Column(nullable = false)
+    private int tentativas;
+
+    @Column(nullable = false)
+    private long itens;
+
+    @Column(name = "concluido_em")
+    private LocalDateTime concluidoEm;
+}
@@ -1,6 +1,7 @@
 package br.jus.tjba.aclp.model;
 
 import br.jus.tjba.aclp.model.enums.TipoUsuario;
+import br.jus.tjba.aclp.util.Emails;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,7 +17,6 @@ import java.util.UUID;
 @Entity
 @Table(name = "pre_cadastros",
         indexes = {
-                @Index(name = "idx_pre_cadastro_email", columnList = "email"),
                 @Index(name = "idx_pre_cadastro_token_verificacao", columnList = "token_verificacao"),
                 @Index(name = "idx_pre_cadastro_token_convite", columnList = "token_convite")
         }
@@ -153,6 +153,12 @@ public class PreCadastro {
         if (this.tentativasVerificacao == null) {
             this.tentativasVerificacao = 0;
         }
+        this.email = Emails.canonico(this.email);
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.email = Emails.canonico(this.email);
     }
 
     /**
@@ -1,13 +1,17 @@
 package br.jus.tjba.aclp.model;
 
+import br.jus.tjba.aclp.config.SecondLevelCacheConfig;
 import br.jus.tjba.aclp.model.enums.SituacaoProcesso;
 import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import br.jus.tjba.aclp.util.Documentos;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -33,13 +37,17 @@ import java.util.Objects;
         indexes = {
                 @Index(name = "idx_processo_custodiado",       columnList = "custodiado_id"),
                 @Index(name = "idx_processo_numero",           columnList = "numero_processo"),
+                @Index(name = "idx_processo_numero_digitos",   columnList = "numero_processo_digitos"),
                 @Index(name = "idx_processo_status",           columnList = "status"),
                 @Index(name = "idx_processo_situacao",         columnList = "situacao_processo"),
                 @Index(name = "idx_processo_proximo",          columnList = "proximo_comparecimento"),
                 @Index(name = "idx_processo_status_proximo",   columnList = "status, proximo_comparecimento"),
-                @Index(name = "idx_processo_custodiado_situacao", columnList = "custodiado_id, situacao_processo")
+                @Index(name = "idx_processo_custodiado_situacao", columnList = "custodiado_id, situacao_processo"),
+                @Index(name = "idx_processo_local_situacao_status", columnList = "comarca, vara, situacao_processo, status")
         }
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.REGIAO_PROCESSO)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -70,6 +78,12 @@ public class Processo {
     @Column(name = "numero_processo", nullable = false, length = 25)
     private String numeroProcesso;
 
+    /** Só os dígitos do número, mantido nos hooks; busca exata e por prefixo usam esta coluna. */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "numero_processo_digitos", length = 25)
+    private String numeroProcessoDigitos;
+
     @NotBlank(message = "Vara é obrigatória")
     @Size(max = 100)
     @Column(name = "vara", nullable = false, length = 100)
@@ -152,12 +166,14 @@ public class Processo {
         if (ultimoComparecimento == null) ultimoComparecimento = dataComparecimentoInicial;
         if (proximoComparecimento == null && situacaoProcesso.isAtivo()) calcularProximoComparecimento();
         atualizarStatusBaseadoEmData(); // nasce coerente com a data (importação de base legada)
+        numeroProcessoDigitos = Documentos.digitos(numeroProcesso);
     }
 
     @PreUpdate
     public void preUpdate() {
         atualizadoEm = LocalDateTime.now();
         if (!situacaoProcesso.isAtivo()) proximoComparecimento = null;
+        numeroProcessoDigitos = Documentos.digitos(numeroProcesso);
     }
 
     // =====================================================================
@@ -0,0 +1,69 @@
+package br.jus.tjba.aclp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Agregado diário por (data, comarca, vara, tipo de validação), mantido de forma
+ * incremental pelo ResumoDiarioService e reconstruível a partir do histórico.
+ *
+ * Linhas com tipo_validacao = 'TODOS' guardam a fotografia da situação dos processos
+ * ativos no dia (ativos, em conformidade, inadimplentes) e têm as contagens de
+ * comparecimento zeradas — somar comparecimentos sobre todas as linhas é seguro.
+ */
+@Entity
+@Table(name = "resumo_diario_comparecimentos",
+        uniqueConstraints = @UniqueConstraint(name = "uq_resumo_diario_chave",
+                columnNames = {"data", "comarca", "vara", "tipo_validacao"})
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumoDiarioComparecimento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate data;
+
+    /** Vazio quando o comparecimento não tem processo nem comarca no custodiado. */
+    @Column(nullable = false, length = 100)
+    private String comarca;
+
+    @Column(nullable = false, length = 100)
+    private String vara;
+
+    @Column(name = "tipo_validacao", nullable = false, length = 20)
+    private String tipoValidacao;
+
+    @Column(nullable = false)
+    private long comparecimentos;
+
+    /** Comparecimentos com registro anterior e periodicidade conhecida (base da taxa de pontualidade). */
+    @Column(name = "comparecimentos_avaliados", nullable = false)
+    private long comparecimentosAvaliados;
+
+    @Column(name = "comparecimentos_no_prazo", nullable = false)
+    private long comparecimentosNoPrazo;
+
+    @Column(name = "mudancas_endereco", nullable = false)
+    private long mudancasEndereco;
+
+    @Column(name = "processos_ativos", nullable = false)
+    private long processosAtivos;
+
+    @Column(name = "processos_em_conformidade", nullable = false)
+    private long processosEmConformidade;
+
+    @Column(name = "processos_inadimplentes", nullable = false)
+    private long processosInadimplentes;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+}
@@ -1,12 +1,17 @@
 package br.jus.tjba.aclp.model;
 
+import br.jus.tjba.aclp.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "setup_status")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.REGIAO_SETUP)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
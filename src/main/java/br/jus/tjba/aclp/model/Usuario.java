@@ -1,5 +1,6 @@
 package br.jus.tjba.aclp.model;
 
+import br.jus.tjba.aclp.config.SecondLevelCacheConfig;
 import br.jus.tjba.aclp.model.enums.TipoUsuario;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -9,8 +10,11 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import br.jus.tjba.aclp.model.enums.StatusUsuario;
+import br.jus.tjba.aclp.util.Emails;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -18,11 +22,12 @@ import java.util.Objects;
 @Entity
 @Table(name = "usuarios",
         indexes = {
-                @Index(name = "idx_usuario_email", columnList = "email"),
                 @Index(name = "idx_usuario_tipo", columnList = "tipo"),
                 @Index(name = "idx_usuario_ativo", columnList = "ativo")
         }
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.REGIAO_USUARIO)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -165,11 +170,13 @@ public class Usuario {
         if (this.senhaExpiraEm == null) {
             this.senhaExpiraEm = LocalDateTime.now().plusDays(320);
         }
+        this.email = Emails.canonico(this.email);
     }
 
     @PreUpdate
     public void preUpdate() {
         this.atualizadoEm = LocalDateTime.now();
+        this.email = Emails.canonico(this.email);
     }
 
     public boolean isAdmin() {
@@ -0,0 +1,27 @@
+package br.jus.tjba.aclp.model.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Origem de uma linha do histórico de status do processo (historico_status_processos).
+ */
+@Schema(description = "Causa da transição de status do processo")
+public enum CausaTransicaoStatus {
+
+    CARGA_INICIAL("Carga inicial"),
+    CADASTRO("Cadastro do processo"),
+    COMPARECIMENTO("Comparecimento registrado"),
+    VERIFICACAO_AUTOMATICA("Verificação automática de prazos"),
+    REPROCESSAMENTO("Reprocessamento de status"),
+    ENCERRAMENTO("Processo encerrado"),
+    SUSPENSAO("Processo suspenso"),
+    REATIVACAO("Processo reativado");
+
+    private final String label;
+
+    CausaTransicaoStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+}
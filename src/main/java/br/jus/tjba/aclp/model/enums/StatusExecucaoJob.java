@@ -0,0 +1,21 @@
+package br.jus.tjba.aclp.model.enums;
+
+/**
+ * Estado de uma execução de job agendado (job_execucoes) e de cada faixa dela (job_shards;
+ * PENDENTE só existe nas faixas).
+ */
+public enum StatusExecucaoJob {
+
+    PENDENTE("Aguardando instância"),
+    EM_EXECUCAO("Em execução"),
+    CONCLUIDA("Concluída"),
+    FALHOU("Falhou");
+
+    private final String label;
+
+    StatusExecucaoJob(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+}
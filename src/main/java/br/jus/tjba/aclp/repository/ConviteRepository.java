@@ -2,8 +2,13 @@ package br.jus.tjba.aclp.repository;
 
 import br.jus.tjba.aclp.model.Convite;
 import br.jus.tjba.aclp.model.enums.StatusConvite;
+import br.jus.tjba.aclp.util.Emails;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -23,9 +28,16 @@ public interface ConviteRepository extends JpaRepository<Convite, Long> {
     Optional<Convite> findByToken(String token);
 
     /**
-     * Busca convite por email e status (apenas convites com email específico)
+     * Busca convite por email e status (apenas convites com email específico).
+     * Email comparado na forma canônica (Emails.canonico), como está gravado.
      */
-    Optional<Convite> findByEmailAndStatus(String email, StatusConvite status);
+    default Optional<Convite> findByEmailAndStatus(String email, StatusConvite status) {
+        return findByEmailCanonicoAndStatus(Emails.canonico(email), status);
+    }
+
+    @Query("SELECT c FROM Convite c WHERE c.email = :email AND c.status = :status")
+    Optional<Convite> findByEmailCanonicoAndStatus(@Param("email") String email,
+                                                   @Param("status") StatusConvite status);
 
     /**
      * Lista convites por status
@@ -36,22 +48,30 @@ public interface ConviteRepository extends JpaRepository<Convite, Long> {
      * Verifica se existe convite pendente para email específico
      * Ignora convites genéricos (email NULL)
      */
+    default boolean existsByEmailAndStatus(String email, StatusConvite status) {
+        return existsByEmailCanonicoAndStatus(Emails.canonico(email), status);
+    }
+
     @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END " +
             "FROM Convite c " +
             "WHERE c.email = :email " +
             "AND c.status = :status " +
             "AND c.email IS NOT NULL")
-    boolean existsByEmailAndStatus(@Param("email") String email,
-                                   @Param("status") StatusConvite status);
+    boolean existsByEmailCanonicoAndStatus(@Param("email") String email,
+                                           @Param("status") StatusConvite status);
 
     /**
      * Verifica se email já foi usado em algum convite ativado
      */
+    default boolean existsEmailJaUtilizado(String email) {
+        return existsEmailCanonicoJaUtilizado(Emails.canonico(email));
+    }
+
     @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END " +
             "FROM Convite c " +
             "WHERE c.email = :email " +
             "AND c.status = 'ATIVADO'")
-    boolean existsEmailJaUtilizado(@Param("email") String email);
+    boolean existsEmailCanonicoJaUtilizado(@Param("email") String email);
 
     /**
      * Lista convites criados por um usuário
@@ -99,12 +119,15 @@ public interface ConviteRepository extends JpaRepository<Convite, Long> {
     List<Convite> findConvitesGenericosValidos(@Param("dataAtual") LocalDateTime dataAtual);
 
     /**
-     * Lista convites expirados que ainda estão com status PENDENTE
+     * Housekeeping: marca um lote de convites PENDENTE vencidos como EXPIRADO.
+     * SKIP LOCKED pula o convite que está sendo ativado neste instante.
      */
-    @Query("SELECT c FROM Convite c " +
-            "WHERE c.status = 'PENDENTE' " +
-            "AND c.expiraEm < :dataAtual")
-    List<Convite> findConvitesExpirados(@Param("dataAtual") LocalDateTime dataAtual);
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "convites"))
+    @Query(value = "UPDATE convites SET status = 'EXPIRADO' WHERE id IN (" +
+            "SELECT id FROM convites WHERE status = 'PENDENTE' AND expira_em < :agora " +
+            "LIMIT :lote FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int expirarPendentesVencidos(@Param("agora") LocalDateTime agora, @Param("lote") int lote);
 
     /**
      * Lista convites que foram usados (não existe mais esgotamento)
@@ -3,6 +3,7 @@ package br.jus.tjba.aclp.repository;
 import br.jus.tjba.aclp.model.Custodiado;
 import br.jus.tjba.aclp.model.enums.SituacaoCustodiado;
 import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -45,8 +46,8 @@ public interface CustodiadoRepository
 
     @Query("SELECT DISTINCT c FROM Custodiado c " +
             "LEFT JOIN FETCH c.historicoEnderecos he " +
-            "WHERE c.processo = :processo AND c.situacao = 'ATIVO' AND (he.ativo = true OR he IS NULL)")
-    List<Custodiado> findByProcessoWithEnderecos(@Param("processo") String processo);
+            "WHERE c.processoDigitos = :processoDigitos AND c.situacao = 'ATIVO' AND (he.ativo = true OR he IS NULL)")
+    List<Custodiado> findByProcessoWithEnderecos(@Param("processoDigitos") String processoDigitos);
 
     @Query("SELECT DISTINCT c FROM Custodiado c " +
             "LEFT JOIN FETCH c.historicoEnderecos he " +
@@ -67,9 +68,9 @@ public interface CustodiadoRepository
     @Query("SELECT DISTINCT c FROM Custodiado c " +
             "LEFT JOIN FETCH c.historicoEnderecos he " +
             "WHERE (LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%')) " +
-            "OR c.processo LIKE CONCAT('%', :processo, '%')) " +
+            "OR (:processoDigitos IS NOT NULL AND c.processoDigitos LIKE CONCAT(:processoDigitos, '%'))) " +
             "AND c.situacao = 'ATIVO' AND (he.ativo = true OR he IS NULL)")
-    List<Custodiado> buscarPorNomeOuProcessoWithEnderecos(@Param("nome") String nome, @Param("processo") String processo);
+    List<Custodiado> buscarPorNomeOuProcessoWithEnderecos(@Param("nome") String nome, @Param("processoDigitos") String processoDigitos);
 
     @Query("SELECT DISTINCT c FROM Custodiado c " +
             "LEFT JOIN FETCH c.historicoEnderecos he " +
@@ -86,11 +87,12 @@ public interface CustodiadoRepository
             "WHERE c.vara = :vara AND c.situacao = 'ATIVO' AND (he.ativo = true OR he IS NULL)")
     List<Custodiado> findByVaraWithEnderecos(@Param("vara") String vara);
 
-    @Query("SELECT c FROM Custodiado c WHERE c.cpf = :cpf AND c.situacao = 'ATIVO'")
-    Optional<Custodiado> findByCpfAndSituacaoAtivo(@Param("cpf") String cpf);
+    // Documentos: parâmetros na forma normalizada (util.Documentos) — seek nos índices únicos parciais da V7
+    @Query("SELECT c FROM Custodiado c WHERE c.cpfDigitos = :cpfDigitos AND c.situacao = 'ATIVO'")
+    Optional<Custodiado> findByCpfDigitosAtivo(@Param("cpfDigitos") String cpfDigitos);
 
-    @Query("SELECT c FROM Custodiado c WHERE c.rg = :rg AND c.situacao = 'ATIVO'")
-    Optional<Custodiado> findByRgAndSituacaoAtivo(@Param("rg") String rg);
+    @Query("SELECT c FROM Custodiado c WHERE c.rgNormalizado = :rgNormalizado AND c.situacao = 'ATIVO'")
+    Optional<Custodiado> findByRgNormalizadoAtivo(@Param("rgNormalizado") String rgNormalizado);
 
     @Query("SELECT c FROM Custodiado c WHERE c.situacao = 'ATIVO' ORDER BY c.nome")
     List<Custodiado> findAllActive();
@@ -101,24 +103,25 @@ public interface CustodiadoRepository
     List<Custodiado> findBySituacao(SituacaoCustodiado situacao);
     long countBySituacao(SituacaoCustodiado situacao);
 
-    @Query("SELECT COUNT(c) > 0 FROM Custodiado c WHERE c.cpf = :cpf AND c.situacao = 'ATIVO'")
-    boolean existsByCpfAndSituacaoAtivo(@Param("cpf") String cpf);
+    @Query("SELECT COUNT(c) > 0 FROM Custodiado c WHERE c.cpfDigitos = :cpfDigitos AND c.situacao = 'ATIVO'")
+    boolean existsByCpfDigitosAtivo(@Param("cpfDigitos") String cpfDigitos);
 
-    @Query("SELECT COUNT(c) > 0 FROM Custodiado c WHERE c.rg = :rg AND c.situacao = 'ATIVO'")
-    boolean existsByRgAndSituacaoAtivo(@Param("rg") String rg);
+    @Query("SELECT COUNT(c) > 0 FROM Custodiado c WHERE c.rgNormalizado = :rgNormalizado AND c.situacao = 'ATIVO'")
+    boolean existsByRgNormalizadoAtivo(@Param("rgNormalizado") String rgNormalizado);
 
-    @Query("SELECT COUNT(c) > 0 FROM Custodiado c WHERE c.cpf = :cpf AND c.situacao = 'ATIVO' AND c.id != :id")
-    boolean existsByCpfAndSituacaoAtivoAndIdNot(@Param("cpf") String cpf, @Param("id") Long id);
+    @Query("SELECT COUNT(c) > 0 FROM Custodiado c WHERE c.cpfDigitos = :cpfDigitos AND c.situacao = 'ATIVO' AND c.id != :id")
+    boolean existsByCpfDigitosAtivoAndIdNot(@Param("cpfDigitos") String cpfDigitos, @Param("id") Long id);
 
-    @Query("SELECT COUNT(c) > 0 FROM Custodiado c WHERE c.rg = :rg AND c.situacao = 'ATIVO' AND c.id != :id")
-    boolean existsByRgAndSituacaoAtivoAndIdNot(@Param("rg") String rg, @Param("id") Long id);
+    @Query("SELECT COUNT(c) > 0 FROM Custodiado c WHERE c.rgNormalizado = :rgNormalizado AND c.situacao = 'ATIVO' AND c.id != :id")
+    boolean existsByRgNormalizadoAtivoAndIdNot(@Param("rgNormalizado") String rgNormalizado, @Param("id") Long id);
 
     @Query("SELECT DISTINCT c FROM Custodiado c WHERE c.situacao = 'ATIVO' " +
-            "AND (LOWER(c.nome) LIKE LOWER(CONCAT('%',:termo,'%')) OR c.cpf LIKE CONCAT('%',:termo,'%'))")
-    List<Custodiado> buscarPorNomeOuCpf(@Param("termo") String termo);
+            "AND (LOWER(c.nome) LIKE LOWER(CONCAT('%',:termo,'%')) " +
+            "OR (:cpfDigitos IS NOT NULL AND c.cpfDigitos LIKE CONCAT(:cpfDigitos, '%')))")
+    List<Custodiado> buscarPorNomeOuCpf(@Param("termo") String termo, @Param("cpfDigitos") String cpfDigitos);
 
-    @Query("SELECT c FROM Custodiado c WHERE c.processo = :processo AND c.situacao = 'ATIVO'")
-    List<Custodiado> findByProcesso(@Param("processo") String processo);
+    @Query("SELECT c FROM Custodiado c WHERE c.processoDigitos = :processoDigitos AND c.situacao = 'ATIVO'")
+    List<Custodiado> findByProcesso(@Param("processoDigitos") String processoDigitos);
 
     @Query("SELECT c FROM Custodiado c WHERE c.status = :status AND c.situacao = 'ATIVO'")
     List<Custodiado> findByStatus(@Param("status") StatusComparecimento status);
@@ -141,8 +144,8 @@ public interface CustodiadoRepository
 
     @Query("SELECT c FROM Custodiado c WHERE " +
             "(LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%')) " +
-            "OR c.processo LIKE CONCAT('%', :processo, '%')) AND c.situacao = 'ATIVO'")
-    List<Custodiado> buscarPorNomeOuProcesso(@Param("nome") String nome, @Param("processo") String processo);
+            "OR (:processoDigitos IS NOT NULL AND c.processoDigitos LIKE CONCAT(:processoDigitos, '%'))) AND c.situacao = 'ATIVO'")
+    List<Custodiado> buscarPorNomeOuProcesso(@Param("nome") String nome, @Param("processoDigitos") String processoDigitos);
 
     @Query("SELECT COUNT(c) FROM Custodiado c WHERE c.status = :status AND c.situacao = 'ATIVO'")
     long countByStatus(@Param("status") StatusComparecimento status);
@@ -152,11 +155,11 @@ public interface CustodiadoRepository
             "AND (c.status = 'INADIMPLENTE' OR c.proximoComparecimento < CURRENT_DATE)")
     long countInadimplentesAtivos();
 
-    @Query("SELECT c FROM Custodiado c WHERE c.processo = :processo ORDER BY c.nome")
-    List<Custodiado> findAllByProcessoIncludingArchived(@Param("processo") String processo);
+    @Query("SELECT c FROM Custodiado c WHERE c.processoDigitos = :processoDigitos ORDER BY c.nome")
+    List<Custodiado> findAllByProcessoIncludingArchived(@Param("processoDigitos") String processoDigitos);
 
-    @Query("SELECT c FROM Custodiado c WHERE c.processo = :processo AND c.situacao = 'ATIVO' ORDER BY c.nome")
-    List<Custodiado> findAllByProcesso(@Param("processo") String processo);
+    @Query("SELECT c FROM Custodiado c WHERE c.processoDigitos = :processoDigitos AND c.situacao = 'ATIVO' ORDER BY c.nome")
+    List<Custodiado> findAllByProcesso(@Param("processoDigitos") String processoDigitos);
 
     @Query("SELECT c FROM Custodiado c WHERE c.situacao = 'ATIVO' AND c.id NOT IN " +
             "(SELECT DISTINCT h.custodiado.id FROM HistoricoComparecimento h)")
@@ -184,8 +187,28 @@ public interface CustodiadoRepository
     @Query("SELECT COUNT(c) FROM Custodiado c WHERE c.situacao = 'ATIVO'")
     long countActive();
 
-    @Query("SELECT c FROM Custodiado c WHERE c.processo = :processo ORDER BY c.situacao, c.nome")
-    List<Custodiado> findByProcessoIncludingArchived(@Param("processo") String processo);
+    @Query("SELECT c FROM Custodiado c WHERE c.processoDigitos = :processoDigitos ORDER BY c.situacao, c.nome")
+    List<Custodiado> findByProcessoIncludingArchived(@Param("processoDigitos") String processoDigitos);
+
+    /** Campos do índice de check-in (IndiceCheckin), sem carregar entidades. */
+    interface DadosCheckin {
+        Long getId();
+        UUID getPublicId();
+        String getNome();
+        String getCpf();
+        String getRg();
+        String getProcesso();
+        LocalDate getProximoComparecimento();
+    }
+
+    String SELECT_DADOS_CHECKIN = "SELECT c.id AS id, c.publicId AS publicId, c.nome AS nome, c.cpf AS cpf, c.rg AS rg, " +
+            "c.processo AS processo, c.proximoComparecimento AS proximoComparecimento FROM Custodiado c WHERE c.situacao = 'ATIVO'";
+
+    @Query(SELECT_DADOS_CHECKIN)
+    List<DadosCheckin> listarDadosCheckin();
+
+    @Query(SELECT_DADOS_CHECKIN + " AND c.id = :id")
+    Optional<DadosCheckin> buscarDadosCheckin(@Param("id") Long id);
 
     @Override
     @Query("SELECT COUNT(c) FROM Custodiado c WHERE c.situacao = 'ATIVO'")
@@ -194,4 +217,8 @@ public interface CustodiadoRepository
     @Override
     @Query("SELECT c FROM Custodiado c WHERE c.situacao = 'ATIVO' ORDER BY c.nome")
     List<Custodiado> findAll();
+
+    /** Página de ativos por id (keyset), para varreduras em lotes com transação curta. */
+    @Query("SELECT c FROM Custodiado c WHERE c.situacao = 'ATIVO' AND c.id > :aposId ORDER BY c.id")
+    List<Custodiado> findAtivosAposId(@Param("aposId") Long aposId, Pageable pageable);
 }
@@ -1,9 +1,12 @@
 package br.jus.tjba.aclp.repository;
 
 import br.jus.tjba.aclp.model.EmailVerification;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -65,11 +68,16 @@ public interface EmailVerificationRepository extends JpaRepository<EmailVerifica
     long countByEmailAndCriadoEmAfter(@Param("email") String email, @Param("desde") LocalDateTime desde);
 
     /**
-     * Remove códigos expirados (limpeza automática)
+     * Remove um lote de códigos expirados antes de :limite (limpeza automática).
+     * O limite fica atrás de "agora": countByEmailAndCriadoEmAfter ainda conta
+     * códigos vencidos para o rate limit por email.
      */
     @Modifying
-    @Query("DELETE FROM EmailVerification ev WHERE ev.expiraEm < :agora")
-    int deleteExpiredCodes(@Param("agora") LocalDateTime agora);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "email_verification"))
+    @Query(value = "DELETE FROM email_verification WHERE id IN (" +
+            "SELECT id FROM email_verification WHERE expira_em < :limite " +
+            "LIMIT :lote FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int excluirExpiradosLote(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
 
     /**
      * Remove códigos antigos já verificados (limpeza automática)
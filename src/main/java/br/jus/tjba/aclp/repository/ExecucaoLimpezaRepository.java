@@ -0,0 +1,27 @@
+package br.jus.tjba.aclp.repository;
+
+import br.jus.tjba.aclp.model.ExecucaoLimpeza;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ExecucaoLimpezaRepository extends JpaRepository<ExecucaoLimpeza, Long> {
+
+    List<ExecucaoLimpeza> findTop50ByOrderByIniciadaEmDesc();
+
+    /** O próprio registro também tem retenção: remove um lote de execuções antigas. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "execucoes_limpeza"))
+    @Query(value = "DELETE FROM execucoes_limpeza WHERE id IN (" +
+            "SELECT id FROM execucoes_limpeza WHERE iniciada_em < :antes LIMIT :lote)", nativeQuery = true)
+    int excluirAnterioresLote(@Param("antes") LocalDateTime antes, @Param("lote") int lote);
+}
@@ -151,4 +151,69 @@ public interface HistoricoComparecimentoRepository
     long countCustodiadosDistintosBetween(
             @Param("inicio") LocalDate inicio,
             @Param("fim") LocalDate fim);
+
+    /** Data do comparecimento imediatamente anterior do custodiado (desconsiderando o próprio registro). */
+    @Query("SELECT MAX(h.dataComparecimento) FROM HistoricoComparecimento h " +
+            "WHERE h.custodiado.id = :custodiadoId AND h.dataComparecimento <= :data AND h.id <> :id")
+    LocalDate findDataComparecimentoAnterior(
+            @Param("custodiadoId") Long custodiadoId,
+            @Param("data") LocalDate data,
+            @Param("id") Long id);
+
+    // =====================================================================
+    // Estatísticas em uma varredura (COUNT ... FILTER)
+    // =====================================================================
+
+    /**
+     * Contagens que os endpoints de estatística precisam, calculadas numa única passada:
+     * cada indicador é um COUNT com FILTER (WHERE ...) em vez de uma query COUNT própria.
+     * O resultado é sempre uma linha, independente do tamanho do período.
+     */
+    String CONTAGENS_COMPARECIMENTO = "SELECT COUNT(h) AS total, " +
+            "COUNT(h) FILTER (WHERE h.tipoValidacao = 'PRESENCIAL') AS presenciais, " +
+            "COUNT(h) FILTER (WHERE h.tipoValidacao = 'ONLINE') AS online, " +
+            "COUNT(h) FILTER (WHERE h.tipoValidacao = 'CADASTRO_INICIAL') AS cadastrosIniciais, " +
+            "COUNT(h) FILTER (WHERE h.mudancaEndereco = true) AS mudancasEndereco, " +
+            "COUNT(h) FILTER (WHERE h.dataComparecimento = :hoje) AS hoje, " +
+            "COUNT(h) FILTER (WHERE h.dataComparecimento BETWEEN :inicioMes AND :hoje) AS esteMes, " +
+            "COUNT(DISTINCT h.custodiado.id) AS custodiadosDistintos ";
+
+    interface ContagensComparecimento {
+        long getTotal();
+        long getPresenciais();
+        long getOnline();
+        long getCadastrosIniciais();
+        long getMudancasEndereco();
+        long getHoje();
+        long getEsteMes();
+        long getCustodiadosDistintos();
+    }
+
+    interface ContagensComCustodiados extends ContagensComparecimento {
+        long getCustodiadosAtivos();
+        long getCustodiadosInadimplentes();
+    }
+
+    @Query(CONTAGENS_COMPARECIMENTO + "FROM HistoricoComparecimento h")
+    ContagensComparecimento contarTudo(
+            @Param("hoje") LocalDate hoje,
+            @Param("inicioMes") LocalDate inicioMes);
+
+    @Query(CONTAGENS_COMPARECIMENTO + "FROM HistoricoComparecimento h " +
+            "WHERE h.dataComparecimento BETWEEN :inicio AND :fim")
+    ContagensComparecimento contarPeriodo(
+            @Param("inicio") LocalDate inicio,
+            @Param("fim") LocalDate fim,
+            @Param("hoje") LocalDate hoje,
+            @Param("inicioMes") LocalDate inicioMes);
+
+    /** Mesmas contagens + os totais de custodiados (subqueries escalares), num round-trip só. */
+    @Query(CONTAGENS_COMPARECIMENTO + ", " +
+            "(SELECT COUNT(c) FROM Custodiado c WHERE c.situacao = 'ATIVO') AS custodiadosAtivos, " +
+            "(SELECT COUNT(c) FROM Custodiado c WHERE c.situacao = 'ATIVO' " +
+            "AND (c.status = 'INADIMPLENTE' OR c.proximoComparecimento < CURRENT_DATE)) AS custodiadosInadimplentes " +
+            "FROM HistoricoComparecimento h")
+    ContagensComCustodiados contarTudoComCustodiados(
+            @Param("hoje") LocalDate hoje,
+            @Param("inicioMes") LocalDate inicioMes);
 }
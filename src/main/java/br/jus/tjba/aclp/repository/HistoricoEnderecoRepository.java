@@ -2,6 +2,10 @@ package br.jus.tjba.aclp.repository;
 
 import br.jus.tjba.aclp.model.Custodiado;
 import br.jus.tjba.aclp.model.HistoricoEndereco;
+import br.jus.tjba.aclp.model.enums.SituacaoCustodiado;
+import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +15,7 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface HistoricoEnderecoRepository extends JpaRepository<HistoricoEndereco, Long> {
@@ -42,6 +47,22 @@ public interface HistoricoEnderecoRepository extends JpaRepository<HistoricoEnde
             "WHERE h.custodiado.id = :custodiadoId AND h.ativo = true")
     int desativarTodosEnderecosPorCustodiado(@Param("custodiadoId") Long custodiadoId);
 
+    /**
+     * Encerra em :data o período do custodiado vigente nessa data (o novo endereço começa
+     * em :data). Períodos que começam depois não são tocados: quem chama verifica antes
+     * com existsByCustodiadoIdAndDataInicioAfter e recusa a mudança retroativa.
+     */
+    @Modifying
+    @Query("UPDATE HistoricoEndereco h SET h.ativo = false, h.atualizadoEm = CURRENT_TIMESTAMP, h.dataFim = :data " +
+            "WHERE h.custodiado.id = :custodiadoId AND h.dataInicio <= :data " +
+            "AND (h.dataFim IS NULL OR h.dataFim > :data)")
+    int encerrarPeriodoVigenteEm(@Param("custodiadoId") Long custodiadoId, @Param("data") LocalDate data);
+
+    /**
+     * Há endereço do custodiado começando depois da data? (mudança retroativa sobreporia o histórico)
+     */
+    boolean existsByCustodiadoIdAndDataInicioAfter(Long custodiadoId, LocalDate data);
+
     /**
      * NOVO: Desativa endereços ativos de um custodiado exceto um específico
      */
@@ -71,13 +92,18 @@ public interface HistoricoEnderecoRepository extends JpaRepository<HistoricoEnde
     @Query("SELECT h FROM HistoricoEndereco h WHERE h.custodiado.id = :custodiadoId AND h.ativo = false ORDER BY h.dataFim DESC")
     List<HistoricoEndereco> findEnderecosHistoricosPorCustodiado(@Param("custodiadoId") Long custodiadoId);
 
+    // =====================================================================
+    // Consultas por período: periodo = daterange(data_inicio, data_fim, '[)'),
+    // coluna gerada da V8 com índice GiST. Nativas porque o HQL não tem && / @>.
+    // =====================================================================
+
     /**
-     * Busca endereços por período específico
+     * Busca endereços por período específico (datas inclusivas)
      */
-    @Query("SELECT h FROM HistoricoEndereco h WHERE h.custodiado.id = :custodiadoId " +
-            "AND h.dataInicio <= :dataFim " +
-            "AND (h.dataFim IS NULL OR h.dataFim >= :dataInicio) " +
-            "ORDER BY h.dataInicio DESC")
+    @Query(value = "SELECT h.* FROM historico_enderecos h WHERE h.custodiado_id = :custodiadoId " +
+            "AND h.periodo && daterange(CAST(:dataInicio AS date), CAST(:dataFim AS date), '[]') " +
+            "ORDER BY h.data_inicio DESC",
+            nativeQuery = true)
     List<HistoricoEndereco> findEnderecosPorPeriodo(@Param("custodiadoId") Long custodiadoId,
                                                     @Param("dataInicio") LocalDate dataInicio,
                                                     @Param("dataFim") LocalDate dataFim);
@@ -103,12 +129,102 @@ public interface HistoricoEnderecoRepository extends JpaRepository<HistoricoEnde
     long countByCustodiado(Custodiado custodiado);
 
     /**
-     * Busca endereços que estavam ativos em uma data específica
+     * Busca endereços ativos (atuais) cujo período inclui a data
      */
-    @Query("SELECT h FROM HistoricoEndereco h WHERE h.dataInicio <= :data " +
-            "AND (h.dataFim IS NULL OR h.dataFim > :data) AND h.ativo = true")
+    @Query(value = "SELECT h.* FROM historico_enderecos h WHERE h.periodo @> CAST(:data AS date) AND h.ativo = true",
+            nativeQuery = true)
     List<HistoricoEndereco> findEnderecosAtivosPorData(@Param("data") LocalDate data);
 
+    // =====================================================================
+    // Consultas geográficas: projeção (custodiado + endereço), paginadas.
+    // Endereço ativo é o padrão e usa os índices parciais WHERE ativo da V9.
+    // =====================================================================
+
+    interface CustodiadoNoLocal {
+        Long getCustodiadoId();
+        UUID getPublicId();
+        String getNome();
+        String getProcesso();
+        SituacaoCustodiado getSituacao();
+        StatusComparecimento getStatus();
+        String getBairro();
+        String getCidade();
+        String getEstado();
+        LocalDate getDataInicio();
+        Boolean getAtivo();
+    }
+
+    String SELECT_CUSTODIADO_NO_LOCAL = "SELECT c.id AS custodiadoId, c.publicId AS publicId, c.nome AS nome, " +
+            "c.processo AS processo, c.situacao AS situacao, c.status AS status, h.bairro AS bairro, " +
+            "h.cidade AS cidade, h.estado AS estado, h.dataInicio AS dataInicio, h.ativo AS ativo " +
+            "FROM HistoricoEndereco h JOIN h.custodiado c ";
+
+    @Query(value = SELECT_CUSTODIADO_NO_LOCAL + "WHERE h.ativo = true AND h.cidade = :cidade ORDER BY c.nome, c.id",
+            countQuery = "SELECT COUNT(h) FROM HistoricoEndereco h WHERE h.ativo = true AND h.cidade = :cidade")
+    Page<CustodiadoNoLocal> findCustodiadosComEnderecoAtivoNaCidade(@Param("cidade") String cidade, Pageable pageable);
+
+    @Query(value = SELECT_CUSTODIADO_NO_LOCAL + "WHERE h.ativo = true AND h.estado = :estado ORDER BY c.nome, c.id",
+            countQuery = "SELECT COUNT(h) FROM HistoricoEndereco h WHERE h.ativo = true AND h.estado = :estado")
+    Page<CustodiadoNoLocal> findCustodiadosComEnderecoAtivoNoEstado(@Param("estado") String estado, Pageable pageable);
+
+    /**
+     * Quem já morou na cidade, uma linha por custodiado: o endereço mais recente dele ali —
+     * o ativo, se houver; senão o de maior dataInicio (id só desempata o mesmo dia).
+     */
+    @Query(value = SELECT_CUSTODIADO_NO_LOCAL + "WHERE h.cidade = :cidade AND NOT EXISTS (" +
+            "SELECT 1 FROM HistoricoEndereco h2 WHERE h2.custodiado = h.custodiado AND h2.cidade = :cidade " +
+            "AND ((h2.ativo = true AND h.ativo = false) " +
+            "OR (h2.ativo = h.ativo AND (h2.dataInicio > h.dataInicio " +
+            "OR (h2.dataInicio = h.dataInicio AND h2.id > h.id))))) " +
+            "ORDER BY c.nome, c.id",
+            countQuery = "SELECT COUNT(DISTINCT h.custodiado.id) FROM HistoricoEndereco h WHERE h.cidade = :cidade")
+    Page<CustodiadoNoLocal> findCustodiadosQueMoraramNaCidade(@Param("cidade") String cidade, Pageable pageable);
+
+    /**
+     * Quem já morou no estado, uma linha por custodiado: mesmo critério da consulta por cidade.
+     */
+    @Query(value = SELECT_CUSTODIADO_NO_LOCAL + "WHERE h.estado = :estado AND NOT EXISTS (" +
+            "SELECT 1 FROM HistoricoEndereco h2 WHERE h2.custodiado = h.custodiado AND h2.estado = :estado " +
+            "AND ((h2.ativo = true AND h.ativo = false) " +
+            "OR (h2.ativo = h.ativo AND (h2.dataInicio > h.dataInicio " +
+            "OR (h2.dataInicio = h.dataInicio AND h2.id > h.id))))) " +
+            "ORDER BY c.nome, c.id",
+            countQuery = "SELECT COUNT(DISTINCT h.custodiado.id) FROM HistoricoEndereco h WHERE h.estado = :estado")
+    Page<CustodiadoNoLocal> findCustodiadosQueMoraramNoEstado(@Param("estado") String estado, Pageable pageable);
+
+    /** Quem morava na cidade na data (índice GiST em cidade, periodo). Aliases citados: nativa. */
+    @Query(value = "SELECT c.id AS \"custodiadoId\", c.public_id AS \"publicId\", c.nome AS \"nome\", " +
+            "c.processo AS \"processo\", c.situacao AS \"situacao\", c.status AS \"status\", h.bairro AS \"bairro\", " +
+            "h.cidade AS \"cidade\", h.estado AS \"estado\", h.data_inicio AS \"dataInicio\", h.ativo AS \"ativo\" " +
+            "FROM historico_enderecos h JOIN custodiados c ON c.id = h.custodiado_id " +
+            "WHERE h.cidade = :cidade AND h.periodo @> CAST(:data AS date) ORDER BY c.nome, c.id",
+            countQuery = "SELECT COUNT(*) FROM historico_enderecos h " +
+                    "WHERE h.cidade = :cidade AND h.periodo @> CAST(:data AS date)",
+            nativeQuery = true)
+    Page<CustodiadoNoLocal> findCustodiadosNaCidadeEmData(@Param("cidade") String cidade, @Param("data") LocalDate data,
+                                                          Pageable pageable);
+
+    interface ContagemPorLocal {
+        String getEstado();
+        String getCidade();
+        /** GROUPING(cidade): 0 = estado+cidade, 1 = total do estado. */
+        int getNivel();
+        long getCustodiados();
+    }
+
+    /**
+     * Custodiados com endereço ativo por estado e por cidade num único GROUPING SETS,
+     * coberto pelos índices parciais (estado|cidade, custodiado_id) WHERE ativo.
+     */
+    @Query(value = "SELECT h.estado AS \"estado\", h.cidade AS \"cidade\", GROUPING(h.cidade) AS \"nivel\", " +
+            "COUNT(DISTINCT h.custodiado_id) AS \"custodiados\" " +
+            "FROM historico_enderecos h " +
+            "WHERE h.ativo = true AND (CAST(:estado AS VARCHAR) IS NULL OR h.estado = :estado) " +
+            "GROUP BY GROUPING SETS ((h.estado), (h.estado, h.cidade)) " +
+            "ORDER BY h.estado, h.cidade NULLS FIRST",
+            nativeQuery = true)
+    List<ContagemPorLocal> contarCustodiadosPorEstadoECidade(@Param("estado") String estado);
+
     /**
      * Busca mudanças de endereço em um período
      */
@@ -123,18 +239,6 @@ public interface HistoricoEnderecoRepository extends JpaRepository<HistoricoEnde
     @Query("SELECT h FROM HistoricoEndereco h WHERE h.historicoComparecimento.id = :comparecimentoId")
     List<HistoricoEndereco> findByHistoricoComparecimentoId(@Param("comparecimentoId") Long comparecimentoId);
 
-    /**
-     * Busca custodiados que moram/moraram em uma cidade específica
-     */
-    @Query("SELECT DISTINCT h.custodiado FROM HistoricoEndereco h WHERE h.cidade = :cidade")
-    List<Custodiado> findCustodiadosPorCidade(@Param("cidade") String cidade);
-
-    /**
-     * Busca custodiados que moram/moraram em um estado específico
-     */
-    @Query("SELECT DISTINCT h.custodiado FROM HistoricoEndereco h WHERE h.estado = :estado")
-    List<Custodiado> findCustodiadosPorEstado(@Param("estado") String estado);
-
     /**
      * Busca endereços com motivação específica
      */
@@ -158,17 +262,19 @@ public interface HistoricoEnderecoRepository extends JpaRepository<HistoricoEnde
     /**
      * Verifica se existe sobreposição de endereços para um custodiado
      */
-    @Query("SELECT COUNT(h) > 0 FROM HistoricoEndereco h WHERE h.custodiado.id = :custodiadoId " +
-            "AND h.id != :enderecoId " +
-            "AND h.dataInicio <= :dataFim " +
-            "AND (h.dataFim IS NULL OR h.dataFim >= :dataInicio)")
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM historico_enderecos h WHERE h.custodiado_id = :custodiadoId " +
+            "AND h.id <> COALESCE(CAST(:enderecoId AS bigint), 0) " +
+            "AND h.periodo && daterange(CAST(:dataInicio AS date), CAST(:dataFim AS date), '[)'))",
+            nativeQuery = true)
     boolean existeSobreposicaoEndereco(@Param("custodiadoId") Long custodiadoId,
                                        @Param("enderecoId") Long enderecoId,
                                        @Param("dataInicio") LocalDate dataInicio,
                                        @Param("dataFim") LocalDate dataFim);
 
     /**
-     * Busca o último endereço anterior a uma data específica
+     * Busca o último endereço anterior a uma data específica. Com os períodos sem
+     * sobreposição é o vigente na data (ou o último antes de uma lacuna); o seek em
+     * idx_historico_endereco_custodiado_periodo já é direto.
      */
     @Query("SELECT h FROM HistoricoEndereco h WHERE h.custodiado.id = :custodiadoId " +
             "AND h.dataInicio <= :data ORDER BY h.dataInicio DESC LIMIT 1")
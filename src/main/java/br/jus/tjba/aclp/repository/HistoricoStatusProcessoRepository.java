@@ -0,0 +1,51 @@
+package br.jus.tjba.aclp.repository;
+
+import br.jus.tjba.aclp.model.HistoricoStatusProcesso;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Histórico só recebe INSERT (via HistoricoStatusService); não há update nem delete.
+ */
+@Repository
+public interface HistoricoStatusProcessoRepository extends JpaRepository<HistoricoStatusProcesso, Long> {
+
+    interface SituacaoEmData {
+        long getAtivos();
+        long getEmConformidade();
+        long getInadimplentes();
+        long getEncerrados();
+        long getSuspensos();
+    }
+
+    /**
+     * Situação dos processos numa data passada: para cada processo vale a última linha com
+     * data_efetiva <= :data. O NOT EXISTS é resolvido pelo índice (processo_id, data_efetiva, id).
+     */
+    @Query("SELECT COUNT(h) FILTER (WHERE h.situacaoProcesso = 'ATIVO') AS ativos, " +
+            "COUNT(h) FILTER (WHERE h.situacaoProcesso = 'ATIVO' AND h.statusNovo = 'EM_CONFORMIDADE') AS emConformidade, " +
+            "COUNT(h) FILTER (WHERE h.situacaoProcesso = 'ATIVO' AND h.statusNovo = 'INADIMPLENTE') AS inadimplentes, " +
+            "COUNT(h) FILTER (WHERE h.situacaoProcesso = 'ENCERRADO') AS encerrados, " +
+            "COUNT(h) FILTER (WHERE h.situacaoProcesso = 'SUSPENSO') AS suspensos " +
+            "FROM HistoricoStatusProcesso h WHERE h.dataEfetiva <= :data " +
+            "AND NOT EXISTS (SELECT 1 FROM HistoricoStatusProcesso s WHERE s.processo = h.processo " +
+            "AND s.dataEfetiva <= :data " +
+            "AND (s.dataEfetiva > h.dataEfetiva OR (s.dataEfetiva = h.dataEfetiva AND s.id > h.id)))")
+    SituacaoEmData contarSituacaoEm(@Param("data") LocalDate data);
+
+    @Query("SELECT h FROM HistoricoStatusProcesso h WHERE h.processo.id = :processoId " +
+            "ORDER BY h.dataEfetiva, h.id")
+    List<HistoricoStatusProcesso> findByProcessoOrdenado(@Param("processoId") Long processoId);
+
+    @Query("SELECT h FROM HistoricoStatusProcesso h JOIN FETCH h.processo p " +
+            "WHERE p.custodiado.id = :custodiadoId ORDER BY p.id, h.dataEfetiva, h.id")
+    List<HistoricoStatusProcesso> findByCustodiadoOrdenado(@Param("custodiadoId") Long custodiadoId);
+
+    @Query("SELECT MAX(h.dataEfetiva) FROM HistoricoStatusProcesso h WHERE h.processo.id = :processoId")
+    LocalDate findUltimaDataEfetiva(@Param("processoId") Long processoId);
+}
@@ -0,0 +1,61 @@
+package br.jus.tjba.aclp.repository;
+
+import br.jus.tjba.aclp.model.JobExecucao;
+import br.jus.tjba.aclp.model.enums.StatusExecucaoJob;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JobExecucaoRepository extends JpaRepository<JobExecucao, Long> {
+
+    @Query("SELECT e FROM JobExecucao e WHERE (:job IS NULL OR e.job = :job) ORDER BY e.iniciadaEm DESC, e.id DESC")
+    List<JobExecucao> findUltimas(@Param("job") String job, Pageable pageable);
+
+    Optional<JobExecucao> findFirstByJobAndStatusOrderByIdDesc(String job, StatusExecucaoJob status);
+
+    /** Execução do job iniciada depois de :corte — o mesmo cron já disparado em outra instância. */
+    boolean existsByJobAndIniciadaEmAfter(String job, LocalDateTime corte);
+
+    /**
+     * Acrescenta :faixas à execução ainda aberta, antes de inserir as faixas novas. O
+     * UPDATE trava a linha: se fecharSeCompleta fechou antes, devolve 0 e nada é inserido;
+     * se fecharSeCompleta vier depois, o total de faixas não bate com o que ele enxerga e
+     * a execução continua aberta.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_execucoes"))
+    @Query(value = "UPDATE job_execucoes SET shards = shards + :faixas WHERE id = :id AND status = 'EM_EXECUCAO'",
+            nativeQuery = true)
+    int acrescentarFaixas(@Param("id") Long id, @Param("faixas") int faixas);
+
+    /**
+     * Fecha a execução fracionada se nenhuma faixa está em aberto. A linha fica travada
+     * pelo UPDATE: com duas instâncias terminando as últimas faixas juntas, só uma
+     * recebe 1 e roda a finalização do job. A contagem de faixas igual a shards protege
+     * a extensão concorrente (acrescentarFaixas): na revalidação depois do lock, o
+     * PostgreSQL reavalia as subconsultas com o snapshot antigo, mas shards já é o novo.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_execucoes"))
+    @Query(value = "UPDATE job_execucoes e SET " +
+            "status = CASE WHEN EXISTS (SELECT 1 FROM job_shards s WHERE s.execucao_id = e.id AND s.status = 'FALHOU') " +
+            "THEN 'FALHOU' ELSE 'CONCLUIDA' END, " +
+            "itens = (SELECT COALESCE(SUM(s.itens), 0) FROM job_shards s WHERE s.execucao_id = e.id), " +
+            "finalizada_em = now() " +
+            "WHERE e.id = :id AND e.status = 'EM_EXECUCAO' " +
+            "AND e.shards = (SELECT COUNT(*) FROM job_shards s WHERE s.execucao_id = e.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM job_shards s WHERE s.execucao_id = e.id " +
+            "AND s.status IN ('PENDENTE', 'EM_EXECUCAO'))", nativeQuery = true)
+    int fecharSeCompleta(@Param("id") Long id);
+}
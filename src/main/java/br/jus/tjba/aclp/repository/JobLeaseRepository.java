@@ -0,0 +1,42 @@
+package br.jus.tjba.aclp.repository;
+
+import br.jus.tjba.aclp.model.JobLease;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Leases de job com o relógio do banco (now()), para que relógios diferentes entre
+ * instâncias não deixem duas acharem o lease vencido.
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    /**
+     * Toma o lease se não existe ou já venceu. 1 = esta instância é a dona até
+     * now() + :segundos; 0 = outra instância está com ele.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_leases"))
+    @Query(value = "INSERT INTO job_leases (job, dono, adquirido_em, expira_em) " +
+            "VALUES (:job, :dono, now(), now() + make_interval(secs => :segundos)) " +
+            "ON CONFLICT (job) DO UPDATE SET dono = EXCLUDED.dono, " +
+            "adquirido_em = EXCLUDED.adquirido_em, expira_em = EXCLUDED.expira_em " +
+            "WHERE job_leases.expira_em <= now()", nativeQuery = true)
+    int adquirir(@Param("job") String job, @Param("dono") String dono, @Param("segundos") long segundos);
+
+    /**
+     * Devolve o lease: vence agora. O disparo repetido por relógio atrasado em outra
+     * instância é barrado pelo histórico (CoordenacaoJobsService), não pelo lease — assim
+     * o disparo manual não recebe "já em execução" depois de um cron que já terminou.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_leases"))
+    @Query(value = "UPDATE job_leases SET expira_em = now() WHERE job = :job AND dono = :dono", nativeQuery = true)
+    int liberar(@Param("job") String job, @Param("dono") String dono);
+}
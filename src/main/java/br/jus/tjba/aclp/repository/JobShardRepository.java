@@ -0,0 +1,99 @@
+package br.jus.tjba.aclp.repository;
+
+import br.jus.tjba.aclp.model.JobShard;
+import br.jus.tjba.aclp.model.enums.StatusExecucaoJob;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JobShardRepository extends JpaRepository<JobShard, Long> {
+
+    interface Faixa {
+        Long getId();
+        Long getExecucaoId();
+        long getInicio();
+        long getFim();
+    }
+
+    /** Divide [minId, maxId] em faixas [g, g + tamanho). */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_shards"))
+    @Query(value = "INSERT INTO job_shards (execucao_id, job, inicio, fim, status, tentativas, itens) " +
+            "SELECT :execucaoId, :job, g, LEAST(g + :tamanho, :maxId + 1), 'PENDENTE', 0, 0 " +
+            "FROM generate_series(CAST(:minId AS BIGINT), CAST(:maxId AS BIGINT), CAST(:tamanho AS BIGINT)) g", nativeQuery = true)
+    int criarFaixas(@Param("execucaoId") Long execucaoId, @Param("job") String job,
+                    @Param("minId") long minId, @Param("maxId") long maxId, @Param("tamanho") long tamanho);
+
+    /** Fim da última faixa da execução — ponto de partida para estendê-la. */
+    @Query("SELECT MAX(s.fim) FROM JobShard s WHERE s.execucaoId = :execucaoId")
+    Long findFimMaximo(@Param("execucaoId") Long execucaoId);
+
+    /**
+     * Próxima faixa livre do job: pendente, ou em execução com lease vencido (instância
+     * caiu). SKIP LOCKED: instâncias reivindicando juntas pegam faixas diferentes.
+     * Chamar dentro de transação, seguido de marcarEmExecucao.
+     */
+    @Query(value = "SELECT id AS \"id\", execucao_id AS \"execucaoId\", inicio AS \"inicio\", fim AS \"fim\" " +
+            "FROM job_shards WHERE job = :job " +
+            "AND (status = 'PENDENTE' OR (status = 'EM_EXECUCAO' AND expira_em < now())) " +
+            "AND tentativas < :maxTentativas " +
+            "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Faixa> reivindicar(@Param("job") String job, @Param("maxTentativas") int maxTentativas);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_shards"))
+    @Query(value = "UPDATE job_shards SET status = 'EM_EXECUCAO', instancia = :instancia, " +
+            "expira_em = now() + make_interval(secs => :segundos), tentativas = tentativas + 1 " +
+            "WHERE id = :id", nativeQuery = true)
+    int marcarEmExecucao(@Param("id") Long id, @Param("instancia") String instancia, @Param("segundos") long segundos);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_shards"))
+    @Query(value = "UPDATE job_shards SET status = 'CONCLUIDA', itens = :itens, concluido_em = now(), expira_em = NULL " +
+            "WHERE id = :id", nativeQuery = true)
+    int concluir(@Param("id") Long id, @Param("itens") long itens);
+
+    /** Falha volta a faixa para a fila; esgotadas as tentativas, fica FALHOU. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_shards"))
+    @Query(value = "UPDATE job_shards SET status = CASE WHEN tentativas >= :maxTentativas THEN 'FALHOU' ELSE 'PENDENTE' END, " +
+            "expira_em = NULL WHERE id = :id", nativeQuery = true)
+    int registrarFalha(@Param("id") Long id, @Param("maxTentativas") int maxTentativas);
+
+    /**
+     * Faixas de instâncias que caíram depois da última tentativa: sem isto ficariam
+     * EM_EXECUCAO para sempre e a execução nunca fecharia.
+     */
+    @Query(value = "SELECT DISTINCT execucao_id FROM job_shards " +
+            "WHERE job = :job AND status = 'EM_EXECUCAO' AND expira_em < now() AND tentativas >= :maxTentativas",
+            nativeQuery = true)
+    List<Long> findExecucoesComFaixasEsgotadas(@Param("job") String job, @Param("maxTentativas") int maxTentativas);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_shards"))
+    @Query(value = "UPDATE job_shards SET status = 'FALHOU', expira_em = NULL " +
+            "WHERE job = :job AND status = 'EM_EXECUCAO' AND expira_em < now() AND tentativas >= :maxTentativas",
+            nativeQuery = true)
+    int abandonarEsgotadas(@Param("job") String job, @Param("maxTentativas") int maxTentativas);
+
+    List<JobShard> findByExecucaoIdOrderByInicio(Long execucaoId);
+
+    interface ContagemStatus {
+        StatusExecucaoJob getStatus();
+        long getFaixas();
+        Long getItens();
+    }
+
+    @Query("SELECT s.status AS status, COUNT(s) AS faixas, SUM(s.itens) AS itens " +
+            "FROM JobShard s WHERE s.execucaoId = :execucaoId GROUP BY s.status")
+    List<ContagemStatus> contarPorStatus(@Param("execucaoId") Long execucaoId);
+}
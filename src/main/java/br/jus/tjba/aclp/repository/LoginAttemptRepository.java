@@ -1,9 +1,12 @@
 package br.jus.tjba.aclp.repository;
 
 import br.jus.tjba.aclp.model.LoginAttempt;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
@@ -28,7 +31,11 @@ public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, Long
     @Query("SELECT la FROM LoginAttempt la WHERE la.suspicious = true AND la.attemptTime > :since")
     List<LoginAttempt> findSuspiciousAttempts(@Param("since") LocalDateTime since);
 
+    /** Housekeeping: remove um lote de tentativas anteriores à retenção (idx_attempt_time). */
     @Modifying
-    @Query("DELETE FROM LoginAttempt la WHERE la.attemptTime < :before")
-    int deleteOldAttempts(@Param("before") LocalDateTime before);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "login_attempts"))
+    @Query(value = "DELETE FROM login_attempts WHERE id IN (" +
+            "SELECT id FROM login_attempts WHERE attempt_time < :antes " +
+            "LIMIT :lote FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int excluirAnterioresLote(@Param("antes") LocalDateTime antes, @Param("lote") int lote);
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package br.jus.tjba.aclp.repository;
 
 import br.jus.tjba.aclp.model.PreCadastro;
+import br.jus.tjba.aclp.util.Emails;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,14 +27,25 @@ public interface PreCadastroRepository extends JpaRepository<PreCadastro, Long>
     Optional<PreCadastro> findByTokenVerificacao(String tokenVerificacao);
 
     /**
-     * Busca pré-cadastro por email
+     * Busca pré-cadastro por email (forma canônica, como está gravado)
      */
-    Optional<PreCadastro> findByEmail(String email);
+    default Optional<PreCadastro> findByEmail(String email) {
+        return findByEmailCanonico(Emails.canonico(email));
+    }
 
     /**
      * Verifica se existe pré-cadastro pendente para email
      */
-    boolean existsByEmailAndVerificadoFalse(String email);
+    default boolean existsByEmailAndVerificadoFalse(String email) {
+        return existsByEmailCanonicoAndVerificadoFalse(Emails.canonico(email));
+    }
+
+    @Query("SELECT p FROM PreCadastro p WHERE p.email = :email")
+    Optional<PreCadastro> findByEmailCanonico(@Param("email") String email);
+
+    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM PreCadastro p " +
+            "WHERE p.email = :email AND p.verificado = false")
+    boolean existsByEmailCanonicoAndVerificadoFalse(@Param("email") String email);
 
     /**
      * Busca pré-cadastros expirados e não verificados para limpeza
@@ -50,10 +64,12 @@ public interface PreCadastroRepository extends JpaRepository<PreCadastro, Long>
     List<PreCadastro> findByTokenConvite(String tokenConvite);
 
     /**
-     * Remove pré-cadastros expirados (job de limpeza)
+     * Remove um lote de pré-cadastros não verificados vencidos antes de :limite (housekeeping)
      */
     @Modifying
-    @Transactional
-    @Query("DELETE FROM PreCadastro p WHERE p.verificado = false AND p.expiraEm < :dataAtual")
-    void deleteExpirados(@Param("dataAtual") LocalDateTime dataAtual);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "pre_cadastros"))
+    @Query(value = "DELETE FROM pre_cadastros WHERE id IN (" +
+            "SELECT id FROM pre_cadastros WHERE verificado = false AND expira_em < :limite " +
+            "LIMIT :lote FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int excluirExpiradosLote(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
 }
\ No newline at end of file
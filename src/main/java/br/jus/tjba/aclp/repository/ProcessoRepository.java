@@ -21,7 +21,9 @@ public interface ProcessoRepository extends JpaRepository<Processo, Long> {
     @Query("SELECT p FROM Processo p WHERE p.custodiado.id = :custodiadoId AND p.situacaoProcesso = 'ATIVO' ORDER BY p.proximoComparecimento")
     List<Processo> findProcessosAtivosByCustodiado(@Param("custodiadoId") Long custodiadoId);
 
-    Optional<Processo> findByNumeroProcesso(String numeroProcesso);
+    /** Número em dígitos (util.Documentos); co-réus podem dividir o número, por isso lista. */
+    @Query("SELECT p FROM Processo p JOIN FETCH p.custodiado c WHERE p.numeroProcessoDigitos = :digitos ORDER BY p.id")
+    List<Processo> findByNumeroProcessoDigitos(@Param("digitos") String digitos);
 
     // Inadimplentes com JOIN FETCH (evita N+1)
     @Query("SELECT p FROM Processo p JOIN FETCH p.custodiado c WHERE p.status = 'INADIMPLENTE' AND p.situacaoProcesso = 'ATIVO'")
@@ -35,16 +37,17 @@ public interface ProcessoRepository extends JpaRepository<Processo, Long> {
     @Query(value = "SELECT p FROM Processo p JOIN FETCH p.custodiado c " +
             "WHERE p.situacaoProcesso = 'ATIVO' " +
             "AND (:termo IS NULL OR LOWER(c.nome) LIKE LOWER(CONCAT('%',:termo,'%')) " +
-            "     OR c.cpf LIKE CONCAT('%',:termo,'%') " +
-            "     OR p.numeroProcesso LIKE CONCAT('%',:termo,'%')) " +
+            "     OR c.cpfDigitos LIKE CONCAT(:digitos,'%') " +
+            "     OR p.numeroProcessoDigitos LIKE CONCAT(:digitos,'%')) " +
             "AND (:status IS NULL OR p.status = :status)",
             countQuery = "SELECT COUNT(p) FROM Processo p JOIN p.custodiado c " +
                     "WHERE p.situacaoProcesso = 'ATIVO' " +
                     "AND (:termo IS NULL OR LOWER(c.nome) LIKE LOWER(CONCAT('%',:termo,'%')) " +
-                    "     OR c.cpf LIKE CONCAT('%',:termo,'%') " +
-                    "     OR p.numeroProcesso LIKE CONCAT('%',:termo,'%')) " +
+                    "     OR c.cpfDigitos LIKE CONCAT(:digitos,'%') " +
+                    "     OR p.numeroProcessoDigitos LIKE CONCAT(:digitos,'%')) " +
                     "AND (:status IS NULL OR p.status = :status)")
-    Page<Processo> findComFiltros(@Param("termo") String termo, @Param("status") StatusComparecimento status, Pageable pageable);
+    Page<Processo> findComFiltros(@Param("termo") String termo, @Param("digitos") String digitos,
+                                  @Param("status") StatusComparecimento status, Pageable pageable);
 
     // Contadores para dashboard
     long countBySituacaoProcesso(SituacaoProcesso situacao);
@@ -52,6 +55,71 @@ public interface ProcessoRepository extends JpaRepository<Processo, Long> {
     @Query("SELECT COUNT(p) FROM Processo p WHERE p.status = :status AND p.situacaoProcesso = 'ATIVO'")
     long countByStatusAtivo(@Param("status") StatusComparecimento status);
 
+    interface ContagensDashboard {
+        long getAtivos();
+        long getEmConformidade();
+        long getInadimplentes();
+        long getComparecimentosHoje();
+    }
+
+    interface ContagensPorLocal extends ContagensDashboard {
+        String getComarca();
+        String getVara();
+        /** GROUPING(comarca, vara): 0 = comarca+vara, 1 = comarca, 3 = total geral. */
+        int getNivel();
+        long getEncerrados();
+        long getSuspensos();
+    }
+
+    /** Contadores do dashboard numa varredura, sem carregar entidades. */
+    @Query("SELECT COUNT(p) AS ativos, " +
+            "COUNT(p) FILTER (WHERE p.status = 'EM_CONFORMIDADE') AS emConformidade, " +
+            "COUNT(p) FILTER (WHERE p.status = 'INADIMPLENTE') AS inadimplentes, " +
+            "COUNT(p) FILTER (WHERE p.proximoComparecimento = :hoje) AS comparecimentosHoje " +
+            "FROM Processo p WHERE p.situacaoProcesso = 'ATIVO'")
+    ContagensDashboard contarParaDashboard(@Param("hoje") LocalDate hoje);
+
+    /**
+     * Total geral, por comarca e por comarca/vara num único GROUP BY GROUPING SETS.
+     * Coberto pelo índice (comarca, vara, situacao_processo, status) INCLUDE (proximo_comparecimento).
+     * Aliases entre aspas: o PostgreSQL rebaixa para minúsculas os não citados.
+     */
+    @Query(value = "SELECT p.comarca AS \"comarca\", p.vara AS \"vara\", " +
+            "GROUPING(p.comarca, p.vara) AS \"nivel\", " +
+            "COUNT(*) FILTER (WHERE p.situacao_processo = 'ATIVO') AS \"ativos\", " +
+            "COUNT(*) FILTER (WHERE p.situacao_processo = 'ATIVO' AND p.status = 'EM_CONFORMIDADE') AS \"emConformidade\", " +
+            "COUNT(*) FILTER (WHERE p.situacao_processo = 'ATIVO' AND p.status = 'INADIMPLENTE') AS \"inadimplentes\", " +
+            "COUNT(*) FILTER (WHERE p.situacao_processo = 'ATIVO' AND p.proximo_comparecimento = :hoje) AS \"comparecimentosHoje\", " +
+            "COUNT(*) FILTER (WHERE p.situacao_processo = 'ENCERRADO') AS \"encerrados\", " +
+            "COUNT(*) FILTER (WHERE p.situacao_processo = 'SUSPENSO') AS \"suspensos\" " +
+            "FROM processos p " +
+            "WHERE (CAST(:comarca AS VARCHAR) IS NULL OR p.comarca = :comarca) " +
+            "GROUP BY GROUPING SETS ((), (p.comarca), (p.comarca, p.vara)) " +
+            "ORDER BY p.comarca NULLS FIRST, p.vara NULLS FIRST",
+            nativeQuery = true)
+    List<ContagensPorLocal> contarPorComarcaEVara(@Param("hoje") LocalDate hoje, @Param("comarca") String comarca);
+
+    /** Processos ativos de custodiados ativos, para o índice de check-in (IndiceCheckin). */
+    interface DadosCheckin {
+        Long getCustodiadoId();
+        Long getId();
+        String getNumeroProcesso();
+        String getComarca();
+        String getVara();
+        StatusComparecimento getStatus();
+        LocalDate getProximoComparecimento();
+    }
+
+    String SELECT_DADOS_CHECKIN = "SELECT p.custodiado.id AS custodiadoId, p.id AS id, p.numeroProcesso AS numeroProcesso, " +
+            "p.comarca AS comarca, p.vara AS vara, p.status AS status, p.proximoComparecimento AS proximoComparecimento " +
+            "FROM Processo p WHERE p.situacaoProcesso = 'ATIVO' AND p.custodiado.situacao = 'ATIVO'";
+
+    @Query(SELECT_DADOS_CHECKIN)
+    List<DadosCheckin> listarDadosCheckin();
+
+    @Query(SELECT_DADOS_CHECKIN + " AND p.custodiado.id = :custodiadoId")
+    List<DadosCheckin> listarDadosCheckinPorCustodiado(@Param("custodiadoId") Long custodiadoId);
+
     // Processos com comparecimento entre datas
     @Query("SELECT p FROM Processo p WHERE p.proximoComparecimento BETWEEN :inicio AND :fim AND p.situacaoProcesso = 'ATIVO'")
     List<Processo> findByProximoComparecimentoBetween(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
@@ -62,13 +130,21 @@ public interface ProcessoRepository extends JpaRepository<Processo, Long> {
 
     List<Processo> findByCustodiado_IdOrderByCriadoEmDesc(Long custodiadoId);
 
-    // Buscar por ID com custodiado carregado
+    // Buscar por ID com custodiado carregado. Consulta, não findById: vai sempre ao banco,
+    // nunca ao cache L2 — base das alterações, que não podem partir de cópia desatualizada
     @Query("SELECT p FROM Processo p JOIN FETCH p.custodiado c WHERE p.id = :id")
     Optional<Processo> findByIdComCustodiado(@Param("id") Long id);
 
-    // Todos processos ativos
-    @Query("SELECT p FROM Processo p JOIN FETCH p.custodiado c WHERE p.situacaoProcesso = 'ATIVO' ORDER BY p.proximoComparecimento")
-    List<Processo> findAllAtivosComCustodiado();
+    // Processos ativos numa faixa de ids [inicio, fim) — reprocessamento fracionado
+    @Query("SELECT p FROM Processo p JOIN FETCH p.custodiado c WHERE p.situacaoProcesso = 'ATIVO' " +
+           "AND p.id >= :inicio AND p.id < :fim ORDER BY p.id")
+    List<Processo> findAtivosComCustodiadoNaFaixa(@Param("inicio") long inicio, @Param("fim") long fim);
+
+    @Query("SELECT MIN(p.id) FROM Processo p WHERE p.situacaoProcesso = 'ATIVO'")
+    Long findMinIdAtivo();
+
+    @Query("SELECT MAX(p.id) FROM Processo p WHERE p.situacaoProcesso = 'ATIVO'")
+    Long findMaxIdAtivo();
 
     // Verificar se custodiado tem processos ativos não encerrados
     @Query("SELECT COUNT(p) > 0 FROM Processo p WHERE p.custodiado.id = :custodiadoId AND p.situacaoProcesso NOT IN ('ENCERRADO', 'SUSPENSO')")
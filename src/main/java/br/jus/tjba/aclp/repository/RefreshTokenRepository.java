@@ -1,9 +1,12 @@
 package br.jus.tjba.aclp.repository;
 
 import br.jus.tjba.aclp.model.RefreshToken;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
@@ -21,9 +24,13 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     @Query("DELETE FROM RefreshToken rt WHERE rt.usuario.email = :email")
     void deleteByUsuarioEmail(@Param("email") String email);
 
+    /** Housekeeping: remove um lote de tokens vencidos (idx_refresh_expiry). */
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now")
-    int deleteExpiredTokens(@Param("now") LocalDateTime now);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "refresh_tokens"))
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (" +
+            "SELECT id FROM refresh_tokens WHERE expiry_date < :agora " +
+            "LIMIT :lote FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int excluirExpiradosLote(@Param("agora") LocalDateTime agora, @Param("lote") int lote);
 
     @Query("SELECT rt FROM RefreshToken rt WHERE rt.usuario.id = :userId AND rt.revoked = false AND rt.expiryDate > :now")
     List<RefreshToken> findActiveTokensByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
@@ -0,0 +1,172 @@
+package br.jus.tjba.aclp.repository;
+
+import br.jus.tjba.aclp.model.ResumoDiarioComparecimento;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Escritas em SQL nativo com INSERT ... ON CONFLICT: o incremento é atômico no banco,
+ * sem ler-modificar-gravar na aplicação (dois comparecimentos simultâneos na mesma
+ * chave não se perdem).
+ */
+@Repository
+public interface ResumoDiarioComparecimentoRepository extends JpaRepository<ResumoDiarioComparecimento, Long> {
+
+    // =====================================================================
+    // Manutenção incremental
+    // =====================================================================
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_diario_comparecimentos"))
+    @Query(value = "INSERT INTO resumo_diario_comparecimentos (data, comarca, vara, tipo_validacao, " +
+            "comparecimentos, comparecimentos_avaliados, comparecimentos_no_prazo, mudancas_endereco, " +
+            "processos_ativos, processos_em_conformidade, processos_inadimplentes, atualizado_em) " +
+            "VALUES (:data, :comarca, :vara, :tipo, 1, :avaliados, :noPrazo, :mudancas, 0, 0, 0, now()) " +
+            "ON CONFLICT (data, comarca, vara, tipo_validacao) DO UPDATE SET " +
+            "comparecimentos = resumo_diario_comparecimentos.comparecimentos + 1, " +
+            "comparecimentos_avaliados = resumo_diario_comparecimentos.comparecimentos_avaliados + EXCLUDED.comparecimentos_avaliados, " +
+            "comparecimentos_no_prazo = resumo_diario_comparecimentos.comparecimentos_no_prazo + EXCLUDED.comparecimentos_no_prazo, " +
+            "mudancas_endereco = resumo_diario_comparecimentos.mudancas_endereco + EXCLUDED.mudancas_endereco, " +
+            "atualizado_em = EXCLUDED.atualizado_em",
+            nativeQuery = true)
+    void incrementarComparecimento(
+            @Param("data") LocalDate data,
+            @Param("comarca") String comarca,
+            @Param("vara") String vara,
+            @Param("tipo") String tipo,
+            @Param("avaliados") int avaliados,
+            @Param("noPrazo") int noPrazo,
+            @Param("mudancas") int mudancas);
+
+    /** Fotografia de uma comarca/vara; agregado sem GROUP BY sempre devolve uma linha (zera quem ficou sem ativos). */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_diario_comparecimentos"))
+    @Query(value = "INSERT INTO resumo_diario_comparecimentos (data, comarca, vara, tipo_validacao, " +
+            "comparecimentos, comparecimentos_avaliados, comparecimentos_no_prazo, mudancas_endereco, " +
+            "processos_ativos, processos_em_conformidade, processos_inadimplentes, atualizado_em) " +
+            "SELECT :data, :comarca, :vara, 'TODOS', 0, 0, 0, 0, COUNT(*), " +
+            "COUNT(*) FILTER (WHERE p.status = 'EM_CONFORMIDADE'), " +
+            "COUNT(*) FILTER (WHERE p.status = 'INADIMPLENTE'), now() " +
+            "FROM processos p WHERE p.situacao_processo = 'ATIVO' AND p.comarca = :comarca AND p.vara = :vara " +
+            "ON CONFLICT (data, comarca, vara, tipo_validacao) DO UPDATE SET " +
+            "processos_ativos = EXCLUDED.processos_ativos, " +
+            "processos_em_conformidade = EXCLUDED.processos_em_conformidade, " +
+            "processos_inadimplentes = EXCLUDED.processos_inadimplentes, " +
+            "atualizado_em = EXCLUDED.atualizado_em",
+            nativeQuery = true)
+    void gravarSituacao(
+            @Param("data") LocalDate data,
+            @Param("comarca") String comarca,
+            @Param("vara") String vara);
+
+    // =====================================================================
+    // Reconstrução (backfill / correção de comparecimentos retroativos)
+    // =====================================================================
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_diario_comparecimentos"))
+    @Query(value = "UPDATE resumo_diario_comparecimentos SET processos_ativos = 0, " +
+            "processos_em_conformidade = 0, processos_inadimplentes = 0, atualizado_em = now() " +
+            "WHERE data = :data AND tipo_validacao = 'TODOS'",
+            nativeQuery = true)
+    int zerarSituacao(@Param("data") LocalDate data);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_diario_comparecimentos"))
+    @Query(value = "INSERT INTO resumo_diario_comparecimentos (data, comarca, vara, tipo_validacao, " +
+            "comparecimentos, comparecimentos_avaliados, comparecimentos_no_prazo, mudancas_endereco, " +
+            "processos_ativos, processos_em_conformidade, processos_inadimplentes, atualizado_em) " +
+            "SELECT :data, p.comarca, p.vara, 'TODOS', 0, 0, 0, 0, COUNT(*), " +
+            "COUNT(*) FILTER (WHERE p.status = 'EM_CONFORMIDADE'), " +
+            "COUNT(*) FILTER (WHERE p.status = 'INADIMPLENTE'), now() " +
+            "FROM processos p WHERE p.situacao_processo = 'ATIVO' GROUP BY p.comarca, p.vara " +
+            "ON CONFLICT (data, comarca, vara, tipo_validacao) DO UPDATE SET " +
+            "processos_ativos = EXCLUDED.processos_ativos, " +
+            "processos_em_conformidade = EXCLUDED.processos_em_conformidade, " +
+            "processos_inadimplentes = EXCLUDED.processos_inadimplentes, " +
+            "atualizado_em = EXCLUDED.atualizado_em",
+            nativeQuery = true)
+    int gravarSituacaoGeral(@Param("data") LocalDate data);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_diario_comparecimentos"))
+    @Query(value = "DELETE FROM resumo_diario_comparecimentos " +
+            "WHERE data BETWEEN :inicio AND :fim AND tipo_validacao <> 'TODOS'",
+            nativeQuery = true)
+    int apagarComparecimentos(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    /**
+     * Mesma regra de pontualidade do ComparecimentoService.calcularTendencia: o comparecimento
+     * é avaliado quando há registro anterior do custodiado e periodicidade, e está no prazo
+     * se ocorreu até (anterior + periodicidade). O LAG olha o histórico inteiro até :fim,
+     * então o primeiro comparecimento do período ainda enxerga o anterior a ele.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_diario_comparecimentos"))
+    @Query(value = "INSERT INTO resumo_diario_comparecimentos (data, comarca, vara, tipo_validacao, " +
+            "comparecimentos, comparecimentos_avaliados, comparecimentos_no_prazo, mudancas_endereco, " +
+            "processos_ativos, processos_em_conformidade, processos_inadimplentes, atualizado_em) " +
+            "SELECT h.data_comparecimento, COALESCE(p.comarca, c.comarca, ''), COALESCE(p.vara, c.vara, ''), " +
+            "h.tipo_validacao, COUNT(*), " +
+            "COUNT(*) FILTER (WHERE h.anterior IS NOT NULL AND c.periodicidade IS NOT NULL), " +
+            "COUNT(*) FILTER (WHERE h.anterior IS NOT NULL AND c.periodicidade IS NOT NULL " +
+            "AND h.data_comparecimento <= h.anterior + c.periodicidade), " +
+            "COUNT(*) FILTER (WHERE h.mudanca_endereco), 0, 0, 0, now() " +
+            "FROM (SELECT hc.*, LAG(hc.data_comparecimento) OVER " +
+            "(PARTITION BY hc.custodiado_id ORDER BY hc.data_comparecimento, hc.id) AS anterior " +
+            "FROM historico_comparecimentos hc WHERE hc.data_comparecimento <= :fim) h " +
+            "LEFT JOIN custodiados c ON c.id = h.custodiado_id " +
+            "LEFT JOIN processos p ON p.id = h.processo_id " +
+            "WHERE h.data_comparecimento >= :inicio " +
+            "GROUP BY 1, 2, 3, 4 " +
+            "ON CONFLICT (data, comarca, vara, tipo_validacao) DO UPDATE SET " +
+            "comparecimentos = EXCLUDED.comparecimentos, " +
+            "comparecimentos_avaliados = EXCLUDED.comparecimentos_avaliados, " +
+            "comparecimentos_no_prazo = EXCLUDED.comparecimentos_no_prazo, " +
+            "mudancas_endereco = EXCLUDED.mudancas_endereco, " +
+            "atualizado_em = EXCLUDED.atualizado_em",
+            nativeQuery = true)
+    int reconstruirComparecimentos(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    // =====================================================================
+    // Leitura
+    // =====================================================================
+
+    interface TotaisPeriodo {
+        long getTotal();
+        long getPresenciais();
+        long getOnline();
+        long getCadastrosIniciais();
+        long getMudancasEndereco();
+    }
+
+    interface PontualidadeMensal {
+        int getAno();
+        int getMes();
+        long getAvaliados();
+        long getNoPrazo();
+    }
+
+    @Query("SELECT COALESCE(SUM(r.comparecimentos), 0) AS total, " +
+            "COALESCE(SUM(r.comparecimentos) FILTER (WHERE r.tipoValidacao = 'PRESENCIAL'), 0) AS presenciais, " +
+            "COALESCE(SUM(r.comparecimentos) FILTER (WHERE r.tipoValidacao = 'ONLINE'), 0) AS online, " +
+            "COALESCE(SUM(r.comparecimentos) FILTER (WHERE r.tipoValidacao = 'CADASTRO_INICIAL'), 0) AS cadastrosIniciais, " +
+            "COALESCE(SUM(r.mudancasEndereco), 0) AS mudancasEndereco " +
+            "FROM ResumoDiarioComparecimento r WHERE r.data BETWEEN :inicio AND :fim")
+    TotaisPeriodo somarPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    @Query("SELECT YEAR(r.data) AS ano, MONTH(r.data) AS mes, " +
+            "SUM(r.comparecimentosAvaliados) AS avaliados, SUM(r.comparecimentosNoPrazo) AS noPrazo " +
+            "FROM ResumoDiarioComparecimento r WHERE r.data BETWEEN :inicio AND :fim " +
+            "GROUP BY YEAR(r.data), MONTH(r.data)")
+    List<PontualidadeMensal> pontualidadePorMes(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+}
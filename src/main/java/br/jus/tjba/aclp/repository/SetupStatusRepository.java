@@ -29,10 +29,11 @@ public interface SetupStatusRepository extends JpaRepository<SetupStatus, String
     }
 
     /**
-     * Verifica se setup foi concluído (método utilitário)
+     * Verifica se setup foi concluído (método utilitário). Por findById para sair do cache
+     * de segundo nível — o SetupInterceptor pergunta isso a cada requisição.
      */
     default boolean isCompleted() {
-        return isSetupCompleted().orElse(false);
+        return findById("SINGLE_ROW").map(SetupStatus::isCompleted).orElse(false);
     }
 
     /**
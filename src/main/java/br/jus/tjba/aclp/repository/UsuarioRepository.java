@@ -1,9 +1,14 @@
 package br.jus.tjba.aclp.repository;
 
+import br.jus.tjba.aclp.config.SecondLevelCacheConfig;
 import br.jus.tjba.aclp.model.Usuario;
 import br.jus.tjba.aclp.model.enums.TipoUsuario;
+import br.jus.tjba.aclp.util.Emails;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,20 +19,38 @@ import java.util.Optional;
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     // ==================== BUSCA POR EMAIL ====================
+    // A coluna guarda o email canônico (Emails.canonico, V10): igualdade direta na
+    // unique key. Os métodos default canonizam o parâmetro para os chamadores.
 
     /**
      Busca usuário por email.
      */
-    @Query("SELECT u FROM Usuario u WHERE LOWER(u.email) = LOWER(:email)")
-    Optional<Usuario> findByEmail(@Param("email") String email);
+    default Optional<Usuario> findByEmail(String email) {
+        return findByEmailCanonico(Emails.canonico(email));
+    }
 
     /**
      * Verifica se email já existe. Mesma normalização de findByEmail — se divergirem,
      * a checagem de duplicidade deixa passar um par como "a@x" / "A@x" e a busca
      * subsequente encontra duas linhas para o mesmo login.
      */
-    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM Usuario u WHERE LOWER(u.email) = LOWER(:email)")
-    boolean existsByEmail(@Param("email") String email);
+    default boolean existsByEmail(String email) {
+        return existsByEmailCanonico(Emails.canonico(email));
+    }
+
+    /**
+     * Consultada pelo filtro JWT a cada requisição: resultado no cache de consultas (só o
+     * id; a entidade vem da região "usuario"), descartado a cada escrita em usuarios.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.REGIAO_USUARIO_POR_EMAIL)
+    })
+    @Query("SELECT u FROM Usuario u WHERE u.email = :email")
+    Optional<Usuario> findByEmailCanonico(@Param("email") String email);
+
+    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM Usuario u WHERE u.email = :email")
+    boolean existsByEmailCanonico(@Param("email") String email);
 
     // ==================== BUSCA POR STATUS ATIVO ====================
 
@@ -120,7 +143,7 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      */
     @Query("SELECT u FROM Usuario u WHERE " +
             "(:nome IS NULL OR LOWER(u.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
-            "(:email IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%'))) AND " +
+            "(:email IS NULL OR u.email LIKE CONCAT('%', LOWER(:email), '%')) AND " +
             "(:tipo IS NULL OR u.tipo = :tipo) AND " +
             "(:comarca IS NULL OR u.comarca = :comarca) AND " +
             "(:departamento IS NULL OR u.departamento = :departamento) AND " +
@@ -143,12 +166,20 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     /**
      * Lista comarcas distintas
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.REGIAO_REFERENCIA)
+    })
     @Query("SELECT DISTINCT u.comarca FROM Usuario u WHERE u.comarca IS NOT NULL ORDER BY u.comarca")
     List<String> findDistinctComarcas();
 
     /**
      * Lista departamentos distintos
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.REGIAO_REFERENCIA)
+    })
     @Query("SELECT DISTINCT u.departamento FROM Usuario u WHERE u.departamento IS NOT NULL ORDER BY u.departamento")
     List<String> findDistinctDepartamentos();
 
@@ -157,8 +188,12 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     /**
      * Verifica se existe outro usuário com o mesmo email (exceto o próprio)
      */
-    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM Usuario u WHERE LOWER(u.email) = LOWER(:email) AND u.id <> :id")
-    boolean existsByEmailAndIdNot(@Param("email") String email, @Param("id") Long id);
+    default boolean existsByEmailAndIdNot(String email, Long id) {
+        return existsByEmailCanonicoAndIdNot(Emails.canonico(email), id);
+    }
+
+    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM Usuario u WHERE u.email = :email AND u.id <> :id")
+    boolean existsByEmailCanonicoAndIdNot(@Param("email") String email, @Param("id") Long id);
 
     // ==================== BUSCA PARA CONVITES ====================
 
@@ -171,7 +206,8 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     /**
      * Busca usuário por email e não ativado
      */
-    @Query("SELECT u FROM Usuario u WHERE LOWER(u.email) = LOWER(:email) AND u.ativo = false")
-    Optional<Usuario> findByEmailAndAtivoFalse(@Param("email") String email);
+    default Optional<Usuario> findByEmailAndAtivoFalse(String email) {
+        return findByEmail(email).filter(u -> !Boolean.TRUE.equals(u.getAtivo()));
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package br.jus.tjba.aclp.scheduler;
+
+import br.jus.tjba.aclp.model.ExecucaoLimpeza;
+import br.jus.tjba.aclp.repository.ConviteRepository;
+import br.jus.tjba.aclp.repository.EmailVerificationRepository;
+import br.jus.tjba.aclp.repository.ExecucaoLimpezaRepository;
+import br.jus.tjba.aclp.repository.LoginAttemptRepository;
+import br.jus.tjba.aclp.repository.PreCadastroRepository;
+import br.jus.tjba.aclp.repository.RefreshTokenRepository;
+import br.jus.tjba.aclp.service.CoordenacaoJobsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Limpeza periódica de convites vencidos, pré-cadastros, refresh tokens, tentativas de
+ * login e códigos de verificação.
+ *
+ * Cada tarefa é um UPDATE/DELETE em lote (LIMIT sobre a coluna de expiração indexada,
+ * SKIP LOCKED), um lote por transação, com pausa entre lotes: nenhum lock fica preso por
+ * muito tempo e as requisições intercalam com a limpeza. A execução inteira tem tempo
+ * máximo e ocupa uma das threads de @Scheduled (spring.task.scheduling.pool.size) —
+ * as tarefas curtas seguem nas outras —; o que sobrar fica para a próxima hora.
+ * Cada tarefa grava uma ExecucaoLimpeza com duração e linhas afetadas.
+ */
+@Slf4j
+@Component
+public class HousekeepingScheduler {
+
+    @FunctionalInterface
+    interface Lote {
+        int executar(LocalDateTime corte, int tamanho);
+    }
+
+    private record Tarefa(String nome, Supplier<LocalDateTime> corte, Lote lote) {
+    }
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecucaoLimpezaRepository execucaoRepository;
+    private final CoordenacaoJobsService coordenacaoJobsService;
+    private final List<Tarefa> tarefas;
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+    private final boolean enabled;
+    private final int tamanhoLote;
+    private final long pausaMs;
+    private final long tempoMaximoMs;
+
+    public HousekeepingScheduler(
+            TransactionTemplate transactionTemplate,
+            ExecucaoLimpezaRepository execucaoRepository,
+            CoordenacaoJobsService coordenacaoJobsService,
+            ConviteRepository conviteRepository,
+            PreCadastroRepository preCadastroRepository,
+            RefreshTokenRepository refreshTokenRepository,
+            LoginAttemptRepository loginAttemptRepository,
+            EmailVerificationRepository emailVerificationRepository,
+            @Value("${aclp.limpeza.enabled:true}") boolean enabled,
+            @Value("${aclp.limpeza.lote:1000}") int tamanhoLote,
+            @Value("${aclp.limpeza.pausa-ms:200}") long pausaMs,
+            @Value("${aclp.limpeza.tempo-maximo-ms:60000}") long tempoMaximoMs,
+            @Value("${aclp.limpeza.retencao.pre-cadastros-dias:7}") int preCadastrosDias,
+            @Value("${aclp.limpeza.retencao.login-attempts-dias:30}") int loginAttemptsDias,
+            @Value("${aclp.limpeza.retencao.execucoes-dias:30}") int execucoesDias) {
+        this.transactionTemplate = transactionTemplate;
+        this.execucaoRepository = execucaoRepository;
+        this.coordenacaoJobsService = coordenacaoJobsService;
+        this.enabled = enabled;
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.pausaMs = Math.max(0, pausaMs);
+        this.tempoMaximoMs = tempoMaximoMs;
+
+        this.tarefas = List.of(
+                new Tarefa("convites-vencidos", LocalDateTime::now,
+                        conviteRepository::expirarPendentesVencidos),
+                new Tarefa("pre-cadastros", () -> LocalDateTime.now().minusDays(preCadastrosDias),
+                        preCadastroRepository::excluirExpiradosLote),
+                new Tarefa("refresh-tokens", LocalDateTime::now,
+                        refreshTokenRepository::excluirExpiradosLote),
+                new Tarefa("login-attempts", () -> LocalDateTime.now().minusDays(loginAttemptsDias),
+                        loginAttemptRepository::excluirAnterioresLote),
+                // um dia de folga: o rate limit por email conta códigos já vencidos
+                new Tarefa("codigos-verificacao", () -> LocalDateTime.now().minusDays(1),
+                        emailVerificationRepository::excluirExpiradosLote),
+                new Tarefa("execucoes-limpeza", () -> LocalDateTime.now().minusDays(execucoesDias),
+                        execucaoRepository::excluirAnterioresLote));
+    }
+
+    /** Com várias réplicas, só a que obtiver o lease "housekeeping" limpa naquela hora. */
+    @Scheduled(cron = "${aclp.limpeza.cron:0 20 * * * *}")
+    public void executarAgendado() {
+        if (!enabled) return;
+        coordenacaoJobsService.executarComLease("housekeeping",
+                () -> executar().stream().mapToLong(ExecucaoLimpeza::getLinhasAfetadas).sum());
+    }
+
+    /**
+     * Roda todas as tarefas uma vez. Devolve o registro de cada uma; vazio se outra
+     * execução já estiver em andamento.
+     */
+    public List<ExecucaoLimpeza> executar() {
+        if (!emExecucao.compareAndSet(false, true)) {
+            log.info("Limpeza já em andamento; execução ignorada");
+            return List.of();
+        }
+        try {
+            long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tempoMaximoMs);
+            List<ExecucaoLimpeza> execucoes = new ArrayList<>(tarefas.size());
+            for (Tarefa tarefa : tarefas) {
+                execucoes.add(executar(tarefa, prazo));
+                if (Thread.currentThread().isInterrupted()) break;
+            }
+            return execucoes;
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    public List<ExecucaoLimpeza> ultimasExecucoes() {
+        return execucaoRepository.findTop50ByOrderByIniciadaEmDesc();
+    }
+
+    /** Lotes até um vir incompleto (acabou) ou o prazo vencer; sempre ao menos um lote. */
+    private ExecucaoLimpeza executar(Tarefa tarefa, long prazo) {
+        LocalDateTime iniciadaEm = LocalDateTime.now();
+        LocalDateTime corte = tarefa.corte().get(); // fixo na execução: linhas que vencem durante ela ficam para a próxima
+        long inicio = System.nanoTime();
+        long linhas = 0;
+        int lotes = 0;
+        boolean concluida = false;
+        String erro = null;
+
+        try {
+            while (true) {
+                Integer afetadas = transactionTemplate.execute(status -> tarefa.lote().executar(corte, tamanhoLote));
+                int n = afetadas != null ? afetadas : 0;
+                lotes++;
+                linhas += n;
+                if (n < tamanhoLote) {
+                    concluida = true;
+                    break;
+                }
+                if (System.nanoTime() >= prazo) break;
+                if (pausaMs > 0) Thread.sleep(pausaMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            erro = "Interrompida";
+        } catch (RuntimeException e) {
+            log.error("Limpeza '{}' falhou após {} lote(s)", tarefa.nome(), lotes, e);
+            erro = e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500) : e.getMessage();
+        }
+
+        long duracaoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        if (linhas > 0 || !concluida) {
+            log.info("Limpeza '{}': {} linha(s) em {} lote(s), {} ms{}", tarefa.nome(), linhas, lotes, duracaoMs,
+                    concluida ? "" : " — incompleta, continua na próxima execução");
+        }
+
+        ExecucaoLimpeza execucao = ExecucaoLimpeza.builder()
+                .tarefa(tarefa.nome())
+                .iniciadaEm(iniciadaEm)
+                .duracaoMs(duracaoMs)
+                .linhasAfetadas(linhas)
+                .lotes(lotes)
+                .concluida(concluida)
+                .erro(erro)
+                .build();
+        try {
+            return execucaoRepository.save(execucao);
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível gravar o registro da limpeza '{}': {}", tarefa.nome(), e.getMessage());
+            return execucao;
+        }
+    }
+}
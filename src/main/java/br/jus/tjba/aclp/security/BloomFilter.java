@@ -0,0 +1,86 @@
+package br.jus.tjba.aclp.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre TokenDigest: "não contém" é certeza, "talvez contenha" erra com
+ * a taxa de falso positivo dimensionada. Os k índices saem de h1 + i·h2 (hashing duplo)
+ * — os dois longs já são bits de SHA-256, não há função de hash a mais por consulta.
+ *
+ * Só insere; não remove. Tokens expirados continuam marcados até a próxima reconstrução
+ * (BloomTokenBlacklistService) — custa falsos positivos, nunca um falso negativo.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray palavras;
+    private final long bits;
+    private final int hashes;
+    private final int capacidade;
+    private final AtomicInteger inseridos = new AtomicInteger();
+
+    private BloomFilter(long bits, int hashes, int capacidade) {
+        this.palavras = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.bits = (long) palavras.length() * 64;
+        this.hashes = hashes;
+        this.capacidade = capacidade;
+    }
+
+    /** m = -n·ln p / (ln 2)², k = (m/n)·ln 2. */
+    static BloomFilter dimensionar(int capacidade, double taxaFalsoPositivo) {
+        int n = Math.max(1, capacidade);
+        double p = Math.min(Math.max(taxaFalsoPositivo, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        return new BloomFilter(Math.max(64, m), k, n);
+    }
+
+    void adicionar(TokenDigest d) {
+        long h2 = d.h2() | 1; // ímpar: percorre posições distintas
+        for (int i = 0; i < hashes; i++) {
+            long pos = Math.floorMod(d.h1() + i * h2, bits);
+            int palavra = (int) (pos >>> 6);
+            long mascara = 1L << pos;
+            long atual = palavras.get(palavra);
+            while ((atual & mascara) == 0 && !palavras.compareAndSet(palavra, atual, atual | mascara)) {
+                atual = palavras.get(palavra);
+            }
+        }
+        inseridos.incrementAndGet();
+    }
+
+    boolean talvezContenha(TokenDigest d) {
+        long h2 = d.h2() | 1;
+        for (int i = 0; i < hashes; i++) {
+            long pos = Math.floorMod(d.h1() + i * h2, bits);
+            if ((palavras.get((int) (pos >>> 6)) & (1L << pos)) == 0) return false;
+        }
+        return true;
+    }
+
+    int getInseridos() {
+        return inseridos.get();
+    }
+
+    int getCapacidade() {
+        return capacidade;
+    }
+
+    /** (1 - e^(-k·n/m))^k para os n inseridos até agora. */
+    double taxaFalsoPositivoEstimada() {
+        return Math.pow(1 - Math.exp(-(double) hashes * inseridos.get() / bits), hashes);
+    }
+
+    Map<String, Object> snapshot() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("bits", bits);
+        s.put("bytes", bits / 8);
+        s.put("hashes", hashes);
+        s.put("capacidade", capacidade);
+        s.put("inseridos", inseridos.get());
+        s.put("taxaFalsoPositivoEstimada", taxaFalsoPositivoEstimada());
+        return s;
+    }
+}
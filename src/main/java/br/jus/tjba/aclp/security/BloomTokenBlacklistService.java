@@ -0,0 +1,175 @@
+package br.jus.tjba.aclp.security;
+
+import br.jus.tjba.aclp.config.CacheInvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Blacklist de tokens com filtro de Bloom local na frente do armazenamento (Redis ou
+ * memória). Quase nenhum token está revogado: a consulta que o filtro responde "não
+ * contém" volta sem I/O; só os prováveis acertos vão ao armazenamento, que decide.
+ *
+ * O filtro de cada instância recebe as revogações das outras pelo CacheInvalidationBus
+ * (resumo do token, não o token). Enquanto o barramento não é coerente — revogações
+ * podem não ter chegado — ou antes da primeira carga, toda consulta vai ao armazenamento.
+ * Filtro de Bloom não remove: a reconstrução periódica a partir do armazenamento descarta
+ * os expirados e redimensiona quando passa da capacidade.
+ */
+@Service
+public class BloomTokenBlacklistService implements TokenBlacklistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BloomTokenBlacklistService.class);
+
+    static final String CACHE = "token-blacklist";
+    static final String TIPO = "TokenRevogado";
+
+    private final TokenBlacklistStore store;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final int capacidadeMinima;
+    private final double taxaFalsoPositivo;
+    private final long reconstrucaoMs;
+
+    private volatile BloomFilter filtro;
+    private volatile BloomFilter emReconstrucao;
+    private volatile long ultimaReconstrucao;
+
+    private final LongAdder respondidasPeloFiltro = new LongAdder();
+    private final LongAdder consultasAoArmazenamento = new LongAdder();
+    private final LongAdder falsosPositivos = new LongAdder();
+    private final LongAdder semFiltro = new LongAdder();
+
+    public BloomTokenBlacklistService(TokenBlacklistStore store,
+                                      CacheInvalidationBus cacheInvalidationBus,
+                                      @Value("${aclp.jwt.blacklist.bloom.capacidade:10000}") int capacidadeMinima,
+                                      @Value("${aclp.jwt.blacklist.bloom.taxa-falso-positivo:0.001}") double taxaFalsoPositivo,
+                                      @Value("${aclp.jwt.blacklist.bloom.reconstrucao-ms:600000}") long reconstrucaoMs) {
+        this.store = store;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.capacidadeMinima = capacidadeMinima;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+        this.reconstrucaoMs = reconstrucaoMs;
+        cacheInvalidationBus.registrar(CACHE, this::aplicar);
+    }
+
+    @Override
+    public void blacklist(String token, long expirationMillis) {
+        store.blacklist(token, expirationMillis);
+        TokenDigest digest = TokenDigest.de(token);
+        adicionarLocal(digest);
+        cacheInvalidationBus.publicar(TIPO, digest.hex());
+    }
+
+    @Override
+    public boolean isBlacklisted(String token) {
+        BloomFilter f = filtro;
+        if (f == null || !cacheInvalidationBus.isCoerente()) {
+            semFiltro.increment();
+            return store.isBlacklisted(token);
+        }
+        if (!f.talvezContenha(TokenDigest.de(token))) {
+            respondidasPeloFiltro.increment();
+            return false;
+        }
+        consultasAoArmazenamento.increment();
+        boolean revogado = store.isBlacklisted(token);
+        if (!revogado) falsosPositivos.increment();
+        return revogado;
+    }
+
+    /**
+     * emReconstrucao antes de filtro — ordem inversa à das escritas em reconstruir()
+     * (filtro = novo, depois emReconstrucao = null): quem lê emReconstrucao nulo depois da
+     * troca vê filtro já novo. Na ordem contrária, a revogação que caísse entre as duas
+     * escritas iria só para o filtro descartado.
+     */
+    private void adicionarLocal(TokenDigest digest) {
+        BloomFilter novo = emReconstrucao;
+        if (novo != null) novo.adicionar(digest);
+        BloomFilter f = filtro;
+        if (f != null && f != novo) f.adicionar(digest);
+    }
+
+    void aplicar(CacheInvalidationBus.Invalidacao invalidacao) {
+        if (!invalidacao.remota()) return; // blacklist() já marcou o filtro local
+        if (CacheInvalidationBus.TUDO.equals(invalidacao.tipo())) {
+            reconstruirSemFalhar(); // revogações do intervalo sem barramento podem ter se perdido
+        } else if (TIPO.equals(invalidacao.tipo())) {
+            invalidacao.ids().forEach(hex -> adicionarLocal(TokenDigest.deHex(hex)));
+        }
+    }
+
+    // =====================================================================
+    // Reconstrução
+    // =====================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        reconstruirSemFalhar();
+    }
+
+    /** Verifica a cada minuto; reconstrói quando venceu o intervalo ou passou da capacidade. */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void manter() {
+        BloomFilter f = filtro;
+        boolean vencido = System.currentTimeMillis() - ultimaReconstrucao >= reconstrucaoMs;
+        if (f == null || vencido || f.getInseridos() > f.getCapacidade()) reconstruirSemFalhar();
+    }
+
+    private void reconstruirSemFalhar() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            logger.warn("Filtro da blacklist não reconstruído, consultas seguem pelo filtro atual ou pelo armazenamento: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Monta um filtro novo com os revogados vigentes e troca. Revogações feitas durante a
+     * leitura entram nos dois filtros (adicionarLocal), para não se perderem na troca.
+     */
+    public synchronized int reconstruir() {
+        long inicio = System.currentTimeMillis();
+        BloomFilter atual = filtro;
+        int capacidade = Math.max(capacidadeMinima, atual == null ? 0 : atual.getInseridos() * 2);
+        BloomFilter novo = BloomFilter.dimensionar(capacidade, taxaFalsoPositivo);
+        emReconstrucao = novo;
+        try {
+            store.paraCadaRevogado(novo::adicionar);
+            filtro = novo;
+            ultimaReconstrucao = System.currentTimeMillis();
+        } finally {
+            emReconstrucao = null;
+        }
+        logger.debug("Filtro da blacklist reconstruído: {} tokens em {} ms", novo.getInseridos(),
+                System.currentTimeMillis() - inicio);
+        return novo.getInseridos();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        BloomFilter f = filtro;
+        s.put("filtroAtivo", f != null && cacheInvalidationBus.isCoerente());
+        s.put("filtro", f == null ? null : f.snapshot());
+        long fp = falsosPositivos.sum();
+        long negativos = respondidasPeloFiltro.sum();
+        s.put("respondidasPeloFiltro", negativos);
+        s.put("consultasAoArmazenamento", consultasAoArmazenamento.sum());
+        s.put("falsosPositivos", fp);
+        s.put("taxaFalsoPositivoObservada", fp + negativos > 0 ? (double) fp / (fp + negativos) : null);
+        s.put("consultasSemFiltro", semFiltro.sum());
+        s.put("ultimaReconstrucao", ultimaReconstrucao > 0 ? Instant.ofEpochMilli(ultimaReconstrucao) : null);
+        s.put("armazenamento", store.snapshot());
+        return s;
+    }
+}
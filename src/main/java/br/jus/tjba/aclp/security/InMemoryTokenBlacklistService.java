@@ -3,31 +3,34 @@ package br.jus.tjba.aclp.security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Implementação in-memory da blacklist de tokens JWT.
  * 
  * Ativada quando aclp.redis.enabled=false (ex: deploy no Render sem Redis).
- * Substitui o RedisTokenBlacklistService automaticamente via @Primary + @ConditionalOnProperty.
+ * Substitui o RedisTokenBlacklistService automaticamente via @ConditionalOnProperty.
+ * 
+ * Guarda o TokenDigest do token (128 bits), não o JWT, num TokenDigestSet: algumas
+ * dezenas de bytes por token revogado, e a expiração anda por uma roda de tempo a cada
+ * segundo — remove só o que venceu naquele tick, sem varrer a blacklist.
  * 
  * Limitação: a blacklist é perdida se o servidor reiniciar.
  * Para uma única instância (como no Render free tier), isso é aceitável.
  */
 @Service
-@Primary
 @ConditionalOnProperty(name = "aclp.redis.enabled", havingValue = "false", matchIfMissing = false)
-public class InMemoryTokenBlacklistService implements TokenBlacklistService {
+public class InMemoryTokenBlacklistService implements TokenBlacklistStore {
 
     private static final Logger logger = LoggerFactory.getLogger(InMemoryTokenBlacklistService.class);
 
-    // token -> expiration timestamp (ms)
-    private final Map<String, Long> blacklist = new ConcurrentHashMap<>();
+    private static final long TICK_MS = 1_000;
+
+    private final TokenDigestSet blacklist = new TokenDigestSet(TICK_MS, System.currentTimeMillis(), 1_024);
 
     public InMemoryTokenBlacklistService() {
         logger.info("✅ Token blacklist IN-MEMORY ativada (Redis desabilitado)");
@@ -35,36 +38,46 @@ public class InMemoryTokenBlacklistService implements TokenBlacklistService {
 
     @Override
     public void blacklist(String token, long expirationMillis) {
-        blacklist.put(token, expirationMillis);
-        logger.debug("Token adicionado à blacklist in-memory (total: {})", blacklist.size());
+        TokenDigest digest = TokenDigest.de(token);
+        synchronized (blacklist) {
+            blacklist.adicionar(digest, expirationMillis);
+            logger.debug("Token adicionado à blacklist in-memory (total: {})", blacklist.tamanho());
+        }
     }
 
     @Override
     public boolean isBlacklisted(String token) {
-        Long expiration = blacklist.get(token);
-        if (expiration == null) {
-            return false;
+        TokenDigest digest = TokenDigest.de(token);
+        synchronized (blacklist) {
+            return blacklist.contem(digest, System.currentTimeMillis());
         }
-        // Se já expirou, remove e retorna false
-        if (System.currentTimeMillis() > expiration) {
-            blacklist.remove(token);
-            return false;
+    }
+
+    @Override
+    public void paraCadaRevogado(Consumer<TokenDigest> acao) {
+        synchronized (blacklist) {
+            blacklist.paraCada(System.currentTimeMillis(), acao);
+        }
+    }
+
+    @Override
+    public Map<String, Object> snapshot() {
+        synchronized (blacklist) {
+            return blacklist.snapshot();
         }
-        return true;
     }
 
     /**
-     * Limpa tokens expirados a cada 10 minutos para evitar memory leak.
+     * Avança a roda de expiração: custo proporcional aos tokens que venceram no tick.
      */
-    @Scheduled(fixedRate = 600_000)
-    public void limparTokensExpirados() {
-        int antes = blacklist.size();
-        long agora = System.currentTimeMillis();
-        blacklist.entrySet().removeIf(entry -> agora > entry.getValue());
-        int removidos = antes - blacklist.size();
+    @Scheduled(fixedRate = TICK_MS)
+    public void expirarTokens() {
+        int removidos;
+        synchronized (blacklist) {
+            removidos = blacklist.expirar(System.currentTimeMillis());
+        }
         if (removidos > 0) {
-            logger.debug("Blacklist cleanup: {} tokens expirados removidos (restantes: {})",
-                    removidos, blacklist.size());
+            logger.debug("Blacklist: {} tokens expirados removidos", removidos);
         }
     }
 }
@@ -3,14 +3,17 @@ package br.jus.tjba.aclp.security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 @ConditionalOnProperty(name = "aclp.redis.enabled", havingValue = "true", matchIfMissing = true)
-public class RedisTokenBlacklistService implements TokenBlacklistService {
+public class RedisTokenBlacklistService implements TokenBlacklistStore {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisTokenBlacklistService.class);
     private static final String BLACKLIST_PREFIX = "jwt:blacklist:";
@@ -44,4 +47,13 @@ public class RedisTokenBlacklistService implements TokenBlacklistService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /** SCAN (não KEYS): não bloqueia o Redis enquanto percorre as chaves. */
+    @Override
+    public void paraCadaRevogado(Consumer<TokenDigest> acao) {
+        ScanOptions opcoes = ScanOptions.scanOptions().match(BLACKLIST_PREFIX + "*").count(1000).build();
+        try (Cursor<String> chaves = redisTemplate.scan(opcoes)) {
+            chaves.forEachRemaining(chave -> acao.accept(TokenDigest.de(chave.substring(BLACKLIST_PREFIX.length()))));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package br.jus.tjba.aclp.security;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Armazenamento autoritativo da blacklist (Redis ou memória). A aplicação não o consulta
+ * direto: passa pelo BloomTokenBlacklistService, que só chega aqui nos prováveis acertos.
+ */
+interface TokenBlacklistStore {
+
+    void blacklist(String token, long expirationMillis);
+
+    boolean isBlacklisted(String token);
+
+    /** Resumo de cada token revogado ainda não expirado — para reconstruir o filtro. */
+    void paraCadaRevogado(Consumer<TokenDigest> acao);
+
+    /** Métricas do armazenamento para o monitoramento; vazio quando não há o que expor. */
+    default Map<String, Object> snapshot() {
+        return Map.of();
+    }
+}
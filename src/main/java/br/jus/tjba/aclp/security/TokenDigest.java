@@ -0,0 +1,34 @@
+package br.jus.tjba.aclp.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Resumo de tamanho fixo de um JWT: os 128 primeiros bits do SHA-256 do token, em dois
+ * longs. Identifica o token na blacklist sem guardar a string inteira (centenas de bytes)
+ * e serve de par de hashes para o filtro de Bloom.
+ */
+record TokenDigest(long h1, long h2) {
+
+    static TokenDigest de(String token) {
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buf = ByteBuffer.wrap(sha);
+            return new TokenDigest(buf.getLong(), buf.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e); // obrigatório em toda JVM
+        }
+    }
+
+    /** 32 dígitos hexadecimais — forma usada nas mensagens entre instâncias. */
+    String hex() {
+        return String.format("%016x%016x", h1, h2);
+    }
+
+    static TokenDigest deHex(String hex) {
+        if (hex.length() != 32) throw new IllegalArgumentException("Resumo de token inválido: " + hex);
+        return new TokenDigest(Long.parseUnsignedLong(hex, 0, 16, 16), Long.parseUnsignedLong(hex, 16, 32, 16));
+    }
+}
@@ -0,0 +1,220 @@
+package br.jus.tjba.aclp.security;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Conjunto de TokenDigest com expiração, em arrays de primitivos: sem objeto por token
+ * (h1, h2 e expiração em long[], encadeamento em int[]) e índice por endereçamento
+ * aberto sobre h1 — cerca de 40 bytes por token contra centenas da String do JWT.
+ *
+ * A expiração usa uma roda de tempo hierárquica (NIVEIS níveis de 64 posições, tick de
+ * tickMs): cada token fica na posição do tick em que expira, e expirar() só visita as
+ * posições dos ticks que passaram — o nível 0 a cada tick, os de cima quando o de baixo
+ * dá a volta, redistribuindo seus tokens nos níveis menores. Nunca percorre o conjunto.
+ * Com tick de 1 s a roda cobre 64^4 s (~194 dias); expirações mais distantes ficam na
+ * última posição e são recolocadas ao chegar lá.
+ *
+ * Não é thread-safe: InMemoryTokenBlacklistService sincroniza o acesso.
+ */
+final class TokenDigestSet {
+
+    static final int NIVEIS = 4;
+    private static final int BITS_POSICAO = 6;
+    private static final int POSICOES = 1 << BITS_POSICAO;
+    private static final int VAZIO = -1;
+
+    private final long tickMs;
+    private long tickAtual;
+
+    // entradas; expira == 0 marca posição livre (encadeada em proximo)
+    private long[] h1;
+    private long[] h2;
+    private long[] expira;
+    private int[] proximo;
+    private int topo;
+    private int livre = VAZIO;
+    private int tamanho;
+
+    // endereçamento aberto: índice da entrada ou VAZIO, carga máxima 1/2
+    private int[] indice;
+
+    private final int[] roda = new int[NIVEIS * POSICOES];
+
+    TokenDigestSet(long tickMs, long agoraMs, int capacidadeInicial) {
+        this.tickMs = tickMs;
+        this.tickAtual = agoraMs / tickMs;
+        int cap = Integer.highestOneBit(Math.max(16, capacidadeInicial - 1) << 1);
+        h1 = new long[cap];
+        h2 = new long[cap];
+        expira = new long[cap];
+        proximo = new int[cap];
+        indice = new int[cap * 2];
+        Arrays.fill(indice, VAZIO);
+        Arrays.fill(roda, VAZIO);
+    }
+
+    /** Inclui ou, se já presente, estende a expiração. Já expirado não entra. */
+    void adicionar(TokenDigest d, long expiraMs) {
+        if (alvo(expiraMs) <= tickAtual) return;
+        int pos = posicao(d);
+        int e = indice[pos];
+        if (e != VAZIO) {
+            // a posição antiga na roda é revista quando chegar: recoloca pela expiração nova
+            if (expiraMs > expira[e]) expira[e] = expiraMs;
+            return;
+        }
+        if (tamanho + 1 > h1.length) {
+            crescer();
+            pos = posicao(d);
+        }
+        e = alocar();
+        h1[e] = d.h1();
+        h2[e] = d.h2();
+        expira[e] = expiraMs;
+        indice[pos] = e;
+        tamanho++;
+        agendar(e);
+    }
+
+    boolean contem(TokenDigest d, long agoraMs) {
+        int e = indice[posicao(d)];
+        return e != VAZIO && agoraMs <= expira[e];
+    }
+
+    /** Avança a roda até agoraMs removendo os expirados; devolve quantos saíram. */
+    int expirar(long agoraMs) {
+        long ate = agoraMs / tickMs;
+        int removidos = 0;
+        while (tickAtual < ate) {
+            long t = ++tickAtual;
+            for (int nivel = NIVEIS - 1; nivel > 0; nivel--) {
+                if ((t & ((1L << (BITS_POSICAO * nivel)) - 1)) == 0) {
+                    removidos += esvaziar(nivel, (int) (t >>> (BITS_POSICAO * nivel)) & (POSICOES - 1));
+                }
+            }
+            removidos += esvaziar(0, (int) t & (POSICOES - 1));
+        }
+        return removidos;
+    }
+
+    void paraCada(long agoraMs, Consumer<TokenDigest> acao) {
+        for (int e = 0; e < topo; e++) {
+            if (expira[e] != 0 && agoraMs <= expira[e]) acao.accept(new TokenDigest(h1[e], h2[e]));
+        }
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    long bytesEstimados() {
+        return (long) h1.length * (8 + 8 + 8 + 4) + (long) indice.length * 4 + roda.length * 4L;
+    }
+
+    Map<String, Object> snapshot() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("tokens", tamanho);
+        s.put("capacidade", h1.length);
+        s.put("bytes", bytesEstimados());
+        s.put("bytesPorToken", tamanho == 0 ? 0 : bytesEstimados() / tamanho);
+        s.put("tickMs", tickMs);
+        return s;
+    }
+
+    // primeiro tick em que agoraMs > expiraMs vale para todo o tick
+    private long alvo(long expiraMs) {
+        return expiraMs / tickMs + 1;
+    }
+
+    private void agendar(int e) {
+        long alvo = alvo(expira[e]);
+        long delta = alvo - tickAtual;
+        int nivel = 0;
+        while (nivel < NIVEIS - 1 && delta >= 1L << (BITS_POSICAO * (nivel + 1))) nivel++;
+        if (delta >= 1L << (BITS_POSICAO * NIVEIS)) {
+            alvo = tickAtual + (1L << (BITS_POSICAO * NIVEIS)) - 1; // além da roda: última posição alcançável
+        }
+        int slot = nivel * POSICOES + ((int) (alvo >>> (BITS_POSICAO * nivel)) & (POSICOES - 1));
+        proximo[e] = roda[slot];
+        roda[slot] = e;
+    }
+
+    /** Tira a lista da posição e remove ou recoloca cada entrada conforme a expiração atual. */
+    private int esvaziar(int nivel, int posicao) {
+        int slot = nivel * POSICOES + posicao;
+        int e = roda[slot];
+        roda[slot] = VAZIO;
+        int removidos = 0;
+        while (e != VAZIO) {
+            int seguinte = proximo[e];
+            if (alvo(expira[e]) <= tickAtual) {
+                remover(e);
+                removidos++;
+            } else {
+                agendar(e);
+            }
+            e = seguinte;
+        }
+        return removidos;
+    }
+
+    /** Posição de d no índice: a ocupada por ele ou a vazia onde entraria. */
+    private int posicao(TokenDigest d) {
+        int mascara = indice.length - 1;
+        int pos = (int) d.h1() & mascara; // bits de SHA-256: já uniformes
+        while (true) {
+            int e = indice[pos];
+            if (e == VAZIO || (h1[e] == d.h1() && h2[e] == d.h2())) return pos;
+            pos = (pos + 1) & mascara;
+        }
+    }
+
+    private void remover(int e) {
+        int mascara = indice.length - 1;
+        int i = posicao(new TokenDigest(h1[e], h2[e]));
+        // remoção com deslocamento para trás: mantém as sequências de sondagem sem lápides
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            int f = indice[j];
+            if (f == VAZIO) break;
+            int origem = (int) h1[f] & mascara;
+            boolean fica = i <= j ? (i < origem && origem <= j) : (i < origem || origem <= j);
+            if (fica) continue;
+            indice[i] = f;
+            i = j;
+        }
+        indice[i] = VAZIO;
+
+        expira[e] = 0;
+        proximo[e] = livre;
+        livre = e;
+        tamanho--;
+    }
+
+    private int alocar() {
+        if (livre != VAZIO) {
+            int e = livre;
+            livre = proximo[e];
+            return e;
+        }
+        return topo++;
+    }
+
+    // as entradas mantêm a posição (a roda guarda índices); só o índice é refeito
+    private void crescer() {
+        int cap = h1.length * 2;
+        h1 = Arrays.copyOf(h1, cap);
+        h2 = Arrays.copyOf(h2, cap);
+        expira = Arrays.copyOf(expira, cap);
+        proximo = Arrays.copyOf(proximo, cap);
+        indice = new int[cap * 2];
+        Arrays.fill(indice, VAZIO);
+        for (int e = 0; e < topo; e++) {
+            if (expira[e] != 0) indice[posicao(new TokenDigest(h1[e], h2[e]))] = e;
+        }
+    }
+}
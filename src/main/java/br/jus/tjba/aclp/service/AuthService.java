@@ -1,5 +1,6 @@
 package br.jus.tjba.aclp.service;
 
+import br.jus.tjba.aclp.config.BoundedPasswordEncoder;
 import br.jus.tjba.aclp.dto.AuthDTO.*;
 import br.jus.tjba.aclp.dto.PoliticaSenha;
 import br.jus.tjba.aclp.model.Usuario;
@@ -12,10 +13,12 @@ import br.jus.tjba.aclp.security.JwtTokenProvider;
 import br.jus.tjba.aclp.exception.AuthenticationException;
 import br.jus.tjba.aclp.exception.AccountLockedException;
 import br.jus.tjba.aclp.exception.InvalidTokenException;
+import br.jus.tjba.aclp.exception.PasswordHashingOverloadedException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -23,12 +26,12 @@ import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -42,9 +45,10 @@ public class AuthService {
     private final UsuarioRepository usuarioRepository;
     private final RefreshTokenRepository refreshTokenRepository;
     private final LoginAttemptRepository loginAttemptRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final BoundedPasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    @Lazy
     private final EmailService emailService;
     private final AuditService auditService;
 
@@ -121,6 +125,12 @@ public class AuthService {
         try {
             checkRateLimiting(ipAddress);
 
+            // Fila de hash cheia: recusa antes de ir ao banco. Vale para qualquer email,
+            // então não diz nada sobre a conta.
+            if (passwordEncoder.isSaturado()) {
+                throw new PasswordHashingOverloadedException("Servidor sobrecarregado. Tente novamente em instantes.");
+            }
+
             Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
                     .orElseThrow(() -> new BadCredentialsException("Credenciais invalidas"));
 
@@ -194,6 +204,10 @@ public class AuthService {
         } catch (AuthenticationException e) {
             throw e;
 
+        } catch (PasswordHashingOverloadedException e) {
+            log.warn("Login recusado por sobrecarga - IP: {}", ipAddress);
+            throw e;
+
         } catch (Exception e) {
             log.error("Erro no login - Email: {}, IP: {}", request.getEmail(), ipAddress, e);
             throw new AuthenticationException("Erro ao realizar login. Tente novamente.");
@@ -383,7 +397,9 @@ public class AuthService {
 
         validatePasswordStrength(request.getNovaSenha());
 
-        if (passwordEncoder.matches(request.getNovaSenha(), usuario.getSenha())) {
+        // A senha atual acabou de conferir com o hash; comparar a nova com ela dispensa
+        // um segundo BCrypt. O BCrypt só considera os primeiros 72 bytes.
+        if (mesmosBytesBcrypt(request.getNovaSenha(), request.getSenhaAtual())) {
             throw new IllegalArgumentException("Nova senha nao pode ser igual a anterior");
         }
 
@@ -493,6 +509,12 @@ public class AuthService {
         log.info("Todas as sessoes invalidadas - Usuario: {}", userEmail);
     }
 
+    private static boolean mesmosBytesBcrypt(String a, String b) {
+        byte[] x = a.getBytes(StandardCharsets.UTF_8);
+        byte[] y = b.getBytes(StandardCharsets.UTF_8);
+        return Arrays.equals(x, 0, Math.min(x.length, 72), y, 0, Math.min(y.length, 72));
+    }
+
     private void checkRateLimiting(String ipAddress) {
         long recentAttempts = loginAttemptRepository.countRecentAttemptsByIp(
                 ipAddress, LocalDateTime.now().minusMinutes(1));
@@ -0,0 +1,215 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.dto.CheckinDTO;
+import br.jus.tjba.aclp.dto.ComparecimentoDTO;
+import br.jus.tjba.aclp.dto.HistoricoComparecimentoResponseDTO;
+import br.jus.tjba.aclp.model.enums.TipoValidacao;
+import br.jus.tjba.aclp.repository.CustodiadoRepository;
+import br.jus.tjba.aclp.repository.ProcessoRepository;
+import br.jus.tjba.aclp.util.TextoBusca;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Modo check-in do balcão: identificação por CPF/RG/processo no IndiceCheckin, sem ida
+ * ao banco, e registro do comparecimento na mesma chamada. O mesmo índice responde o
+ * autocompletar de nomes, no lugar do LIKE '%nome%' a cada tecla.
+ *
+ * O índice é carregado no ApplicationReadyEvent e mantido pelos DadosAlteradosEvent:
+ * com custodiadoId recarrega só aquele custodiado (duas queries por chave), sem
+ * (alteração em lote) recarrega tudo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckinService {
+
+    public enum Situacao { REGISTRADO, AMBIGUO, NAO_ENCONTRADO }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class ResultadoCheckin {
+        private Situacao situacao;
+        private String mensagem;
+        /** Preenchido quando AMBIGUO: o balcão escolhe e reenvia com processoId. */
+        private List<IndiceCheckin.Registro> candidatos;
+        private HistoricoComparecimentoResponseDTO comparecimento;
+    }
+
+    private static final int LIMITE_AUTOCOMPLETAR = 50;
+
+    private final CustodiadoRepository custodiadoRepository;
+    private final ProcessoRepository processoRepository;
+    private final ComparecimentoService comparecimentoService;
+
+    private final IndiceCheckin indice = new IndiceCheckin();
+
+    // =====================================================================
+    // Identificação e registro
+    // =====================================================================
+
+    public List<IndiceCheckin.Registro> identificar(String documento) {
+        if (documento == null || documento.isBlank()) throw new IllegalArgumentException("Documento é obrigatório");
+        if (!indice.isCarregado()) reconstruir();
+        return indice.buscar(documento);
+    }
+
+    /** Autocompletar do seletor de custodiado; abaixo de 2 caracteres não sugere nada. */
+    public List<IndiceCheckin.Registro> autocompletar(String termo, int limite, boolean aproximado) {
+        if (TextoBusca.dobrar(termo).length() < 2) return List.of();
+        if (!indice.isCarregado()) reconstruir();
+        return indice.autocompletar(termo, Math.min(Math.max(limite, 1), LIMITE_AUTOCOMPLETAR), aproximado);
+    }
+
+    public ResultadoCheckin identificarERegistrar(CheckinDTO dto) {
+        if (dto.getTipoValidacao() == TipoValidacao.CADASTRO_INICIAL)
+            throw new IllegalArgumentException("Check-in não registra cadastro inicial");
+
+        List<IndiceCheckin.Registro> candidatos = identificar(dto.getDocumento());
+        if (candidatos.isEmpty()) {
+            return ResultadoCheckin.builder().situacao(Situacao.NAO_ENCONTRADO)
+                    .mensagem("Nenhum custodiado ativo com o documento informado").candidatos(List.of()).build();
+        }
+        if (dto.getProcessoId() != null) {
+            candidatos = candidatos.stream()
+                    .filter(r -> r.getProcessos().stream().anyMatch(p -> p.getProcessoId().equals(dto.getProcessoId())))
+                    .toList();
+            if (candidatos.isEmpty())
+                throw new IllegalArgumentException("Processo " + dto.getProcessoId() + " não pertence ao custodiado identificado ou não está ativo");
+        }
+        if (candidatos.size() > 1) {
+            // co-réus no mesmo processo: o número identifica o processo, não a pessoa
+            return ambiguo("Mais de um custodiado corresponde ao documento", candidatos);
+        }
+
+        IndiceCheckin.Registro custodiado = candidatos.get(0);
+        Long processoId = escolherProcesso(custodiado, dto);
+        if (processoId == null && custodiado.getProcessos().size() > 1) {
+            return ambiguo("Custodiado com mais de um processo ativo: informe processoId", candidatos);
+        }
+
+        ComparecimentoDTO comparecimento = ComparecimentoDTO.builder()
+                .processoId(processoId)
+                .custodiadoId(processoId == null ? custodiado.getCustodiadoId() : null)
+                .dataComparecimento(dto.getDataComparecimento() != null ? dto.getDataComparecimento() : LocalDate.now())
+                .horaComparecimento(dto.getHoraComparecimento() != null ? dto.getHoraComparecimento() : LocalTime.now())
+                .tipoValidacao(dto.getTipoValidacao() != null ? dto.getTipoValidacao() : TipoValidacao.PRESENCIAL)
+                .validadoPor(dto.getValidadoPor())
+                .observacoes(dto.getObservacoes())
+                .build();
+
+        return ResultadoCheckin.builder()
+                .situacao(Situacao.REGISTRADO)
+                .mensagem("Comparecimento de " + custodiado.getNome() + " registrado")
+                .candidatos(List.of(custodiado))
+                .comparecimento(comparecimentoService.registrarComparecimento(comparecimento))
+                .build();
+    }
+
+    /**
+     * processoId explícito; senão o único processo ativo; senão o processo cujo número foi
+     * digitado; senão null (sem processo o registro vai pelo custodiado).
+     */
+    private Long escolherProcesso(IndiceCheckin.Registro custodiado, CheckinDTO dto) {
+        if (dto.getProcessoId() != null) return dto.getProcessoId();
+        List<IndiceCheckin.ProcessoAtivo> processos = custodiado.getProcessos();
+        if (processos.size() == 1) return processos.get(0).getProcessoId();
+        String digitado = IndiceCheckin.digitos(dto.getDocumento());
+        return processos.stream()
+                .filter(p -> IndiceCheckin.digitos(p.getNumeroProcesso()).equals(digitado))
+                .map(IndiceCheckin.ProcessoAtivo::getProcessoId)
+                .findFirst().orElse(null);
+    }
+
+    private ResultadoCheckin ambiguo(String mensagem, List<IndiceCheckin.Registro> candidatos) {
+        return ResultadoCheckin.builder().situacao(Situacao.AMBIGUO).mensagem(mensagem).candidatos(candidatos).build();
+    }
+
+    public Map<String, Object> estado() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("carregado", indice.isCarregado());
+        m.put("custodiados", indice.tamanho());
+        return m;
+    }
+
+    // =====================================================================
+    // Manutenção do índice
+    // =====================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        try {
+            reconstruir();
+        } catch (Exception e) {
+            // sem índice o check-in recarrega na primeira consulta
+            log.warn("Índice de check-in não carregado na inicialização: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosAlteradosEvent evento) {
+        try {
+            if (evento.getCustodiadoId() != null) {
+                atualizar(evento.getCustodiadoId());
+            } else if (indice.isCarregado()) {
+                reconstruir();
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao atualizar índice de check-in ({}): {}", evento, e.getMessage());
+        }
+    }
+
+    public synchronized int reconstruir() {
+        long inicio = System.currentTimeMillis();
+        indice.iniciarRecarga();
+        try {
+            Map<Long, List<IndiceCheckin.ProcessoAtivo>> processos = processoRepository.listarDadosCheckin().stream()
+                    .collect(Collectors.groupingBy(ProcessoRepository.DadosCheckin::getCustodiadoId,
+                            Collectors.mapping(CheckinService::processoAtivo, Collectors.toList())));
+            List<IndiceCheckin.Registro> registros = custodiadoRepository.listarDadosCheckin().stream()
+                    .map(c -> registro(c, processos.getOrDefault(c.getId(), List.of())))
+                    .toList();
+            indice.concluirRecarga(registros);
+            log.info("Índice de check-in carregado: {} custodiados em {} ms", registros.size(), System.currentTimeMillis() - inicio);
+            return registros.size();
+        } catch (RuntimeException e) {
+            indice.cancelarRecarga();
+            throw e;
+        }
+    }
+
+    private void atualizar(Long custodiadoId) {
+        custodiadoRepository.buscarDadosCheckin(custodiadoId).ifPresentOrElse(
+                c -> indice.substituir(registro(c, processoRepository.listarDadosCheckinPorCustodiado(custodiadoId).stream()
+                        .map(CheckinService::processoAtivo).toList())),
+                () -> indice.remover(custodiadoId)); // arquivado
+    }
+
+    private static IndiceCheckin.Registro registro(CustodiadoRepository.DadosCheckin c, List<IndiceCheckin.ProcessoAtivo> processos) {
+        return IndiceCheckin.Registro.builder()
+                .custodiadoId(c.getId()).publicId(c.getPublicId()).nome(c.getNome())
+                .cpf(c.getCpf()).rg(c.getRg()).processoLegado(c.getProcesso())
+                .proximoComparecimento(IndiceCheckin.proximoComparecimento(c.getProximoComparecimento(), processos))
+                .processos(processos)
+                .build();
+    }
+
+    private static IndiceCheckin.ProcessoAtivo processoAtivo(ProcessoRepository.DadosCheckin p) {
+        return IndiceCheckin.ProcessoAtivo.builder()
+                .processoId(p.getId()).numeroProcesso(p.getNumeroProcesso())
+                .comarca(p.getComarca()).vara(p.getVara())
+                .status(p.getStatus()).proximoComparecimento(p.getProximoComparecimento())
+                .build();
+    }
+}
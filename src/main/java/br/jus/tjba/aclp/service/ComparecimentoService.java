@@ -1,17 +1,25 @@
 package br.jus.tjba.aclp.service;
 
+import br.jus.tjba.aclp.config.CacheConfig;
 import br.jus.tjba.aclp.dto.ComparecimentoDTO;
 import br.jus.tjba.aclp.dto.HistoricoComparecimentoResponseDTO;
+import br.jus.tjba.aclp.exception.EnderecoSobrepostoException;
 import br.jus.tjba.aclp.model.Custodiado;
 import br.jus.tjba.aclp.model.HistoricoComparecimento;
 import br.jus.tjba.aclp.model.HistoricoEndereco;
 import br.jus.tjba.aclp.model.Processo;
+import br.jus.tjba.aclp.model.enums.CausaTransicaoStatus;
 import br.jus.tjba.aclp.model.enums.SituacaoProcesso;
+import br.jus.tjba.aclp.model.enums.StatusComparecimento;
 import br.jus.tjba.aclp.model.enums.TipoValidacao;
 import br.jus.tjba.aclp.repository.CustodiadoRepository;
 import br.jus.tjba.aclp.repository.HistoricoComparecimentoRepository;
+import br.jus.tjba.aclp.repository.HistoricoComparecimentoRepository.ContagensComCustodiados;
+import br.jus.tjba.aclp.repository.HistoricoComparecimentoRepository.ContagensComparecimento;
 import br.jus.tjba.aclp.repository.HistoricoEnderecoRepository;
 import br.jus.tjba.aclp.repository.ProcessoRepository;
+import br.jus.tjba.aclp.repository.ResumoDiarioComparecimentoRepository.TotaisPeriodo;
+import br.jus.tjba.aclp.util.Documentos;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
@@ -23,6 +31,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -42,6 +52,9 @@ public class ComparecimentoService {
     private final HistoricoComparecimentoRepository historicoComparecimentoRepository;
     private final HistoricoEnderecoRepository historicoEnderecoRepository;
     private final ProcessoRepository processoRepository;
+    private final ResumoDiarioService resumoDiarioService;
+    private final HistoricoStatusService historicoStatusService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // =====================================================================
     // CORREÇÃO DE PERFORMANCE: Listagem paginada com filtros server-side
@@ -67,9 +80,10 @@ public class ComparecimentoService {
                 Join<HistoricoComparecimento, Custodiado> cj = root.join("custodiado", JoinType.LEFT);
                 predicates.add(cb.like(cb.lower(cj.get("nome")), "%" + custodiadoNome.toLowerCase().trim() + "%"));
             }
-            if (numeroProcesso != null && !numeroProcesso.isBlank()) {
+            String processoDigitos = Documentos.digitos(numeroProcesso);
+            if (processoDigitos != null) {
                 Join<HistoricoComparecimento, Processo> pj = root.join("processo", JoinType.LEFT);
-                predicates.add(cb.like(pj.get("numeroProcesso"), "%" + numeroProcesso.trim() + "%"));
+                predicates.add(cb.like(pj.get("numeroProcessoDigitos"), processoDigitos + "%"));
             }
 
             // Sem estes fetch, cada linha da página dispara selects de custodiado/processo
@@ -126,13 +140,19 @@ public class ComparecimentoService {
             processarMudancaEndereco(dto, custodiado, salvo);
             salvo = historicoComparecimentoRepository.save(salvo);
         }
+        resumoDiarioService.registrarComparecimento(salvo);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.COMPARECIMENTO, custodiado.getId()));
 
         if (dto.getTipoValidacao() != TipoValidacao.CADASTRO_INICIAL) {
             if (processo != null) {
+                StatusComparecimento statusAnterior = processo.getStatus();
                 processo.setUltimoComparecimento(dto.getDataComparecimento());
                 processo.calcularProximoComparecimento();
                 processo.atualizarStatusBaseadoEmData();
                 processoRepository.save(processo);
+                historicoStatusService.registrar(processo, statusAnterior, processo.getSituacaoProcesso(),
+                        CausaTransicaoStatus.COMPARECIMENTO, dto.getDataComparecimento());
+                resumoDiarioService.atualizarSituacao(processo);
             }
             custodiado.setUltimoComparecimento(dto.getDataComparecimento());
             custodiado.calcularProximoComparecimento();
@@ -198,17 +218,20 @@ public class ComparecimentoService {
     }
 
     // =====================================================================
-    // ESTATÍSTICAS (inalteradas — signatures mantidas)
+    // ESTATÍSTICAS (signatures mantidas; contagens em uma varredura só)
     // =====================================================================
 
+    @Cacheable(cacheNames = CacheConfig.CONTADORES_COMPARECIMENTOS, key = "'detalhadas'", sync = true)
     @Transactional(readOnly = true)
     public Map<String, Object> buscarEstatisticasDetalhadas() {
+        LocalDate hoje = LocalDate.now();
+        ContagensComCustodiados c = historicoComparecimentoRepository.contarTudoComCustodiados(hoje, hoje.withDayOfMonth(1));
         Map<String, Object> est = new HashMap<>();
-        long totalCustodiados = custodiadoRepository.countActive();
-        long totalComp = historicoComparecimentoRepository.countTotal();
-        long inadimplentes = custodiadoRepository.countInadimplentesAtivos();
-        long presenciais = historicoComparecimentoRepository.countByTipoValidacao(TipoValidacao.PRESENCIAL.name());
-        long online = historicoComparecimentoRepository.countByTipoValidacao(TipoValidacao.ONLINE.name());
+        long totalCustodiados = c.getCustodiadosAtivos();
+        long totalComp = c.getTotal();
+        long inadimplentes = c.getCustodiadosInadimplentes();
+        long presenciais = c.getPresenciais();
+        long online = c.getOnline();
 
         est.put("totalCustodiados", totalCustodiados);
         est.put("custodiadosEmConformidade", totalCustodiados - inadimplentes);
@@ -220,42 +243,45 @@ public class ComparecimentoService {
         est.put("comparecimentosOnline", online);
         est.put("percentualPresencial", totalComp > 0 ? (double)presenciais/totalComp*100 : 0);
         est.put("percentualOnline", totalComp > 0 ? (double)online/totalComp*100 : 0);
-        est.put("totalMudancasEndereco", historicoComparecimentoRepository.countComMudancaEndereco());
-        est.put("comparecimentosHoje", historicoComparecimentoRepository.countByDataComparecimento(LocalDate.now()));
-        est.put("dataConsulta", LocalDate.now());
+        est.put("totalMudancasEndereco", c.getMudancasEndereco());
+        est.put("comparecimentosHoje", c.getHoje());
+        est.put("dataConsulta", hoje);
         return est;
     }
 
+    /** Lê o resumo diário: dezenas de linhas por mês, independente do volume do histórico. */
+    @Cacheable(cacheNames = CacheConfig.CONTADORES_COMPARECIMENTOS, key = "'periodo:' + #inicio + ':' + #fim", sync = true)
     @Transactional(readOnly = true)
     public EstatisticasComparecimento buscarEstatisticas(LocalDate inicio, LocalDate fim) {
         if (inicio == null || fim == null) throw new IllegalArgumentException("Datas obrigatórias");
         if (inicio.isAfter(fim)) throw new IllegalArgumentException("Início posterior ao fim");
-        List<HistoricoComparecimento> comps = historicoComparecimentoRepository.findByDataComparecimentoBetween(inicio, fim);
-        long total = comps.size();
+        TotaisPeriodo t = resumoDiarioService.totaisPeriodo(inicio, fim);
+        long total = t.getTotal();
         return EstatisticasComparecimento.builder()
                 .periodo(inicio + " a " + fim).totalComparecimentos(total)
-                .comparecimentosPresenciais(comps.stream().filter(h -> h.getTipoValidacao() == TipoValidacao.PRESENCIAL).count())
-                .comparecimentosOnline(comps.stream().filter(h -> h.getTipoValidacao() == TipoValidacao.ONLINE).count())
-                .cadastrosIniciais(comps.stream().filter(h -> h.getTipoValidacao() == TipoValidacao.CADASTRO_INICIAL).count())
-                .mudancasEndereco(comps.stream().filter(HistoricoComparecimento::houveMudancaEndereco).count())
-                .percentualPresencial(total > 0 ? (double) comps.stream().filter(h -> h.getTipoValidacao() == TipoValidacao.PRESENCIAL).count() / total * 100 : 0)
-                .percentualOnline(total > 0 ? (double) comps.stream().filter(h -> h.getTipoValidacao() == TipoValidacao.ONLINE).count() / total * 100 : 0)
+                .comparecimentosPresenciais(t.getPresenciais())
+                .comparecimentosOnline(t.getOnline())
+                .cadastrosIniciais(t.getCadastrosIniciais())
+                .mudancasEndereco(t.getMudancasEndereco())
+                .percentualPresencial(total > 0 ? (double) t.getPresenciais() / total * 100 : 0)
+                .percentualOnline(total > 0 ? (double) t.getOnline() / total * 100 : 0)
                 .build();
     }
 
+    @Cacheable(cacheNames = CacheConfig.CONTADORES_COMPARECIMENTOS, key = "'gerais'", sync = true)
     @Transactional(readOnly = true)
     public EstatisticasGerais buscarEstatisticasGerais() {
-        long total = historicoComparecimentoRepository.countTotal();
-        long pres = historicoComparecimentoRepository.countByTipoValidacao(TipoValidacao.PRESENCIAL.name());
-        long onl = historicoComparecimentoRepository.countByTipoValidacao(TipoValidacao.ONLINE.name());
-        long cad = historicoComparecimentoRepository.countByTipoValidacao(TipoValidacao.CADASTRO_INICIAL.name());
-        long dist = historicoComparecimentoRepository.countCustodiadosDistintos();
-        LocalDate inicioMes = LocalDate.now().withDayOfMonth(1);
+        LocalDate hoje = LocalDate.now();
+        ContagensComparecimento c = historicoComparecimentoRepository.contarTudo(hoje, hoje.withDayOfMonth(1));
+        long total = c.getTotal();
+        long pres = c.getPresenciais();
+        long onl = c.getOnline();
+        long dist = c.getCustodiadosDistintos();
         return EstatisticasGerais.builder()
                 .totalComparecimentos(total).comparecimentosPresenciais(pres).comparecimentosOnline(onl)
-                .cadastrosIniciais(cad).totalMudancasEndereco(historicoComparecimentoRepository.countComMudancaEndereco())
-                .comparecimentosHoje(historicoComparecimentoRepository.countByDataComparecimento(LocalDate.now()))
-                .comparecimentosEsteMes(historicoComparecimentoRepository.countByDataComparecimentoBetween(inicioMes, LocalDate.now()))
+                .cadastrosIniciais(c.getCadastrosIniciais()).totalMudancasEndereco(c.getMudancasEndereco())
+                .comparecimentosHoje(c.getHoje())
+                .comparecimentosEsteMes(c.getEsteMes())
                 .custodiadosComComparecimento(dist)
                 .percentualPresencial(total > 0 ? (double)pres/total*100 : 0)
                 .percentualOnline(total > 0 ? (double)onl/total*100 : 0)
@@ -263,6 +289,7 @@ public class ComparecimentoService {
                 .build();
     }
 
+    @Cacheable(cacheNames = CacheConfig.CONTADORES_COMPARECIMENTOS, key = "'resumo-sistema'", sync = true)
     @Transactional(readOnly = true)
     public ResumoSistema buscarResumoSistema() {
         LocalDate hoje = LocalDate.now();
@@ -271,13 +298,13 @@ public class ComparecimentoService {
         List<Custodiado> ativos = custodiadoRepository.findAllActive();
         long tc = ativos.size();
         long inad = ativos.stream().filter(Custodiado::isInadimplente).count();
-        LocalDate inicioMes = hoje.withDayOfMonth(1);
+        ContagensComparecimento c = historicoComparecimentoRepository.contarTudo(hoje, hoje.withDayOfMonth(1));
         return ResumoSistema.builder()
                 .totalCustodiados(tc).custodiadosEmConformidade(tc-inad).custodiadosInadimplentes(inad)
-                .comparecimentosHoje(historicoComparecimentoRepository.countByDataComparecimento(hoje))
-                .totalComparecimentos(historicoComparecimentoRepository.countTotal())
-                .comparecimentosEsteMes(historicoComparecimentoRepository.countByDataComparecimentoBetween(inicioMes, hoje))
-                .totalMudancasEndereco(historicoComparecimentoRepository.countComMudancaEndereco())
+                .comparecimentosHoje(c.getHoje())
+                .totalComparecimentos(c.getTotal())
+                .comparecimentosEsteMes(c.getEsteMes())
+                .totalMudancasEndereco(c.getMudancasEndereco())
                 .enderecosAtivos(historicoEnderecoRepository.findAllEnderecosAtivos().size())
                 .custodiadosSemHistorico(custodiadoRepository.findCustodiadosSemHistorico().size())
                 .custodiadosSemEnderecoAtivo(historicoEnderecoRepository.countCustodiadosSemEnderecoAtivo())
@@ -286,10 +313,8 @@ public class ComparecimentoService {
                 .proximosComparecimentos(montarProximosComparecimentos(ativos, hoje))
                 .analiseAtrasos(montarAnaliseAtrasos(ativos))
                 .relatorioUltimosMeses(montarRelatorioUltimosMeses(hoje))
-                // 12 meses carregados para ter o comparecimento ANTERIOR de cada custodiado;
-                // só os 6 últimos entram no gráfico.
-                .tendenciaConformidade(calcularTendencia(
-                        historicoComparecimentoRepository.findByDataComparecimentoBetween(hoje.minusMonths(12), hoje), hoje))
+                .tendenciaConformidade(montarTendencia(resumoDiarioService.pontualidadeMensal(
+                        YearMonth.from(hoje).minusMonths(5), YearMonth.from(hoje))))
                 .dataConsulta(hoje)
                 .build();
     }
@@ -298,7 +323,8 @@ public class ComparecimentoService {
      * Taxa de pontualidade por mês, derivada do próprio histórico: um comparecimento
      * está no prazo quando ocorre até (comparecimento anterior + periodicidade).
      * O primeiro registro de cada custodiado é ignorado — não há prazo anterior.
-     * ponytail: agrega em memória; virar query agregada se o histórico crescer muito.
+     * O resumo diário aplica esta mesma regra em SQL (ResumoDiarioComparecimentoRepository);
+     * esta versão em memória é a referência e precisa de 12 meses de histórico para 6 de gráfico.
      */
     static List<TendenciaMensalDTO> calcularTendencia(List<HistoricoComparecimento> historico, LocalDate hoje) {
         YearMonth ultimoMes = YearMonth.from(hoje);
@@ -322,6 +348,11 @@ public class ComparecimentoService {
             }
         }
 
+        return montarTendencia(meses);
+    }
+
+    /** @param meses mês → [avaliados, noPrazo], em ordem cronológica */
+    static List<TendenciaMensalDTO> montarTendencia(Map<YearMonth, long[]> meses) {
         if (meses.values().stream().noneMatch(m -> m[0] > 0)) return null; // front mostra estado vazio
 
         Locale ptBr = Locale.forLanguageTag("pt-BR");
@@ -379,10 +410,11 @@ public class ComparecimentoService {
 
     private RelatorioUltimosMesesDTO montarRelatorioUltimosMeses(LocalDate hoje) {
         LocalDate inicio = hoje.minusMonths(6).withDayOfMonth(1);
-        long total = historicoComparecimentoRepository.countByDataComparecimentoBetween(inicio, hoje);
-        long presenciais = historicoComparecimentoRepository.countByTipoValidacaoAndPeriodo(TipoValidacao.PRESENCIAL.name(), inicio, hoje);
-        long online = historicoComparecimentoRepository.countByTipoValidacaoAndPeriodo(TipoValidacao.ONLINE.name(), inicio, hoje);
-        long mudancas = historicoComparecimentoRepository.countMudancasEnderecoBetween(inicio, hoje);
+        TotaisPeriodo t = resumoDiarioService.totaisPeriodo(inicio, hoje);
+        long total = t.getTotal();
+        long presenciais = t.getPresenciais();
+        long online = t.getOnline();
+        long mudancas = t.getMudancasEndereco();
         if (total == 0) return null; // frontend mostra estado vazio honesto
         return RelatorioUltimosMesesDTO.builder()
                 .mesesAnalisados(6).periodoInicio(inicio).periodoFim(hoje)
@@ -407,10 +439,12 @@ public class ComparecimentoService {
                     List<Processo> procs = processoRepository.findProcessosAtivosByCustodiado(c.getId());
                     if (!procs.isEmpty()) ci.setProcesso(procs.get(0));
                     historicoComparecimentoRepository.save(ci);
+                    resumoDiarioService.registrarComparecimento(ci);
                     migrados++;
                 }
             } catch (Exception e) { erros.add(c.getNome() + ": " + e.getMessage()); }
         }
+        if (migrados > 0) eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.COMPARECIMENTO));
         return Map.of("status", "success", "totalCustodiados", todos.size(), "custodiadosMigrados", migrados, "erros", erros.size(), "detalhesErros", erros);
     }
 
@@ -486,7 +520,11 @@ public class ComparecimentoService {
     }
 
     private void processarMudancaEndereco(ComparecimentoDTO dto, Custodiado custodiado, HistoricoComparecimento historico) {
-        historicoEnderecoRepository.desativarTodosEnderecosPorCustodiado(custodiado.getId());
+        if (historicoEnderecoRepository.existsByCustodiadoIdAndDataInicioAfter(custodiado.getId(), dto.getDataComparecimento())) {
+            throw new EnderecoSobrepostoException("Já há endereço registrado depois de " + dto.getDataComparecimento()
+                    + "; mudança de endereço retroativa não pode sobrepor o histórico");
+        }
+        historicoEnderecoRepository.encerrarPeriodoVigenteEm(custodiado.getId(), dto.getDataComparecimento());
         HistoricoEndereco novo = HistoricoEndereco.builder()
                 .custodiado(custodiado).cep(dto.getNovoEndereco().getCep())
                 .logradouro(dto.getNovoEndereco().getLogradouro()).numero(dto.getNovoEndereco().getNumero())
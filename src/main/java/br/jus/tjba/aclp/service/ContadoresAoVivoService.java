@@ -0,0 +1,204 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.dto.ContadoresPorLocalDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contadores do dashboard por Server-Sent Events, no lugar do polling de cada aba.
+ *
+ * Tópicos: "geral" e "comarca:{nome}". Alterações (DadosAlteradosEvent) só marcam os
+ * contadores como sujos; uma thread própria verifica a marca a cada intervalo mínimo
+ * (aclp.sse.intervalo-minimo-ms, 1 s), calcula todos os tópicos com uma única chamada a
+ * contadoresPorLocal (que passa pelo cache) e envia a mesma string JSON a todos os
+ * assinantes do tópico — só quando o valor mudou. Rajadas de comparecimentos viram
+ * no máximo um envio por segundo por tópico.
+ *
+ * SseEmitter é assíncrono: a conexão ociosa não prende thread do Tomcat (NIO), só o
+ * registro no mapa de assinantes.
+ * ponytail: o envio é sequencial na thread do agendador; com milhares de assinantes
+ * lentos no mesmo tópico, dividir o envio em um pool.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContadoresAoVivoService {
+
+    static final String TOPICO_GERAL = "geral";
+    static final String EVENTO = "contadores";
+
+    private final ProcessoService processoService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${aclp.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${aclp.sse.intervalo-minimo-ms:1000}")
+    private long intervaloMinimoMs;
+
+    @Value("${aclp.sse.heartbeat-ms:25000}")
+    private long heartbeatMs;
+
+    private final Map<String, Set<SseEmitter>> assinantes = new ConcurrentHashMap<>();
+    private final Map<String, ContadoresPorLocalDTO.Contadores> ultimoValor = new ConcurrentHashMap<>();
+    private final Map<String, String> ultimoJson = new ConcurrentHashMap<>();
+    private final AtomicBoolean alterado = new AtomicBoolean(true);
+
+    private ScheduledExecutorService agendador;
+
+    @PostConstruct
+    void iniciar() {
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sse-contadores");
+            t.setDaemon(true);
+            return t;
+        });
+        agendador.scheduleWithFixedDelay(this::publicarSeAlterado, intervaloMinimoMs, intervaloMinimoMs, TimeUnit.MILLISECONDS);
+        // proxies (Render) derrubam conexões sem tráfego; o comentário também detecta cliente morto
+        agendador.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void parar() {
+        agendador.shutdownNow();
+        assinantes.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        assinantes.clear();
+    }
+
+    public SseEmitter assinar(String comarca) {
+        String topico = topico(comarca);
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+
+        assinantes.compute(topico, (t, emitters) -> {
+            Set<SseEmitter> s = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            s.add(emitter);
+            return s;
+        });
+        emitter.onCompletion(() -> remover(topico, emitter));
+        emitter.onTimeout(() -> remover(topico, emitter));
+        emitter.onError(e -> remover(topico, emitter));
+
+        String atual = ultimoJson.get(topico);
+        if (atual != null) {
+            enviar(topico, emitter, atual);
+        } else {
+            alterado.set(true); // primeiro assinante do tópico: valor sai no próximo ciclo
+        }
+        log.debug("Assinatura SSE em '{}' ({} no tópico)", topico, assinantes.getOrDefault(topico, Set.of()).size());
+        return emitter;
+    }
+
+    /** Depois do ContadoresCacheListener: o próximo ciclo já lê o cache invalidado. */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosAlteradosEvent evento) {
+        alterado.set(true);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        Map<String, Integer> porTopico = new LinkedHashMap<>();
+        assinantes.forEach((topico, emitters) -> porTopico.put(topico, emitters.size()));
+        m.put("conexoes", porTopico.values().stream().mapToInt(Integer::intValue).sum());
+        m.put("porTopico", porTopico);
+        return m;
+    }
+
+    // =====================================================================
+    // Ciclo de publicação
+    // =====================================================================
+
+    void publicarSeAlterado() {
+        if (assinantes.isEmpty() || !alterado.getAndSet(false)) return;
+        try {
+            // a carga do cache vai ao primário: com alterado já limpo, valor da réplica ficaria no ar
+            ContadoresPorLocalDTO contadores = processoService.contadoresPorLocal(null);
+            publicar(TOPICO_GERAL, null, contadores.getTotal());
+            for (ContadoresPorLocalDTO.Comarca c : contadores.getComarcas()) {
+                publicar(topico(c.getComarca()), c.getComarca(), c.getContadores());
+            }
+        } catch (Exception e) {
+            alterado.set(true); // tenta de novo no próximo ciclo
+            log.warn("Falha ao publicar contadores ao vivo: {}", e.getMessage());
+        }
+    }
+
+    private void publicar(String topico, String comarca, ContadoresPorLocalDTO.Contadores contadores) throws IOException {
+        Set<SseEmitter> emitters = assinantes.get(topico);
+        if (emitters == null || emitters.isEmpty()) return;
+        if (contadores.equals(ultimoValor.get(topico)) && ultimoJson.containsKey(topico)) return;
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("topico", topico);
+        payload.put("comarca", comarca);
+        payload.put("contadores", contadores);
+        payload.put("atualizadoEm", LocalDateTime.now());
+        String json = objectMapper.writeValueAsString(payload);
+
+        ultimoValor.put(topico, contadores);
+        ultimoJson.put(topico, json);
+        for (SseEmitter emitter : emitters) enviar(topico, emitter, json);
+    }
+
+    private void heartbeat() {
+        assinantes.forEach((topico, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (Exception e) {
+                    descartar(topico, emitter, e);
+                }
+            }
+        });
+    }
+
+    private void enviar(String topico, SseEmitter emitter, String json) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENTO).data(json, MediaType.APPLICATION_JSON));
+        } catch (Exception e) {
+            descartar(topico, emitter, e);
+        }
+    }
+
+    private void descartar(String topico, SseEmitter emitter, Exception causa) {
+        log.debug("Assinante SSE desconectado de '{}': {}", topico, causa.getMessage());
+        remover(topico, emitter);
+        emitter.completeWithError(causa);
+    }
+
+    private void remover(String topico, SseEmitter emitter) {
+        assinantes.computeIfPresent(topico, (t, emitters) -> {
+            emitters.remove(emitter);
+            if (!emitters.isEmpty()) return emitters;
+            // sem assinantes o tópico deixa de ser atualizado: o valor guardado ficaria velho
+            ultimoValor.remove(topico);
+            ultimoJson.remove(topico);
+            return null;
+        });
+    }
+
+    static String topico(String comarca) {
+        return comarca == null || comarca.isBlank() ? TOPICO_GERAL : "comarca:" + comarca.trim();
+    }
+}
@@ -0,0 +1,50 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invalida os caches de contadores afetados por cada tipo de alteração.
+ *
+ * Só invalida (não corrige o valor em cache): um comparecimento muda status, próximo
+ * comparecimento e contagens do dia ao mesmo tempo, e recalcular tudo na próxima leitura
+ * custa uma query agregada. Roda após o commit; fora de transação, na hora.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContadoresCacheListener {
+
+    private static final Map<DadosAlteradosEvent.Origem, List<String>> AFETADOS = Map.of(
+            DadosAlteradosEvent.Origem.COMPARECIMENTO, List.of(
+                    CacheConfig.CONTADORES_COMPARECIMENTOS, CacheConfig.CONTADORES_PROCESSOS, CacheConfig.CONTADORES_STATUS),
+            DadosAlteradosEvent.Origem.CUSTODIADO, List.of(
+                    CacheConfig.CONTADORES_COMPARECIMENTOS, CacheConfig.CONTADORES_PROCESSOS, CacheConfig.CONTADORES_STATUS),
+            DadosAlteradosEvent.Origem.PROCESSO, List.of(
+                    CacheConfig.CONTADORES_PROCESSOS, CacheConfig.CONTADORES_STATUS),
+            // o job de status também atualiza custodiados (resumo do sistema e estatísticas detalhadas)
+            DadosAlteradosEvent.Origem.STATUS, List.of(
+                    CacheConfig.CONTADORES_COMPARECIMENTOS, CacheConfig.CONTADORES_PROCESSOS, CacheConfig.CONTADORES_STATUS));
+
+    private final CacheManager cacheManager;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE) // antes de quem relê os contadores (ContadoresAoVivoService)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosAlteradosEvent evento) {
+        for (String nome : AFETADOS.get(evento.getOrigem())) {
+            Cache cache = cacheManager.getCache(nome);
+            if (cache != null) cache.clear();
+        }
+        log.debug("Contadores invalidados por {}", evento.getOrigem());
+    }
+}
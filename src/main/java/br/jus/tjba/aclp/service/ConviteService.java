@@ -11,12 +11,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,6 +27,7 @@ public class ConviteService {
     private final ConviteRepository conviteRepository;
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    @Lazy
     private final EmailConviteService emailConviteService; // FIX #11: classe separada
     private final AuthService authService;
 
@@ -302,22 +302,6 @@ public class ConviteService {
                 .build();
     }
 
-    @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
-    public void expirarConvitesAutomaticamente() {
-        log.info("Iniciando verificação de convites expirados");
-
-        List<Convite> convitesExpirados = conviteRepository
-                .findConvitesExpirados(LocalDateTime.now());
-
-        for (Convite convite : convitesExpirados) {
-            convite.expirar();
-            conviteRepository.save(convite);
-        }
-
-        log.info("Convites expirados: {}", convitesExpirados.size());
-    }
-
     private ConviteListItem toListItem(Convite convite) {
         return ConviteListItem.builder()
                 .id(convite.getId())
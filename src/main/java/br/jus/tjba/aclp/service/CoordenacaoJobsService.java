@@ -0,0 +1,459 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.model.JobExecucao;
+import br.jus.tjba.aclp.model.JobShard;
+import br.jus.tjba.aclp.model.enums.StatusExecucaoJob;
+import br.jus.tjba.aclp.repository.JobExecucaoRepository;
+import br.jus.tjba.aclp.repository.JobLeaseRepository;
+import br.jus.tjba.aclp.repository.JobShardRepository;
+import br.jus.tjba.aclp.repository.JobShardRepository.Faixa;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Coordena os jobs agendados entre réplicas pelo banco (V12).
+ *
+ * Job simples: só a instância que obtém o lease em job_leases executa; as outras pulam
+ * aquele disparo. Job fracionado: quem obtém o lease divide a faixa de ids em
+ * job_shards e todas as instâncias (inclusive ela) reivindicam faixas com SKIP LOCKED —
+ * cada faixa é processada e marcada concluída na mesma transação. A instância que fecha
+ * a última faixa roda a finalização do job. Cada execução fica em job_execucoes.
+ *
+ * Dentro da instância, as faixas rodam em paralelo num ThreadPoolExecutor de tamanho
+ * fixo (aclp.jobs.faixas.paralelismo — abaixo do pool do Hikari: cada worker segura uma
+ * conexão). Não ForkJoinPool: os workers passam o tempo bloqueados em JDBC, e o
+ * ForkJoinPool não foi feito para isso (nem compensa o bloqueio sem ManagedBlocker).
+ * Cada faixa é uma transação nova numa thread do pool, sem EntityManager aberto fora
+ * dela (open-in-view desligado): o contexto de persistência nasce e morre com a faixa,
+ * e o heap fica limitado pelo tamanho da faixa vezes o paralelismo.
+ *
+ * Jobs que só mexem em memória local (sessões, blacklist de tokens, self-ping) continuam
+ * rodando em todas as instâncias, sem lease.
+ */
+@Slf4j
+@Service
+public class CoordenacaoJobsService {
+
+    /** Processa os ids em [inicio, fim) e devolve quantos itens contou. */
+    @FunctionalInterface
+    public interface ProcessadorFaixa {
+        long processar(long inicio, long fim);
+    }
+
+    private record JobFracionado(ProcessadorFaixa processador, Runnable finalizacao) {
+    }
+
+    private final JobLeaseRepository leaseRepository;
+    private final JobExecucaoRepository execucaoRepository;
+    private final JobShardRepository shardRepository;
+    /** Lease, histórico e faixas: sempre em transação própria, curta. */
+    private final TransactionTemplate novaTransacao;
+    private final Map<String, JobFracionado> fracionados = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor poolFaixas;
+
+    @Getter
+    private final String instancia;
+    private final long leaseMaximoSegundos;
+    private final long leaseMinimoSegundos;
+    private final long leaseFaixaSegundos;
+    private final int maxTentativasFaixa;
+
+    public CoordenacaoJobsService(
+            JobLeaseRepository leaseRepository,
+            JobExecucaoRepository execucaoRepository,
+            JobShardRepository shardRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${aclp.jobs.instancia:}") String instancia,
+            @Value("${aclp.jobs.lease-maximo-s:3600}") long leaseMaximoSegundos,
+            @Value("${aclp.jobs.lease-minimo-s:300}") long leaseMinimoSegundos,
+            @Value("${aclp.jobs.faixas.lease-s:600}") long leaseFaixaSegundos,
+            @Value("${aclp.jobs.faixas.max-tentativas:3}") int maxTentativasFaixa,
+            @Value("${aclp.jobs.faixas.paralelismo:0}") int paralelismo) {
+        this.leaseRepository = leaseRepository;
+        this.execucaoRepository = execucaoRepository;
+        this.shardRepository = shardRepository;
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // RuntimeMXBean: "pid@host" — distingue duas JVMs no mesmo host
+        this.instancia = instancia != null && !instancia.isBlank()
+                ? instancia : ManagementFactory.getRuntimeMXBean().getName();
+        this.leaseMaximoSegundos = leaseMaximoSegundos;
+        this.leaseMinimoSegundos = leaseMinimoSegundos;
+        this.leaseFaixaSegundos = leaseFaixaSegundos;
+        this.maxTentativasFaixa = Math.max(1, maxTentativasFaixa);
+        int n = paralelismo > 0 ? paralelismo : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequencia = new AtomicInteger();
+        // fila para alguns disparos simultâneos (jobs diferentes, manual + agendado); além disso rejeita
+        this.poolFaixas = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(n * 4), r -> {
+            Thread t = new Thread(r, "job-faixas-" + sequencia.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void encerrarPool() {
+        poolFaixas.shutdownNow();
+    }
+
+    /** Disparo agendado: não repete se o job já rodou nos últimos lease-minimo-s. */
+    public Optional<Long> executarComLease(String job, LongSupplier trabalho) {
+        return executarComLease(job, Duration.ofSeconds(leaseMinimoSegundos), trabalho);
+    }
+
+    /**
+     * Executa o trabalho se esta instância obtiver o lease do job; vazio se outra estiver
+     * com ele ou se uma execução do job começou há menos de janela (o mesmo cron disparado
+     * por uma instância com o relógio atrasado; Duration.ZERO para disparo manual). O
+     * trabalho roda fora de transação (ele gerencia as suas).
+     */
+    public Optional<Long> executarComLease(String job, Duration janela, LongSupplier trabalho) {
+        if (!adquirir(job)) {
+            log.debug("Job '{}' em execução em outra instância; disparo ignorado", job);
+            return Optional.empty();
+        }
+        try {
+            if (executadoHaPouco(job, janela)) {
+                log.debug("Job '{}' já executado nos últimos {}; disparo ignorado", job, janela);
+                return Optional.empty();
+            }
+            JobExecucao execucao = emNovaTransacao(() -> execucaoRepository.save(JobExecucao.builder()
+                    .job(job)
+                    .instancia(instancia)
+                    .status(StatusExecucaoJob.EM_EXECUCAO)
+                    .iniciadaEm(LocalDateTime.now())
+                    .build()));
+            long itens = 0;
+            String erro = "Interrompida";
+            boolean concluida = false;
+            try {
+                itens = trabalho.getAsLong();
+                concluida = true;
+                return Optional.of(itens);
+            } catch (RuntimeException | Error e) {
+                erro = e.getMessage() != null ? e.getMessage() : e.toString();
+                throw e;
+            } finally {
+                // finally: nem Error deixa a execução EM_EXECUCAO para sempre
+                encerrar(execucao, concluida ? StatusExecucaoJob.CONCLUIDA : StatusExecucaoJob.FALHOU,
+                        concluida ? itens : 0, concluida ? null : erro);
+            }
+        } finally {
+            liberar(job);
+        }
+    }
+
+    /** Como executarComLease, com o trabalho numa transação só. */
+    public Optional<Long> executarComLeaseEmTransacao(String job, Duration janela, LongSupplier trabalho) {
+        return executarComLease(job, janela, () -> emNovaTransacao(trabalho::getAsLong));
+    }
+
+    public Optional<Long> executarComLeaseEmTransacao(String job, LongSupplier trabalho) {
+        return executarComLeaseEmTransacao(job, Duration.ofSeconds(leaseMinimoSegundos), trabalho);
+    }
+
+    // =====================================================================
+    // Jobs fracionados
+    // =====================================================================
+
+    /**
+     * Registra o processador de faixas do job nesta instância. A finalização roda uma vez
+     * por execução, na instância que fechar a última faixa, fora de transação.
+     */
+    public void registrarJobFracionado(String job, ProcessadorFaixa processador, Runnable finalizacao) {
+        fracionados.put(job, new JobFracionado(processador, finalizacao));
+    }
+
+    /**
+     * Inicia uma execução fracionada de [minId, maxId] em faixas de tamanhoFaixa — ou
+     * retoma a que ficou aberta (instância reiniciada no meio), estendida com faixas até o
+     * maxId atual para cobrir os ids criados desde então — e processa faixas até não
+     * sobrar nenhuma livre. Devolve o estado da execução nesse ponto (pode estar ainda
+     * EM_EXECUCAO, com faixas em outras instâncias); vazio se outra instância está com o
+     * lease ou se uma execução começou há menos de janela.
+     */
+    public Optional<JobExecucao> executarFracionado(String job, Supplier<Long> minId, Supplier<Long> maxId,
+                                                    long tamanhoFaixa, Duration janela) {
+        if (!fracionados.containsKey(job)) {
+            throw new IllegalStateException("Job fracionado não registrado: " + job);
+        }
+        if (!adquirir(job)) {
+            log.debug("Job '{}' iniciado por outra instância", job);
+            return Optional.empty();
+        }
+        long tamanho = Math.max(1, tamanhoFaixa);
+        Long execucaoId;
+        try {
+            execucaoId = emNovaTransacao(() -> {
+                Optional<JobExecucao> aberta = execucaoRepository
+                        .findFirstByJobAndStatusOrderByIdDesc(job, StatusExecucaoJob.EM_EXECUCAO);
+                if (aberta.isPresent() && estender(job, aberta.get().getId(), maxId.get(), tamanho)) {
+                    return aberta.get().getId();
+                }
+                if (executadoHaPouco(job, janela)) return null;
+                JobExecucao execucao = execucaoRepository.save(JobExecucao.builder()
+                        .job(job)
+                        .instancia(instancia)
+                        .status(StatusExecucaoJob.EM_EXECUCAO)
+                        .iniciadaEm(LocalDateTime.now())
+                        .build());
+                Long min = minId.get();
+                Long max = maxId.get();
+                if (min != null && max != null) {
+                    execucao.setShards(shardRepository.criarFaixas(execucao.getId(), job, min, max, tamanho));
+                }
+                log.info("Job '{}': execução {} com {} faixa(s)", job, execucao.getId(), execucao.getShards());
+                return execucao.getId();
+            });
+        } finally {
+            liberar(job);
+        }
+        if (execucaoId == null) {
+            log.debug("Job '{}' já executado nos últimos {}; disparo ignorado", job, janela);
+            return Optional.empty();
+        }
+
+        processarFaixas(job);
+        fecharSeCompleta(job, execucaoId); // sem faixas, ou todas já concluídas na retomada
+        return emNovaTransacao(() -> execucaoRepository.findById(execucaoId));
+    }
+
+    /**
+     * Retomada: acrescenta faixas de [fim da última, maxId]. false se a execução fechou
+     * entre a consulta e o lock (aí começa uma nova).
+     */
+    private boolean estender(String job, Long execucaoId, Long maxId, long tamanho) {
+        Long inicio = shardRepository.findFimMaximo(execucaoId);
+        int novas = inicio != null && maxId != null && maxId >= inicio
+                ? (int) ((maxId - inicio) / tamanho + 1) : 0;
+        if (execucaoRepository.acrescentarFaixas(execucaoId, novas) == 0) return false;
+        if (novas > 0) shardRepository.criarFaixas(execucaoId, job, inicio, maxId, tamanho);
+        log.info("Job '{}': retomando execução {}{}", job, execucaoId,
+                novas > 0 ? ", estendida com " + novas + " faixa(s) até o id " + maxId : "");
+        return true;
+    }
+
+    /** Toda instância ajuda nas execuções fracionadas abertas, inclusive as que ela não iniciou. */
+    @Scheduled(fixedDelayString = "${aclp.jobs.faixas.intervalo-ms:15000}",
+            initialDelayString = "${aclp.jobs.faixas.intervalo-ms:15000}")
+    public void participarDeJobsFracionados() {
+        for (String job : fracionados.keySet()) {
+            try {
+                processarFaixas(job);
+            } catch (DataAccessException e) {
+                log.debug("Job '{}': faixas indisponíveis: {}", job, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Solta um worker por nível de paralelismo e espera todos acabarem as faixas livres.
+     * Chamadas simultâneas (disparo manual + participação agendada) dividem o mesmo pool.
+     */
+    private void processarFaixas(String job) {
+        List<Long> comEsgotadas = emNovaTransacao(() -> {
+            List<Long> ids = shardRepository.findExecucoesComFaixasEsgotadas(job, maxTentativasFaixa);
+            if (!ids.isEmpty()) shardRepository.abandonarEsgotadas(job, maxTentativasFaixa);
+            return ids;
+        });
+        comEsgotadas.forEach(id -> fecharSeCompleta(job, id));
+
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < poolFaixas.getMaximumPoolSize(); i++) {
+                workers.add(poolFaixas.submit(() -> processarFaixasLivres(job)));
+            }
+        } catch (RejectedExecutionException e) {
+            // pool cheio ou encerrando: os workers já enviados (ou a próxima participação) terminam
+            log.debug("Job '{}': {} worker(s) de faixas aceitos pelo pool", job, workers.size());
+        }
+        aguardar(job, workers);
+    }
+
+    /** Espera todos os workers; relança a primeira falha depois que todos pararam. */
+    private void aguardar(String job, List<Future<?>> workers) {
+        RuntimeException falha = null;
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                workers.forEach(w -> w.cancel(true));
+                return;
+            } catch (ExecutionException e) {
+                RuntimeException causa = e.getCause() instanceof RuntimeException r
+                        ? r : new IllegalStateException("Job '" + job + "': worker de faixas falhou", e.getCause());
+                if (falha == null) falha = causa;
+                else falha.addSuppressed(causa);
+            }
+        }
+        if (falha != null) throw falha;
+    }
+
+    private void processarFaixasLivres(String job) {
+        JobFracionado definicao = fracionados.get(job);
+        while (!poolFaixas.isShutdown() && !Thread.currentThread().isInterrupted()) {
+            Optional<Faixa> reivindicada = emNovaTransacao(() -> {
+                Optional<Faixa> faixa = shardRepository.reivindicar(job, maxTentativasFaixa);
+                faixa.ifPresent(f -> shardRepository.marcarEmExecucao(f.getId(), instancia, leaseFaixaSegundos));
+                return faixa;
+            });
+            if (reivindicada.isEmpty()) return;
+            Faixa faixa = reivindicada.get();
+
+            try {
+                long itens = emNovaTransacao(() -> {
+                    long n = definicao.processador().processar(faixa.getInicio(), faixa.getFim());
+                    shardRepository.concluir(faixa.getId(), n);
+                    return n;
+                });
+                log.debug("Job '{}': faixa [{}, {}) concluída, {} item(ns)", job, faixa.getInicio(), faixa.getFim(),
+                        itens);
+            } catch (RuntimeException e) {
+                log.error("Job '{}': faixa [{}, {}) falhou", job, faixa.getInicio(), faixa.getFim(), e);
+                emNovaTransacao(() -> shardRepository.registrarFalha(faixa.getId(), maxTentativasFaixa));
+            }
+            // depois do commit da faixa: quem fecha a última vê as das outras instâncias
+            fecharSeCompleta(job, faixa.getExecucaoId());
+        }
+    }
+
+    private void fecharSeCompleta(String job, Long execucaoId) {
+        // releitura na mesma transação de escrita: vai ao primário, nunca à réplica de leitura
+        JobExecucao execucao = emNovaTransacao(() -> execucaoRepository.fecharSeCompleta(execucaoId) == 1
+                ? execucaoRepository.findById(execucaoId).orElseThrow() : null);
+        if (execucao == null) return;
+
+        log.info("Job '{}': execução {} {} — {} item(ns) em {} faixa(s)", job, execucaoId,
+                execucao.getStatus(), execucao.getItens(), execucao.getShards());
+        if (execucao.getStatus() != StatusExecucaoJob.CONCLUIDA) return;
+        try {
+            fracionados.get(job).finalizacao().run(); // gerencia as próprias transações
+        } catch (RuntimeException e) {
+            log.error("Job '{}': finalização da execução {} falhou", job, execucaoId, e);
+        }
+    }
+
+    // =====================================================================
+    // Histórico
+    // =====================================================================
+
+    public List<JobExecucao> ultimasExecucoes(String job, int limite) {
+        return execucaoRepository.findUltimas(job, PageRequest.of(0, Math.max(1, Math.min(limite, 200))));
+    }
+
+    public List<JobShard> faixas(Long execucaoId) {
+        return shardRepository.findByExecucaoIdOrderByInicio(execucaoId);
+    }
+
+    /** Faixas por status e itens já contados — para acompanhar uma execução em andamento. */
+    public Optional<Progresso> progresso(Long execucaoId) {
+        return execucaoRepository.findById(execucaoId).map(execucao -> {
+            Map<StatusExecucaoJob, Long> faixasPorStatus = new EnumMap<>(StatusExecucaoJob.class);
+            long itens = 0;
+            for (JobShardRepository.ContagemStatus c : shardRepository.contarPorStatus(execucaoId)) {
+                faixasPorStatus.put(c.getStatus(), c.getFaixas());
+                itens += c.getItens() != null ? c.getItens() : 0;
+            }
+            long concluidas = faixasPorStatus.getOrDefault(StatusExecucaoJob.CONCLUIDA, 0L)
+                    + faixasPorStatus.getOrDefault(StatusExecucaoJob.FALHOU, 0L);
+            return Progresso.builder()
+                    .execucaoId(execucaoId)
+                    .job(execucao.getJob())
+                    .status(execucao.getStatus())
+                    .faixas(execucao.getShards())
+                    .faixasPorStatus(faixasPorStatus)
+                    .itens(itens)
+                    .percentual(execucao.getShards() > 0 ? 100.0 * concluidas / execucao.getShards() : 100.0)
+                    .iniciadaEm(execucao.getIniciadaEm())
+                    .finalizadaEm(execucao.getFinalizadaEm())
+                    .build();
+        });
+    }
+
+    // =====================================================================
+    // Lease
+    // =====================================================================
+
+    private boolean adquirir(String job) {
+        try {
+            return emNovaTransacao(() -> leaseRepository.adquirir(job, instancia, leaseMaximoSegundos)) == 1;
+        } catch (DataAccessException e) {
+            log.error("Job '{}': lease indisponível, disparo ignorado: {}", job, e.getMessage());
+            return false;
+        }
+    }
+
+    private void liberar(String job) {
+        try {
+            emNovaTransacao(() -> leaseRepository.liberar(job, instancia));
+        } catch (DataAccessException e) {
+            log.warn("Job '{}': lease não liberado (vence sozinho): {}", job, e.getMessage());
+        }
+    }
+
+    private boolean executadoHaPouco(String job, Duration janela) {
+        if (janela.isZero() || janela.isNegative()) return false;
+        LocalDateTime corte = LocalDateTime.now().minus(janela);
+        return Boolean.TRUE.equals(emNovaTransacao(() -> execucaoRepository.existsByJobAndIniciadaEmAfter(job, corte)));
+    }
+
+    private void encerrar(JobExecucao execucao, StatusExecucaoJob status, long itens, String erro) {
+        execucao.setStatus(status);
+        execucao.setItens(itens);
+        execucao.setFinalizadaEm(LocalDateTime.now());
+        execucao.setErro(erro != null && erro.length() > 500 ? erro.substring(0, 500) : erro);
+        try {
+            emNovaTransacao(() -> execucaoRepository.save(execucao));
+        } catch (DataAccessException e) {
+            log.warn("Job '{}': histórico não gravado: {}", execucao.getJob(), e.getMessage());
+        }
+    }
+
+    private <T> T emNovaTransacao(Supplier<T> acao) {
+        return novaTransacao.execute(status -> acao.get());
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class Progresso {
+        private Long execucaoId;
+        private String job;
+        private StatusExecucaoJob status;
+        private int faixas;
+        private Map<StatusExecucaoJob, Long> faixasPorStatus;
+        private long itens;
+        private double percentual;
+        private LocalDateTime iniciadaEm;
+        private LocalDateTime finalizadaEm;
+    }
+}
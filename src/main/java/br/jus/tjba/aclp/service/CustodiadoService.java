@@ -8,6 +8,7 @@ import br.jus.tjba.aclp.model.Custodiado;
 import br.jus.tjba.aclp.model.HistoricoComparecimento;
 import br.jus.tjba.aclp.model.HistoricoEndereco;
 import br.jus.tjba.aclp.model.Processo;
+import br.jus.tjba.aclp.model.enums.CausaTransicaoStatus;
 import br.jus.tjba.aclp.model.enums.EstadoBrasil;
 import br.jus.tjba.aclp.model.enums.SituacaoCustodiado;
 import br.jus.tjba.aclp.model.enums.SituacaoProcesso;
@@ -17,6 +18,7 @@ import br.jus.tjba.aclp.repository.CustodiadoRepository;
 import br.jus.tjba.aclp.repository.HistoricoComparecimentoRepository;
 import br.jus.tjba.aclp.repository.HistoricoEnderecoRepository;
 import br.jus.tjba.aclp.repository.ProcessoRepository;
+import br.jus.tjba.aclp.util.Documentos;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.criteria.Predicate;
@@ -29,6 +31,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,6 +51,9 @@ public class CustodiadoService {
     private final HistoricoComparecimentoRepository historicoComparecimentoRepository;
     private final HistoricoEnderecoRepository historicoEnderecoRepository;
     private final ProcessoRepository processoRepository;
+    private final ResumoDiarioService resumoDiarioService;
+    private final HistoricoStatusService historicoStatusService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // =====================================================================
     // CORREÇÃO DE PERFORMANCE: Novos métodos para busca paginada
@@ -136,13 +142,12 @@ public class CustodiadoService {
                 ));
             }
 
-            // Busca por CPF (remove formatação antes de comparar)
-            if (cpf != null && !cpf.isBlank()) {
-                String cpfLimpo = cpf.replaceAll("\\D", "");
-                predicates.add(cb.or(
-                        cb.like(root.get("cpf"), "%" + cpfLimpo + "%"),
-                        cb.like(root.get("cpf"), "%" + cpf.trim() + "%")
-                ));
+            // Busca por CPF na coluna normalizada: completo é igualdade, parcial é prefixo
+            String cpfDigitos = Documentos.digitos(cpf);
+            if (cpfDigitos != null) {
+                predicates.add(cpfDigitos.length() == 11
+                        ? cb.equal(root.get("cpfDigitos"), cpfDigitos)
+                        : cb.like(root.get("cpfDigitos"), cpfDigitos + "%"));
             }
 
             // Filtro por status de comparecimento
@@ -240,6 +245,7 @@ public class CustodiadoService {
 
         processo.calcularProximoComparecimento();
         Processo processoSalvo = processoRepository.save(processo);
+        historicoStatusService.registrar(processoSalvo, null, null, CausaTransicaoStatus.CADASTRO);
         log.info("Processo criado — ID: {}, Número: {}", processoSalvo.getId(), processoSalvo.getNumeroProcesso());
 
         String cepFormatado = formatarCep(dto.getCep().trim());
@@ -272,6 +278,9 @@ public class CustodiadoService {
                 .build();
 
         historicoComparecimentoRepository.save(comparecimento);
+        resumoDiarioService.registrarComparecimento(comparecimento);
+        resumoDiarioService.atualizarSituacao(processoSalvo);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.CUSTODIADO, custodiadoSalvo.getId()));
 
         log.info("=== CADASTRO INICIAL CONCLUÍDO === publicId: {}, Processo: {}",
                 custodiadoSalvo.getPublicId(), processoSalvo.getNumeroProcesso());
@@ -368,11 +377,11 @@ public class CustodiadoService {
 
     private void validarDuplicidadesDocumentosCadastroInicial(String cpf, String rg) {
         if (cpf != null && !cpf.trim().isEmpty()) {
-            if (custodiadoRepository.existsByCpfAndSituacaoAtivo(cpf))
+            if (custodiadoRepository.existsByCpfDigitosAtivo(Documentos.digitos(cpf)))
                 throw new IllegalArgumentException("CPF já está cadastrado para um custodiado ativo no sistema");
         }
         if (rg != null && !rg.trim().isEmpty()) {
-            if (custodiadoRepository.existsByRgAndSituacaoAtivo(rg.trim()))
+            if (custodiadoRepository.existsByRgNormalizadoAtivo(Documentos.rg(rg)))
                 throw new IllegalArgumentException("RG já está cadastrado para um custodiado ativo no sistema");
         }
     }
@@ -410,6 +419,7 @@ public class CustodiadoService {
             throw new IllegalArgumentException("Custodiado já está arquivado");
         custodiado.arquivar();
         custodiadoRepository.save(custodiado);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.CUSTODIADO, custodiado.getId()));
     }
 
     @Transactional(readOnly = true)
@@ -432,6 +442,7 @@ public class CustodiadoService {
         if (custodiado.isArquivado()) throw new IllegalArgumentException("Custodiado já está arquivado");
         custodiado.arquivar();
         custodiadoRepository.save(custodiado);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.CUSTODIADO, custodiado.getId()));
     }
 
     @Transactional
@@ -441,6 +452,7 @@ public class CustodiadoService {
                 .orElseThrow(() -> new EntityNotFoundException("Custodiado não encontrado com ID: " + id));
         if (!custodiado.isArquivado()) throw new IllegalArgumentException("Custodiado já está ativo");
         custodiado.reativar();
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.CUSTODIADO, custodiado.getId()));
         return custodiadoRepository.save(custodiado);
     }
 
@@ -448,14 +460,14 @@ public class CustodiadoService {
     public List<Custodiado> findByProcesso(String processo) {
         if (processo == null || processo.trim().isEmpty())
             throw new IllegalArgumentException("Número do processo é obrigatório");
-        return custodiadoRepository.findByProcesso(formatarProcesso(processo.trim()));
+        return custodiadoRepository.findByProcesso(Documentos.digitos(formatarProcesso(processo.trim())));
     }
 
     @Transactional(readOnly = true)
     public List<Custodiado> findByProcessoIncludingArchived(String processo) {
         if (processo == null || processo.trim().isEmpty())
             throw new IllegalArgumentException("Número do processo é obrigatório");
-        return custodiadoRepository.findByProcessoIncludingArchived(formatarProcesso(processo.trim()));
+        return custodiadoRepository.findByProcessoIncludingArchived(Documentos.digitos(formatarProcesso(processo.trim())));
     }
 
     @Transactional
@@ -501,6 +513,7 @@ public class CustodiadoService {
         Custodiado salvo = custodiadoRepository.save(custodiado);
         criarHistoricoEnderecoInicial(salvo, dto);
         criarPrimeiroComparecimento(salvo);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.CUSTODIADO, salvo.getId()));
         return salvo;
     }
 
@@ -529,9 +542,8 @@ public class CustodiadoService {
         if (termo == null || termo.trim().isEmpty()) throw new IllegalArgumentException("Termo de busca é obrigatório");
         if (termo.trim().length() < 2) throw new IllegalArgumentException("Termo deve ter pelo menos 2 caracteres");
         String t = termo.trim();
-        String tp = t;
-        if (t.replaceAll("[^\\d]", "").length() >= 10) { try { tp = formatarProcesso(t); } catch (Exception ignored) {} }
-        return custodiadoRepository.buscarPorNomeOuProcessoWithEnderecos(t, tp);
+        // número com qualquer pontuação vira prefixo em processo_digitos
+        return custodiadoRepository.buscarPorNomeOuProcessoWithEnderecos(t, Documentos.digitos(t));
     }
 
     @Transactional(readOnly = true)
@@ -588,11 +600,12 @@ public class CustodiadoService {
         custodiado.setDataComparecimentoInicial(dto.getDataComparecimentoInicial());
         custodiado.setObservacoes(dto.getObservacoes() != null ? dto.getObservacoes().trim() : null);
         custodiado.calcularProximoComparecimento();
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.CUSTODIADO, custodiado.getId()));
         return custodiadoRepository.save(custodiado);
     }
 
     private void criarHistoricoEnderecoInicial(Custodiado custodiado, CustodiadoDTO dto) {
-        historicoEnderecoRepository.desativarTodosEnderecosPorCustodiado(custodiado.getId());
+        historicoEnderecoRepository.encerrarPeriodoVigenteEm(custodiado.getId(), custodiado.getDataComparecimentoInicial());
         HistoricoEndereco e = HistoricoEndereco.builder()
                 .custodiado(custodiado).cep(formatarCep(dto.getCep().trim())).logradouro(dto.getLogradouro().trim())
                 .numero(dto.getNumero() != null ? dto.getNumero().trim() : null)
@@ -611,6 +624,7 @@ public class CustodiadoService {
                 .horaComparecimento(LocalTime.now()).tipoValidacao(TipoValidacao.CADASTRO_INICIAL)
                 .validadoPor("Sistema SCC").observacoes("Cadastro inicial no sistema").mudancaEndereco(Boolean.FALSE).build();
         historicoComparecimentoRepository.save(c);
+        resumoDiarioService.registrarComparecimento(c);
     }
 
     private void validarDadosObrigatorios(CustodiadoDTO dto) {
@@ -652,16 +666,16 @@ public class CustodiadoService {
     }
 
     private void validarDuplicidadesDocumentos(CustodiadoDTO dto) {
-        if (dto.getCpf() != null && !dto.getCpf().trim().isEmpty() && custodiadoRepository.existsByCpfAndSituacaoAtivo(dto.getCpf()))
+        if (dto.getCpf() != null && !dto.getCpf().trim().isEmpty() && custodiadoRepository.existsByCpfDigitosAtivo(Documentos.digitos(dto.getCpf())))
             throw new IllegalArgumentException("CPF já está cadastrado para um custodiado ativo");
-        if (dto.getRg() != null && !dto.getRg().trim().isEmpty() && custodiadoRepository.existsByRgAndSituacaoAtivo(dto.getRg().trim()))
+        if (dto.getRg() != null && !dto.getRg().trim().isEmpty() && custodiadoRepository.existsByRgNormalizadoAtivo(Documentos.rg(dto.getRg())))
             throw new IllegalArgumentException("RG já está cadastrado para um custodiado ativo");
     }
 
     private void validarDuplicidadesDocumentosParaUpdate(CustodiadoDTO dto, Long idAtual) {
-        if (dto.getCpf() != null && !dto.getCpf().trim().isEmpty() && custodiadoRepository.existsByCpfAndSituacaoAtivoAndIdNot(dto.getCpf(), idAtual))
+        if (dto.getCpf() != null && !dto.getCpf().trim().isEmpty() && custodiadoRepository.existsByCpfDigitosAtivoAndIdNot(Documentos.digitos(dto.getCpf()), idAtual))
             throw new IllegalArgumentException("CPF já está cadastrado para outro custodiado ativo");
-        if (dto.getRg() != null && !dto.getRg().trim().isEmpty() && custodiadoRepository.existsByRgAndSituacaoAtivoAndIdNot(dto.getRg().trim(), idAtual))
+        if (dto.getRg() != null && !dto.getRg().trim().isEmpty() && custodiadoRepository.existsByRgNormalizadoAtivoAndIdNot(Documentos.rg(dto.getRg()), idAtual))
             throw new IllegalArgumentException("RG já está cadastrado para outro custodiado ativo");
     }
 
@@ -0,0 +1,40 @@
+package br.jus.tjba.aclp.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Publicado pelos serviços ao alterar dados que entram nos contadores do dashboard.
+ * Consumido depois do commit (ContadoresCacheListener, ContadoresAoVivoService) — rollback
+ * não invalida nem publica nada.
+ *
+ * custodiadoId é o único custodiado afetado; null quando a alteração é em lote (job de
+ * status, migração, reconstrução) e quem guarda estado por custodiado deve recarregar tudo.
+ *
+ * remoto: a alteração foi feita em outra instância e chegou pelo DadosAlteradosRelay.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DadosAlteradosEvent {
+
+    public enum Origem {
+        COMPARECIMENTO,
+        CUSTODIADO,
+        PROCESSO,
+        STATUS
+    }
+
+    private final Origem origem;
+    private final Long custodiadoId;
+    private final boolean remoto;
+
+    public DadosAlteradosEvent(Origem origem, Long custodiadoId) {
+        this(origem, custodiadoId, false);
+    }
+
+    public DadosAlteradosEvent(Origem origem) {
+        this(origem, null, false);
+    }
+}
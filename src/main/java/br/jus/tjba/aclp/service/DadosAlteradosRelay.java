@@ -0,0 +1,66 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.config.CacheInvalidationBus;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Leva os DadosAlteradosEvent às outras instâncias pelo CacheInvalidationBus.
+ *
+ * Os estados locais derivados desses eventos — caches de contadores, índice de check-in,
+ * SSE dos contadores ao vivo — continuam ouvindo só o evento do Spring: aqui a alteração
+ * local vira mensagem "DadosAlterados.ORIGEM + custodiadoId" e a mensagem de outra
+ * instância volta a ser evento, marcado remoto para não ser reenviado. Descarte geral do
+ * barramento (Redis caiu ou voltou) vira um evento STATUS sem custodiado, que limpa
+ * todos os contadores e recarrega o índice inteiro.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DadosAlteradosRelay {
+
+    static final String CACHE = "dados-alterados";
+    static final String PREFIXO = "DadosAlterados.";
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    void registrar() {
+        cacheInvalidationBus.registrar(CACHE, this::aplicar);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosAlteradosEvent evento) {
+        if (evento.isRemoto()) return;
+        String tipo = PREFIXO + evento.getOrigem().name();
+        if (evento.getCustodiadoId() != null) {
+            cacheInvalidationBus.publicar(tipo, evento.getCustodiadoId());
+        } else {
+            cacheInvalidationBus.publicar(tipo);
+        }
+    }
+
+    void aplicar(CacheInvalidationBus.Invalidacao invalidacao) {
+        if (!invalidacao.remota()) return; // a própria instância já tratou o evento do Spring
+        if (CacheInvalidationBus.TUDO.equals(invalidacao.tipo())) {
+            eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.STATUS, null, true));
+            return;
+        }
+        if (!invalidacao.tipo().startsWith(PREFIXO)) return;
+
+        DadosAlteradosEvent.Origem origem = DadosAlteradosEvent.Origem.valueOf(invalidacao.tipo().substring(PREFIXO.length()));
+        if (invalidacao.todos()) {
+            eventPublisher.publishEvent(new DadosAlteradosEvent(origem, null, true));
+        } else {
+            for (String id : invalidacao.ids()) {
+                eventPublisher.publishEvent(new DadosAlteradosEvent(origem, Long.valueOf(id), true));
+            }
+        }
+        log.debug("Alteração de outra instância aplicada: {} {}", origem, invalidacao.ids());
+    }
+}
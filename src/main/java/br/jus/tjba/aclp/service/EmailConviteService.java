@@ -5,6 +5,7 @@ import br.jus.tjba.aclp.repository.ConviteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -12,10 +13,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
+@Lazy
 @RequiredArgsConstructor
 public class EmailConviteService {
 
     private final ConviteRepository conviteRepository;
+    @Lazy
     private final EmailService emailService;
 
     @Value("${aclp.frontend.url:http://localhost:3000}")
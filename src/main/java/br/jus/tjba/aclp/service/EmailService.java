@@ -2,6 +2,7 @@ package br.jus.tjba.aclp.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -15,6 +16,7 @@ import java.util.Properties;
 
 @Slf4j
 @Service
+@Lazy // criado no primeiro envio; quem injeta usa @Lazy no campo
 public class EmailService {
 
     private final JavaMailSender mailSender;
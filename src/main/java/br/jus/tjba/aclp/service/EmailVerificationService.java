@@ -20,7 +20,7 @@ import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,6 +42,7 @@ public class EmailVerificationService {
     private final ConviteRepository conviteRepository;
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    @Lazy
     private final EmailService emailService;
 
     @Value("${aclp.frontend.url:http://localhost:3000}")
@@ -49,6 +50,13 @@ public class EmailVerificationService {
 
     private final SecureRandom secureRandom = new SecureRandom();
 
+    /**
+     * Senha de pré-cadastro ainda sem senha. Não é um hash BCrypt, então matches()
+     * sempre falha — mesma garantia do antigo hash de UUID aleatório, sem gastar um
+     * BCrypt por solicitação de código.
+     */
+    private static final String SENHA_NAO_DEFINIDA = "!sem-senha";
+
     // ========== DTOs INTERNOS PARA COMPATIBILIDADE ==========
 
     @Data
@@ -323,12 +331,12 @@ public class EmailVerificationService {
 
         // Criar ou atualizar pré-cadastro simplificado
         PreCadastro preCadastro = preCadastroRepository.findByEmail(email)
-                .orElse(PreCadastro.builder()
+                .orElseGet(() -> PreCadastro.builder()
                         .email(email)
                         .nome(request.getNome() != null ? request.getNome() : "Usuário")
                         .tokenConvite("temp-" + UUID.randomUUID())
                         .tokenVerificacao("ver-" + UUID.randomUUID())
-                        .senha(passwordEncoder.encode(UUID.randomUUID().toString())) // Senha temporária
+                        .senha(SENHA_NAO_DEFINIDA)
                         .tipoUsuario(request.getTipoUsuario() != null ? request.getTipoUsuario() : TipoUsuario.USUARIO)
                         .ipCadastro(ipAddress)
                         .build());
@@ -452,21 +460,6 @@ public class EmailVerificationService {
                 .build();
     }
 
-    /**
-     * Job para limpar pré-cadastros expirados
-     * Executa diariamente às 3h da manhã
-     */
-    @Scheduled(cron = "0 0 3 * * ?")
-    @Transactional
-    public void limparPreCadastrosExpirados() {
-        log.info("Iniciando limpeza de pré-cadastros expirados");
-
-        LocalDateTime dataLimite = LocalDateTime.now().minusDays(7); // Remove após 7 dias
-        preCadastroRepository.deleteExpirados(dataLimite);
-
-        log.info("Limpeza de pré-cadastros concluída");
-    }
-
     // ========== MÉTODOS AUXILIARES ==========
 
     private void enviarEmailVerificacao(PreCadastro preCadastro) {
@@ -5,14 +5,22 @@ import br.jus.tjba.aclp.model.HistoricoEndereco;
 import br.jus.tjba.aclp.model.Custodiado;
 import br.jus.tjba.aclp.repository.HistoricoEnderecoRepository;
 import br.jus.tjba.aclp.repository.CustodiadoRepository;
+import br.jus.tjba.aclp.repository.HistoricoEnderecoRepository.ContagemPorLocal;
+import br.jus.tjba.aclp.repository.HistoricoEnderecoRepository.CustodiadoNoLocal;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -24,6 +32,8 @@ public class HistoricoEnderecoService {
     private final HistoricoEnderecoRepository historicoEnderecoRepository;
     private final CustodiadoRepository custodiadoRepository;
 
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+
     /**
      * Busca histórico completo de endereços de uma pessoa
      */
@@ -102,31 +112,61 @@ public class HistoricoEnderecoService {
     }
 
     /**
-     * Busca pessoas por cidade
+     * Busca pessoas por cidade: endereço ativo por padrão; com incluirHistorico, quem já
+     * morou lá (uma linha por custodiado); com data, quem morava lá naquela data.
      */
     @Transactional(readOnly = true)
-    public List<Custodiado> buscarCustodiadosPorCidade(String cidade) {
-        log.info("Buscando pessoas por cidade: {}", cidade);
+    public Page<CustodiadoNoLocal> buscarCustodiadosPorCidade(String cidade, boolean incluirHistorico,
+                                                              LocalDate data, int page, int size) {
+        log.info("Buscando pessoas por cidade: {} (histórico: {}, data: {})", cidade, incluirHistorico, data);
 
         if (cidade == null || cidade.trim().isEmpty()) {
             throw new IllegalArgumentException("Nome da cidade é obrigatório");
         }
 
-        return historicoEnderecoRepository.findCustodiadosPorCidade(cidade.trim());
+        Pageable pageable = pagina(page, size);
+        String c = cidade.trim();
+        if (data != null) return historicoEnderecoRepository.findCustodiadosNaCidadeEmData(c, data, pageable);
+        return incluirHistorico
+                ? historicoEnderecoRepository.findCustodiadosQueMoraramNaCidade(c, pageable)
+                : historicoEnderecoRepository.findCustodiadosComEnderecoAtivoNaCidade(c, pageable);
     }
 
     /**
-     * Busca pessoas por estado
+     * Busca pessoas por estado (endereço ativo por padrão)
      */
     @Transactional(readOnly = true)
-    public List<Custodiado> buscarCustodiadosPorEstado(String estado) {
-        log.info("Buscando pessoas por estado: {}", estado);
+    public Page<CustodiadoNoLocal> buscarCustodiadosPorEstado(String estado, boolean incluirHistorico, int page, int size) {
+        log.info("Buscando pessoas por estado: {} (histórico: {})", estado, incluirHistorico);
 
         if (estado == null || estado.trim().isEmpty()) {
             throw new IllegalArgumentException("Sigla do estado é obrigatória");
         }
 
-        return historicoEnderecoRepository.findCustodiadosPorEstado(estado.trim().toUpperCase());
+        Pageable pageable = pagina(page, size);
+        String uf = estado.trim().toUpperCase();
+        return incluirHistorico
+                ? historicoEnderecoRepository.findCustodiadosQueMoraramNoEstado(uf, pageable)
+                : historicoEnderecoRepository.findCustodiadosComEnderecoAtivoNoEstado(uf, pageable);
+    }
+
+    /**
+     * Custodiados com endereço ativo por estado e cidade, numa consulta só
+     */
+    @Transactional(readOnly = true)
+    public List<ContagemEstado> contarCustodiadosPorLocal(String estado) {
+        String uf = estado != null && !estado.isBlank() ? estado.trim().toUpperCase() : null;
+        Map<String, ContagemEstado> estados = new LinkedHashMap<>();
+        for (ContagemPorLocal linha : historicoEnderecoRepository.contarCustodiadosPorEstadoECidade(uf)) {
+            ContagemEstado e = estados.computeIfAbsent(linha.getEstado(),
+                    sigla -> ContagemEstado.builder().estado(sigla).cidades(new ArrayList<>()).build());
+            if (linha.getNivel() == 1) {
+                e.setCustodiados(linha.getCustodiados());
+            } else {
+                e.getCidades().add(ContagemCidade.builder().cidade(linha.getCidade()).custodiados(linha.getCustodiados()).build());
+            }
+        }
+        return new ArrayList<>(estados.values());
     }
 
     /**
@@ -262,6 +302,10 @@ public class HistoricoEnderecoService {
 
     // ========== MÉTODOS PRIVADOS ==========
 
+    private static Pageable pagina(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), TAMANHO_MAXIMO_PAGINA));
+    }
+
     private HistoricoEnderecoDTO convertToDTO(HistoricoEndereco endereco) {
         return HistoricoEnderecoDTO.builder()
                 .id(endereco.getId())
@@ -293,6 +337,21 @@ public class HistoricoEnderecoService {
                 .build();
     }
 
+    @lombok.Data
+    @lombok.Builder
+    public static class ContagemEstado {
+        private String estado;
+        private long custodiados;
+        private List<ContagemCidade> cidades;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class ContagemCidade {
+        private String cidade;
+        private long custodiados;
+    }
+
     /**
      * DTO para estatísticas de endereços
      */
@@ -0,0 +1,207 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.model.HistoricoStatusProcesso;
+import br.jus.tjba.aclp.model.Processo;
+import br.jus.tjba.aclp.model.enums.CausaTransicaoStatus;
+import br.jus.tjba.aclp.model.enums.SituacaoProcesso;
+import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import br.jus.tjba.aclp.repository.HistoricoStatusProcessoRepository;
+import br.jus.tjba.aclp.repository.HistoricoStatusProcessoRepository.SituacaoEmData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Histórico de status dos processos (tabela historico_status_processos).
+ *
+ * Quem muda status ou situação de um processo guarda o estado anterior, aplica a mudança
+ * e chama registrar() na mesma transação — se a mudança for desfeita, a linha também é.
+ * A partir do histórico saem a situação da base numa data passada e o tempo de
+ * inadimplência de cada processo/custodiado, sem depender do status atual.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HistoricoStatusService {
+
+    private final HistoricoStatusProcessoRepository historicoStatusRepository;
+
+    /** Data efetiva padrão: inadimplência vale desde o dia seguinte ao prazo vencido; o resto, de hoje. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Processo processo, StatusComparecimento statusAnterior,
+                          SituacaoProcesso situacaoAnterior, CausaTransicaoStatus causa) {
+        registrar(processo, statusAnterior, situacaoAnterior, causa, dataEfetivaPadrao(processo, LocalDate.now()));
+    }
+
+    /**
+     * Grava a transição se status ou situação mudaram (ou se é a primeira linha do processo,
+     * quando statusAnterior e situacaoAnterior são nulos). O processo já deve estar salvo.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Processo processo, StatusComparecimento statusAnterior,
+                          SituacaoProcesso situacaoAnterior, CausaTransicaoStatus causa, LocalDate dataEfetiva) {
+        boolean primeira = statusAnterior == null && situacaoAnterior == null;
+        if (!primeira && statusAnterior == processo.getStatus() && situacaoAnterior == processo.getSituacaoProcesso()) {
+            return;
+        }
+
+        // Comparecimento retroativo não pode "passar à frente" de uma transição já gravada:
+        // a ordem por data_efetiva é o que define o estado vigente
+        LocalDate ultima = primeira ? null : historicoStatusRepository.findUltimaDataEfetiva(processo.getId());
+        LocalDate data = ultima != null && dataEfetiva.isBefore(ultima) ? ultima : dataEfetiva;
+
+        historicoStatusRepository.save(HistoricoStatusProcesso.builder()
+                .processo(processo)
+                .statusAnterior(statusAnterior)
+                .statusNovo(processo.getStatus())
+                .situacaoProcesso(processo.getSituacaoProcesso())
+                .dataEfetiva(data)
+                .causa(causa)
+                .registradoEm(LocalDateTime.now())
+                .build());
+
+        log.debug("Processo {}: {} -> {} ({}) em {} — {}", processo.getNumeroProcesso(),
+                statusAnterior, processo.getStatus(), processo.getSituacaoProcesso(), data, causa);
+    }
+
+    // =====================================================================
+    // Leitura
+    // =====================================================================
+
+    @Transactional(readOnly = true)
+    public SituacaoNaData situacaoEm(LocalDate data) {
+        SituacaoEmData s = historicoStatusRepository.contarSituacaoEm(data);
+        return SituacaoNaData.builder()
+                .data(data)
+                .ativos(s.getAtivos())
+                .emConformidade(s.getEmConformidade())
+                .inadimplentes(s.getInadimplentes())
+                .encerrados(s.getEncerrados())
+                .suspensos(s.getSuspensos())
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public LinhaDoTempo linhaDoTempo(Long processoId) {
+        return montarLinhaDoTempo(processoId, historicoStatusRepository.findByProcessoOrdenado(processoId), LocalDate.now());
+    }
+
+    /** Inadimplência de todos os processos do custodiado (soma por processo). */
+    @Transactional(readOnly = true)
+    public InadimplenciaCustodiado inadimplenciaDoCustodiado(Long custodiadoId) {
+        LocalDate hoje = LocalDate.now();
+        Map<Long, List<HistoricoStatusProcesso>> porProcesso = historicoStatusRepository
+                .findByCustodiadoOrdenado(custodiadoId).stream()
+                .collect(Collectors.groupingBy(h -> h.getProcesso().getId(), LinkedHashMap::new, Collectors.toList()));
+
+        List<LinhaDoTempo> processos = new ArrayList<>();
+        porProcesso.forEach((processoId, linhas) -> {
+            LinhaDoTempo l = montarLinhaDoTempo(processoId, linhas, hoje);
+            l.setNumeroProcesso(linhas.get(0).getProcesso().getNumeroProcesso());
+            processos.add(l);
+        });
+
+        return InadimplenciaCustodiado.builder()
+                .custodiadoId(custodiadoId)
+                .diasInadimplente(processos.stream().mapToLong(LinhaDoTempo::getDiasInadimplente).sum())
+                .processos(processos)
+                .build();
+    }
+
+    private static LinhaDoTempo montarLinhaDoTempo(Long processoId, List<HistoricoStatusProcesso> linhas, LocalDate hoje) {
+        return LinhaDoTempo.builder()
+                .processoId(processoId)
+                .diasInadimplente(diasInadimplente(linhas, hoje))
+                .transicoes(linhas.stream().map(Transicao::de).collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Dias em que o processo esteve ativo e inadimplente até a data informada (exclusive):
+     * cada linha vale de sua data_efetiva até a data_efetiva da linha seguinte.
+     * As linhas devem estar ordenadas por (data_efetiva, id).
+     */
+    static long diasInadimplente(List<HistoricoStatusProcesso> linhas, LocalDate ate) {
+        long dias = 0;
+        for (int i = 0; i < linhas.size(); i++) {
+            HistoricoStatusProcesso linha = linhas.get(i);
+            if (!linha.isInadimplenteAtivo() || !linha.getDataEfetiva().isBefore(ate)) continue;
+
+            LocalDate fim = i + 1 < linhas.size() ? linhas.get(i + 1).getDataEfetiva() : ate;
+            if (fim.isAfter(ate)) fim = ate;
+            dias += ChronoUnit.DAYS.between(linha.getDataEfetiva(), fim);
+        }
+        return dias;
+    }
+
+    static LocalDate dataEfetivaPadrao(Processo processo, LocalDate hoje) {
+        if (processo.getStatus() == StatusComparecimento.INADIMPLENTE
+                && processo.getSituacaoProcesso() == SituacaoProcesso.ATIVO
+                && processo.getProximoComparecimento() != null
+                && processo.getProximoComparecimento().isBefore(hoje)) {
+            return processo.getProximoComparecimento().plusDays(1);
+        }
+        return hoje;
+    }
+
+    // =====================================================================
+    // DTOs
+    // =====================================================================
+
+    @lombok.Data @lombok.Builder
+    public static class SituacaoNaData {
+        private LocalDate data;
+        private long ativos;
+        private long emConformidade;
+        private long inadimplentes;
+        private long encerrados;
+        private long suspensos;
+    }
+
+    @lombok.Data @lombok.Builder
+    public static class LinhaDoTempo {
+        private Long processoId;
+        private String numeroProcesso;
+        private long diasInadimplente;
+        private List<Transicao> transicoes;
+    }
+
+    @lombok.Data @lombok.Builder
+    public static class InadimplenciaCustodiado {
+        private Long custodiadoId;
+        private long diasInadimplente;
+        private List<LinhaDoTempo> processos;
+    }
+
+    @lombok.Data @lombok.Builder
+    public static class Transicao {
+        private StatusComparecimento statusAnterior;
+        private StatusComparecimento statusNovo;
+        private SituacaoProcesso situacaoProcesso;
+        private LocalDate dataEfetiva;
+        private CausaTransicaoStatus causa;
+        private LocalDateTime registradoEm;
+
+        static Transicao de(HistoricoStatusProcesso h) {
+            return Transicao.builder()
+                    .statusAnterior(h.getStatusAnterior())
+                    .statusNovo(h.getStatusNovo())
+                    .situacaoProcesso(h.getSituacaoProcesso())
+                    .dataEfetiva(h.getDataEfetiva())
+                    .causa(h.getCausa())
+                    .registradoEm(h.getRegistradoEm())
+                    .build();
+        }
+    }
+}
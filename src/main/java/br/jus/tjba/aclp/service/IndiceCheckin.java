@@ -0,0 +1,317 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import br.jus.tjba.aclp.util.Documentos;
+import br.jus.tjba.aclp.util.TextoBusca;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice em memória dos custodiados ativos para o balcão de check-in: CPF, RG e número
+ * de processo normalizados apontam para um registro compacto com o que a tela mostra.
+ *
+ * Também atende o autocompletar: cada palavra do nome (sem acento, minúscula) e os dígitos
+ * de cada processo ficam num mapa ordenado, e a busca por prefixo é um subMap. O modo
+ * aproximado varre os termos distintos (bem menos que os custodiados: nomes se repetem)
+ * com distância de edição limitada.
+ *
+ * Leitura sem lock (mapas concorrentes atrás de uma referência volátil); escrita
+ * serializada. A recarga completa monta mapas novos fora do lock e troca a referência;
+ * custodiados alterados durante a recarga mantêm a versão incremental, que é mais nova
+ * que a lida pela recarga.
+ */
+public class IndiceCheckin {
+
+    @lombok.Data
+    @lombok.Builder
+    public static class Registro {
+        private Long custodiadoId;
+        private UUID publicId;
+        private String nome;
+        private String cpf;
+        private String rg;
+        /** Número do cadastro legado, usado quando o custodiado ainda não tem processo. */
+        private String processoLegado;
+        private LocalDate proximoComparecimento;
+        private List<ProcessoAtivo> processos;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class ProcessoAtivo {
+        private Long processoId;
+        private String numeroProcesso;
+        private String comarca;
+        private String vara;
+        private StatusComparecimento status;
+        private LocalDate proximoComparecimento;
+    }
+
+    private static final String CPF = "cpf:";
+    private static final String RG = "rg:";
+    private static final String PROCESSO = "proc:";
+
+    private static class Mapas {
+        final Map<Long, Registro> registros = new ConcurrentHashMap<>();
+        final Map<Long, String> nomesDobrados = new ConcurrentHashMap<>();
+        final Map<String, Set<Long>> porChave = new ConcurrentHashMap<>();
+        final NavigableMap<String, Set<Long>> porTermo = new ConcurrentSkipListMap<>();
+
+        void colocar(Registro novo) {
+            Long id = novo.getCustodiadoId();
+            Registro antigo = registros.put(id, novo);
+            nomesDobrados.put(id, TextoBusca.dobrar(novo.getNome()));
+            // chaves antigas saem depois das novas entrarem: a leitura nunca vê o custodiado sumir
+            reindexar(porChave, id, antigo != null ? chaves(antigo) : Set.of(), chaves(novo));
+            reindexar(porTermo, id, antigo != null ? termos(antigo) : Set.of(), termos(novo));
+        }
+
+        void retirar(Long custodiadoId) {
+            Registro antigo = registros.remove(custodiadoId);
+            if (antigo == null) return;
+            nomesDobrados.remove(custodiadoId);
+            reindexar(porChave, custodiadoId, chaves(antigo), Set.of());
+            reindexar(porTermo, custodiadoId, termos(antigo), Set.of());
+        }
+
+        private static void reindexar(Map<String, Set<Long>> mapa, Long id, Set<String> antigas, Set<String> novas) {
+            for (String chave : novas) {
+                mapa.computeIfAbsent(chave, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+            for (String chave : antigas) {
+                if (novas.contains(chave)) continue;
+                mapa.computeIfPresent(chave, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    private volatile Mapas mapas = new Mapas();
+    private volatile boolean carregado;
+    private Set<Long> alteradosNaRecarga; // guardado por this
+
+    // =====================================================================
+    // Leitura
+    // =====================================================================
+
+    /**
+     * Custodiados cujo CPF, RG ou número de processo corresponde ao documento digitado,
+     * com ou sem pontuação. Ordenados por nome.
+     */
+    public List<Registro> buscar(String documento) {
+        Mapas atual = mapas;
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String chave : chavesDeBusca(documento)) {
+            Set<Long> encontrados = atual.porChave.get(chave);
+            if (encontrados != null) ids.addAll(encontrados);
+        }
+        List<Registro> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Registro r = atual.registros.get(id);
+            if (r != null) resultado.add(r);
+        }
+        resultado.sort(Comparator.comparing(Registro::getNome, Comparator.nullsLast(String::compareTo)));
+        return resultado;
+    }
+
+    /**
+     * Sugestões para o campo de custodiado: cada palavra digitada casa como prefixo de uma
+     * palavra do nome ou do número de um processo ("ana sil" → "Ana Maria da Silva").
+     * No modo aproximado, palavras com 4+ letras aceitam 1 erro (2 a partir de 8 letras).
+     * Ordem: menos erros, nome começando pelo texto digitado, nome.
+     */
+    public List<Registro> autocompletar(String termo, int limite, boolean aproximado) {
+        List<String> consulta = tokensDaConsulta(termo);
+        if (consulta.isEmpty() || limite <= 0) return List.of();
+        Mapas atual = mapas;
+
+        Map<Long, Integer> erros = null;
+        for (String token : consulta) {
+            Map<Long, Integer> doToken = casarPrefixo(atual, token, aproximado);
+            if (erros == null) {
+                erros = doToken;
+            } else {
+                Map<Long, Integer> anteriores = erros;
+                erros = new HashMap<>();
+                for (Map.Entry<Long, Integer> e : doToken.entrySet()) {
+                    Integer antes = anteriores.get(e.getKey());
+                    if (antes != null) erros.put(e.getKey(), antes + e.getValue());
+                }
+            }
+            if (erros.isEmpty()) return List.of();
+        }
+
+        String dobrado = String.join(" ", consulta);
+        Map<Long, Integer> custo = erros;
+        Comparator<Long> ordem = Comparator.<Long>comparingInt(custo::get)
+                .thenComparing(id -> !atual.nomesDobrados.getOrDefault(id, "").startsWith(dobrado))
+                .thenComparing(id -> atual.nomesDobrados.getOrDefault(id, ""));
+        List<Registro> resultado = new ArrayList<>(Math.min(limite, custo.size()));
+        custo.keySet().stream().sorted(ordem).limit(limite).forEach(id -> {
+            Registro r = atual.registros.get(id);
+            if (r != null) resultado.add(r);
+        });
+        return resultado;
+    }
+
+    /** custodiadoId → erros do melhor termo que casou com o token. */
+    private static Map<Long, Integer> casarPrefixo(Mapas atual, String token, boolean aproximado) {
+        Map<Long, Integer> casados = new HashMap<>();
+        for (Set<Long> ids : atual.porTermo.subMap(token, true, token + Character.MAX_VALUE, true).values()) {
+            for (Long id : ids) casados.put(id, 0);
+        }
+        int maximo = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+        if (!aproximado || maximo == 0) return casados;
+
+        for (Map.Entry<String, Set<Long>> e : atual.porTermo.entrySet()) {
+            String candidato = e.getKey();
+            if (candidato.startsWith(token)) continue;
+            int d = TextoBusca.distanciaPrefixo(token, candidato, maximo);
+            if (d > maximo) continue;
+            for (Long id : e.getValue()) casados.merge(id, d, Math::min);
+        }
+        return casados;
+    }
+
+    public Registro porId(Long custodiadoId) {
+        return mapas.registros.get(custodiadoId);
+    }
+
+    public int tamanho() {
+        return mapas.registros.size();
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    // =====================================================================
+    // Escrita
+    // =====================================================================
+
+    public synchronized void substituir(Registro registro) {
+        marcarAlterado(registro.getCustodiadoId());
+        mapas.colocar(registro);
+    }
+
+    public synchronized void remover(Long custodiadoId) {
+        marcarAlterado(custodiadoId);
+        mapas.retirar(custodiadoId);
+    }
+
+    public synchronized void iniciarRecarga() {
+        alteradosNaRecarga = new HashSet<>();
+    }
+
+    public void concluirRecarga(Collection<Registro> registros) {
+        Mapas novos = new Mapas();
+        registros.forEach(novos::colocar);
+        synchronized (this) {
+            if (alteradosNaRecarga != null) {
+                for (Long id : alteradosNaRecarga) {
+                    novos.retirar(id);
+                    Registro incremental = mapas.registros.get(id);
+                    if (incremental != null) novos.colocar(incremental);
+                }
+            }
+            alteradosNaRecarga = null;
+            mapas = novos;
+            carregado = true;
+        }
+    }
+
+    public synchronized void cancelarRecarga() {
+        alteradosNaRecarga = null;
+    }
+
+    private void marcarAlterado(Long custodiadoId) {
+        if (alteradosNaRecarga != null) alteradosNaRecarga.add(custodiadoId);
+    }
+
+    // =====================================================================
+    // Normalização
+    // =====================================================================
+
+    static Set<String> chaves(Registro r) {
+        Set<String> chaves = new HashSet<>();
+        String cpf = digitos(r.getCpf());
+        if (cpf.length() == 11) chaves.add(CPF + cpf);
+        String rg = alfanumerico(r.getRg());
+        if (!rg.isEmpty()) chaves.add(RG + rg);
+        if (r.getProcessos() != null) {
+            for (ProcessoAtivo p : r.getProcessos()) {
+                String numero = digitos(p.getNumeroProcesso());
+                if (!numero.isEmpty()) chaves.add(PROCESSO + numero);
+            }
+        }
+        String legado = digitos(r.getProcessoLegado());
+        if (!legado.isEmpty()) chaves.add(PROCESSO + legado);
+        return chaves;
+    }
+
+    static Set<String> termos(Registro r) {
+        Set<String> termos = new HashSet<>(TextoBusca.tokens(r.getNome()));
+        if (r.getProcessos() != null) {
+            for (ProcessoAtivo p : r.getProcessos()) {
+                String numero = digitos(p.getNumeroProcesso());
+                if (!numero.isEmpty()) termos.add(numero);
+            }
+        }
+        String legado = digitos(r.getProcessoLegado());
+        if (!legado.isEmpty()) termos.add(legado);
+        return termos;
+    }
+
+    /**
+     * Só dígitos e pontuação ("0001234-56.2024") é número de processo: vira um token só,
+     * como o termo indexado — separado nos pontos, nenhum termo teria os pedaços.
+     */
+    static List<String> tokensDaConsulta(String termo) {
+        if (termo != null && termo.chars().anyMatch(Character::isDigit) && termo.chars().noneMatch(Character::isLetter)) {
+            return List.of(digitos(termo));
+        }
+        return TextoBusca.tokens(termo);
+    }
+
+    static Set<String> chavesDeBusca(String documento) {
+        Set<String> chaves = new LinkedHashSet<>();
+        String numeros = digitos(documento);
+        if (numeros.length() == 11) chaves.add(CPF + numeros);
+        if (!numeros.isEmpty()) chaves.add(PROCESSO + numeros);
+        String rg = alfanumerico(documento);
+        if (!rg.isEmpty()) chaves.add(RG + rg);
+        return chaves;
+    }
+
+    static String digitos(String valor) {
+        return Objects.toString(Documentos.digitos(valor), "");
+    }
+
+    static String alfanumerico(String valor) {
+        return Objects.toString(Documentos.rg(valor), "");
+    }
+
+    static LocalDate proximoComparecimento(LocalDate doCadastro, List<ProcessoAtivo> processos) {
+        return processos.stream()
+                .map(ProcessoAtivo::getProximoComparecimento)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(doCadastro);
+    }
+}
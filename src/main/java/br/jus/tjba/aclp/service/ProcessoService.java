@@ -1,15 +1,21 @@
 package br.jus.tjba.aclp.service;
 
+import br.jus.tjba.aclp.config.CacheConfig;
 import br.jus.tjba.aclp.dto.ContadoresDashboardDTO;
+import br.jus.tjba.aclp.dto.ContadoresPorLocalDTO;
 import br.jus.tjba.aclp.dto.ProcessoDTO;
 import br.jus.tjba.aclp.dto.ProcessoResumoDTO;
 import br.jus.tjba.aclp.dto.ProcessoResponseDTO;
 import br.jus.tjba.aclp.model.Custodiado;
 import br.jus.tjba.aclp.model.Processo;
+import br.jus.tjba.aclp.model.enums.CausaTransicaoStatus;
 import br.jus.tjba.aclp.model.enums.SituacaoProcesso;
 import br.jus.tjba.aclp.model.enums.StatusComparecimento;
 import br.jus.tjba.aclp.repository.CustodiadoRepository;
 import br.jus.tjba.aclp.repository.ProcessoRepository;
+import br.jus.tjba.aclp.repository.ProcessoRepository.ContagensDashboard;
+import br.jus.tjba.aclp.repository.ProcessoRepository.ContagensPorLocal;
+import br.jus.tjba.aclp.util.Documentos;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,11 +24,14 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -35,6 +44,8 @@ public class ProcessoService {
 
     private final ProcessoRepository processoRepository;
     private final CustodiadoRepository custodiadoRepository;
+    private final HistoricoStatusService historicoStatusService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * CORREÇÃO DE PERFORMANCE: Busca processos de múltiplos custodiados em uma query.
@@ -62,7 +73,7 @@ public class ProcessoService {
     public Page<ProcessoResponseDTO> listarComFiltros(String termo, StatusComparecimento status, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("proximoComparecimento").ascending());
         Page<Processo> pageResult = processoRepository.findComFiltros(
-                (termo != null && termo.isBlank()) ? null : termo, status, pageable);
+                (termo != null && termo.isBlank()) ? null : termo, Documentos.digitos(termo), status, pageable);
         List<ProcessoResponseDTO> dtos = pageResult.getContent().stream()
                 .map(ProcessoResponseDTO::fromEntity).collect(Collectors.toList());
         return new PageImpl<>(dtos, pageable, pageResult.getTotalElements());
@@ -82,9 +93,10 @@ public class ProcessoService {
 
     @Transactional(readOnly = true)
     public Optional<ProcessoResponseDTO> buscarPorNumeroProcesso(String numero) {
-        return processoRepository.findByNumeroProcesso(numero)
-                .map(p -> processoRepository.findByIdComCustodiado(p.getId())
-                        .map(ProcessoResponseDTO::fromEntity).orElse(ProcessoResponseDTO.fromEntity(p)));
+        String digitos = Documentos.digitos(numero);
+        if (digitos == null) return Optional.empty();
+        return processoRepository.findByNumeroProcessoDigitos(digitos).stream()
+                .findFirst().map(ProcessoResponseDTO::fromEntity);
     }
 
     @Transactional(readOnly = true)
@@ -99,17 +111,64 @@ public class ProcessoService {
                 .map(ProcessoResponseDTO::fromEntity).collect(Collectors.toList());
     }
 
+    @Cacheable(cacheNames = CacheConfig.CONTADORES_PROCESSOS, key = "'dashboard'", sync = true)
     @Transactional(readOnly = true)
     public ContadoresDashboardDTO contadoresParaDashboard() {
+        LocalDate hoje = LocalDate.now();
+        ContagensDashboard c = processoRepository.contarParaDashboard(hoje);
         return ContadoresDashboardDTO.builder()
-                .totalProcessosAtivos(processoRepository.countBySituacaoProcesso(SituacaoProcesso.ATIVO))
-                .emConformidade(processoRepository.countByStatusAtivo(StatusComparecimento.EM_CONFORMIDADE))
-                .inadimplentes(processoRepository.countByStatusAtivo(StatusComparecimento.INADIMPLENTE))
-                .comparecimentosHoje(processoRepository.findComparecimentosHojeComCustodiado().size())
-                .dataConsulta(LocalDate.now())
+                .totalProcessosAtivos(c.getAtivos())
+                .emConformidade(c.getEmConformidade())
+                .inadimplentes(c.getInadimplentes())
+                .comparecimentosHoje(c.getComparecimentosHoje())
+                .dataConsulta(hoje)
                 .build();
     }
 
+    /**
+     * Contadores com recorte por comarca e vara. As linhas chegam ordenadas
+     * (total, comarca, varas da comarca, próxima comarca...) e viram a árvore do DTO.
+     */
+    @Cacheable(cacheNames = CacheConfig.CONTADORES_PROCESSOS,
+            key = "'por-local:' + (#comarca == null ? '' : #comarca.trim())", sync = true)
+    @Transactional(readOnly = true)
+    public ContadoresPorLocalDTO contadoresPorLocal(String comarca) {
+        LocalDate hoje = LocalDate.now();
+        String filtro = comarca != null && !comarca.isBlank() ? comarca.trim() : null;
+
+        ContadoresPorLocalDTO resultado = ContadoresPorLocalDTO.builder()
+                .total(new ContadoresPorLocalDTO.Contadores())
+                .dataConsulta(hoje)
+                .build();
+        Map<String, ContadoresPorLocalDTO.Comarca> comarcas = new LinkedHashMap<>();
+
+        for (ContagensPorLocal linha : processoRepository.contarPorComarcaEVara(hoje, filtro)) {
+            ContadoresPorLocalDTO.Contadores contadores = ContadoresPorLocalDTO.Contadores.builder()
+                    .ativos(linha.getAtivos())
+                    .emConformidade(linha.getEmConformidade())
+                    .inadimplentes(linha.getInadimplentes())
+                    .comparecimentosHoje(linha.getComparecimentosHoje())
+                    .encerrados(linha.getEncerrados())
+                    .suspensos(linha.getSuspensos())
+                    .build();
+
+            if (linha.getNivel() == 3) {
+                resultado.setTotal(contadores);
+                continue;
+            }
+            ContadoresPorLocalDTO.Comarca c = comarcas.computeIfAbsent(linha.getComarca(),
+                    nome -> ContadoresPorLocalDTO.Comarca.builder().comarca(nome).build());
+            if (linha.getNivel() == 1) {
+                c.setContadores(contadores);
+            } else {
+                c.getVaras().add(ContadoresPorLocalDTO.Vara.builder().vara(linha.getVara()).contadores(contadores).build());
+            }
+        }
+
+        resultado.setComarcas(new ArrayList<>(comarcas.values()));
+        return resultado;
+    }
+
     @Transactional
     public ProcessoResponseDTO criarProcesso(ProcessoDTO dto) {
         Custodiado custodiado = custodiadoRepository.findById(dto.getCustodiadoId())
@@ -125,12 +184,15 @@ public class ProcessoService {
                 .observacoes(dto.getObservacoes()).build();
 
         processo.calcularProximoComparecimento();
-        return ProcessoResponseDTO.fromEntity(processoRepository.save(processo));
+        Processo salvo = processoRepository.save(processo);
+        historicoStatusService.registrar(salvo, null, null, CausaTransicaoStatus.CADASTRO);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.PROCESSO, salvo.getCustodiado().getId()));
+        return ProcessoResponseDTO.fromEntity(salvo);
     }
 
     @Transactional
     public ProcessoResponseDTO atualizarProcesso(Long id, ProcessoDTO dto) {
-        Processo processo = processoRepository.findById(id)
+        Processo processo = processoRepository.findByIdComCustodiado(id)
                 .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + id));
         processo.setNumeroProcesso(dto.getNumeroProcesso());
         processo.setVara(dto.getVara().trim());
@@ -140,31 +202,45 @@ public class ProcessoService {
         processo.setDataComparecimentoInicial(dto.getDataComparecimentoInicial());
         processo.setObservacoes(dto.getObservacoes());
         processo.calcularProximoComparecimento();
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.PROCESSO, processo.getCustodiado().getId()));
         return ProcessoResponseDTO.fromEntity(processoRepository.save(processo));
     }
 
     @Transactional
     public ProcessoResponseDTO encerrarProcesso(Long id) {
-        Processo p = processoRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + id));
+        Processo p = processoRepository.findByIdComCustodiado(id).orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + id));
+        SituacaoProcesso situacaoAnterior = p.getSituacaoProcesso();
         p.setSituacaoProcesso(SituacaoProcesso.ENCERRADO);
         p.setProximoComparecimento(null);
-        return ProcessoResponseDTO.fromEntity(processoRepository.save(p));
+        Processo salvo = processoRepository.save(p);
+        historicoStatusService.registrar(salvo, salvo.getStatus(), situacaoAnterior, CausaTransicaoStatus.ENCERRAMENTO);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.PROCESSO, salvo.getCustodiado().getId()));
+        return ProcessoResponseDTO.fromEntity(salvo);
     }
 
     @Transactional
     public ProcessoResponseDTO suspenderProcesso(Long id) {
-        Processo p = processoRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + id));
+        Processo p = processoRepository.findByIdComCustodiado(id).orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + id));
+        SituacaoProcesso situacaoAnterior = p.getSituacaoProcesso();
         p.setSituacaoProcesso(SituacaoProcesso.SUSPENSO);
         p.setProximoComparecimento(null);
-        return ProcessoResponseDTO.fromEntity(processoRepository.save(p));
+        Processo salvo = processoRepository.save(p);
+        historicoStatusService.registrar(salvo, salvo.getStatus(), situacaoAnterior, CausaTransicaoStatus.SUSPENSAO);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.PROCESSO, salvo.getCustodiado().getId()));
+        return ProcessoResponseDTO.fromEntity(salvo);
     }
 
     @Transactional
     public ProcessoResponseDTO reativarProcesso(Long id) {
-        Processo p = processoRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + id));
+        Processo p = processoRepository.findByIdComCustodiado(id).orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + id));
+        StatusComparecimento statusAnterior = p.getStatus();
+        SituacaoProcesso situacaoAnterior = p.getSituacaoProcesso();
         p.setSituacaoProcesso(SituacaoProcesso.ATIVO);
         p.calcularProximoComparecimento();
         p.atualizarStatusBaseadoEmData();
-        return ProcessoResponseDTO.fromEntity(processoRepository.save(p));
+        Processo salvo = processoRepository.save(p);
+        historicoStatusService.registrar(salvo, statusAnterior, situacaoAnterior, CausaTransicaoStatus.REATIVACAO);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.PROCESSO, salvo.getCustodiado().getId()));
+        return ProcessoResponseDTO.fromEntity(salvo);
     }
 }
@@ -0,0 +1,135 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.model.Custodiado;
+import br.jus.tjba.aclp.model.HistoricoComparecimento;
+import br.jus.tjba.aclp.model.Processo;
+import br.jus.tjba.aclp.repository.HistoricoComparecimentoRepository;
+import br.jus.tjba.aclp.repository.ResumoDiarioComparecimentoRepository;
+import br.jus.tjba.aclp.repository.ResumoDiarioComparecimentoRepository.PontualidadeMensal;
+import br.jus.tjba.aclp.repository.ResumoDiarioComparecimentoRepository.TotaisPeriodo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumo diário de comparecimentos e situação dos processos (tabela resumo_diario_comparecimentos).
+ *
+ * Mantido incrementalmente por quem grava comparecimento (registrarComparecimento, cadastro
+ * inicial) e pelo job de status; a reconstrução diária refaz a janela recente para corrigir
+ * comparecimentos lançados com data retroativa, que mudam a pontualidade do registro seguinte.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResumoDiarioService {
+
+    private final ResumoDiarioComparecimentoRepository resumoRepository;
+    private final HistoricoComparecimentoRepository historicoComparecimentoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CoordenacaoJobsService coordenacaoJobsService;
+
+    @Value("${aclp.resumo-diario.dias-reconstrucao:90}")
+    private int diasReconstrucao;
+
+    /**
+     * Contabiliza um comparecimento recém-salvo. Roda na transação de quem gravou:
+     * se o registro for desfeito, o incremento também é.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarComparecimento(HistoricoComparecimento h) {
+        Custodiado custodiado = h.getCustodiado();
+        Processo processo = h.getProcesso();
+
+        int avaliados = 0, noPrazo = 0;
+        Integer periodicidade = custodiado != null ? custodiado.getPeriodicidade() : null;
+        if (custodiado != null && periodicidade != null) {
+            LocalDate anterior = historicoComparecimentoRepository.findDataComparecimentoAnterior(
+                    custodiado.getId(), h.getDataComparecimento(), h.getId());
+            if (anterior != null) {
+                avaliados = 1;
+                if (!h.getDataComparecimento().isAfter(anterior.plusDays(periodicidade))) noPrazo = 1;
+            }
+        }
+
+        resumoRepository.incrementarComparecimento(
+                h.getDataComparecimento(),
+                chave(processo != null ? processo.getComarca() : null, custodiado != null ? custodiado.getComarca() : null),
+                chave(processo != null ? processo.getVara() : null, custodiado != null ? custodiado.getVara() : null),
+                h.getTipoValidacao().name(),
+                avaliados, noPrazo, h.houveMudancaEndereco() ? 1 : 0);
+    }
+
+    /** Refaz a fotografia de hoje só para a comarca/vara do processo que mudou. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void atualizarSituacao(Processo processo) {
+        resumoRepository.gravarSituacao(LocalDate.now(), processo.getComarca(), processo.getVara());
+    }
+
+    @Transactional
+    public void atualizarSituacaoDoDia(LocalDate data) {
+        resumoRepository.zerarSituacao(data);
+        int linhas = resumoRepository.gravarSituacaoGeral(data);
+        log.debug("Situação do dia {} gravada no resumo diário ({} comarca/vara)", data, linhas);
+    }
+
+    @Transactional
+    public int reconstruir(LocalDate inicio, LocalDate fim) {
+        int apagadas = resumoRepository.apagarComparecimentos(inicio, fim);
+        int gravadas = resumoRepository.reconstruirComparecimentos(inicio, fim);
+        log.info("Resumo diário reconstruído de {} a {}: {} linhas removidas, {} gravadas", inicio, fim, apagadas, gravadas);
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.COMPARECIMENTO));
+        return gravadas;
+    }
+
+    /** Uma instância por disparo (lease "resumo-diario"); o trabalho roda numa transação só. */
+    @Scheduled(cron = "0 30 1 * * *")
+    public void reconstruirJanelaRecente() {
+        LocalDate hoje = LocalDate.now();
+        coordenacaoJobsService.executarComLeaseEmTransacao("resumo-diario",
+                () -> reconstruir(hoje.minusDays(diasReconstrucao), hoje));
+    }
+
+    // =====================================================================
+    // Leitura
+    // =====================================================================
+
+    @Transactional(readOnly = true)
+    public TotaisPeriodo totaisPeriodo(LocalDate inicio, LocalDate fim) {
+        return resumoRepository.somarPeriodo(inicio, fim);
+    }
+
+    /**
+     * Meses da janela com [avaliados, noPrazo], em ordem, incluindo os meses sem dado
+     * (a montagem da tendência precisa de todos para o gráfico).
+     */
+    @Transactional(readOnly = true)
+    public Map<YearMonth, long[]> pontualidadeMensal(YearMonth primeiro, YearMonth ultimo) {
+        Map<YearMonth, long[]> meses = new LinkedHashMap<>();
+        for (YearMonth m = primeiro; !m.isAfter(ultimo); m = m.plusMonths(1)) meses.put(m, new long[2]);
+
+        List<PontualidadeMensal> linhas = resumoRepository.pontualidadePorMes(primeiro.atDay(1), ultimo.atEndOfMonth());
+        for (PontualidadeMensal linha : linhas) {
+            long[] mes = meses.get(YearMonth.of(linha.getAno(), linha.getMes()));
+            if (mes == null) continue;
+            mes[0] = linha.getAvaliados();
+            mes[1] = linha.getNoPrazo();
+        }
+        return meses;
+    }
+
+    private static String chave(String doProcesso, String doCustodiado) {
+        String valor = doProcesso != null ? doProcesso : doCustodiado;
+        return valor != null ? valor : "";
+    }
+}
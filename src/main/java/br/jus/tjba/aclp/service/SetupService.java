@@ -29,6 +29,9 @@ public class SetupService {
      */
     public boolean isSetupRequired() {
         boolean statusCompleted = setupStatusRepository.isCompleted();
+        if (statusCompleted) {
+            return false;
+        }
         long userCount = usuarioRepository.count();
 
         // Setup é necessário se não foi concluído E não há usuários
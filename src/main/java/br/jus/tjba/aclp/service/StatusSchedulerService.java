@@ -1,20 +1,32 @@
 package br.jus.tjba.aclp.service;
 
+import br.jus.tjba.aclp.config.CacheConfig;
+import br.jus.tjba.aclp.exception.JobEmExecucaoException;
 import br.jus.tjba.aclp.model.Custodiado;
+import br.jus.tjba.aclp.model.JobExecucao;
 import br.jus.tjba.aclp.model.Processo;
+import br.jus.tjba.aclp.model.enums.CausaTransicaoStatus;
 import br.jus.tjba.aclp.model.enums.StatusComparecimento;
 import br.jus.tjba.aclp.repository.CustodiadoRepository;
 import br.jus.tjba.aclp.repository.ProcessoRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -23,37 +35,62 @@ public class StatusSchedulerService {
 
     private final CustodiadoRepository custodiadoRepository;
     private final ProcessoRepository processoRepository;
+    private final ResumoDiarioService resumoDiarioService;
+    private final HistoricoStatusService historicoStatusService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CoordenacaoJobsService coordenacaoJobsService;
+    private final TransactionTemplate transactionTemplate;
+
+    static final String JOB_VERIFICACAO = "status-verificacao";
+    static final String JOB_REPROCESSAMENTO = "status-reprocessamento";
+    private static final int PAGINA_CUSTODIADOS = 500;
+
+    @Value("${aclp.status.reprocessamento.tamanho-faixa:5000}")
+    private long tamanhoFaixa;
+
+    /**
+     * Reprocessamento completo é fracionado por faixa de id de processo: todas as
+     * instâncias ajudam e, se uma cair no meio, as faixas dela voltam para a fila.
+     */
+    @PostConstruct
+    void registrarJobs() {
+        coordenacaoJobsService.registrarJobFracionado(JOB_REPROCESSAMENTO,
+                this::reprocessarFaixa, this::finalizarReprocessamento);
+    }
 
     /**
      * Sem isto, um container novo (ou base recém-importada) exibia todo mundo
      * "EM_CONFORMIDADE" até o cron das 01h — que é exatamente o bug relatado.
-     * ponytail: varre a tabela no boot; se a base passar de dezenas de milhares,
-     * trocar por um UPDATE em massa condicional à data.
+     *
+     * Assíncrono: o ApplicationReadyEvent é publicado antes do readiness ACCEPTING_TRAFFIC,
+     * então rodar aqui de forma síncrona segurava a primeira requisição do cold start
+     * até a varredura terminar. Com várias réplicas subindo juntas, só a primeira inicia
+     * o reprocessamento; as outras entram nas faixas pelo CoordenacaoJobsService.
      */
+    @Async
     @EventListener(ApplicationReadyEvent.class)
-    @Transactional // self-invocation não passa pelo proxy: a transação tem que estar aqui
     public void sincronizarStatusNoStartup() {
         log.info("Sincronizando status na inicialização");
-        reprocessarTodosStatus();
+        reprocessar(Duration.ofMinutes(10));
     }
 
     @Scheduled(cron = "0 0 1 * * *")
-    @Transactional
     public void verificarStatusDiario() {
         log.info("Iniciando verificação automática diária de status - {}", LocalDate.now());
-        long marcados = executarVerificacaoStatus();
-        if (marcados > 0) {
-            log.warn("{} processos foram marcados como INADIMPLENTES", marcados);
-        } else {
-            log.info("Nenhum processo ficou inadimplente hoje");
-        }
+        coordenacaoJobsService.executarComLeaseEmTransacao(JOB_VERIFICACAO, this::executarVerificacaoStatus)
+                .ifPresent(marcados -> {
+                    if (marcados > 0) {
+                        log.warn("{} processos foram marcados como INADIMPLENTES", marcados);
+                    } else {
+                        log.info("Nenhum processo ficou inadimplente hoje");
+                    }
+                });
     }
 
     @Scheduled(cron = "0 0 */6 * * *")
-    @Transactional
     public void verificarStatusPeriodico() {
         log.debug("Verificação periódica de status - {}", LocalDate.now());
-        executarVerificacaoStatus();
+        coordenacaoJobsService.executarComLeaseEmTransacao(JOB_VERIFICACAO, this::executarVerificacaoStatus);
     }
 
     /**
@@ -66,8 +103,11 @@ public class StatusSchedulerService {
         long contadorProcessos = 0;
 
         for (Processo processo : processosAtrasados) {
+            StatusComparecimento statusAnterior = processo.getStatus();
             processo.setStatus(StatusComparecimento.INADIMPLENTE);
             processoRepository.save(processo);
+            historicoStatusService.registrar(processo, statusAnterior, processo.getSituacaoProcesso(),
+                    CausaTransicaoStatus.VERIFICACAO_AUTOMATICA);
             contadorProcessos++;
 
             long diasAtraso = java.time.temporal.ChronoUnit.DAYS
@@ -95,61 +135,101 @@ public class StatusSchedulerService {
             log.info("Verificação concluída: {} processos e {} custodiados marcados como inadimplentes",
                     contadorProcessos, contadorCustodiados);
         }
+        resumoDiarioService.atualizarSituacaoDoDia(hoje);
+        if (contadorProcessos > 0 || contadorCustodiados > 0) {
+            eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.STATUS));
+        }
 
         return Math.max(contadorProcessos, contadorCustodiados);
     }
 
-    @Transactional
+    /**
+     * Sem esperar o lease mínimo: o administrador pode repetir logo em seguida.
+     * JobEmExecucaoException se a verificação já está rodando em alguma instância.
+     */
     public long verificarStatusManual() {
         log.info("Verificação MANUAL de status solicitada");
-        return executarVerificacaoStatus();
+        return coordenacaoJobsService
+                .executarComLeaseEmTransacao(JOB_VERIFICACAO, Duration.ZERO, this::executarVerificacaoStatus)
+                .orElseThrow(() -> new JobEmExecucaoException("Verificação de status já em execução"));
     }
 
     /**
-     * Reprocessa todos os processos ativos + custodiados (compatibilidade)
+     * Reprocessa todos os processos ativos + custodiados (compatibilidade), em faixas.
+     * Devolve a execução no ponto em que esta instância parou de achar faixas livres —
+     * EM_EXECUCAO se outras ainda estão processando —; vazio se já havia um
+     * reprocessamento sendo iniciado em outra instância.
      */
-    @Transactional
-    public long reprocessarTodosStatus() {
+    public Optional<JobExecucao> reprocessarTodosStatus() {
         log.info("REPROCESSAMENTO COMPLETO de todos os status");
+        return reprocessar(Duration.ZERO);
+    }
+
+    private Optional<JobExecucao> reprocessar(Duration minimo) {
+        return coordenacaoJobsService.executarFracionado(JOB_REPROCESSAMENTO,
+                processoRepository::findMinIdAtivo, processoRepository::findMaxIdAtivo, tamanhoFaixa, minimo);
+    }
+
+    /** Uma faixa [inicio, fim) de ids de processo; roda na transação da faixa. Devolve os inadimplentes. */
+    private long reprocessarFaixa(long inicio, long fim) {
         LocalDate hoje = LocalDate.now();
         long inadimplentes = 0;
 
-        // Reprocessar processos
-        List<Processo> todosProcessos = processoRepository.findAllAtivosComCustodiado();
-        for (Processo processo : todosProcessos) {
+        for (Processo processo : processoRepository.findAtivosComCustodiadoNaFaixa(inicio, fim)) {
             StatusComparecimento novoStatus = (processo.getProximoComparecimento() != null && processo.getProximoComparecimento().isBefore(hoje))
                     ? StatusComparecimento.INADIMPLENTE : StatusComparecimento.EM_CONFORMIDADE;
 
             if (!processo.getStatus().equals(novoStatus)) {
+                StatusComparecimento statusAnterior = processo.getStatus();
                 processo.setStatus(novoStatus);
                 processoRepository.save(processo);
+                historicoStatusService.registrar(processo, statusAnterior, processo.getSituacaoProcesso(),
+                        CausaTransicaoStatus.REPROCESSAMENTO);
                 log.info("Processo {} status alterado para {}", processo.getNumeroProcesso(), novoStatus);
             }
             if (novoStatus == StatusComparecimento.INADIMPLENTE) inadimplentes++;
         }
+        return inadimplentes;
+    }
+
+    /**
+     * Depois da última faixa, uma vez por execução. Custodiados em páginas por id, uma
+     * transação por página: o contexto de persistência nunca guarda a tabela inteira.
+     */
+    private void finalizarReprocessamento() {
+        LocalDate hoje = LocalDate.now();
 
         // Compatibilidade: reprocessar custodiados
-        List<Custodiado> todosCustodiados = custodiadoRepository.findAll();
-        for (Custodiado pessoa : todosCustodiados) {
-            StatusComparecimento statusNovo = (pessoa.getProximoComparecimento() == null || !pessoa.getProximoComparecimento().isBefore(hoje))
-                    ? StatusComparecimento.EM_CONFORMIDADE : StatusComparecimento.INADIMPLENTE;
+        Long aposId = 0L;
+        while (aposId != null) {
+            final Long cursor = aposId;
+            aposId = transactionTemplate.execute(status -> {
+                List<Custodiado> pagina = custodiadoRepository.findAtivosAposId(cursor, PageRequest.of(0, PAGINA_CUSTODIADOS));
+                for (Custodiado pessoa : pagina) {
+                    StatusComparecimento statusNovo = (pessoa.getProximoComparecimento() == null || !pessoa.getProximoComparecimento().isBefore(hoje))
+                            ? StatusComparecimento.EM_CONFORMIDADE : StatusComparecimento.INADIMPLENTE;
 
-            if (!pessoa.getStatus().equals(statusNovo)) {
-                pessoa.setStatus(statusNovo);
-                custodiadoRepository.save(pessoa);
-            }
+                    if (!pessoa.getStatus().equals(statusNovo)) {
+                        pessoa.setStatus(statusNovo);
+                        custodiadoRepository.save(pessoa);
+                    }
+                }
+                return pagina.size() < PAGINA_CUSTODIADOS ? null : pagina.get(pagina.size() - 1).getId();
+            });
         }
 
-        log.info("Reprocessamento concluído: {} processos inadimplentes", inadimplentes);
-        return inadimplentes;
+        transactionTemplate.executeWithoutResult(status -> resumoDiarioService.atualizarSituacaoDoDia(hoje));
+        eventPublisher.publishEvent(new DadosAlteradosEvent(DadosAlteradosEvent.Origem.STATUS));
+        log.info("Reprocessamento concluído");
     }
 
+    @Cacheable(cacheNames = CacheConfig.CONTADORES_STATUS, key = "'info'", sync = true)
     public StatusInfo obterStatusInfo() {
-        // Usar ProcessoRepository para contadores principais
-        long totalProcessos = processoRepository.countBySituacaoProcesso(
-                br.jus.tjba.aclp.model.enums.SituacaoProcesso.ATIVO);
-        long emConformidade = processoRepository.countByStatusAtivo(StatusComparecimento.EM_CONFORMIDADE);
-        long inadimplentes = processoRepository.countByStatusAtivo(StatusComparecimento.INADIMPLENTE);
+        // Usar ProcessoRepository para contadores principais (uma varredura só)
+        ProcessoRepository.ContagensDashboard contagens = processoRepository.contarParaDashboard(LocalDate.now());
+        long totalProcessos = contagens.getAtivos();
+        long emConformidade = contagens.getEmConformidade();
+        long inadimplentes = contagens.getInadimplentes();
 
         // Fallback para custodiados se não houver processos migrados ainda
         if (totalProcessos == 0) {
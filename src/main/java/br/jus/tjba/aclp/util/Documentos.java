@@ -0,0 +1,33 @@
+package br.jus.tjba.aclp.util;
+
+/**
+ * Forma normalizada de CPF, RG e número de processo — a mesma das colunas *_digitos /
+ * rg_normalizado e do backfill da V7. Comparação sempre nessa forma, nunca na formatada.
+ */
+public final class Documentos {
+
+    private Documentos() {
+    }
+
+    /** Só os dígitos; null quando não há nenhum. "123.456.789-09" → "12345678909". */
+    public static String digitos(String valor) {
+        if (valor == null) return null;
+        StringBuilder sb = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c >= '0' && c <= '9') sb.append(c);
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    /** RG varia por estado (letras, dígito X): letras e dígitos em maiúsculas; null quando vazio. */
+    public static String rg(String valor) {
+        if (valor == null) return null;
+        StringBuilder sb = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = Character.toUpperCase(valor.charAt(i));
+            if ((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z')) sb.append(c);
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package br.jus.tjba.aclp.util;
+
+import java.util.Locale;
+
+/**
+ * Forma canônica de email gravada em usuarios, convites e pre_cadastros (mesma regra
+ * do backfill da V10). Buscas recebem o email já nessa forma e comparam por igualdade,
+ * sem LOWER() na coluna.
+ */
+public final class Emails {
+
+    private Emails() {
+    }
+
+    /** Sem espaços nas pontas e em minúsculas; null quando vazio. " Ana@TJBA.jus.br " → "ana@tjba.jus.br". */
+    public static String canonico(String email) {
+        if (email == null) return null;
+        String s = email.trim();
+        return s.isEmpty() ? null : s.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,82 @@
+package br.jus.tjba.aclp.util;
+
+import java.text.Normalizer;
+import java.util.List;
+
+/**
+ * Normalização e distância de edição para busca em memória (autocompletar).
+ */
+public final class TextoBusca {
+
+    private TextoBusca() {
+    }
+
+    /** Sem acentos, minúsculo, só letras e dígitos separados por um espaço. "João D'Ávila" → "joao d avila". */
+    public static String dobrar(String texto) {
+        if (texto == null || texto.isEmpty()) return "";
+        String semAcento = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(semAcento.length());
+        boolean espaco = true;
+        for (int i = 0; i < semAcento.length(); i++) {
+            char c = semAcento.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                espaco = false;
+            } else if (!espaco) {
+                sb.append(' ');
+                espaco = true;
+            }
+        }
+        int fim = sb.length();
+        if (fim > 0 && sb.charAt(fim - 1) == ' ') sb.setLength(fim - 1);
+        return sb.toString();
+    }
+
+    public static List<String> tokens(String texto) {
+        String dobrado = dobrar(texto);
+        return dobrado.isEmpty() ? List.of() : List.of(dobrado.split(" "));
+    }
+
+    /**
+     * Menor distância de edição (Damerau restrita: inserção, remoção, troca e transposição
+     * de vizinhos) entre a consulta e algum prefixo do termo — "slva" está a 1 de "silveira".
+     * Para assim que a distância passa de maximo e devolve maximo + 1.
+     */
+    public static int distanciaPrefixo(String consulta, String termo, int maximo) {
+        int m = consulta.length();
+        int n = termo.length();
+        if (m == 0) return 0;
+        if (n < m - maximo) return maximo + 1;
+
+        int[] anterior2 = new int[n + 1];
+        int[] anterior = new int[n + 1];
+        int[] atual = new int[n + 1];
+        for (int j = 0; j <= n; j++) anterior[j] = j;
+
+        for (int i = 1; i <= m; i++) {
+            atual[0] = i;
+            int menorDaLinha = atual[0];
+            char ci = consulta.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                char tj = termo.charAt(j - 1);
+                int custo = ci == tj ? 0 : 1;
+                int d = Math.min(Math.min(anterior[j] + 1, atual[j - 1] + 1), anterior[j - 1] + custo);
+                if (i > 1 && j > 1 && ci == termo.charAt(j - 2) && consulta.charAt(i - 2) == tj) {
+                    d = Math.min(d, anterior2[j - 2] + 1);
+                }
+                atual[j] = d;
+                menorDaLinha = Math.min(menorDaLinha, d);
+            }
+            if (menorDaLinha > maximo) return maximo + 1;
+            int[] t = anterior2;
+            anterior2 = anterior;
+            anterior = atual;
+            atual = t;
+        }
+
+        int melhor = maximo + 1;
+        for (int j = 0; j <= n; j++) melhor = Math.min(melhor, anterior[j]);
+        return melhor;
+    }
+}
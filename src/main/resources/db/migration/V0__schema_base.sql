@@ -0,0 +1,406 @@
+-- =====================================================================
+-- MIGRAÇÃO V0: Schema base (bancos novos)
+--
+-- Estrutura completa das entidades JPA, gerada a partir do mapeamento
+-- atual. Só é executada em bancos VAZIOS: bancos que já existiam (criados
+-- pelo antigo ddl-auto=update, com a V1 aplicada manualmente) recebem o
+-- baseline do Flyway na versão 1 e pulam este script.
+--
+-- A FK fk_comparecimento_processo e a UNIQUE de public_id ficam de fora
+-- de propósito: a V1 e a V3 as criam, e rodam em seguida.
+-- =====================================================================
+
+create table convites (
+    quantidade_usos integer,
+    usos_realizados integer,
+    ativado_em timestamp(6),
+    criado_em timestamp(6) not null,
+    criado_por_id bigint,
+    expira_em timestamp(6) not null,
+    id bigint generated by default as identity,
+    usuario_id bigint,
+    status varchar(20) not null check (status in ('PENDENTE','ATIVADO','EXPIRADO','CANCELADO')),
+    tipo_usuario varchar(20) not null check (tipo_usuario in ('ADMIN','USUARIO')),
+    ip_ativacao varchar(45),
+    ip_criacao varchar(45),
+    comarca varchar(100),
+    departamento varchar(100),
+    token varchar(100) not null unique,
+    email varchar(255),
+    primary key (id)
+);
+
+create table custodiados (
+    data_comparecimento_inicial date,
+    data_decisao date,
+    periodicidade integer,
+    proximo_comparecimento date,
+    ultimo_comparecimento date,
+    atualizado_em timestamp(6),
+    criado_em timestamp(6) not null,
+    id bigint generated by default as identity,
+    version bigint,
+    cpf varchar(14),
+    public_id uuid not null,
+    contato varchar(20) not null,
+    rg varchar(20),
+    situacao varchar(20) not null check (situacao in ('ATIVO','ARQUIVADO')),
+    status varchar(20) check (status in ('EM_CONFORMIDADE','INADIMPLENTE')),
+    processo varchar(25),
+    comarca varchar(100),
+    vara varchar(100),
+    nome varchar(150) not null,
+    observacoes varchar(500),
+    primary key (id)
+);
+
+create table email_verification (
+    max_tentativas integer not null,
+    tentativas integer not null,
+    verificado boolean not null,
+    criado_em timestamp(6) not null,
+    expira_em timestamp(6) not null,
+    id bigint generated by default as identity,
+    verificado_em timestamp(6),
+    version bigint,
+    codigo varchar(10) not null,
+    tipo_usuario varchar(20),
+    ip_solicitacao varchar(45),
+    ip_verificacao varchar(45),
+    email varchar(150) not null,
+    dados_usuario TEXT,
+    primary key (id)
+);
+
+create table historico_comparecimentos (
+    data_comparecimento date not null,
+    hora_comparecimento time(6),
+    mudanca_endereco boolean not null,
+    atualizado_em timestamp(6),
+    criado_em timestamp(6) not null,
+    custodiado_id bigint,
+    id bigint generated by default as identity,
+    processo_id bigint,
+    version bigint,
+    tipo_validacao varchar(20) not null check (tipo_validacao in ('PRESENCIAL','ONLINE','CADASTRO_INICIAL')),
+    validado_por varchar(100) not null,
+    motivo_mudanca_endereco varchar(500),
+    observacoes varchar(500),
+    anexos TEXT,
+    primary key (id)
+);
+
+create table historico_enderecos (
+    ativo boolean not null,
+    data_fim date,
+    data_inicio date not null,
+    estado varchar(2) not null,
+    atualizado_em timestamp(6),
+    criado_em timestamp(6) not null,
+    custodiado_id bigint not null,
+    historico_comparecimento_id bigint,
+    id bigint generated by default as identity,
+    version bigint,
+    cep varchar(9) not null,
+    numero varchar(20),
+    bairro varchar(100) not null,
+    cidade varchar(100) not null,
+    complemento varchar(100),
+    validado_por varchar(100),
+    logradouro varchar(200) not null,
+    motivo_alteracao varchar(500),
+    primary key (id)
+);
+
+create table login_attempts (
+    blocked boolean not null,
+    success boolean not null,
+    suspicious boolean not null,
+    attempt_time timestamp(6) not null,
+    id bigint generated by default as identity,
+    ip_address varchar(45) not null,
+    device varchar(100),
+    location varchar(100),
+    email varchar(150) not null,
+    failure_reason varchar(255),
+    user_agent TEXT,
+    primary key (id)
+);
+
+create table pre_cadastros (
+    tentativas_verificacao integer,
+    verificado boolean not null,
+    criado_em timestamp(6) not null,
+    expira_em timestamp(6) not null,
+    id bigint generated by default as identity,
+    usuario_criado_id bigint,
+    verificado_em timestamp(6),
+    ip_cadastro varchar(45),
+    ip_verificacao varchar(45),
+    cargo varchar(100),
+    comarca varchar(100),
+    departamento varchar(100),
+    email varchar(255) not null unique,
+    nome varchar(255) not null,
+    senha varchar(255) not null,
+    tipo_usuario varchar(255) not null check (tipo_usuario in ('ADMIN','USUARIO')),
+    token_convite varchar(255) not null,
+    token_verificacao varchar(255) not null unique,
+    primary key (id)
+);
+
+create table processos (
+    data_comparecimento_inicial date not null,
+    data_decisao date not null,
+    periodicidade integer not null check ((periodicidade>=1) and (periodicidade<=365)),
+    proximo_comparecimento date,
+    ultimo_comparecimento date,
+    atualizado_em timestamp(6),
+    criado_em timestamp(6) not null,
+    custodiado_id bigint not null,
+    id bigint generated by default as identity,
+    version bigint,
+    situacao_processo varchar(20) not null check (situacao_processo in ('ATIVO','ENCERRADO','SUSPENSO')),
+    status varchar(20) not null check (status in ('EM_CONFORMIDADE','INADIMPLENTE')),
+    numero_processo varchar(25) not null,
+    comarca varchar(100) not null,
+    vara varchar(100) not null,
+    observacoes varchar(500),
+    primary key (id)
+);
+
+create table refresh_tokens (
+    revoked boolean not null,
+    created_at timestamp(6) not null,
+    expiry_date timestamp(6) not null,
+    id bigint generated by default as identity,
+    revoked_at timestamp(6),
+    usuario_id bigint not null,
+    ip_address varchar(45),
+    token varchar(500) not null unique,
+    revoked_reason varchar(255),
+    user_agent TEXT,
+    primary key (id)
+);
+
+create table setup_status (
+    completed boolean not null,
+    completed_at timestamp(6),
+    created_at timestamp(6) not null,
+    setup_version varchar(10),
+    completed_by_ip varchar(45),
+    first_admin_email varchar(150),
+    id varchar(255) not null,
+    primary key (id)
+);
+
+create table usuarios (
+    ativo boolean not null,
+    deve_trocar_senha boolean not null,
+    email_verificado boolean not null,
+    mfa_enabled boolean not null,
+    tentativas_login_falhadas integer,
+    atualizado_em timestamp(6),
+    bloqueado_ate timestamp(6),
+    criado_em timestamp(6) not null,
+    data_verificacao_email timestamp(6),
+    id bigint generated by default as identity,
+    password_reset_expiry timestamp(6),
+    senha_expira_em timestamp(6),
+    ultimo_login timestamp(6),
+    ultimo_reset_senha timestamp(6),
+    version bigint,
+    status_usuario varchar(20) not null check (status_usuario in ('INVITED','ACTIVE','INACTIVE','BLOCKED','EXPIRED')),
+    tipo varchar(20) not null check (tipo in ('ADMIN','USUARIO')),
+    cargo varchar(100),
+    comarca varchar(100),
+    departamento varchar(100),
+    mfa_secret varchar(100),
+    nome varchar(100) not null,
+    email varchar(150) not null unique,
+    avatar varchar(255),
+    configuracoes TEXT,
+    password_reset_token varchar(255),
+    senha varchar(255) not null,
+    primary key (id)
+);
+
+create index idx_convites_token
+   on convites (token);
+
+create index idx_convites_status
+   on convites (status);
+
+create index idx_convites_email
+   on convites (email);
+
+create index idx_convites_expira_status
+   on convites (expira_em, status);
+
+create index idx_custodiado_cpf
+   on custodiados (cpf);
+
+create index idx_custodiado_rg
+   on custodiados (rg);
+
+create index idx_custodiado_situacao
+   on custodiados (situacao);
+
+create index idx_custodiado_nome
+   on custodiados (nome);
+
+create index idx_custodiado_situacao_status
+   on custodiados (situacao, status);
+
+create index idx_custodiado_situacao_proximo
+   on custodiados (situacao, proximo_comparecimento);
+
+create index idx_email_verification_email
+   on email_verification (email);
+
+create index idx_email_verification_codigo
+   on email_verification (codigo);
+
+create index idx_email_verification_expira
+   on email_verification (expira_em);
+
+create index idx_email_verification_verificado
+   on email_verification (verificado);
+
+create index idx_historico_custodiado
+   on historico_comparecimentos (custodiado_id);
+
+create index idx_historico_processo
+   on historico_comparecimentos (processo_id);
+
+create index idx_historico_data
+   on historico_comparecimentos (data_comparecimento);
+
+create index idx_historico_tipo
+   on historico_comparecimentos (tipo_validacao);
+
+create index idx_historico_custodiado_data
+   on historico_comparecimentos (custodiado_id, data_comparecimento desc);
+
+create index idx_historico_processo_data
+   on historico_comparecimentos (processo_id, data_comparecimento desc);
+
+create index idx_historico_mudanca_endereco
+   on historico_comparecimentos (mudanca_endereco);
+
+create index idx_historico_custodiado_mudanca
+   on historico_comparecimentos (custodiado_id, mudanca_endereco);
+
+create index idx_historico_endereco_custodiado
+   on historico_enderecos (custodiado_id);
+
+create index idx_historico_endereco_data_inicio
+   on historico_enderecos (data_inicio);
+
+create index idx_historico_endereco_data_fim
+   on historico_enderecos (data_fim);
+
+create index idx_historico_endereco_custodiado_periodo
+   on historico_enderecos (custodiado_id, data_inicio, data_fim);
+
+create index idx_historico_endereco_ativo
+   on historico_enderecos (custodiado_id, ativo);
+
+create index idx_historico_endereco_cep
+   on historico_enderecos (cep);
+
+create index idx_historico_endereco_cidade
+   on historico_enderecos (cidade);
+
+create index idx_historico_endereco_estado
+   on historico_enderecos (estado);
+
+create index idx_attempt_email
+   on login_attempts (email);
+
+create index idx_attempt_ip
+   on login_attempts (ip_address);
+
+create index idx_attempt_time
+   on login_attempts (attempt_time);
+
+create index idx_pre_cadastro_email
+   on pre_cadastros (email);
+
+create index idx_pre_cadastro_token_verificacao
+   on pre_cadastros (token_verificacao);
+
+create index idx_pre_cadastro_token_convite
+   on pre_cadastros (token_convite);
+
+create index idx_processo_custodiado
+   on processos (custodiado_id);
+
+create index idx_processo_numero
+   on processos (numero_processo);
+
+create index idx_processo_status
+   on processos (status);
+
+create index idx_processo_situacao
+   on processos (situacao_processo);
+
+create index idx_processo_proximo
+   on processos (proximo_comparecimento);
+
+create index idx_processo_status_proximo
+   on processos (status, proximo_comparecimento);
+
+create index idx_processo_custodiado_situacao
+   on processos (custodiado_id, situacao_processo);
+
+create index idx_refresh_usuario
+   on refresh_tokens (usuario_id);
+
+create index idx_refresh_expiry
+   on refresh_tokens (expiry_date);
+
+create index idx_usuario_email
+   on usuarios (email);
+
+create index idx_usuario_tipo
+   on usuarios (tipo);
+
+create index idx_usuario_ativo
+   on usuarios (ativo);
+
+alter table if exists convites
+   add constraint fk_convite_criado_por
+   foreign key (criado_por_id)
+   references usuarios;
+
+alter table if exists convites
+   add constraint fk_convite_usuario
+   foreign key (usuario_id)
+   references usuarios;
+
+alter table if exists historico_comparecimentos
+   add constraint fk_historico_custodiado
+   foreign key (custodiado_id)
+   references custodiados;
+
+
+alter table if exists historico_enderecos
+   add constraint fk_historico_endereco_custodiado
+   foreign key (custodiado_id)
+   references custodiados;
+
+alter table if exists historico_enderecos
+   add constraint fk_historico_endereco_comparecimento
+   foreign key (historico_comparecimento_id)
+   references historico_comparecimentos;
+
+alter table if exists processos
+   add constraint fk_processo_custodiado
+   foreign key (custodiado_id)
+   references custodiados;
+
+alter table if exists refresh_tokens
+   add constraint fk_refresh_token_usuario
+   foreign key (usuario_id)
+   references usuarios;
@@ -0,0 +1,109 @@
+-- =====================================================================
+-- MIGRAÇÃO V10: Email em forma canônica (minúsculas, sem espaços)
+--
+-- MOTIVO:
+--   Login, o carregamento do usuário pelo filtro JWT, convites e
+--   pré-cadastros buscavam por LOWER(email) = LOWER(:email), sem índice
+--   funcional: cada login varria usuarios.  Agora o email é gravado já
+--   canônico (util.Emails.canonico em @PrePersist/@PreUpdate) e a busca
+--   é igualdade direta na unique key existente.
+--
+--   Antes de canonizar, duplicatas que só diferem em maiúsculas são
+--   fundidas — senão o UPDATE violaria a unique key:
+--     usuarios:      fica o ativo com login mais recente (empate: menor
+--                    id); convites e pré-cadastros passam a apontar
+--                    para ele, refresh tokens dos demais são apagados
+--                    (sessões encerradas) e as linhas duplicadas saem.
+--     pre_cadastros: fica o verificado / mais recente.
+--     convites:      só um PENDENTE por email; os mais antigos viram
+--                    CANCELADO.
+--   Cada fusão gera um WARNING no log do Flyway.
+-- =====================================================================
+
+CREATE TEMP TABLE usuario_email_fusao ON COMMIT DROP AS
+SELECT id AS duplicado, sobrevivente
+FROM (
+    SELECT id,
+           ROW_NUMBER() OVER w AS ordem,
+           FIRST_VALUE(id) OVER w AS sobrevivente
+    FROM usuarios
+    WINDOW w AS (PARTITION BY lower(btrim(email))
+                 ORDER BY ativo DESC, ultimo_login DESC NULLS LAST, id)
+) r
+WHERE ordem > 1;
+
+DO $$
+DECLARE
+    f RECORD;
+BEGIN
+    FOR f IN SELECT u.email, d.duplicado, d.sobrevivente
+             FROM usuario_email_fusao d JOIN usuarios u ON u.id = d.duplicado LOOP
+        RAISE WARNING 'V10: usuário % (%) fundido no usuário %', f.duplicado, f.email, f.sobrevivente;
+    END LOOP;
+END $$;
+
+UPDATE convites c SET criado_por_id = f.sobrevivente
+FROM usuario_email_fusao f WHERE c.criado_por_id = f.duplicado;
+
+UPDATE convites c SET usuario_id = f.sobrevivente
+FROM usuario_email_fusao f WHERE c.usuario_id = f.duplicado;
+
+UPDATE pre_cadastros p SET usuario_criado_id = f.sobrevivente
+FROM usuario_email_fusao f WHERE p.usuario_criado_id = f.duplicado;
+
+DELETE FROM refresh_tokens WHERE usuario_id IN (SELECT duplicado FROM usuario_email_fusao);
+DELETE FROM usuarios WHERE id IN (SELECT duplicado FROM usuario_email_fusao);
+
+UPDATE usuarios SET email = lower(btrim(email))
+WHERE email <> lower(btrim(email));
+
+-- pré-cadastros
+DO $$
+DECLARE
+    n INTEGER;
+BEGIN
+    WITH r AS (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY lower(btrim(email))
+                                      ORDER BY verificado DESC, criado_em DESC, id DESC) AS ordem
+        FROM pre_cadastros
+    )
+    DELETE FROM pre_cadastros p USING r
+    WHERE p.id = r.id AND r.ordem > 1;
+    GET DIAGNOSTICS n = ROW_COUNT;
+    IF n > 0 THEN
+        RAISE WARNING 'V10: % pré-cadastro(s) duplicado(s) removido(s)', n;
+    END IF;
+END $$;
+
+UPDATE pre_cadastros SET email = lower(btrim(email))
+WHERE email <> lower(btrim(email));
+
+-- convites: email vazio é convite genérico
+UPDATE convites SET email = NULLIF(lower(btrim(email)), '')
+WHERE email IS DISTINCT FROM NULLIF(lower(btrim(email)), '');
+
+DO $$
+DECLARE
+    n INTEGER;
+BEGIN
+    WITH r AS (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY email ORDER BY criado_em DESC, id DESC) AS ordem
+        FROM convites
+        WHERE status = 'PENDENTE' AND email IS NOT NULL
+    )
+    UPDATE convites c SET status = 'CANCELADO'
+    FROM r WHERE c.id = r.id AND r.ordem > 1;
+    GET DIAGNOSTICS n = ROW_COUNT;
+    IF n > 0 THEN
+        RAISE WARNING 'V10: % convite(s) pendente(s) duplicado(s) cancelado(s)', n;
+    END IF;
+END $$;
+
+-- um convite pendente por email (ConviteService já checa; o índice fecha a corrida)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_convites_email_pendente
+    ON convites (email)
+    WHERE status = 'PENDENTE' AND email IS NOT NULL;
+
+-- redundantes com as unique keys usuarios_email_key / pre_cadastros_email_key
+DROP INDEX IF EXISTS idx_usuario_email;
+DROP INDEX IF EXISTS idx_pre_cadastro_email;
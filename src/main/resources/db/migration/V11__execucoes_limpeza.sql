@@ -0,0 +1,32 @@
+-- =====================================================================
+-- MIGRAÇÃO V11: Registro das execuções de limpeza (housekeeping)
+--
+-- MOTIVO:
+--   A expiração de convites e a remoção de pré-cadastros, refresh tokens,
+--   tentativas de login e códigos de verificação passaram para um único
+--   agendador (HousekeepingScheduler) que apaga em lotes curtos com LIMIT,
+--   com pausa entre lotes e tempo máximo por tarefa.  Cada tarefa grava
+--   aqui quanto durou, quantas linhas afetou e se terminou ou parou no
+--   limite de tempo.
+--
+--   O índice parcial de pre_cadastros atende o lote de expirados; as
+--   demais tabelas já têm índice na coluna de expiração.
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS execucoes_limpeza (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tarefa          VARCHAR(40)  NOT NULL,
+    iniciada_em     TIMESTAMP(6) NOT NULL,
+    duracao_ms      BIGINT       NOT NULL,
+    linhas_afetadas BIGINT       NOT NULL,
+    lotes           INTEGER      NOT NULL,
+    concluida       BOOLEAN      NOT NULL,
+    erro            VARCHAR(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_execucao_limpeza_iniciada
+    ON execucoes_limpeza (iniciada_em);
+
+CREATE INDEX IF NOT EXISTS idx_pre_cadastro_expira_nao_verificado
+    ON pre_cadastros (expira_em)
+    WHERE verificado = false;
@@ -0,0 +1,62 @@
+-- =====================================================================
+-- MIGRAÇÃO V12: Coordenação de jobs agendados entre instâncias
+--
+-- MOTIVO:
+--   Com mais de uma réplica, cada @Scheduled rodava em todas: a
+--   verificação de status, o resumo diário e a limpeza atualizavam as
+--   mesmas linhas em paralelo e disputavam o @Version.
+--
+--   job_leases: um lease por job (CoordenacaoJobsService).  Quem consegue
+--     o INSERT ... ON CONFLICT com o lease vencido roda; os demais pulam.
+--     Os horários vêm do relógio do banco, não do de cada instância.
+--   job_execucoes: histórico de cada execução (exposto em /api/status/jobs).
+--   job_shards: jobs grandes (reprocessamento de status) são divididos
+--     em faixas de id; qualquer instância reivindica uma faixa pendente
+--     com FOR UPDATE SKIP LOCKED.  Faixa de instância que caiu volta a
+--     ficar disponível quando o lease dela vence.
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS job_leases (
+    job           VARCHAR(60)  PRIMARY KEY,
+    dono          VARCHAR(120) NOT NULL,
+    adquirido_em  TIMESTAMP(6) NOT NULL,
+    expira_em     TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS job_execucoes (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    job           VARCHAR(60)  NOT NULL,
+    instancia     VARCHAR(120) NOT NULL,
+    status        VARCHAR(20)  NOT NULL CHECK (status IN ('EM_EXECUCAO','CONCLUIDA','FALHOU')),
+    iniciada_em   TIMESTAMP(6) NOT NULL,
+    finalizada_em TIMESTAMP(6),
+    itens         BIGINT       NOT NULL DEFAULT 0,
+    shards        INTEGER      NOT NULL DEFAULT 0,
+    erro          VARCHAR(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_execucao_job_iniciada
+    ON job_execucoes (job, iniciada_em);
+
+CREATE TABLE IF NOT EXISTS job_shards (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    execucao_id   BIGINT       NOT NULL,
+    job           VARCHAR(60)  NOT NULL,
+    inicio        BIGINT       NOT NULL,
+    fim           BIGINT       NOT NULL,
+    status        VARCHAR(20)  NOT NULL CHECK (status IN ('PENDENTE','EM_EXECUCAO','CONCLUIDA','FALHOU')),
+    instancia     VARCHAR(120),
+    expira_em     TIMESTAMP(6),
+    tentativas    INTEGER      NOT NULL DEFAULT 0,
+    itens         BIGINT       NOT NULL DEFAULT 0,
+    concluido_em  TIMESTAMP(6),
+    CONSTRAINT fk_job_shard_execucao FOREIGN KEY (execucao_id) REFERENCES job_execucoes (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_shard_execucao
+    ON job_shards (execucao_id);
+
+-- só as faixas em aberto: é o que a reivindicação varre a cada ciclo
+CREATE INDEX IF NOT EXISTS idx_job_shard_abertos
+    ON job_shards (job, id)
+    WHERE status IN ('PENDENTE','EM_EXECUCAO');
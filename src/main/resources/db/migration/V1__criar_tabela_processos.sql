@@ -1,6 +1,8 @@
 -- =====================================================================
 -- SCRIPT DE MIGRAÇÃO: Reestruturação ACLP - Criação da Tabela PROCESSOS
--- Executar manualmente no banco PostgreSQL na ordem dos passos
+-- Aplicado automaticamente pelo Flyway no startup (bancos novos).
+-- Bancos legados já tinham este script aplicado manualmente e recebem
+-- baseline na versão 1 (spring.flyway.baseline-version=1).
 -- =====================================================================
 
 -- =========================
@@ -11,9 +11,10 @@
 --   PK interna:  id BIGSERIAL  → usado em todas as FKs (performance)
 --   ID público:  public_id UUID → exposto na API, URLs e frontend
 --
--- IMPORTANTE: Executar após o deploy da aplicação com ddl-auto=update
---   (o Hibernate cria a coluna).  O UPDATE abaixo popula registros
---   existentes que ainda não têm public_id.
+-- IMPORTANTE: Aplicado pelo Flyway no startup.  A coluna pode já existir
+--   como UUID (criada pelo antigo ddl-auto=update ou pela V0) ou como
+--   VARCHAR(36); o UPDATE abaixo funciona nos dois casos e popula os
+--   registros existentes que ainda não têm public_id.
 -- =====================================================================
 
 -- 1. Adicionar coluna (se ainda não existir — Hibernate pode criar via ddl-auto)
@@ -22,7 +23,7 @@ ALTER TABLE custodiados
 
 -- 2. Popular custodiados existentes que não têm public_id
 UPDATE custodiados
-SET public_id = gen_random_uuid()::VARCHAR
+SET public_id = gen_random_uuid()
 WHERE public_id IS NULL;
 
 -- 3. Garantir NOT NULL e UNIQUE após popular
@@ -0,0 +1,67 @@
+-- =====================================================================
+-- MIGRAÇÃO V4: Resumo diário de comparecimentos e situação dos processos
+--
+-- MOTIVO:
+--   Tendência, relatório dos últimos meses e estatísticas por período
+--   varriam historico_comparecimentos a cada requisição.  Esta tabela
+--   guarda uma linha por (data, comarca, vara, tipo_validacao), mantida
+--   incrementalmente pela aplicação (ResumoDiarioService) e reconstruída
+--   todo dia para a janela recente.
+--
+--   Linhas com tipo_validacao = 'TODOS' são a fotografia dos processos
+--   ativos no dia (ativos / em conformidade / inadimplentes), com as
+--   contagens de comparecimento zeradas.
+--
+-- A chave única começa por data e atende também às consultas por período.
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS resumo_diario_comparecimentos (
+    id                         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    data                       DATE         NOT NULL,
+    comarca                    VARCHAR(100) NOT NULL,
+    vara                       VARCHAR(100) NOT NULL,
+    tipo_validacao             VARCHAR(20)  NOT NULL,
+    comparecimentos            BIGINT       NOT NULL DEFAULT 0,
+    comparecimentos_avaliados  BIGINT       NOT NULL DEFAULT 0,
+    comparecimentos_no_prazo   BIGINT       NOT NULL DEFAULT 0,
+    mudancas_endereco          BIGINT       NOT NULL DEFAULT 0,
+    processos_ativos           BIGINT       NOT NULL DEFAULT 0,
+    processos_em_conformidade  BIGINT       NOT NULL DEFAULT 0,
+    processos_inadimplentes    BIGINT       NOT NULL DEFAULT 0,
+    atualizado_em              TIMESTAMP(6) NOT NULL DEFAULT now(),
+    CONSTRAINT uq_resumo_diario_chave UNIQUE (data, comarca, vara, tipo_validacao)
+);
+
+-- Backfill de todo o histórico (mesma regra de pontualidade do
+-- ResumoDiarioComparecimentoRepository.reconstruirComparecimentos)
+INSERT INTO resumo_diario_comparecimentos (data, comarca, vara, tipo_validacao,
+        comparecimentos, comparecimentos_avaliados, comparecimentos_no_prazo, mudancas_endereco)
+SELECT h.data_comparecimento,
+       COALESCE(p.comarca, c.comarca, ''),
+       COALESCE(p.vara, c.vara, ''),
+       h.tipo_validacao,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE h.anterior IS NOT NULL AND c.periodicidade IS NOT NULL),
+       COUNT(*) FILTER (WHERE h.anterior IS NOT NULL AND c.periodicidade IS NOT NULL
+                          AND h.data_comparecimento <= h.anterior + c.periodicidade),
+       COUNT(*) FILTER (WHERE h.mudanca_endereco)
+FROM (SELECT hc.*,
+             LAG(hc.data_comparecimento) OVER (PARTITION BY hc.custodiado_id
+                                               ORDER BY hc.data_comparecimento, hc.id) AS anterior
+      FROM historico_comparecimentos hc) h
+LEFT JOIN custodiados c ON c.id = h.custodiado_id
+LEFT JOIN processos p ON p.id = h.processo_id
+GROUP BY 1, 2, 3, 4
+ON CONFLICT (data, comarca, vara, tipo_validacao) DO NOTHING;
+
+-- Fotografia de hoje (dias anteriores não são reconstituíveis)
+INSERT INTO resumo_diario_comparecimentos (data, comarca, vara, tipo_validacao,
+        processos_ativos, processos_em_conformidade, processos_inadimplentes)
+SELECT CURRENT_DATE, p.comarca, p.vara, 'TODOS',
+       COUNT(*),
+       COUNT(*) FILTER (WHERE p.status = 'EM_CONFORMIDADE'),
+       COUNT(*) FILTER (WHERE p.status = 'INADIMPLENTE')
+FROM processos p
+WHERE p.situacao_processo = 'ATIVO'
+GROUP BY p.comarca, p.vara
+ON CONFLICT (data, comarca, vara, tipo_validacao) DO NOTHING;
@@ -0,0 +1,50 @@
+-- =====================================================================
+-- MIGRAÇÃO V5: Histórico de status dos processos
+--
+-- MOTIVO:
+--   processos.status só guarda o estado atual — não havia como responder
+--   "quantos estavam inadimplentes em 1º de março" nem "há quantos dias
+--   este custodiado está (ou esteve) inadimplente".  Esta tabela recebe
+--   uma linha a cada mudança de status ou de situação processual, gravada
+--   na mesma transação da mudança (HistoricoStatusService).
+--
+--   O estado de um processo numa data D é a última linha com
+--   data_efetiva <= D (desempate pelo id): índice (processo_id, data_efetiva, id).
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS historico_status_processos (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    processo_id        BIGINT       NOT NULL,
+    status_anterior    VARCHAR(20)  CHECK (status_anterior IN ('EM_CONFORMIDADE','INADIMPLENTE')),
+    status_novo        VARCHAR(20)  NOT NULL CHECK (status_novo IN ('EM_CONFORMIDADE','INADIMPLENTE')),
+    situacao_processo  VARCHAR(20)  NOT NULL CHECK (situacao_processo IN ('ATIVO','ENCERRADO','SUSPENSO')),
+    data_efetiva       DATE         NOT NULL,
+    causa              VARCHAR(30)  NOT NULL,
+    registrado_em      TIMESTAMP(6) NOT NULL DEFAULT now(),
+    CONSTRAINT fk_hist_status_processo FOREIGN KEY (processo_id) REFERENCES processos (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hist_status_processo_data
+    ON historico_status_processos (processo_id, data_efetiva, id);
+
+CREATE INDEX IF NOT EXISTS idx_hist_status_data
+    ON historico_status_processos (data_efetiva);
+
+-- Carga inicial: uma linha por processo com o estado atual.  Antes desta
+-- data o histórico não existe; a data efetiva é a melhor estimativa
+-- disponível (dia seguinte ao prazo vencido, data do encerramento/suspensão
+-- ou último comparecimento).
+INSERT INTO historico_status_processos (processo_id, status_anterior, status_novo,
+        situacao_processo, data_efetiva, causa, registrado_em)
+SELECT p.id, NULL, p.status, p.situacao_processo,
+       CASE
+           WHEN p.situacao_processo = 'ATIVO' AND p.status = 'INADIMPLENTE'
+                AND p.proximo_comparecimento IS NOT NULL
+               THEN p.proximo_comparecimento + 1
+           WHEN p.situacao_processo <> 'ATIVO'
+               THEN COALESCE(p.atualizado_em::date, p.criado_em::date)
+           ELSE COALESCE(p.ultimo_comparecimento, p.data_comparecimento_inicial, p.criado_em::date)
+       END,
+       'CARGA_INICIAL', now()
+FROM processos p
+WHERE NOT EXISTS (SELECT 1 FROM historico_status_processos h WHERE h.processo_id = p.id);
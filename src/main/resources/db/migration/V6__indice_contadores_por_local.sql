@@ -0,0 +1,14 @@
+-- =====================================================================
+-- MIGRAÇÃO V6: Índice dos contadores por comarca / vara
+--
+-- MOTIVO:
+--   GET /api/processos/contadores/por-local agrupa os processos por
+--   GROUPING SETS ((), (comarca), (comarca, vara)) contando situação,
+--   status e comparecimentos do dia.  Com proximo_comparecimento no
+--   INCLUDE o índice cobre a consulta inteira (index-only scan), e o
+--   filtro por comarca vira range scan no prefixo.
+-- =====================================================================
+
+CREATE INDEX IF NOT EXISTS idx_processo_local_situacao_status
+    ON processos (comarca, vara, situacao_processo, status)
+    INCLUDE (proximo_comparecimento);
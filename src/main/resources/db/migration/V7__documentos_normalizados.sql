@@ -0,0 +1,69 @@
+-- =====================================================================
+-- MIGRAÇÃO V7: CPF, RG e número de processo normalizados
+--
+-- MOTIVO:
+--   CPF, RG e processo são gravados como digitados ("123.456.789-09",
+--   "12345678909"), então a checagem de duplicidade comparava formas
+--   diferentes do mesmo documento e as buscas usavam LIKE '%x%', que
+--   não usa índice.  As colunas abaixo guardam só dígitos (RG: letras e
+--   dígitos em maiúsculas), mantidas por Custodiado/Processo em
+--   @PrePersist/@PreUpdate com util.Documentos — a mesma regra do
+--   backfill aqui.  Igualdade e prefixo viram index seek (pattern_ops
+--   para LIKE 'x%' independente da collation).
+--
+--   Unicidade de CPF/RG entre ativos só é criada se os dados atuais não
+--   tiverem duplicatas; senão fica um índice comum e um WARNING no log
+--   do Flyway para saneamento manual.
+-- =====================================================================
+
+ALTER TABLE custodiados ADD COLUMN IF NOT EXISTS cpf_digitos      VARCHAR(14);
+ALTER TABLE custodiados ADD COLUMN IF NOT EXISTS rg_normalizado   VARCHAR(20);
+ALTER TABLE custodiados ADD COLUMN IF NOT EXISTS processo_digitos VARCHAR(25);
+ALTER TABLE processos   ADD COLUMN IF NOT EXISTS numero_processo_digitos VARCHAR(25);
+
+UPDATE custodiados SET
+    cpf_digitos      = NULLIF(regexp_replace(cpf, '\D', '', 'g'), ''),
+    rg_normalizado   = NULLIF(upper(regexp_replace(rg, '[^0-9A-Za-z]', '', 'g')), ''),
+    processo_digitos = NULLIF(regexp_replace(processo, '\D', '', 'g'), '');
+
+UPDATE processos SET
+    numero_processo_digitos = NULLIF(regexp_replace(numero_processo, '\D', '', 'g'), '');
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM custodiados
+               WHERE situacao = 'ATIVO' AND cpf_digitos IS NOT NULL
+               GROUP BY cpf_digitos HAVING COUNT(*) > 1) THEN
+        RAISE WARNING 'V7: CPF duplicado entre custodiados ativos; índice criado sem unicidade';
+        CREATE INDEX IF NOT EXISTS idx_custodiado_cpf_digitos_ativo
+            ON custodiados (cpf_digitos varchar_pattern_ops)
+            WHERE situacao = 'ATIVO' AND cpf_digitos IS NOT NULL;
+    ELSE
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_custodiado_cpf_digitos_ativo
+            ON custodiados (cpf_digitos varchar_pattern_ops)
+            WHERE situacao = 'ATIVO' AND cpf_digitos IS NOT NULL;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM custodiados
+               WHERE situacao = 'ATIVO' AND rg_normalizado IS NOT NULL
+               GROUP BY rg_normalizado HAVING COUNT(*) > 1) THEN
+        RAISE WARNING 'V7: RG duplicado entre custodiados ativos; índice criado sem unicidade';
+        CREATE INDEX IF NOT EXISTS idx_custodiado_rg_normalizado_ativo
+            ON custodiados (rg_normalizado)
+            WHERE situacao = 'ATIVO' AND rg_normalizado IS NOT NULL;
+    ELSE
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_custodiado_rg_normalizado_ativo
+            ON custodiados (rg_normalizado)
+            WHERE situacao = 'ATIVO' AND rg_normalizado IS NOT NULL;
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_custodiado_processo_digitos
+    ON custodiados (processo_digitos varchar_pattern_ops);
+
+CREATE INDEX IF NOT EXISTS idx_processo_numero_digitos
+    ON processos (numero_processo_digitos varchar_pattern_ops);
+
+-- substituídos pelos índices acima
+DROP INDEX IF EXISTS idx_custodiado_cpf;
+DROP INDEX IF EXISTS idx_custodiado_rg;
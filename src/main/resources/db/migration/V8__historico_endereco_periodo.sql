@@ -0,0 +1,61 @@
+-- =====================================================================
+-- MIGRAÇÃO V8: Vigência do endereço como daterange + exclusion constraint
+--
+-- MOTIVO:
+--   Sobreposição de períodos, "endereços vigentes na data" e "quem
+--   morava na cidade X na data D" comparavam data_inicio/data_fim com
+--   B-tree, que só atende um dos lados do intervalo.  periodo guarda
+--   [data_inicio, data_fim) como daterange (coluna gerada, sempre
+--   coerente com as datas) e o GiST responde && e @> direto.
+--
+--   A exclusion constraint impede dois períodos sobrepostos do mesmo
+--   custodiado no banco, no lugar do "verifica e insere" sujeito a
+--   corrida entre mudanças de endereço simultâneas.
+--
+--   Antes, trocar de endereço só desligava "ativo" e deixava data_fim
+--   nula; o backfill fecha cada período no início do seguinte (mesma
+--   regra de HistoricoEnderecoRepository.encerrarPeriodosAPartirDe).
+--   Endereços com o mesmo data_inicio viram períodos vazios.
+-- =====================================================================
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+WITH ordenado AS (
+    SELECT id, data_inicio,
+           LEAD(data_inicio) OVER (PARTITION BY custodiado_id ORDER BY data_inicio, id) AS proximo_inicio
+    FROM historico_enderecos
+)
+UPDATE historico_enderecos h
+SET data_fim = GREATEST(o.data_inicio, o.proximo_inicio),
+    ativo = false,
+    atualizado_em = now()
+FROM ordenado o
+WHERE h.id = o.id
+  AND o.proximo_inicio IS NOT NULL
+  AND (h.data_fim IS NULL OR h.data_fim > o.proximo_inicio);
+
+UPDATE historico_enderecos SET data_fim = data_inicio, atualizado_em = now()
+WHERE data_fim < data_inicio;
+
+ALTER TABLE historico_enderecos
+    ADD COLUMN IF NOT EXISTS periodo DATERANGE
+    GENERATED ALWAYS AS (daterange(data_inicio, data_fim, '[)')) STORED;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_historico_endereco_periodo') THEN
+        ALTER TABLE historico_enderecos
+            ADD CONSTRAINT ex_historico_endereco_periodo
+            EXCLUDE USING gist (custodiado_id WITH =, periodo WITH &&);
+    END IF;
+END $$;
+
+-- vigentes em uma data (sem custodiado) e cidade + data
+CREATE INDEX IF NOT EXISTS idx_historico_endereco_periodo
+    ON historico_enderecos USING gist (periodo);
+
+CREATE INDEX IF NOT EXISTS idx_historico_endereco_cidade_periodo
+    ON historico_enderecos USING gist (cidade, periodo);
+
+-- data_fim sozinha não atende mais nenhuma consulta
+DROP INDEX IF EXISTS idx_historico_endereco_data_fim;
@@ -0,0 +1,18 @@
+-- =====================================================================
+-- MIGRAÇÃO V9: Índices parciais de endereço ativo por cidade / estado
+--
+-- MOTIVO:
+--   As consultas geográficas (/api/historico-enderecos/cidade|estado)
+--   filtram endereço ativo por padrão e a contagem por estado/cidade
+--   agrupa só ativos.  Índices parciais WHERE ativo ficam do tamanho
+--   dos endereços atuais (não do histórico inteiro) e, com
+--   custodiado_id na chave, cobrem o COUNT(DISTINCT custodiado_id).
+-- =====================================================================
+
+CREATE INDEX IF NOT EXISTS idx_historico_endereco_ativo_cidade
+    ON historico_enderecos (cidade, custodiado_id)
+    WHERE ativo = true;
+
+CREATE INDEX IF NOT EXISTS idx_historico_endereco_ativo_estado
+    ON historico_enderecos (estado, cidade, custodiado_id)
+    WHERE ativo = true;
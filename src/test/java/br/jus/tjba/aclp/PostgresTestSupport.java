@@ -0,0 +1,60 @@
+package br.jus.tjba.aclp;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base dos testes que precisam do PostgreSQL de verdade — ON CONFLICT, FOR UPDATE SKIP
+ * LOCKED, daterange —, com o esquema das migrações do Flyway.
+ *
+ * Sobe um container (Testcontainers) compartilhado por todas as classes. Sem Docker,
+ * -Daclp.teste.postgres.url (e .usuario/.senha) aponta para um banco vazio já no ar;
+ * sem nenhum dos dois, os testes são ignorados.
+ */
+public abstract class PostgresTestSupport {
+
+    private static PostgreSQLContainer<?> container;
+    private static Boolean disponivel;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        Assumptions.assumeTrue(disponivel(), "PostgreSQL indisponível: sem Docker e sem aclp.teste.postgres.url");
+    }
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        if (!disponivel()) return;
+        String url = System.getProperty("aclp.teste.postgres.url");
+        if (url != null && !url.isBlank()) {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username", () -> System.getProperty("aclp.teste.postgres.usuario", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("aclp.teste.postgres.senha", ""));
+        } else {
+            registry.add("spring.datasource.url", container::getJdbcUrl);
+            registry.add("spring.datasource.username", container::getUsername);
+            registry.add("spring.datasource.password", container::getPassword);
+        }
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    static synchronized boolean disponivel() {
+        if (disponivel == null) {
+            String url = System.getProperty("aclp.teste.postgres.url");
+            if (url != null && !url.isBlank()) {
+                disponivel = true;
+            } else if (DockerClientFactory.instance().isDockerAvailable()) {
+                container = new PostgreSQLContainer<>("postgres:16-alpine");
+                container.start(); // parado pelo Ryuk ao fim da JVM
+                disponivel = true;
+            } else {
+                disponivel = false;
+            }
+        }
+        return disponivel;
+    }
+}
@@ -0,0 +1,80 @@
+package br.jus.tjba.aclp.config;
+
+import br.jus.tjba.aclp.config.AdaptiveConcurrencyLimiter.Prioridade;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AIMD: recua multiplicativamente com latência alta, cresce de 1 em 1 quando o limite
+ * está em uso, e reserva folga para escritas autenticadas.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long RAPIDA = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long LENTA = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private AdaptiveConcurrencyLimiter limiter(int inicial) {
+        return new AdaptiveConcurrencyLimiter(inicial, 2, 50, 100, 0.5, 0.8, 0.5);
+    }
+
+    @Test
+    void latenciaAcimaDoAlvo_reduzLimiteMultiplicativamente() {
+        var limiter = limiter(20);
+        assertTrue(limiter.tentarAdquirir(Prioridade.CRITICA));
+        limiter.liberar(LENTA, true);
+        assertEquals(10, limiter.getLimiteAtual());
+    }
+
+    @Test
+    void limiteNuncaFicaAbaixoDoMinimo() {
+        var limiter = limiter(4);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tentarAdquirir(Prioridade.CRITICA));
+            limiter.liberar(LENTA, true);
+        }
+        assertEquals(2, limiter.getLimiteAtual());
+    }
+
+    @Test
+    void latenciaBoaComLimiteEmUso_aumentaEmUm() {
+        var limiter = limiter(4);
+        assertTrue(limiter.tentarAdquirir(Prioridade.CRITICA));
+        assertTrue(limiter.tentarAdquirir(Prioridade.CRITICA));
+        limiter.liberar(RAPIDA, true); // 2 em voo de 4: metade em uso
+        assertEquals(5, limiter.getLimiteAtual());
+    }
+
+    @Test
+    void latenciaBoaComLimiteOcioso_naoCresce() {
+        var limiter = limiter(10);
+        assertTrue(limiter.tentarAdquirir(Prioridade.NORMAL));
+        limiter.liberar(RAPIDA, true);
+        assertEquals(10, limiter.getLimiteAtual());
+    }
+
+    @Test
+    void rotasPublicasSaturamAntesDasEscritas() {
+        var limiter = limiter(10);
+        for (int i = 0; i < 5; i++) assertTrue(limiter.tentarAdquirir(Prioridade.BAIXA));
+
+        assertFalse(limiter.tentarAdquirir(Prioridade.BAIXA));
+        assertTrue(limiter.tentarAdquirir(Prioridade.CRITICA));
+
+        var snapshot = limiter.snapshot();
+        assertEquals(1, snapshot.getRejeitadasBaixas());
+        assertEquals(0, snapshot.getRejeitadasCriticas());
+        assertEquals(6, snapshot.getEmVoo());
+    }
+
+    @Test
+    void amostraDescartada_naoAlteraLimite() {
+        var limiter = limiter(10);
+        assertTrue(limiter.tentarAdquirir(Prioridade.CRITICA));
+        limiter.liberar(LENTA, false);
+        assertEquals(10, limiter.getLimiteAtual());
+        assertEquals(0, limiter.snapshot().getEmVoo());
+    }
+}
@@ -0,0 +1,93 @@
+package br.jus.tjba.aclp.config;
+
+import br.jus.tjba.aclp.exception.PasswordHashingOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pool de hash: resultado igual ao BCrypt direto, recusa imediata com a fila cheia,
+ * desistência por espera e troca de custo sem invalidar hashes antigos.
+ */
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void encerrar() {
+        if (encoder != null) encoder.shutdown();
+    }
+
+    @Test
+    void encodeEMatches_funcionamComoBcrypt() {
+        encoder = new BoundedPasswordEncoder(2, 4, 5000, 4);
+        String hash = encoder.encode("Senha@123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("Senha@123", hash));
+        assertFalse(encoder.matches("outra", hash));
+        assertEquals(3, encoder.snapshot().getHashes());
+    }
+
+    @Test
+    void matchesComValorQueNaoEHashBcrypt_retornaFalse() {
+        encoder = new BoundedPasswordEncoder(1, 1, 5000, 4);
+        assertFalse(encoder.matches("!sem-senha", "!sem-senha"));
+    }
+
+    @Test
+    void filaCheia_recusaNaHora() throws Exception {
+        encoder = new BoundedPasswordEncoder(1, 1, 30_000, 13);
+        CompletableFuture<String> emExecucao = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        aguardar(() -> encoder.snapshot().getEmExecucao() == 1);
+        CompletableFuture<String> naFila = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        aguardar(encoder::isSaturado);
+
+        long inicio = System.nanoTime();
+        assertThrows(PasswordHashingOverloadedException.class, () -> encoder.encode("c"));
+        assertTrue(System.nanoTime() - inicio < 100_000_000L, "recusa deve ser imediata");
+        assertEquals(1, encoder.snapshot().getRejeitadas());
+
+        assertNotNull(emExecucao.get());
+        assertNotNull(naFila.get());
+    }
+
+    @Test
+    void esperaEsgotada_desisteComSobrecarga() {
+        encoder = new BoundedPasswordEncoder(1, 1, 1, 14);
+        assertThrows(PasswordHashingOverloadedException.class, () -> encoder.encode("a"));
+        assertEquals(1, encoder.snapshot().getExpiradas());
+    }
+
+    @Test
+    void ajustarCusto_valeParaNovosHashesESemInvalidarAntigos() {
+        encoder = new BoundedPasswordEncoder(1, 4, 5000, 4);
+        String antigo = encoder.encode("Senha@123");
+
+        encoder.ajustarCusto(5);
+
+        assertEquals(5, encoder.getCusto());
+        assertTrue(encoder.encode("Senha@123").startsWith("$2a$05$"));
+        assertTrue(encoder.matches("Senha@123", antigo));
+        assertTrue(encoder.upgradeEncoding(antigo));
+    }
+
+    @Test
+    void custoForaDaFaixa_eRecusado() {
+        encoder = new BoundedPasswordEncoder(1, 1, 5000, 4);
+        assertThrows(IllegalArgumentException.class, () -> encoder.ajustarCusto(3));
+        assertThrows(IllegalArgumentException.class, () -> encoder.ajustarCusto(17));
+        assertEquals(4, encoder.getCusto());
+    }
+
+    private static void aguardar(java.util.function.BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (!condicao.getAsBoolean()) {
+            if (System.nanoTime() > limite) fail("condição não atingida");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package br.jus.tjba.aclp.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Entrega local e remota do barramento de invalidação, sem Redis: o transporte de teste
+ * guarda o que seria enviado e "recebe" de volta como se viesse de outra instância.
+ */
+class CacheInvalidationBusTest {
+
+    /** Transporte em memória com coerência controlada pelo teste. */
+    static class BusDeTeste extends CacheInvalidationBus {
+        final List<String> enviadas = new ArrayList<>();
+        boolean coerente = true;
+
+        BusDeTeste() {
+            super(5_000);
+        }
+
+        @Override
+        protected void transmitir(String mensagem) {
+            enviadas.add(mensagem);
+        }
+
+        @Override
+        public boolean isCoerente() {
+            return coerente;
+        }
+    }
+
+    @Test
+    void publicar_aplicaLocalmenteEmTodosOsCaches() {
+        LoopbackCacheInvalidationBus bus = new LoopbackCacheInvalidationBus(5_000);
+        List<CacheInvalidationBus.Invalidacao> a = new ArrayList<>();
+        List<CacheInvalidationBus.Invalidacao> b = new ArrayList<>();
+        bus.registrar("a", a::add);
+        bus.registrar("b", b::add);
+
+        bus.publicar("Usuario", 1L, 2L);
+        bus.publicar("DadosAlterados.STATUS");
+
+        assertEquals(List.of(new CacheInvalidationBus.Invalidacao("Usuario", List.of("1", "2"), false),
+                new CacheInvalidationBus.Invalidacao("DadosAlterados.STATUS", List.of(), false)), a);
+        assertEquals(a, b);
+        assertTrue(a.get(1).todos());
+    }
+
+    @Test
+    void mensagemDeOutraInstancia_chegaComoRemota_eAPropriaEIgnorada() {
+        BusDeTeste origem = new BusDeTeste();
+        BusDeTeste destino = new BusDeTeste();
+        List<CacheInvalidationBus.Invalidacao> recebidas = new ArrayList<>();
+        destino.registrar("processos", recebidas::add);
+
+        destino.publicar("Processo", 7L);
+        recebidas.clear();
+        destino.enviadas.forEach(destino::receber); // eco do próprio canal
+        assertTrue(recebidas.isEmpty());
+
+        origem.publicar("Processo", 42L);
+        origem.publicar("Processo");
+        origem.enviadas.forEach(destino::receber);
+        assertEquals(List.of(new CacheInvalidationBus.Invalidacao("Processo", List.of("42"), true),
+                new CacheInvalidationBus.Invalidacao("Processo", List.of(), true)), recebidas);
+    }
+
+    @Test
+    void descarteTotalDeOutraInstancia_chegaComoTudoRemoto() {
+        BusDeTeste origem = new BusDeTeste();
+        BusDeTeste destino = new BusDeTeste();
+        List<CacheInvalidationBus.Invalidacao> naOrigem = new ArrayList<>();
+        List<CacheInvalidationBus.Invalidacao> noDestino = new ArrayList<>();
+        origem.registrar("processos", naOrigem::add);
+        destino.registrar("processos", noDestino::add);
+
+        // publicações da origem perdidas no transporte: com ele de volta, ela pede o descarte
+        origem.transmitir(origem.mensagemTudo());
+        origem.enviadas.forEach(origem::receber);
+        origem.enviadas.forEach(destino::receber);
+
+        assertTrue(naOrigem.isEmpty(), "os caches de quem publicou já estão em dia");
+        assertEquals(List.of(new CacheInvalidationBus.Invalidacao(CacheInvalidationBus.TUDO, List.of(), true)), noDestino);
+        assertTrue(noDestino.get(0).todos());
+    }
+
+    @Test
+    void semCoerencia_ttlDegradado() {
+        BusDeTeste bus = new BusDeTeste();
+        assertEquals(300_000, bus.ttl(300_000));
+
+        bus.coerente = false;
+        assertEquals(5_000, bus.ttl(300_000));
+        assertEquals(1_000, bus.ttl(1_000));
+        assertEquals(0, bus.ttl(0)); // sem expiração continua sem expiração
+    }
+
+    @Test
+    void falhaDeUmCache_naoImpedeOsOutros() {
+        LoopbackCacheInvalidationBus bus = new LoopbackCacheInvalidationBus(5_000);
+        List<CacheInvalidationBus.Invalidacao> ok = new ArrayList<>();
+        bus.registrar("quebrado", i -> { throw new IllegalStateException("falhou"); });
+        bus.registrar("ok", ok::add);
+
+        bus.publicar("Usuario", 1L);
+
+        assertEquals(1, ok.size());
+        assertEquals(1L, bus.snapshot().get("falhasAplicacao"));
+        assertThrows(IllegalStateException.class, () -> bus.registrar("ok", i -> { }));
+    }
+}
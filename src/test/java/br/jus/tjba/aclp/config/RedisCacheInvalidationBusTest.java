@@ -0,0 +1,50 @@
+package br.jus.tjba.aclp.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Reassinatura do canal sem o ouvinte parecer desconectado (o Lettuce reconecta sozinho):
+ * o que foi publicado no intervalo se perdeu, então cada assinatura descarta os caches
+ * locais. Sem Redis: o teste chama o ouvinte como o container chamaria.
+ */
+class RedisCacheInvalidationBusTest {
+
+    private final RedisCacheInvalidationBus bus = new RedisCacheInvalidationBus(mock(RedisConnectionFactory.class),
+            mock(RedisTemplate.class), 5_000, 10_000, 100);
+
+    @AfterEach
+    void encerrar() throws Exception {
+        bus.encerrar();
+    }
+
+    @Test
+    void reassinaturaDoCanal_descartaOsCachesLocais() throws InterruptedException {
+        List<CacheInvalidationBus.Invalidacao> recebidas = new CopyOnWriteArrayList<>();
+        CountDownLatch descartes = new CountDownLatch(2);
+        bus.registrar("processos", i -> {
+            recebidas.add(i);
+            descartes.countDown();
+        });
+        byte[] canal = RedisCacheInvalidationBus.CANAL.getBytes(StandardCharsets.UTF_8);
+
+        bus.canal.onChannelSubscribed(canal, 1); // primeira assinatura
+        bus.canal.onChannelSubscribed(canal, 1); // reconexão do cliente, mensagens do intervalo perdidas
+
+        assertTrue(descartes.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(new CacheInvalidationBus.Invalidacao(CacheInvalidationBus.TUDO, List.of(), true),
+                new CacheInvalidationBus.Invalidacao(CacheInvalidationBus.TUDO, List.of(), true)), recebidas);
+        assertEquals(2L, bus.snapshot().get("assinaturasDoCanal"));
+    }
+}
@@ -0,0 +1,98 @@
+package br.jus.tjba.aclp.config;
+
+import br.jus.tjba.aclp.PostgresTestSupport;
+import br.jus.tjba.aclp.model.SetupStatus;
+import br.jus.tjba.aclp.repository.SetupStatusRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Réplica ligada: transação readOnly lê do L2 mas não o popula; a de escrita popula; a
+ * carga de cache de contadores pega a conexão do primário. A "réplica" aqui é o mesmo
+ * banco — o que se testa é o modo de cache da sessão e a rota.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ReplicaDataSourceConfig.class, SecondLevelCacheConfig.class, LoopbackCacheInvalidationBus.class})
+@TestPropertySource(properties = {
+        "aclp.redis.enabled=false",
+        "aclp.datasource.replica.enabled=true",
+        "aclp.datasource.replica.url=${spring.datasource.url}",
+        "aclp.datasource.replica.username=${spring.datasource.username}",
+        "aclp.datasource.replica.password=${spring.datasource.password}"
+})
+class ReplicaJpaDialectTest extends PostgresTestSupport {
+
+    private static final String ID = "SINGLE_ROW";
+
+    @Autowired
+    private SetupStatusRepository setupStatusRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void preparar() {
+        setupStatusRepository.deleteAllInBatch();
+        setupStatusRepository.save(SetupStatus.builder().id(ID).build());
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void leituraReadOnly_naoPopulaOL2_eAEscritaPopula() {
+        TransactionTemplate somenteLeitura = new TransactionTemplate(transactionManager);
+        somenteLeitura.setReadOnly(true);
+
+        CacheMode modo = somenteLeitura.execute(status -> {
+            assertTrue(setupStatusRepository.findById(ID).isPresent());
+            return sessaoAtual().getCacheMode();
+        });
+        assertEquals(CacheMode.GET, modo);
+        assertFalse(entityManagerFactory.getCache().contains(SetupStatus.class, ID), "lido na transação readOnly");
+
+        CacheMode modoEscrita = new TransactionTemplate(transactionManager).execute(status -> {
+            assertTrue(setupStatusRepository.findById(ID).isPresent());
+            return sessaoAtual().getCacheMode();
+        });
+        assertEquals(CacheMode.NORMAL, modoEscrita);
+        assertTrue(entityManagerFactory.getCache().contains(SetupStatus.class, ID));
+    }
+
+    @Test
+    void cargaDoCache_transacaoReadOnlyPegaConexaoDoPrimario() {
+        routing.atualizarLag(0L);
+        TransactionTemplate somenteLeitura = new TransactionTemplate(transactionManager);
+        somenteLeitura.setReadOnly(true);
+        SingleFlightTtlCache cache = new SingleFlightTtlCache(CacheConfig.CONTADORES_PROCESSOS, 15_000);
+        long antes = (long) routing.snapshot().get("leiturasPrimarioFixadas");
+
+        // a conexão é pedida no primeiro comando, dentro da transação aberta pela carga
+        Long contagem = cache.get("dashboard", () -> somenteLeitura.execute(status -> setupStatusRepository.count()));
+
+        assertEquals(1L, contagem);
+        assertEquals(antes + 1, routing.snapshot().get("leiturasPrimarioFixadas"));
+    }
+
+    private Session sessaoAtual() {
+        return EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory).unwrap(Session.class);
+    }
+}
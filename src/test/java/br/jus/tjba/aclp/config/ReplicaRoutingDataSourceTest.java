@@ -0,0 +1,96 @@
+package br.jus.tjba.aclp.config;
+
+import br.jus.tjba.aclp.config.ReplicaRoutingDataSource.Rota;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Decisão de rota: escrita sempre no primário, leitura na réplica só com lag medido,
+ * recente e dentro do limite, leitura das próprias escritas no primário pela janela e
+ * carga de cache (lerDoPrimario) sempre no primário.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final AtomicLong agora = new AtomicLong(1_000_000);
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void criar() {
+        routing = new ReplicaRoutingDataSource(new HikariDataSource(), new HikariDataSource(),
+                5_000, 30_000, 10_000, agora::get);
+    }
+
+    @Test
+    void escrita_vaiSempreParaOPrimario() {
+        routing.atualizarLag(0L);
+        assertEquals(Rota.PRIMARIO, routing.rotear(false, "admin@tjba.jus.br"));
+        assertEquals(Rota.PRIMARIO, routing.rotear(false, null));
+    }
+
+    @Test
+    void semMedicao_leituraNoPrimario() {
+        assertEquals(Rota.PRIMARIO, routing.rotear(true, null));
+    }
+
+    @Test
+    void lagDentroDoLimite_leituraNaReplica() {
+        routing.atualizarLag(200L);
+        assertEquals(Rota.REPLICA, routing.rotear(true, null));
+        assertEquals(Rota.REPLICA, routing.rotear(true, "usuario@tjba.jus.br"));
+    }
+
+    @Test
+    void lagAcimaDoLimiteOuReplicaFora_leituraNoPrimario() {
+        routing.atualizarLag(5_001L);
+        assertEquals(Rota.PRIMARIO, routing.rotear(true, null));
+
+        routing.atualizarLag(null);
+        assertEquals(Rota.PRIMARIO, routing.rotear(true, null));
+    }
+
+    @Test
+    void medicaoVelha_leituraNoPrimario() {
+        routing.atualizarLag(0L);
+        agora.addAndGet(30_001);
+        assertEquals(Rota.PRIMARIO, routing.rotear(true, null));
+    }
+
+    @Test
+    void depoisDeGravar_usuarioLeDoPrimarioPelaJanela() {
+        routing.atualizarLag(0L);
+        routing.registrarEscrita("usuario@tjba.jus.br");
+
+        assertEquals(Rota.PRIMARIO, routing.rotear(true, "usuario@tjba.jus.br"));
+        assertEquals(Rota.REPLICA, routing.rotear(true, "outro@tjba.jus.br"));
+
+        agora.addAndGet(10_000);
+        routing.atualizarLag(0L);
+        assertEquals(Rota.REPLICA, routing.rotear(true, "usuario@tjba.jus.br"));
+
+        routing.limparExpirados();
+        assertEquals(0, routing.snapshot().get("usuariosLendoDoPrimario"));
+    }
+
+    @Test
+    void lerDoPrimario_leituraVaiParaOPrimarioMesmoComAReplicaEmDia() throws Exception {
+        routing.atualizarLag(0L);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            Callable<Object> rota = () -> routing.determineCurrentLookupKey();
+            assertEquals(Rota.PRIMARIO, ReplicaRoutingDataSource.lerDoPrimario(rota));
+            assertEquals(Rota.PRIMARIO, ReplicaRoutingDataSource.lerDoPrimario(() -> ReplicaRoutingDataSource.lerDoPrimario(rota)));
+            assertEquals(Rota.REPLICA, routing.determineCurrentLookupKey(), "marca não sobra na thread");
+            assertEquals(2L, routing.snapshot().get("leiturasPrimarioFixadas"));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package br.jus.tjba.aclp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TTL por relógio injetado; misses simultâneos da mesma chave viram um cálculo só.
+ */
+class SingleFlightTtlCacheTest {
+
+    private final AtomicLong agora = new AtomicLong(1_000);
+    private final SingleFlightTtlCache cache = new SingleFlightTtlCache("teste", 100, agora::get);
+
+    @Test
+    void dentroDoTtl_naoRecalcula() {
+        AtomicInteger calculos = new AtomicInteger();
+        assertEquals(1, cache.get("k", calculos::incrementAndGet));
+        agora.addAndGet(99);
+        assertEquals(1, cache.get("k", calculos::incrementAndGet));
+        assertEquals(1, calculos.get());
+    }
+
+    @Test
+    void aposTtl_recalcula() {
+        AtomicInteger calculos = new AtomicInteger();
+        cache.get("k", calculos::incrementAndGet);
+        agora.addAndGet(100);
+        assertEquals(2, cache.get("k", calculos::incrementAndGet));
+        assertNull(new SingleFlightTtlCache("x", 100, agora::get).get("k"));
+    }
+
+    @Test
+    void clear_forcaNovoCalculo() {
+        AtomicInteger calculos = new AtomicInteger();
+        cache.get("k", calculos::incrementAndGet);
+        cache.clear();
+        assertEquals(2, cache.get("k", calculos::incrementAndGet));
+    }
+
+    @Test
+    void falhaNaoFicaEmCache() {
+        assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("k", () -> { throw new IllegalStateException("banco fora"); }));
+        assertEquals("ok", cache.get("k", () -> "ok"));
+    }
+
+    @Test
+    void missesSimultaneos_umCalculoSo() throws Exception {
+        AtomicInteger calculos = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futuros = new Future<?>[8];
+            for (int i = 0; i < futuros.length; i++) {
+                futuros[i] = pool.submit(() -> cache.get("k", () -> {
+                    calculos.incrementAndGet();
+                    liberar.await(5, TimeUnit.SECONDS);
+                    return 42;
+                }));
+            }
+            // dá tempo de todas as threads chegarem ao cache com o cálculo em andamento
+            Thread.sleep(100);
+            liberar.countDown();
+            for (Future<?> f : futuros) assertEquals(42, f.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, calculos.get());
+        assertEquals(1L, cache.snapshot().get("calculos"));
+    }
+}
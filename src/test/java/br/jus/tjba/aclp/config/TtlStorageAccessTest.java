@@ -0,0 +1,76 @@
+package br.jus.tjba.aclp.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Região do cache L2: expiração por TTL, limite de entradas e contadores de acerto/falta.
+ */
+class TtlStorageAccessTest {
+
+    private final AtomicLong agora = new AtomicLong(1_000_000);
+
+    @Test
+    void entradaVale_ateOTtl() {
+        TtlStorageAccess storage = new TtlStorageAccess("usuario", 1_000, 10, agora::get);
+        storage.putIntoCache(1L, "u1", null);
+
+        assertEquals("u1", storage.getFromCache(1L, null));
+        agora.addAndGet(999);
+        assertTrue(storage.contains(1L));
+
+        agora.addAndGet(1);
+        assertNull(storage.getFromCache(1L, null));
+        assertFalse(storage.contains(1L));
+
+        Map<String, Object> s = storage.snapshot();
+        assertEquals(1L, s.get("acertos"));
+        assertEquals(1L, s.get("faltas"));
+        assertEquals(1L, s.get("expiradas"));
+        assertEquals(0, s.get("entradas"));
+    }
+
+    @Test
+    void semTtl_naoExpira() {
+        TtlStorageAccess storage = new TtlStorageAccess("timestamps", 0, Integer.MAX_VALUE, agora::get);
+        storage.putIntoCache("usuarios", 42L, null);
+
+        agora.addAndGet(365L * 24 * 3_600_000);
+        assertEquals(42L, storage.getFromCache("usuarios", null));
+        assertNull(storage.snapshot().get("ttlMs"));
+    }
+
+    @Test
+    void acimaDoLimite_tiraVencidosPrimeiroDepoisReduzA90PorCento() {
+        TtlStorageAccess storage = new TtlStorageAccess("processo", 1_000, 10, agora::get);
+        for (long i = 0; i < 4; i++) storage.putIntoCache(i, i, null);
+        agora.addAndGet(1_000);
+        for (long i = 4; i < 10; i++) storage.putIntoCache(i, i, null);
+
+        storage.putIntoCache(10L, 10L, null); // 11 > 10: os 4 vencidos saem, sobram 7
+        Map<String, Object> s = storage.snapshot();
+        assertEquals(7, s.get("entradas"));
+        assertEquals(4L, s.get("expiradas"));
+        assertEquals(0L, s.get("removidasPorLimite"));
+
+        for (long i = 11; i < 15; i++) storage.putIntoCache(i, i, null); // 11 de novo: corta para 9
+        s = storage.snapshot();
+        assertEquals(9, s.get("entradas"));
+        assertEquals(2L, s.get("removidasPorLimite"));
+    }
+
+    @Test
+    void sobrescrever_naoContaComoEntradaNova() {
+        TtlStorageAccess storage = new TtlStorageAccess("setup", 1_000, 1, agora::get);
+        storage.putIntoCache("SINGLE_ROW", "a", null);
+        storage.putIntoCache("SINGLE_ROW", "b", null);
+
+        assertEquals("b", storage.getFromCache("SINGLE_ROW", null));
+        assertEquals(0L, storage.snapshot().get("removidasPorLimite"));
+        assertEquals(1.0, storage.snapshot().get("taxaAcerto"));
+    }
+}
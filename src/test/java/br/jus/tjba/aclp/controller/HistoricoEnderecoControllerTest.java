@@ -2,6 +2,7 @@ package br.jus.tjba.aclp.controller;
 
 import br.jus.tjba.aclp.dto.HistoricoEnderecoDTO;
 import br.jus.tjba.aclp.model.Custodiado;
+import br.jus.tjba.aclp.repository.HistoricoEnderecoRepository;
 import br.jus.tjba.aclp.service.HistoricoEnderecoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
@@ -175,28 +177,38 @@ class HistoricoEnderecoControllerTest {
     @Test
     @DisplayName("Deve buscar custodiados por cidade")
     void testBuscarCustodiadosPorCidade() throws Exception {
-        List<Custodiado> custodiados = Arrays.asList(custodiado);
-        when(historicoEnderecoService.buscarCustodiadosPorCidade("Salvador"))
-                .thenReturn(custodiados);
+        HistoricoEnderecoRepository.CustodiadoNoLocal pessoa = noLocal();
+        when(historicoEnderecoService.buscarCustodiadosPorCidade("Salvador", false, null, 0, 20))
+                .thenReturn(new PageImpl<>(List.of(pessoa)));
 
         mockMvc.perform(get("/api/historico-enderecos/cidade/Salvador/pessoas"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success", is(true)))
-                .andExpect(jsonPath("$.data", hasSize(1)))
-                .andExpect(jsonPath("$.data[0].nome", is("João da Silva")));
+                .andExpect(jsonPath("$.data.custodiados", hasSize(1)))
+                .andExpect(jsonPath("$.data.custodiados[0].nome", is("João da Silva")))
+                .andExpect(jsonPath("$.data.totalItens", is(1)));
     }
 
     @Test
     @DisplayName("Deve buscar custodiados por estado")
     void testBuscarCustodiadosPorEstado() throws Exception {
-        List<Custodiado> custodiados = Arrays.asList(custodiado);
-        when(historicoEnderecoService.buscarCustodiadosPorEstado("BA"))
-                .thenReturn(custodiados);
+        HistoricoEnderecoRepository.CustodiadoNoLocal pessoa = noLocal();
+        when(historicoEnderecoService.buscarCustodiadosPorEstado("BA", false, 0, 20))
+                .thenReturn(new PageImpl<>(List.of(pessoa)));
 
         mockMvc.perform(get("/api/historico-enderecos/estado/BA/pessoas"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success", is(true)))
-                .andExpect(jsonPath("$.data", hasSize(1)));
+                .andExpect(jsonPath("$.data.custodiados", hasSize(1)));
+    }
+
+    private HistoricoEnderecoRepository.CustodiadoNoLocal noLocal() {
+        HistoricoEnderecoRepository.CustodiadoNoLocal p = mock(HistoricoEnderecoRepository.CustodiadoNoLocal.class);
+        when(p.getCustodiadoId()).thenReturn(1L);
+        when(p.getNome()).thenReturn("João da Silva");
+        when(p.getCidade()).thenReturn("Salvador");
+        when(p.getEstado()).thenReturn("BA");
+        return p;
     }
 
     // ========== TESTES DE MUDANÇAS DE ENDEREÇO ==========
@@ -0,0 +1,75 @@
+package br.jus.tjba.aclp.controller;
+
+import br.jus.tjba.aclp.model.enums.StatusExecucaoJob;
+import br.jus.tjba.aclp.service.CoordenacaoJobsService;
+import br.jus.tjba.aclp.service.HistoricoStatusService;
+import br.jus.tjba.aclp.service.ResumoDiarioService;
+import br.jus.tjba.aclp.service.StatusSchedulerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * GET /api/status/jobs/{id}/progresso: faixas por status, itens e percentual de uma
+ * execução fracionada; 404 para execução inexistente.
+ */
+class ProgressoJobTest {
+
+    private final CoordenacaoJobsService coordenacaoJobsService = mock(CoordenacaoJobsService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new StatusController(mock(StatusSchedulerService.class),
+                mock(ResumoDiarioService.class), mock(HistoricoStatusService.class), coordenacaoJobsService)).build();
+    }
+
+    @Test
+    void execucaoEmAndamento_devolveFaixasPorStatusEPercentual() throws Exception {
+        Map<StatusExecucaoJob, Long> faixasPorStatus = new EnumMap<>(StatusExecucaoJob.class);
+        faixasPorStatus.put(StatusExecucaoJob.CONCLUIDA, 3L);
+        faixasPorStatus.put(StatusExecucaoJob.EM_EXECUCAO, 1L);
+        when(coordenacaoJobsService.progresso(7L)).thenReturn(Optional.of(CoordenacaoJobsService.Progresso.builder()
+                .execucaoId(7L)
+                .job("status-reprocessamento")
+                .status(StatusExecucaoJob.EM_EXECUCAO)
+                .faixas(4)
+                .faixasPorStatus(faixasPorStatus)
+                .itens(1234)
+                .percentual(75.0)
+                .iniciadaEm(LocalDateTime.of(2026, 10, 18, 1, 0))
+                .build()));
+
+        mockMvc.perform(get("/api/status/jobs/7/progresso"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success", is(true)))
+                .andExpect(jsonPath("$.message", containsString("concluído")))
+                .andExpect(jsonPath("$.data.execucaoId", is(7)))
+                .andExpect(jsonPath("$.data.status", is("EM_EXECUCAO")))
+                .andExpect(jsonPath("$.data.faixas", is(4)))
+                .andExpect(jsonPath("$.data.faixasPorStatus.CONCLUIDA", is(3)))
+                .andExpect(jsonPath("$.data.faixasPorStatus.EM_EXECUCAO", is(1)))
+                .andExpect(jsonPath("$.data.itens", is(1234)))
+                .andExpect(jsonPath("$.data.percentual", is(75.0)));
+    }
+
+    @Test
+    void execucaoInexistente_404() throws Exception {
+        when(coordenacaoJobsService.progresso(99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/status/jobs/99/progresso"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.success", is(false)));
+    }
+}
@@ -0,0 +1,63 @@
+package br.jus.tjba.aclp.controller;
+
+import br.jus.tjba.aclp.exception.JobEmExecucaoException;
+import br.jus.tjba.aclp.service.CoordenacaoJobsService;
+import br.jus.tjba.aclp.service.HistoricoStatusService;
+import br.jus.tjba.aclp.service.ResumoDiarioService;
+import br.jus.tjba.aclp.service.StatusSchedulerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * POST /api/status/verificar-inadimplentes: 409 só quando o lease está com outra
+ * execução; qualquer outra falha da verificação — IllegalStateException do JPA inclusive —
+ * é erro interno.
+ */
+class VerificacaoManualTest {
+
+    private final StatusSchedulerService statusSchedulerService = mock(StatusSchedulerService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new StatusController(statusSchedulerService,
+                mock(ResumoDiarioService.class), mock(HistoricoStatusService.class), mock(CoordenacaoJobsService.class))).build();
+    }
+
+    @Test
+    void leaseComOutraExecucao_409() throws Exception {
+        when(statusSchedulerService.verificarStatusManual())
+                .thenThrow(new JobEmExecucaoException("Verificação de status já em execução"));
+
+        mockMvc.perform(post("/api/status/verificar-inadimplentes"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success", is(false)))
+                .andExpect(jsonPath("$.error", containsString("já em execução")));
+    }
+
+    @Test
+    void falhaDeEstadoNaVerificacao_500() throws Exception {
+        when(statusSchedulerService.verificarStatusManual())
+                .thenThrow(new IllegalStateException("Session/EntityManager is closed"));
+
+        mockMvc.perform(post("/api/status/verificar-inadimplentes"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.success", is(false)));
+    }
+
+    @Test
+    void verificacaoConcluida_200ComPessoasMarcadas() throws Exception {
+        when(statusSchedulerService.verificarStatusManual()).thenReturn(3L);
+
+        mockMvc.perform(post("/api/status/verificar-inadimplentes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.pessoasMarcadas", is(3)));
+    }
+}
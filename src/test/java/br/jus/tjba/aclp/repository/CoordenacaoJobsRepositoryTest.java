@@ -0,0 +1,215 @@
+package br.jus.tjba.aclp.repository;
+
+import br.jus.tjba.aclp.PostgresTestSupport;
+import br.jus.tjba.aclp.model.JobExecucao;
+import br.jus.tjba.aclp.model.JobShard;
+import br.jus.tjba.aclp.model.enums.StatusExecucaoJob;
+import br.jus.tjba.aclp.repository.JobShardRepository.Faixa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Consultas de job_leases, job_shards e job_execucoes no PostgreSQL: posse e devolução
+ * do lease, divisão e reivindicação das faixas (SKIP LOCKED), tentativas esgotadas e
+ * fechamento da execução uma vez só. Cada chamada na própria transação, como no
+ * CoordenacaoJobsService.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CoordenacaoJobsRepositoryTest extends PostgresTestSupport {
+
+    private static final String JOB = "teste";
+
+    @Autowired
+    private JobLeaseRepository leaseRepository;
+    @Autowired
+    private JobShardRepository shardRepository;
+    @Autowired
+    private JobExecucaoRepository execucaoRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void limpar() {
+        shardRepository.deleteAllInBatch();
+        execucaoRepository.deleteAllInBatch();
+        leaseRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void lease_soUmDonoAteDevolverOuVencer() {
+        assertEquals(1, emTransacao(() -> leaseRepository.adquirir(JOB, "a", 3600)));
+        assertEquals(0, emTransacao(() -> leaseRepository.adquirir(JOB, "b", 3600)));
+        assertEquals(0, emTransacao(() -> leaseRepository.liberar(JOB, "b")), "só o dono devolve");
+        assertEquals(0, emTransacao(() -> leaseRepository.adquirir(JOB, "b", 3600)));
+
+        assertEquals(1, emTransacao(() -> leaseRepository.liberar(JOB, "a")));
+        assertEquals(1, emTransacao(() -> leaseRepository.adquirir(JOB, "b", 0)), "devolvido: livre na hora");
+        assertEquals(1, emTransacao(() -> leaseRepository.adquirir(JOB, "a", 3600)), "vencido: livre");
+        assertEquals("a", leaseRepository.findById(JOB).orElseThrow().getDono());
+    }
+
+    @Test
+    void criarFaixas_cobreOIntervaloInteiroSemSobreposicao() {
+        Long execucao = novaExecucao();
+        assertEquals(3, emTransacao(() -> shardRepository.criarFaixas(execucao, JOB, 1, 10, 4)));
+
+        List<JobShard> faixas = shardRepository.findByExecucaoIdOrderByInicio(execucao);
+        assertEquals(List.of(1L, 5L, 9L), faixas.stream().map(JobShard::getInicio).toList());
+        assertEquals(List.of(5L, 9L, 11L), faixas.stream().map(JobShard::getFim).toList());
+        assertEquals(11L, shardRepository.findFimMaximo(execucao));
+    }
+
+    @Test
+    void reivindicar_instanciasSimultaneasPegamFaixasDiferentes() {
+        Long execucao = novaExecucao();
+        emTransacao(() -> shardRepository.criarFaixas(execucao, JOB, 1, 20, 10));
+
+        Faixa[] outra = new Faixa[1];
+        Faixa primeira = emTransacao(() -> {
+            Faixa f = shardRepository.reivindicar(JOB, 3).orElseThrow();
+            // segunda instância reivindica enquanto a primeira ainda segura o lock da linha
+            outra[0] = CompletableFuture.supplyAsync(() -> emTransacao(() -> shardRepository.reivindicar(JOB, 3)))
+                    .join().orElseThrow();
+            return f;
+        });
+
+        assertNotEquals(primeira.getId(), outra[0].getId());
+    }
+
+    @Test
+    void falhas_voltamParaAFila_eEsgotadasFicamFalhou() {
+        Long execucao = novaExecucao();
+        emTransacao(() -> shardRepository.criarFaixas(execucao, JOB, 1, 5, 10));
+
+        Long id = reivindicarEMarcar("a", 600).getId();
+        emTransacao(() -> shardRepository.registrarFalha(id, 2));
+        assertEquals(StatusExecucaoJob.PENDENTE, shardRepository.findById(id).orElseThrow().getStatus());
+
+        assertEquals(id, reivindicarEMarcar("b", 600).getId());
+        emTransacao(() -> shardRepository.registrarFalha(id, 2));
+        JobShard faixa = shardRepository.findById(id).orElseThrow();
+        assertEquals(StatusExecucaoJob.FALHOU, faixa.getStatus());
+        assertEquals(2, faixa.getTentativas());
+        assertTrue(emTransacao(() -> shardRepository.reivindicar(JOB, 2)).isEmpty());
+    }
+
+    @Test
+    void faixaDeInstanciaQueCaiu_voltaOuEAbandonadaNaUltimaTentativa() throws InterruptedException {
+        Long execucao = novaExecucao();
+        emTransacao(() -> shardRepository.criarFaixas(execucao, JOB, 1, 5, 10));
+
+        Long id = reivindicarEMarcar("caiu", 0).getId(); // lease da faixa vence na hora
+        Thread.sleep(5);
+        assertEquals(id, reivindicarEMarcar("b", 0).getId(), "lease vencido: outra instância retoma");
+        Thread.sleep(5);
+
+        assertEquals(List.of(execucao), shardRepository.findExecucoesComFaixasEsgotadas(JOB, 2));
+        assertEquals(1, emTransacao(() -> shardRepository.abandonarEsgotadas(JOB, 2)));
+        assertEquals(StatusExecucaoJob.FALHOU, shardRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void fecharSeCompleta_soSemFaixasAbertas_eUmaVez() {
+        Long execucao = novaExecucao();
+        emTransacao(() -> shardRepository.criarFaixas(execucao, JOB, 1, 20, 10));
+        definirShards(execucao, 2);
+
+        Long primeira = reivindicarEMarcar("a", 600).getId();
+        emTransacao(() -> shardRepository.concluir(primeira, 7));
+        assertEquals(0, emTransacao(() -> execucaoRepository.fecharSeCompleta(execucao)), "ainda há faixa pendente");
+
+        Long segunda = reivindicarEMarcar("a", 600).getId();
+        emTransacao(() -> shardRepository.concluir(segunda, 5));
+        assertEquals(1, emTransacao(() -> execucaoRepository.fecharSeCompleta(execucao)));
+        assertEquals(0, emTransacao(() -> execucaoRepository.fecharSeCompleta(execucao)), "fecha uma vez só");
+
+        JobExecucao fechada = execucaoRepository.findById(execucao).orElseThrow();
+        assertEquals(StatusExecucaoJob.CONCLUIDA, fechada.getStatus());
+        assertEquals(12, fechada.getItens());
+        assertNotNull(fechada.getFinalizadaEm());
+    }
+
+    @Test
+    void fecharSeCompleta_comFaixaFalhou_fechaComoFalhou() {
+        Long execucao = novaExecucao();
+        emTransacao(() -> shardRepository.criarFaixas(execucao, JOB, 1, 5, 10));
+        definirShards(execucao, 1);
+        Long id = reivindicarEMarcar("a", 600).getId();
+        emTransacao(() -> shardRepository.registrarFalha(id, 1));
+
+        assertEquals(1, emTransacao(() -> execucaoRepository.fecharSeCompleta(execucao)));
+        assertEquals(StatusExecucaoJob.FALHOU, execucaoRepository.findById(execucao).orElseThrow().getStatus());
+    }
+
+    @Test
+    void acrescentarFaixas_mantemExecucaoAbertaAteAsNovasTerminarem() {
+        Long execucao = novaExecucao();
+        emTransacao(() -> shardRepository.criarFaixas(execucao, JOB, 1, 5, 10));
+        definirShards(execucao, 1);
+        Long id = reivindicarEMarcar("a", 600).getId();
+        emTransacao(() -> shardRepository.concluir(id, 1));
+
+        // total de faixas maior que as existentes (extensão em andamento): não fecha
+        assertEquals(1, emTransacao(() -> execucaoRepository.acrescentarFaixas(execucao, 1)));
+        assertEquals(0, emTransacao(() -> execucaoRepository.fecharSeCompleta(execucao)));
+
+        emTransacao(() -> shardRepository.criarFaixas(execucao, JOB, 6, 8, 10));
+        Long nova = reivindicarEMarcar("a", 600).getId();
+        emTransacao(() -> shardRepository.concluir(nova, 1));
+        assertEquals(1, emTransacao(() -> execucaoRepository.fecharSeCompleta(execucao)));
+
+        assertEquals(0, emTransacao(() -> execucaoRepository.acrescentarFaixas(execucao, 1)), "fechada: não estende");
+    }
+
+    @Test
+    void existsByJobAndIniciadaEmAfter_achaSoExecucaoRecente() {
+        novaExecucao();
+        assertTrue(execucaoRepository.existsByJobAndIniciadaEmAfter(JOB, LocalDateTime.now().minusMinutes(5)));
+        assertFalse(execucaoRepository.existsByJobAndIniciadaEmAfter(JOB, LocalDateTime.now().plusMinutes(1)));
+        assertFalse(execucaoRepository.existsByJobAndIniciadaEmAfter("outro", LocalDateTime.now().minusMinutes(5)));
+    }
+
+    private Long novaExecucao() {
+        return execucaoRepository.save(JobExecucao.builder()
+                .job(JOB)
+                .instancia("a")
+                .status(StatusExecucaoJob.EM_EXECUCAO)
+                .iniciadaEm(LocalDateTime.now())
+                .build()).getId();
+    }
+
+    private void definirShards(Long execucao, int shards) {
+        JobExecucao e = execucaoRepository.findById(execucao).orElseThrow();
+        e.setShards(shards);
+        execucaoRepository.save(e);
+    }
+
+    private Faixa reivindicarEMarcar(String instancia, long segundos) {
+        return emTransacao(() -> {
+            Optional<Faixa> faixa = shardRepository.reivindicar(JOB, 2);
+            faixa.ifPresent(f -> shardRepository.marcarEmExecucao(f.getId(), instancia, segundos));
+            return faixa;
+        }).orElseThrow();
+    }
+
+    private <T> T emTransacao(Supplier<T> acao) {
+        return new TransactionTemplate(transactionManager).execute(status -> acao.get());
+    }
+}
@@ -0,0 +1,142 @@
+package br.jus.tjba.aclp.repository;
+
+import br.jus.tjba.aclp.model.Custodiado;
+import br.jus.tjba.aclp.model.HistoricoComparecimento;
+import br.jus.tjba.aclp.model.enums.SituacaoCustodiado;
+import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import br.jus.tjba.aclp.model.enums.TipoValidacao;
+import br.jus.tjba.aclp.repository.HistoricoComparecimentoRepository.ContagensComCustodiados;
+import br.jus.tjba.aclp.repository.HistoricoComparecimentoRepository.ContagensComparecimento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contagens das estatísticas numa varredura (COUNT ... FILTER) contra valores contados à
+ * mão. H2 em modo PostgreSQL com o esquema gerado pelas entidades: as consultas são HQL,
+ * sem nada do PostgreSQL que o H2 não tenha.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:estatisticas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class HistoricoComparecimentoRepositoryTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2026, 10, 19);
+    private static final LocalDate INICIO_MES = HOJE.withDayOfMonth(1);
+
+    @Autowired
+    private CustodiadoRepository custodiadoRepository;
+    @Autowired
+    private HistoricoComparecimentoRepository historicoRepository;
+
+    /**
+     * Ana e Carla em conformidade pelo status, Bruno inadimplente pelo status, Carla
+     * atrasada pela data, Davi arquivado (fora dos totais de custodiados).
+     *
+     *   ana    2026-10-19 PRESENCIAL
+     *   ana    2026-10-01 ONLINE            mudança de endereço
+     *   bruno  2026-09-30 CADASTRO_INICIAL
+     *   bruno  2026-10-19 ONLINE
+     *   carla  2026-08-15 PRESENCIAL        mudança de endereço
+     */
+    @BeforeEach
+    void preparar() {
+        LocalDate agora = LocalDate.now(); // custodiadosInadimplentes compara com CURRENT_DATE
+        Custodiado ana = custodiado("Ana", SituacaoCustodiado.ATIVO, StatusComparecimento.EM_CONFORMIDADE, agora.plusDays(10));
+        Custodiado bruno = custodiado("Bruno", SituacaoCustodiado.ATIVO, StatusComparecimento.INADIMPLENTE, agora.plusDays(10));
+        Custodiado carla = custodiado("Carla", SituacaoCustodiado.ATIVO, StatusComparecimento.EM_CONFORMIDADE, agora.minusDays(1));
+        custodiado("Davi", SituacaoCustodiado.ARQUIVADO, StatusComparecimento.INADIMPLENTE, agora.minusDays(1));
+
+        historicoRepository.saveAll(List.of(
+                comparecimento(ana, HOJE, TipoValidacao.PRESENCIAL, false),
+                comparecimento(ana, INICIO_MES, TipoValidacao.ONLINE, true),
+                comparecimento(bruno, LocalDate.of(2026, 9, 30), TipoValidacao.CADASTRO_INICIAL, false),
+                comparecimento(bruno, HOJE, TipoValidacao.ONLINE, false),
+                comparecimento(carla, LocalDate.of(2026, 8, 15), TipoValidacao.PRESENCIAL, true)));
+    }
+
+    @Test
+    void contarTudo_todosOsIndicadoresNumaLinha() {
+        ContagensComparecimento c = historicoRepository.contarTudo(HOJE, INICIO_MES);
+
+        assertEquals(5, c.getTotal());
+        assertEquals(2, c.getPresenciais());
+        assertEquals(2, c.getOnline());
+        assertEquals(1, c.getCadastrosIniciais());
+        assertEquals(2, c.getMudancasEndereco());
+        assertEquals(2, c.getHoje());
+        assertEquals(3, c.getEsteMes());
+        assertEquals(3, c.getCustodiadosDistintos());
+    }
+
+    @Test
+    void contarPeriodo_sóAsLinhasDoIntervalo_eZeroSemNenhuma() {
+        ContagensComparecimento c = historicoRepository.contarPeriodo(
+                LocalDate.of(2026, 9, 30), INICIO_MES, HOJE, INICIO_MES);
+
+        assertEquals(2, c.getTotal());
+        assertEquals(0, c.getPresenciais());
+        assertEquals(1, c.getOnline());
+        assertEquals(1, c.getCadastrosIniciais());
+        assertEquals(1, c.getMudancasEndereco());
+        assertEquals(0, c.getHoje());
+        assertEquals(1, c.getEsteMes());
+        assertEquals(2, c.getCustodiadosDistintos());
+
+        ContagensComparecimento vazio = historicoRepository.contarPeriodo(
+                LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31), HOJE, INICIO_MES);
+        assertEquals(0, vazio.getTotal());
+        assertEquals(0, vazio.getEsteMes());
+        assertEquals(0, vazio.getCustodiadosDistintos());
+    }
+
+    @Test
+    void contarTudoComCustodiados_somaOsTotaisDeCustodiadosAtivos() {
+        ContagensComCustodiados c = historicoRepository.contarTudoComCustodiados(HOJE, INICIO_MES);
+
+        assertEquals(5, c.getTotal());
+        assertEquals(3, c.getEsteMes());
+        assertEquals(3, c.getCustodiadosAtivos());
+        assertEquals(2, c.getCustodiadosInadimplentes(), "Bruno pelo status, Carla pela data; Davi arquivado");
+    }
+
+    private Custodiado custodiado(String nome, SituacaoCustodiado situacao, StatusComparecimento status,
+                                  LocalDate proximo) {
+        Custodiado c = custodiadoRepository.save(Custodiado.builder()
+                .nome(nome)
+                .rg("RG-" + nome)
+                .situacao(situacao)
+                .periodicidade(30)
+                .dataComparecimentoInicial(LocalDate.of(2026, 1, 5))
+                .proximoComparecimento(proximo)
+                .build());
+        // o @PrePersist deriva o status da data; aqui status e data variam separados
+        c.setStatus(status);
+        return custodiadoRepository.save(c);
+    }
+
+    private static HistoricoComparecimento comparecimento(Custodiado custodiado, LocalDate data, TipoValidacao tipo,
+                                                          boolean mudancaEndereco) {
+        return HistoricoComparecimento.builder()
+                .custodiado(custodiado)
+                .dataComparecimento(data)
+                .tipoValidacao(tipo)
+                .validadoPor("Servidor")
+                .mudancaEndereco(mudancaEndereco)
+                .build();
+    }
+}
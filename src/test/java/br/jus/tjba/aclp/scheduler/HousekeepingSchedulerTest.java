@@ -0,0 +1,116 @@
+package br.jus.tjba.aclp.scheduler;
+
+import br.jus.tjba.aclp.model.ExecucaoLimpeza;
+import br.jus.tjba.aclp.repository.ConviteRepository;
+import br.jus.tjba.aclp.repository.EmailVerificationRepository;
+import br.jus.tjba.aclp.repository.ExecucaoLimpezaRepository;
+import br.jus.tjba.aclp.repository.LoginAttemptRepository;
+import br.jus.tjba.aclp.repository.PreCadastroRepository;
+import br.jus.tjba.aclp.repository.RefreshTokenRepository;
+import br.jus.tjba.aclp.service.CoordenacaoJobsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Laço de lotes da limpeza com as tarefas de repositório simuladas: para no lote
+ * incompleto, para no tempo máximo (ao menos um lote por tarefa) e registra a falha de
+ * uma tarefa sem impedir as seguintes.
+ */
+class HousekeepingSchedulerTest {
+
+    private static final int LOTE = 10;
+
+    private final ExecucaoLimpezaRepository execucaoRepository = mock(ExecucaoLimpezaRepository.class);
+    private final ConviteRepository conviteRepository = mock(ConviteRepository.class);
+    private final PreCadastroRepository preCadastroRepository = mock(PreCadastroRepository.class);
+
+    @BeforeEach
+    void gravarRegistros() {
+        when(execucaoRepository.save(any(ExecucaoLimpeza.class))).thenAnswer(i -> i.getArgument(0));
+    }
+
+    private HousekeepingScheduler scheduler(long tempoMaximoMs) {
+        return new HousekeepingScheduler(new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                execucaoRepository, mock(CoordenacaoJobsService.class), conviteRepository, preCadastroRepository,
+                mock(RefreshTokenRepository.class), mock(LoginAttemptRepository.class),
+                mock(EmailVerificationRepository.class), true, LOTE, 0, tempoMaximoMs, 7, 30, 30);
+    }
+
+    private static ExecucaoLimpeza da(List<ExecucaoLimpeza> execucoes, String tarefa) {
+        return execucoes.stream().filter(e -> e.getTarefa().equals(tarefa)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void lotesAteUmVirIncompleto() {
+        when(conviteRepository.expirarPendentesVencidos(any(), eq(LOTE))).thenReturn(LOTE, LOTE, 3);
+
+        List<ExecucaoLimpeza> execucoes = scheduler(60_000).executar();
+
+        assertEquals(6, execucoes.size());
+        ExecucaoLimpeza convites = da(execucoes, "convites-vencidos");
+        assertEquals(3, convites.getLotes());
+        assertEquals(23, convites.getLinhasAfetadas());
+        assertTrue(convites.isConcluida());
+        assertNull(convites.getErro());
+        verify(conviteRepository, times(3)).expirarPendentesVencidos(any(), eq(LOTE));
+        // sem linhas: um lote só, concluída
+        assertTrue(execucoes.stream().filter(e -> e != convites)
+                .allMatch(e -> e.getLotes() == 1 && e.getLinhasAfetadas() == 0 && e.isConcluida()));
+        verify(execucaoRepository, times(6)).save(any(ExecucaoLimpeza.class));
+    }
+
+    @Test
+    void tempoMaximoVencido_paraDepoisDoLote_eAsOutrasTarefasRodamUmLote() {
+        when(conviteRepository.expirarPendentesVencidos(any(), eq(LOTE))).thenReturn(LOTE);
+        when(preCadastroRepository.excluirExpiradosLote(any(), eq(LOTE))).thenReturn(LOTE);
+
+        List<ExecucaoLimpeza> execucoes = scheduler(0).executar();
+
+        for (String tarefa : List.of("convites-vencidos", "pre-cadastros")) {
+            ExecucaoLimpeza e = da(execucoes, tarefa);
+            assertEquals(1, e.getLotes(), tarefa);
+            assertEquals(LOTE, e.getLinhasAfetadas(), tarefa);
+            assertFalse(e.isConcluida(), tarefa + ": lotes cheios restantes ficam para a próxima execução");
+        }
+        verify(conviteRepository).expirarPendentesVencidos(any(), eq(LOTE));
+        assertTrue(da(execucoes, "refresh-tokens").isConcluida());
+    }
+
+    @Test
+    void falhaDeUmaTarefa_registraOErro_eSegueParaAsOutras() {
+        when(preCadastroRepository.excluirExpiradosLote(any(), eq(LOTE)))
+                .thenReturn(LOTE)
+                .thenThrow(new IllegalStateException("x".repeat(600)));
+        when(conviteRepository.expirarPendentesVencidos(any(), eq(LOTE))).thenReturn(4);
+
+        List<ExecucaoLimpeza> execucoes = scheduler(60_000).executar();
+
+        ExecucaoLimpeza preCadastros = da(execucoes, "pre-cadastros");
+        assertFalse(preCadastros.isConcluida());
+        assertEquals(1, preCadastros.getLotes(), "o lote que falhou não conta");
+        assertEquals(LOTE, preCadastros.getLinhasAfetadas());
+        assertEquals(500, preCadastros.getErro().length(), "mensagem cortada no tamanho da coluna");
+
+        assertEquals(4, da(execucoes, "convites-vencidos").getLinhasAfetadas());
+        assertEquals(6, execucoes.size());
+        assertTrue(da(execucoes, "execucoes-limpeza").isConcluida());
+    }
+
+    @Test
+    void registroNaoGravado_naoDerrubaALimpeza() {
+        when(execucaoRepository.save(any(ExecucaoLimpeza.class))).thenThrow(new IllegalStateException("banco fora"));
+
+        List<ExecucaoLimpeza> execucoes = scheduler(60_000).executar();
+
+        assertEquals(6, execucoes.size());
+        assertTrue(execucoes.stream().allMatch(ExecucaoLimpeza::isConcluida));
+    }
+}
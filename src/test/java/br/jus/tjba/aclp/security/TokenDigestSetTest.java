@@ -0,0 +1,106 @@
+package br.jus.tjba.aclp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Conjunto compacto da blacklist in-memory: presença até a expiração, remoção pela roda
+ * de tempo em todos os níveis e índice consistente sob inclusões, remoções e crescimento.
+ */
+class TokenDigestSetTest {
+
+    private static final long TICK = 1_000;
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void contemAteExpirar_eARodaRemove() {
+        TokenDigestSet set = new TokenDigestSet(TICK, T0, 16);
+        TokenDigest d = TokenDigest.de("revogado");
+        set.adicionar(d, T0 + 30_500);
+
+        assertTrue(set.contem(d, T0 + 30_500));
+        assertFalse(set.contem(d, T0 + 30_501)); // vencido mesmo antes do tick
+        assertEquals(0, set.expirar(T0 + 30_999));
+        assertEquals(1, set.tamanho());
+        assertEquals(1, set.expirar(T0 + 31_000));
+        assertEquals(0, set.tamanho());
+
+        set.adicionar(TokenDigest.de("já vencido"), T0 - 1);
+        assertEquals(0, set.tamanho());
+    }
+
+    @Test
+    void expiracoesEmTodosOsNiveis_saemNoTickCerto() {
+        TokenDigestSet set = new TokenDigestSet(TICK, T0, 16);
+        // 10 s (nível 0), 20 min (1), 2 dias (2), 30 dias (3) e 1 ano (além da roda)
+        long[] prazos = {10_000L, 1_200_000L, 172_800_000L, 2_592_000_000L, 31_536_000_000L};
+        for (int i = 0; i < prazos.length; i++) set.adicionar(TokenDigest.de("t" + i), T0 + prazos[i]);
+
+        long agora = T0;
+        for (int i = 0; i < prazos.length; i++) {
+            long vence = T0 + prazos[i];
+            agora = Math.max(agora, vence - TICK);
+            set.expirar(agora);
+            assertTrue(set.contem(TokenDigest.de("t" + i), agora), "t" + i + " saiu cedo");
+            assertEquals(prazos.length - i, set.tamanho());
+
+            agora = (vence / TICK + 1) * TICK;
+            assertEquals(1, set.expirar(agora), "t" + i);
+            assertFalse(set.contem(TokenDigest.de("t" + i), agora));
+        }
+    }
+
+    @Test
+    void adicionarDeNovo_estendeAExpiracao() {
+        TokenDigestSet set = new TokenDigestSet(TICK, T0, 16);
+        TokenDigest d = TokenDigest.de("revogado");
+        set.adicionar(d, T0 + 5_000);
+        set.adicionar(d, T0 + 500_000);
+        set.adicionar(d, T0 + 1_000); // expiração menor não encurta
+
+        assertEquals(1, set.tamanho());
+        assertEquals(0, set.expirar(T0 + 100_000));
+        assertTrue(set.contem(d, T0 + 100_000));
+        assertEquals(1, set.expirar(T0 + 501_000));
+    }
+
+    @Test
+    void cargaAleatoria_igualAoMapaDeReferencia() {
+        TokenDigestSet set = new TokenDigestSet(TICK, T0, 16);
+        Map<TokenDigest, Long> referencia = new HashMap<>();
+        Random random = new Random(42);
+        long agora = T0;
+
+        for (int passo = 0; passo < 200; passo++) {
+            for (int i = 0; i < 100; i++) {
+                TokenDigest d = TokenDigest.de("token-" + random.nextInt(15_000));
+                long expira = agora + 1 + random.nextInt(3_600_000);
+                set.adicionar(d, expira);
+                referencia.merge(d, expira, Math::max);
+            }
+            agora += random.nextInt(60_000);
+            set.expirar(agora);
+            long limite = (agora / TICK) * TICK;
+            referencia.values().removeIf(expira -> expira < limite);
+
+            assertEquals(referencia.size(), set.tamanho(), "passo " + passo);
+            for (Map.Entry<TokenDigest, Long> e : referencia.entrySet()) {
+                assertEquals(agora <= e.getValue(), set.contem(e.getKey(), agora));
+            }
+        }
+
+        long fim = agora;
+        Set<TokenDigest> vistos = new HashSet<>();
+        set.paraCada(fim, vistos::add);
+        referencia.values().removeIf(expira -> expira < fim);
+        assertEquals(referencia.keySet(), vistos);
+        assertTrue(set.bytesEstimados() / Math.max(1, set.tamanho()) < 200);
+    }
+}
@@ -0,0 +1,261 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.PostgresTestSupport;
+import br.jus.tjba.aclp.model.JobExecucao;
+import br.jus.tjba.aclp.model.JobShard;
+import br.jus.tjba.aclp.model.enums.StatusExecucaoJob;
+import br.jus.tjba.aclp.repository.JobExecucaoRepository;
+import br.jus.tjba.aclp.repository.JobLeaseRepository;
+import br.jus.tjba.aclp.repository.JobShardRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CoordenacaoJobsService com duas "instâncias" (dois serviços com nomes diferentes) no
+ * mesmo PostgreSQL: exclusão pelo lease, devolução ao terminar, execução encerrada
+ * mesmo com Error, faixas divididas entre as duas com finalização uma vez só,
+ * faixas em paralelo nos workers do pool, tentativas esgotadas, retomada que estende as
+ * faixas e progresso de uma execução em andamento.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CoordenacaoJobsServiceTest extends PostgresTestSupport {
+
+    private static final String JOB = "teste";
+
+    @Autowired
+    private JobLeaseRepository leaseRepository;
+    @Autowired
+    private JobShardRepository shardRepository;
+    @Autowired
+    private JobExecucaoRepository execucaoRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<CoordenacaoJobsService> servicos = new ArrayList<>();
+
+    @BeforeEach
+    void limpar() {
+        shardRepository.deleteAllInBatch();
+        execucaoRepository.deleteAllInBatch();
+        leaseRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void encerrar() {
+        servicos.forEach(CoordenacaoJobsService::encerrarPool);
+    }
+
+    private CoordenacaoJobsService instancia(String nome, int maxTentativas) {
+        CoordenacaoJobsService s = new CoordenacaoJobsService(leaseRepository, execucaoRepository, shardRepository,
+                transactionManager, nome, 3600, 300, 600, maxTentativas, 2);
+        servicos.add(s);
+        return s;
+    }
+
+    @Test
+    void executarComLease_outraInstanciaPulaEnquantoRoda_eOLeaseVoltaAoTerminar() {
+        CoordenacaoJobsService a = instancia("a", 3);
+        CoordenacaoJobsService b = instancia("b", 3);
+
+        Optional<Long>[] durante = new Optional[1];
+        assertEquals(Optional.of(5L), a.executarComLease(JOB, Duration.ZERO, () -> {
+            durante[0] = b.executarComLease(JOB, Duration.ZERO, () -> 1L);
+            return 5L;
+        }));
+        assertTrue(durante[0].isEmpty(), "lease com a instância a");
+
+        // disparo manual logo depois: lease já devolvido
+        assertEquals(Optional.of(1L), b.executarComLease(JOB, Duration.ZERO, () -> 1L));
+        // disparo agendado logo depois (relógio atrasado): barrado pelo histórico
+        assertTrue(b.executarComLease(JOB, Duration.ofMinutes(5), () -> 1L).isEmpty());
+
+        List<JobExecucao> execucoes = a.ultimasExecucoes(JOB, 10);
+        assertEquals(2, execucoes.size());
+        assertTrue(execucoes.stream().allMatch(e -> e.getStatus() == StatusExecucaoJob.CONCLUIDA));
+    }
+
+    @Test
+    void executarComLease_errorEncerraAExecucaoELiberaOLease() {
+        CoordenacaoJobsService a = instancia("a", 3);
+
+        assertThrows(StackOverflowError.class, () -> a.executarComLease(JOB, Duration.ZERO, () -> {
+            throw new StackOverflowError("estouro");
+        }));
+
+        JobExecucao execucao = a.ultimasExecucoes(JOB, 1).get(0);
+        assertEquals(StatusExecucaoJob.FALHOU, execucao.getStatus());
+        assertEquals("estouro", execucao.getErro());
+        assertNotNull(execucao.getFinalizadaEm());
+        assertEquals(Optional.of(1L), instancia("b", 3).executarComLease(JOB, Duration.ZERO, () -> 1L));
+    }
+
+    @Test
+    void fracionado_duasInstanciasDividemAsFaixas_eFinalizamUmaVez() {
+        Map<Long, AtomicInteger> processados = new ConcurrentHashMap<>();
+        AtomicInteger finalizacoes = new AtomicInteger();
+        CoordenacaoJobsService a = instancia("a", 3);
+        CoordenacaoJobsService b = instancia("b", 3);
+        for (CoordenacaoJobsService s : List.of(a, b)) {
+            s.registrarJobFracionado(JOB, (inicio, fim) -> {
+                for (long id = inicio; id < fim; id++) processados.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+                return fim - inicio;
+            }, finalizacoes::incrementAndGet);
+        }
+
+        CompletableFuture<Optional<JobExecucao>> iniciada = CompletableFuture.supplyAsync(
+                () -> a.executarFracionado(JOB, () -> 1L, () -> 500L, 10, Duration.ZERO));
+        CompletableFuture<Void> ajudando = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 20 && !iniciada.isDone(); i++) b.participarDeJobsFracionados();
+        });
+        Long execucaoId = iniciada.join().orElseThrow().getId();
+        ajudando.join();
+        b.participarDeJobsFracionados();
+
+        JobExecucao execucao = execucaoRepository.findById(execucaoId).orElseThrow();
+        assertEquals(StatusExecucaoJob.CONCLUIDA, execucao.getStatus());
+        assertEquals(50, execucao.getShards());
+        assertEquals(500, execucao.getItens());
+        assertEquals(1, finalizacoes.get());
+        assertEquals(500, processados.size());
+        assertTrue(processados.values().stream().allMatch(n -> n.get() == 1), "cada id uma vez só");
+    }
+
+    @Test
+    void fracionado_workersDoPoolProcessamFaixasAoMesmoTempo() {
+        // paralelismo 2: as quatro faixas só passam da barreira aos pares, em threads diferentes
+        CyclicBarrier pares = new CyclicBarrier(2);
+        Map<String, Boolean> threads = new ConcurrentHashMap<>();
+        CoordenacaoJobsService a = instancia("a", 1);
+        a.registrarJobFracionado(JOB, (inicio, fim) -> {
+            threads.put(Thread.currentThread().getName(), true);
+            try {
+                pares.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException("faixas não rodaram em paralelo", e);
+            }
+            return fim - inicio;
+        }, () -> { });
+
+        JobExecucao execucao = a.executarFracionado(JOB, () -> 1L, () -> 40L, 10, Duration.ZERO).orElseThrow();
+
+        assertEquals(StatusExecucaoJob.CONCLUIDA, execucao.getStatus());
+        assertEquals(40, execucao.getItens());
+        assertEquals(2, threads.size());
+        assertTrue(threads.keySet().stream().allMatch(nome -> nome.startsWith("job-faixas-")), threads.toString());
+    }
+
+    @Test
+    void progresso_contaFaixasPorStatusEItens() {
+        CoordenacaoJobsService a = instancia("a", 1);
+        Long aberta = execucaoRepository.save(JobExecucao.builder()
+                .job(JOB).instancia("a").status(StatusExecucaoJob.EM_EXECUCAO)
+                .iniciadaEm(LocalDateTime.now()).build()).getId();
+        new TransactionTemplate(transactionManager).execute(status -> {
+            shardRepository.criarFaixas(aberta, JOB, 1, 40, 10);
+            List<JobShard> faixas = shardRepository.findByExecucaoIdOrderByInicio(aberta);
+            shardRepository.concluir(faixas.get(0).getId(), 7);
+            shardRepository.registrarFalha(faixas.get(1).getId(), 0); // sem tentativas sobrando
+            JobExecucao e = execucaoRepository.findById(aberta).orElseThrow();
+            e.setShards(faixas.size());
+            return execucaoRepository.save(e);
+        });
+
+        CoordenacaoJobsService.Progresso progresso = a.progresso(aberta).orElseThrow();
+
+        assertEquals(StatusExecucaoJob.EM_EXECUCAO, progresso.getStatus());
+        assertEquals(4, progresso.getFaixas());
+        assertEquals(Map.of(StatusExecucaoJob.CONCLUIDA, 1L, StatusExecucaoJob.FALHOU, 1L,
+                StatusExecucaoJob.PENDENTE, 2L), progresso.getFaixasPorStatus());
+        assertEquals(7, progresso.getItens());
+        assertEquals(50.0, progresso.getPercentual(), 0.001);
+        assertTrue(a.progresso(aberta + 1).isEmpty());
+    }
+
+    @Test
+    void fracionado_faixaQueSempreFalha_esgotaTentativasEFechaComoFalhou() {
+        AtomicInteger finalizacoes = new AtomicInteger();
+        CoordenacaoJobsService a = instancia("a", 2);
+        a.registrarJobFracionado(JOB, (inicio, fim) -> {
+            if (inicio == 1) throw new IllegalStateException("faixa quebrada");
+            return fim - inicio;
+        }, finalizacoes::incrementAndGet);
+
+        JobExecucao execucao = a.executarFracionado(JOB, () -> 1L, () -> 30L, 10, Duration.ZERO).orElseThrow();
+
+        assertEquals(StatusExecucaoJob.FALHOU, execucao.getStatus());
+        assertEquals(20, execucao.getItens());
+        assertEquals(0, finalizacoes.get());
+        JobShard quebrada = a.faixas(execucao.getId()).get(0);
+        assertEquals(StatusExecucaoJob.FALHOU, quebrada.getStatus());
+        assertEquals(2, quebrada.getTentativas());
+    }
+
+    @Test
+    void fracionado_retomadaEstendeAsFaixasAteOMaiorIdAtual() {
+        // execução deixada aberta: faixas [1, 11) concluída e [11, 21) pendente
+        Long aberta = execucaoRepository.save(JobExecucao.builder()
+                .job(JOB).instancia("caiu").status(StatusExecucaoJob.EM_EXECUCAO)
+                .iniciadaEm(LocalDateTime.now().minusHours(1)).build()).getId();
+        new TransactionTemplate(transactionManager).execute(status -> {
+            shardRepository.criarFaixas(aberta, JOB, 1, 20, 10);
+            shardRepository.concluir(shardRepository.findByExecucaoIdOrderByInicio(aberta).get(0).getId(), 10);
+            JobExecucao e = execucaoRepository.findById(aberta).orElseThrow();
+            e.setShards(2);
+            return execucaoRepository.save(e);
+        });
+
+        Map<Long, Boolean> processados = new ConcurrentHashMap<>();
+        CoordenacaoJobsService a = instancia("a", 3);
+        a.registrarJobFracionado(JOB, (inicio, fim) -> {
+            for (long id = inicio; id < fim; id++) processados.put(id, true);
+            return fim - inicio;
+        }, () -> { });
+
+        // processos criados desde então: ids até 35
+        JobExecucao execucao = a.executarFracionado(JOB, () -> 1L, () -> 35L, 10, Duration.ofMinutes(10)).orElseThrow();
+
+        assertEquals(aberta, execucao.getId());
+        assertEquals(StatusExecucaoJob.CONCLUIDA, execucao.getStatus());
+        assertEquals(4, execucao.getShards());
+        assertEquals(35, execucao.getItens());
+        assertEquals(25, processados.size()); // [11, 36)
+        assertTrue(processados.containsKey(35L));
+    }
+
+    @Test
+    void fracionado_disparoAgendadoRepetido_naoAbreOutraExecucao() {
+        CoordenacaoJobsService a = instancia("a", 3);
+        CoordenacaoJobsService b = instancia("b", 3);
+        a.registrarJobFracionado(JOB, (inicio, fim) -> fim - inicio, () -> { });
+        b.registrarJobFracionado(JOB, (inicio, fim) -> fim - inicio, () -> { });
+
+        assertTrue(a.executarFracionado(JOB, () -> 1L, () -> 10L, 10, Duration.ofMinutes(10)).isPresent());
+        assertTrue(b.executarFracionado(JOB, () -> 1L, () -> 10L, 10, Duration.ofMinutes(10)).isEmpty());
+        assertTrue(b.executarFracionado(JOB, () -> 1L, () -> 10L, 10, Duration.ZERO).isPresent(), "manual roda");
+        assertEquals(2, execucaoRepository.count());
+    }
+}
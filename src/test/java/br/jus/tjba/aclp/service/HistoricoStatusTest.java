@@ -0,0 +1,83 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.model.HistoricoStatusProcesso;
+import br.jus.tjba.aclp.model.Processo;
+import br.jus.tjba.aclp.model.enums.CausaTransicaoStatus;
+import br.jus.tjba.aclp.model.enums.SituacaoProcesso;
+import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static br.jus.tjba.aclp.model.enums.StatusComparecimento.EM_CONFORMIDADE;
+import static br.jus.tjba.aclp.model.enums.StatusComparecimento.INADIMPLENTE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cada linha do histórico vale da sua data efetiva até a data efetiva da seguinte;
+ * só conta inadimplência enquanto o processo está ATIVO.
+ */
+class HistoricoStatusTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2026, 10, 18);
+
+    private HistoricoStatusProcesso linha(StatusComparecimento status, SituacaoProcesso situacao, LocalDate data) {
+        return HistoricoStatusProcesso.builder()
+                .statusNovo(status).situacaoProcesso(situacao)
+                .dataEfetiva(data).causa(CausaTransicaoStatus.VERIFICACAO_AUTOMATICA).build();
+    }
+
+    @Test
+    void semHistorico_zeroDias() {
+        assertEquals(0, HistoricoStatusService.diasInadimplente(List.of(), HOJE));
+    }
+
+    @Test
+    void inadimplenteAteHoje_contaAteADataDeCorte() {
+        List<HistoricoStatusProcesso> linhas = List.of(
+                linha(EM_CONFORMIDADE, SituacaoProcesso.ATIVO, LocalDate.of(2026, 9, 1)),
+                linha(INADIMPLENTE, SituacaoProcesso.ATIVO, LocalDate.of(2026, 10, 8)));
+        assertEquals(10, HistoricoStatusService.diasInadimplente(linhas, HOJE));
+    }
+
+    @Test
+    void intervalosFechados_saoSomados() {
+        List<HistoricoStatusProcesso> linhas = List.of(
+                linha(INADIMPLENTE, SituacaoProcesso.ATIVO, LocalDate.of(2026, 8, 1)),
+                linha(EM_CONFORMIDADE, SituacaoProcesso.ATIVO, LocalDate.of(2026, 8, 6)),
+                linha(INADIMPLENTE, SituacaoProcesso.ATIVO, LocalDate.of(2026, 9, 1)),
+                linha(EM_CONFORMIDADE, SituacaoProcesso.ATIVO, LocalDate.of(2026, 9, 4)));
+        assertEquals(8, HistoricoStatusService.diasInadimplente(linhas, HOJE));
+    }
+
+    @Test
+    void suspensoComStatusInadimplente_naoConta() {
+        List<HistoricoStatusProcesso> linhas = List.of(
+                linha(INADIMPLENTE, SituacaoProcesso.ATIVO, LocalDate.of(2026, 9, 1)),
+                linha(INADIMPLENTE, SituacaoProcesso.SUSPENSO, LocalDate.of(2026, 9, 11)));
+        assertEquals(10, HistoricoStatusService.diasInadimplente(linhas, HOJE));
+    }
+
+    @Test
+    void transicoesDepoisDaDataDeCorte_saoIgnoradas() {
+        List<HistoricoStatusProcesso> linhas = List.of(
+                linha(INADIMPLENTE, SituacaoProcesso.ATIVO, LocalDate.of(2026, 10, 10)),
+                linha(EM_CONFORMIDADE, SituacaoProcesso.ATIVO, LocalDate.of(2026, 10, 25)));
+        assertEquals(8, HistoricoStatusService.diasInadimplente(linhas, HOJE));
+    }
+
+    @Test
+    void dataEfetiva_inadimplenciaComecaNoDiaSeguinteAoPrazo() {
+        Processo p = Processo.builder().status(INADIMPLENTE).situacaoProcesso(SituacaoProcesso.ATIVO)
+                .proximoComparecimento(LocalDate.of(2026, 10, 3)).build();
+        assertEquals(LocalDate.of(2026, 10, 4), HistoricoStatusService.dataEfetivaPadrao(p, HOJE));
+    }
+
+    @Test
+    void dataEfetiva_demaisTransicoesValemDeHoje() {
+        Processo p = Processo.builder().status(EM_CONFORMIDADE).situacaoProcesso(SituacaoProcesso.ATIVO)
+                .proximoComparecimento(LocalDate.of(2026, 11, 3)).build();
+        assertEquals(HOJE, HistoricoStatusService.dataEfetivaPadrao(p, HOJE));
+    }
+}
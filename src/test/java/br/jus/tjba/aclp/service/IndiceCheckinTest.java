@@ -0,0 +1,135 @@
+package br.jus.tjba.aclp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Busca por documento com qualquer pontuação, autocompletar por prefixo/aproximado,
+ * atualização incremental e recarga completa.
+ */
+class IndiceCheckinTest {
+
+    private final IndiceCheckin indice = new IndiceCheckin();
+
+    private static IndiceCheckin.Registro registro(long id, String nome, String cpf, String rg, String... processos) {
+        List<IndiceCheckin.ProcessoAtivo> ativos = new java.util.ArrayList<>();
+        for (int i = 0; i < processos.length; i++) {
+            ativos.add(IndiceCheckin.ProcessoAtivo.builder()
+                    .processoId(id * 10 + i).numeroProcesso(processos[i])
+                    .proximoComparecimento(LocalDate.of(2026, 11, 1).plusDays(i)).build());
+        }
+        return IndiceCheckin.Registro.builder().custodiadoId(id).nome(nome).cpf(cpf).rg(rg).processos(ativos).build();
+    }
+
+    @Test
+    void buscaPorCpfRgEProcesso_comOuSemPontuacao() {
+        indice.substituir(registro(1, "Ana", "123.456.789-09", "12.345.678-X", "0001234-56.2024.8.05.0001"));
+
+        assertEquals(1, indice.buscar("12345678909").size());
+        assertEquals(1, indice.buscar("123.456.789-09").size());
+        assertEquals(1, indice.buscar("12345678x").size());
+        assertEquals(1, indice.buscar("00012345620248050001").size());
+        assertEquals(1, indice.buscar("0001234-56.2024.8.05.0001").size());
+        assertTrue(indice.buscar("99999999999").isEmpty());
+    }
+
+    @Test
+    void processoCompartilhado_retornaTodosOrdenadosPorNome() {
+        indice.substituir(registro(1, "Bruno", "11111111111", null, "0001234-56.2024.8.05.0001"));
+        indice.substituir(registro(2, "Ana", "22222222222", null, "0001234-56.2024.8.05.0001"));
+
+        List<IndiceCheckin.Registro> r = indice.buscar("0001234-56.2024.8.05.0001");
+        assertEquals(List.of("Ana", "Bruno"), r.stream().map(IndiceCheckin.Registro::getNome).toList());
+    }
+
+    @Test
+    void substituir_removeChavesAntigas() {
+        indice.substituir(registro(1, "Ana", "11111111111", "RG1", "111"));
+        indice.substituir(registro(1, "Ana", "22222222222", "RG1", "222"));
+
+        assertTrue(indice.buscar("11111111111").isEmpty());
+        assertTrue(indice.buscar("111").isEmpty());
+        assertEquals(1, indice.buscar("22222222222").size());
+        assertEquals(1, indice.buscar("RG1").size());
+
+        indice.remover(1L);
+        assertTrue(indice.buscar("RG1").isEmpty());
+        assertEquals(0, indice.tamanho());
+    }
+
+    @Test
+    void recarga_preservaAlteracoesFeitasDuranteACarga() {
+        indice.iniciarRecarga();
+        // chegam depois da leitura do banco pela recarga
+        indice.substituir(registro(1, "Ana", "33333333333", null));
+        indice.remover(2L);
+
+        indice.concluirRecarga(List.of(
+                registro(1, "Ana", "11111111111", null),
+                registro(2, "Bruno", "22222222222", null),
+                registro(3, "Carla", "44444444444", null)));
+
+        assertTrue(indice.isCarregado());
+        assertEquals(2, indice.tamanho());
+        assertTrue(indice.buscar("11111111111").isEmpty());
+        assertEquals(1, indice.buscar("33333333333").size());
+        assertTrue(indice.buscar("22222222222").isEmpty());
+        assertEquals(1, indice.buscar("44444444444").size());
+    }
+
+    @Test
+    void autocompletar_prefixoDePalavrasSemAcento() {
+        indice.substituir(registro(1, "Ana Maria da Conceição", null, null, "0001234-56.2024.8.05.0001"));
+        indice.substituir(registro(2, "Mariana Souza", null, null));
+        indice.substituir(registro(3, "João Silva", null, null));
+
+        assertEquals(List.of("Ana Maria da Conceição"), nomes(indice.autocompletar("ana conc", 10, false)));
+        // nome que começa pelo texto digitado vem antes
+        assertEquals(List.of("Mariana Souza", "Ana Maria da Conceição"), nomes(indice.autocompletar("MARI", 10, false)));
+        assertEquals(List.of("João Silva"), nomes(indice.autocompletar("joao", 10, false)));
+        assertEquals(List.of("Ana Maria da Conceição"), nomes(indice.autocompletar("00012", 10, false)));
+        // número com a pontuação de costume, completo ou pela metade
+        assertEquals(List.of("Ana Maria da Conceição"), nomes(indice.autocompletar("0001234-56.2024", 10, false)));
+        assertEquals(List.of("Ana Maria da Conceição"), nomes(indice.autocompletar("0001234-56.2024.8.05.0001", 10, false)));
+        assertTrue(indice.autocompletar("0001234-57", 10, false).isEmpty());
+        assertEquals(1, indice.autocompletar("mari", 1, false).size());
+    }
+
+    @Test
+    void autocompletar_aproximadoToleraErroDeDigitacao() {
+        indice.substituir(registro(1, "João Silveira", null, null));
+        indice.substituir(registro(2, "João Silva", null, null));
+
+        assertTrue(indice.autocompletar("slva", 10, false).isEmpty());
+        assertEquals(List.of("João Silva"), nomes(indice.autocompletar("slva", 10, true)));
+        assertEquals(List.of("João Silveira"), nomes(indice.autocompletar("silviera", 10, true)));
+        // exato antes de aproximado
+        assertEquals("João Silveira", indice.autocompletar("silve", 10, true).get(0).getNome());
+    }
+
+    @Test
+    void autocompletar_acompanhaAlteracaoERemocao() {
+        indice.substituir(registro(1, "Carlos Lima", null, null));
+        indice.substituir(registro(1, "Carlos Lins", null, null));
+        assertTrue(indice.autocompletar("lima", 10, false).isEmpty());
+        assertEquals(1, indice.autocompletar("lins", 10, false).size());
+
+        indice.remover(1L);
+        assertTrue(indice.autocompletar("carlos", 10, false).isEmpty());
+    }
+
+    private static List<String> nomes(List<IndiceCheckin.Registro> registros) {
+        return registros.stream().map(IndiceCheckin.Registro::getNome).toList();
+    }
+
+    @Test
+    void proximoComparecimento_menorEntreProcessosOuDoCadastro() {
+        IndiceCheckin.Registro r = registro(1, "Ana", null, null, "1", "2");
+        assertEquals(LocalDate.of(2026, 11, 1), IndiceCheckin.proximoComparecimento(LocalDate.of(2026, 12, 1), r.getProcessos()));
+        assertEquals(LocalDate.of(2026, 12, 1), IndiceCheckin.proximoComparecimento(LocalDate.of(2026, 12, 1), List.of()));
+    }
+}
@@ -0,0 +1,85 @@
+package br.jus.tjba.aclp.service;
+
+import br.jus.tjba.aclp.model.Custodiado;
+import br.jus.tjba.aclp.model.enums.StatusComparecimento;
+import br.jus.tjba.aclp.repository.CustodiadoRepository;
+import br.jus.tjba.aclp.repository.ProcessoRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Finalização do reprocessamento fracionado: custodiados em páginas por id (keyset),
+ * cada página continuando do último id da anterior, até a página incompleta.
+ */
+class StatusSchedulerServiceTest {
+
+    private final CustodiadoRepository custodiadoRepository = mock(CustodiadoRepository.class);
+    private final ResumoDiarioService resumoDiarioService = mock(ResumoDiarioService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final CoordenacaoJobsService coordenacaoJobsService = mock(CoordenacaoJobsService.class);
+
+    private Runnable finalizacao() {
+        StatusSchedulerService service = new StatusSchedulerService(custodiadoRepository, mock(ProcessoRepository.class),
+                resumoDiarioService, mock(HistoricoStatusService.class), eventPublisher, coordenacaoJobsService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        service.registrarJobs();
+        ArgumentCaptor<Runnable> finalizacao = ArgumentCaptor.forClass(Runnable.class);
+        verify(coordenacaoJobsService).registrarJobFracionado(eq(StatusSchedulerService.JOB_REPROCESSAMENTO),
+                any(), finalizacao.capture());
+        return finalizacao.getValue();
+    }
+
+    private List<Custodiado> pagina(long primeiroId, long ultimoId, LocalDate proximo) {
+        return LongStream.rangeClosed(primeiroId, ultimoId)
+                .mapToObj(id -> Custodiado.builder().id(id).status(StatusComparecimento.EM_CONFORMIDADE)
+                        .proximoComparecimento(proximo).build())
+                .toList();
+    }
+
+    @Test
+    void finalizacao_percorreCustodiadosPorKeysetAteAPaginaIncompleta() {
+        LocalDate ontem = LocalDate.now().minusDays(1);
+        when(custodiadoRepository.findAtivosAposId(eq(0L), any())).thenReturn(pagina(1, 500, null));
+        when(custodiadoRepository.findAtivosAposId(eq(500L), any())).thenReturn(pagina(501, 1000, null));
+        when(custodiadoRepository.findAtivosAposId(eq(1000L), any())).thenReturn(pagina(1001, 1003, ontem));
+
+        finalizacao().run();
+
+        ArgumentCaptor<Long> cursores = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Pageable> paginas = ArgumentCaptor.forClass(Pageable.class);
+        verify(custodiadoRepository, times(3)).findAtivosAposId(cursores.capture(), paginas.capture());
+        assertEquals(List.of(0L, 500L, 1000L), cursores.getAllValues());
+        assertTrue(paginas.getAllValues().stream().allMatch(p -> p.getPageNumber() == 0 && p.getPageSize() == 500),
+                "keyset: sempre a primeira página a partir do cursor, nunca OFFSET");
+
+        // só os atrasados da última página mudaram
+        ArgumentCaptor<Custodiado> salvos = ArgumentCaptor.forClass(Custodiado.class);
+        verify(custodiadoRepository, times(3)).save(salvos.capture());
+        assertEquals(List.of(1001L, 1002L, 1003L), salvos.getAllValues().stream().map(Custodiado::getId).toList());
+        assertTrue(salvos.getAllValues().stream().allMatch(c -> c.getStatus() == StatusComparecimento.INADIMPLENTE));
+        verify(resumoDiarioService).atualizarSituacaoDoDia(LocalDate.now());
+        verify(eventPublisher).publishEvent(any(DadosAlteradosEvent.class));
+    }
+
+    @Test
+    void finalizacao_semCustodiados_umaConsultaSo() {
+        when(custodiadoRepository.findAtivosAposId(anyLong(), any())).thenReturn(List.of());
+
+        finalizacao().run();
+
+        verify(custodiadoRepository).findAtivosAposId(eq(0L), any());
+        verify(custodiadoRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,23 @@
+package br.jus.tjba.aclp.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentosTest {
+
+    @Test
+    void digitos_ignoraPontuacao() {
+        assertEquals("12345678909", Documentos.digitos("123.456.789-09"));
+        assertEquals("00012345620248050001", Documentos.digitos("0001234-56.2024.8.05.0001"));
+        assertNull(Documentos.digitos("---"));
+        assertNull(Documentos.digitos(null));
+    }
+
+    @Test
+    void rg_letrasEDigitosEmMaiusculas() {
+        assertEquals("12345678X", Documentos.rg("12.345.678-x"));
+        assertEquals("MG1234567", Documentos.rg("MG-12.345.67"));
+        assertNull(Documentos.rg(" . "));
+    }
+}
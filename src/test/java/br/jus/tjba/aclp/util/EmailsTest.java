@@ -0,0 +1,20 @@
+package br.jus.tjba.aclp.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailsTest {
+
+    @Test
+    void canonico_minusculasSemEspacos() {
+        assertEquals("ana.souza@tjba.jus.br", Emails.canonico("  Ana.Souza@TJBA.jus.br "));
+        assertEquals("ana.souza@tjba.jus.br", Emails.canonico("ana.souza@tjba.jus.br"));
+    }
+
+    @Test
+    void canonico_vazioViraNull() {
+        assertNull(Emails.canonico("   "));
+        assertNull(Emails.canonico(null));
+    }
+}
@@ -0,0 +1,34 @@
+package br.jus.tjba.aclp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextoBuscaTest {
+
+    @Test
+    void dobrar_removeAcentoCaixaEPontuacao() {
+        assertEquals("joao d avila", TextoBusca.dobrar("  João D'Ávila "));
+        assertEquals("conceicao", TextoBusca.dobrar("CONCEIÇÃO"));
+        assertEquals("", TextoBusca.dobrar(" .- "));
+        assertEquals(List.of("maria", "da", "silva"), TextoBusca.tokens("Maria da  Silva"));
+    }
+
+    @Test
+    void distanciaPrefixo_contraPrefixoDoTermo() {
+        assertEquals(0, TextoBusca.distanciaPrefixo("silv", "silveira", 1));
+        assertEquals(1, TextoBusca.distanciaPrefixo("slve", "silveira", 1));   // remoção
+        assertEquals(2, TextoBusca.distanciaPrefixo("slva", "silveira", 2));
+        assertEquals(1, TextoBusca.distanciaPrefixo("silca", "silva", 1));     // troca
+        assertEquals(1, TextoBusca.distanciaPrefixo("sliva", "silva", 1)); // transposição
+        assertEquals(1, TextoBusca.distanciaPrefixo("ssilva", "silva", 1));    // inserção
+    }
+
+    @Test
+    void distanciaPrefixo_paraAcimaDoMaximo() {
+        assertEquals(2, TextoBusca.distanciaPrefixo("xyzw", "silva", 1));
+        assertEquals(3, TextoBusca.distanciaPrefixo("santos", "souza", 2));
+    }
+}